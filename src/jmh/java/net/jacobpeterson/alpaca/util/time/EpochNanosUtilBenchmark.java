@@ -0,0 +1,53 @@
+package net.jacobpeterson.alpaca.util.time;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EpochNanosUtilBenchmark} compares {@link ZonedDateTime#parse(CharSequence, DateTimeFormatter)}, which
+ * market data timestamps were previously parsed with, with {@link EpochNanosUtil#parseRFC3339(CharSequence)}.
+ * <br>
+ * Run with: <code>./gradlew jmh</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EpochNanosUtilBenchmark {
+
+    /** A timestamp in the format of Alpaca market data. */
+    public String timestamp = "2021-02-22T15:51:45.335689322Z";
+
+    /**
+     * Parses {@link #timestamp} with {@link DateTimeFormatter#ISO_DATE_TIME}.
+     *
+     * @return the {@link ZonedDateTime}
+     */
+    @Benchmark
+    public ZonedDateTime zonedDateTimeParse() {
+        return ZonedDateTime.parse(timestamp, DateTimeFormatter.ISO_DATE_TIME);
+    }
+
+    /**
+     * Parses {@link #timestamp} with {@link EpochNanosUtil#parseRFC3339(CharSequence)}.
+     *
+     * @return the epoch nanoseconds
+     */
+    @Benchmark
+    public long parseRFC3339() {
+        return EpochNanosUtil.parseRFC3339(timestamp);
+    }
+}
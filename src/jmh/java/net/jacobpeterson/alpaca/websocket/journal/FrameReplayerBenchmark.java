@@ -0,0 +1,127 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.TradeView;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link FrameReplayerBenchmark} measures the number of market data messages per second that a {@link FrameReplayer}
+ * replays {@link ReplaySpeed#AS_FAST_AS_POSSIBLE} through {@link MarketDataWebsocket}, including reading the journal
+ * and decoding.
+ * <br>
+ * Run with: <code>./gradlew jmh</code>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameReplayerBenchmark {
+
+    private static final int FRAME_COUNT = 10_000;
+    private static final int TRADES_PER_FRAME = 20;
+    private static final String TRADE_OBJECT = "{\"T\":\"t\",\"i\":96921,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55," +
+            "\"s\":100,\"t\":\"2021-02-22T15:51:44.208123456Z\",\"c\":[\"@\",\"I\"],\"z\":\"C\"}";
+
+    /** The kind of listener of the replayed trades. */
+    @Param({"flyweight", "typed"})
+    public String listenerKind;
+
+    private Path directory;
+    private MarketDataWebsocket marketDataWebsocket;
+    private long tradeCount;
+
+    /**
+     * Records {@link #FRAME_COUNT} frames of {@link #TRADES_PER_FRAME} trades and creates the {@link
+     * MarketDataWebsocket} to replay them into.
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder frameBuilder = new StringBuilder("[");
+        for (int index = 0; index < TRADES_PER_FRAME; index++) {
+            if (index > 0) {
+                frameBuilder.append(',');
+            }
+            frameBuilder.append(TRADE_OBJECT);
+        }
+        String frame = frameBuilder.append(']').toString();
+
+        directory = Files.createTempDirectory("frame-replayer-benchmark");
+        try (FrameJournal frameJournal = new FrameJournal(directory, "benchmark")) {
+            frameJournal.append("[{\"T\":\"subscription\",\"trades\":[\"AAPL\"],\"quotes\":[],\"bars\":[]}]");
+            for (int index = 0; index < FRAME_COUNT; index++) {
+                while (!frameJournal.append(frame)) {
+                    Thread.yield(); // Wait for the writer thread to catch up
+                }
+            }
+        }
+
+        marketDataWebsocket = new MarketDataWebsocket(new OkHttpClient(), DataAPIType.SIP, "key", "secret");
+        if (listenerKind.equals("flyweight")) {
+            marketDataWebsocket.addFlyweightListener(new MarketDataFlyweightListener() {
+                @Override
+                public void onTrade(TradeView tradeView) {
+                    tradeCount++;
+                }
+            });
+        } else {
+            marketDataWebsocket.addTradeListener(tradeMessage -> tradeCount++);
+        }
+    }
+
+    /**
+     * Deletes the recorded journal.
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Replays the whole journal.
+     *
+     * @return the number of trades received by the listener
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    @Benchmark
+    @OperationsPerInvocation(FRAME_COUNT * TRADES_PER_FRAME)
+    public long replay() throws Exception {
+        try (FrameJournalReader frameJournalReader = new FrameJournalReader(directory, "benchmark")) {
+            new FrameReplayer(frameJournalReader, marketDataWebsocket, ReplaySpeed.AS_FAST_AS_POSSIBLE,
+                    new ReplayClock(0)).replay();
+        }
+        return tradeCount;
+    }
+}
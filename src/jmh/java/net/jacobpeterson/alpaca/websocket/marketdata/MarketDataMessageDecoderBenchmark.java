@@ -0,0 +1,135 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+
+/**
+ * {@link MarketDataMessageDecoderBenchmark} compares the {@link JsonParser} tree decoding path that {@link
+ * MarketDataWebsocket} previously used with {@link MarketDataMessageDecoder}.
+ * <br>
+ * Run with: <code>./gradlew jmh</code> and add <code>-prof gc</code> to the JMH arguments to compare allocation
+ * rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketDataMessageDecoderBenchmark {
+
+    private static final String TRADE_OBJECT = "{\"T\":\"t\",\"i\":96921,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55," +
+            "\"s\":100,\"t\":\"2021-02-22T15:51:44.208123456Z\",\"c\":[\"@\",\"I\"],\"z\":\"C\"}";
+    private static final String QUOTE_OBJECT = "{\"T\":\"q\",\"S\":\"AMD\",\"bx\":\"U\",\"bp\":87.66,\"bs\":1," +
+            "\"ax\":\"Q\",\"ap\":87.68,\"as\":4,\"t\":\"2021-02-22T15:51:45.335689322Z\",\"c\":[\"R\"],\"z\":\"C\"}";
+    private static final String BAR_OBJECT = "{\"T\":\"b\",\"S\":\"SPY\",\"o\":388.985,\"h\":389.13," +
+            "\"l\":388.975,\"c\":389.12,\"v\":49378,\"t\":\"2021-02-22T19:15:00Z\"}";
+
+    /** The number of market data objects per frame. */
+    @Param({"1", "20"})
+    public int objectsPerFrame;
+
+    /** The kind of market data objects in a frame. */
+    @Param({"trade", "quote", "bar"})
+    public String objectKind;
+
+    private String frame;
+    private MarketDataMessageDecoder marketDataMessageDecoder;
+
+    /**
+     * Builds {@link #frame}.
+     */
+    @Setup
+    public void setup() {
+        String object;
+        switch (objectKind) {
+            case "trade":
+                object = TRADE_OBJECT;
+                break;
+            case "quote":
+                object = QUOTE_OBJECT;
+                break;
+            case "bar":
+                object = BAR_OBJECT;
+                break;
+            default:
+                throw new IllegalArgumentException(objectKind);
+        }
+
+        StringBuilder frameBuilder = new StringBuilder("[");
+        for (int index = 0; index < objectsPerFrame; index++) {
+            if (index > 0) {
+                frameBuilder.append(',');
+            }
+            frameBuilder.append(object);
+        }
+        frame = frameBuilder.append(']').toString();
+
+        marketDataMessageDecoder = new MarketDataMessageDecoder();
+    }
+
+    /**
+     * Decodes {@link #frame} the way {@link MarketDataWebsocket} did before {@link MarketDataMessageDecoder}.
+     *
+     * @param blackhole the {@link Blackhole}
+     */
+    @Benchmark
+    public void treeDecode(Blackhole blackhole) {
+        JsonArray messageArray = JsonParser.parseString(frame).getAsJsonArray();
+        for (JsonElement arrayElement : messageArray) {
+            JsonObject messageObject = arrayElement.getAsJsonObject();
+            MarketDataMessageType marketDataMessageType = GSON.fromJson(messageObject.get("T"),
+                    MarketDataMessageType.class);
+
+            MarketDataMessage marketDataMessage;
+            switch (marketDataMessageType) {
+                case TRADE:
+                    marketDataMessage = GSON.fromJson(messageObject, TradeMessage.class);
+                    break;
+                case QUOTE:
+                    marketDataMessage = GSON.fromJson(messageObject, QuoteMessage.class);
+                    break;
+                case BAR:
+                    marketDataMessage = GSON.fromJson(messageObject, BarMessage.class);
+                    break;
+                default:
+                    throw new UnsupportedOperationException();
+            }
+
+            blackhole.consume(marketDataMessage);
+        }
+    }
+
+    /**
+     * Decodes {@link #frame} with {@link MarketDataMessageDecoder}.
+     *
+     * @param blackhole the {@link Blackhole}
+     */
+    @Benchmark
+    public void streamingDecode(Blackhole blackhole) {
+        marketDataMessageDecoder.decode(frame, (messageType, message) -> blackhole.consume(message));
+    }
+}
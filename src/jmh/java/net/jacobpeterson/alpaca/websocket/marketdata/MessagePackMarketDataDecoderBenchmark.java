@@ -0,0 +1,243 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournalReader;
+import net.jacobpeterson.alpaca.websocket.journal.FrameType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MessagePackMarketDataDecoderBenchmark} compares {@link MarketDataMessageDecoder} decoding JSON frames with
+ * {@link MessagePackMarketDataDecoder} decoding the same frames encoded as MessagePack, like the data stream sends
+ * them, with timestamps as the timestamp extension type.
+ * <br>
+ * The frames are either built from sample objects, or, if {@link #journalDirectory} is set, are all text frames
+ * recorded by a {@link FrameJournal}, in which case an operation decodes all of them.
+ * <br>
+ * Run with: <code>./gradlew jmh</code> and add <code>-prof gc</code> to the JMH arguments to compare allocation
+ * rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessagePackMarketDataDecoderBenchmark {
+
+    private static final String TRADE_OBJECT = "{\"T\":\"t\",\"i\":96921,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55," +
+            "\"s\":100,\"t\":\"2021-02-22T15:51:44.208123456Z\",\"c\":[\"@\",\"I\"],\"z\":\"C\"}";
+    private static final String QUOTE_OBJECT = "{\"T\":\"q\",\"S\":\"AMD\",\"bx\":\"U\",\"bp\":87.66,\"bs\":1," +
+            "\"ax\":\"Q\",\"ap\":87.68,\"as\":4,\"t\":\"2021-02-22T15:51:45.335689322Z\",\"c\":[\"R\"],\"z\":\"C\"}";
+    private static final String BAR_OBJECT = "{\"T\":\"b\",\"S\":\"SPY\",\"o\":388.985,\"h\":389.13," +
+            "\"l\":388.975,\"c\":389.12,\"v\":49378,\"t\":\"2021-02-22T19:15:00Z\"}";
+
+    /** The number of market data objects per sample frame. */
+    @Param({"1", "20"})
+    public int objectsPerFrame;
+
+    /** The kind of market data objects in a sample frame. */
+    @Param({"trade", "quote", "bar"})
+    public String objectKind;
+
+    /** The directory of a recorded {@link FrameJournal} to use instead of sample frames, or empty. */
+    @Param({""})
+    public String journalDirectory;
+
+    /** The name of the recorded {@link FrameJournal} in {@link #journalDirectory}. */
+    @Param({"market-data"})
+    public String journalName;
+
+    private List<String> jsonFrames;
+    private List<byte[]> messagePackFrames;
+    private MarketDataMessageDecoder marketDataMessageDecoder;
+    private MessagePackMarketDataDecoder messagePackMarketDataDecoder;
+
+    /**
+     * Builds or reads {@link #jsonFrames} and encodes them into {@link #messagePackFrames}.
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    @Setup
+    public void setup() throws IOException {
+        jsonFrames = journalDirectory.isEmpty() ? createSampleFrames() : readJournalFrames();
+        messagePackFrames = new ArrayList<>(jsonFrames.size());
+        for (String jsonFrame : jsonFrames) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            writeMessagePack(JsonParser.parseString(jsonFrame), null, output);
+            messagePackFrames.add(output.toByteArray());
+        }
+
+        marketDataMessageDecoder = new MarketDataMessageDecoder();
+        messagePackMarketDataDecoder = new MessagePackMarketDataDecoder();
+    }
+
+    private List<String> createSampleFrames() {
+        String object;
+        switch (objectKind) {
+            case "trade":
+                object = TRADE_OBJECT;
+                break;
+            case "quote":
+                object = QUOTE_OBJECT;
+                break;
+            case "bar":
+                object = BAR_OBJECT;
+                break;
+            default:
+                throw new IllegalArgumentException(objectKind);
+        }
+
+        StringBuilder frameBuilder = new StringBuilder("[");
+        for (int index = 0; index < objectsPerFrame; index++) {
+            if (index > 0) {
+                frameBuilder.append(',');
+            }
+            frameBuilder.append(object);
+        }
+        List<String> frames = new ArrayList<>();
+        frames.add(frameBuilder.append(']').toString());
+        return frames;
+    }
+
+    private List<String> readJournalFrames() throws IOException {
+        List<String> frames = new ArrayList<>();
+        try (FrameJournalReader frameJournalReader = new FrameJournalReader(Paths.get(journalDirectory),
+                journalName)) {
+            while (frameJournalReader.next()) {
+                if (frameJournalReader.getFrameType() == FrameType.TEXT) {
+                    frames.add(frameJournalReader.getPayloadUTF8());
+                }
+            }
+        }
+        if (frames.isEmpty()) {
+            throw new IllegalStateException("No text frames recorded in " + journalDirectory + "!");
+        }
+        return frames;
+    }
+
+    /**
+     * Writes <code>jsonElement</code> as MessagePack. A <code>"t"</code> string is written as a 64-bit timestamp
+     * extension, like the data stream does.
+     */
+    private static void writeMessagePack(JsonElement jsonElement, String key, ByteArrayOutputStream output) {
+        if (jsonElement.isJsonNull()) {
+            output.write(0xc0);
+        } else if (jsonElement.isJsonArray()) {
+            JsonArray jsonArray = jsonElement.getAsJsonArray();
+            writeHeader(output, jsonArray.size(), 0x90, 0xdc);
+            for (JsonElement arrayElement : jsonArray) {
+                writeMessagePack(arrayElement, null, output);
+            }
+        } else if (jsonElement.isJsonObject()) {
+            JsonObject jsonObject = jsonElement.getAsJsonObject();
+            writeHeader(output, jsonObject.size(), 0x80, 0xde);
+            for (Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+                writeString(output, entry.getKey());
+                writeMessagePack(entry.getValue(), entry.getKey(), output);
+            }
+        } else {
+            JsonPrimitive jsonPrimitive = jsonElement.getAsJsonPrimitive();
+            if (jsonPrimitive.isBoolean()) {
+                output.write(jsonPrimitive.getAsBoolean() ? 0xc3 : 0xc2);
+            } else if (jsonPrimitive.isNumber()) {
+                String number = jsonPrimitive.getAsString();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    output.write(0xd3);
+                    writeLong(output, jsonPrimitive.getAsLong());
+                } else {
+                    output.write(0xcb);
+                    writeLong(output, Double.doubleToLongBits(jsonPrimitive.getAsDouble()));
+                }
+            } else if ("t".equals(key)) {
+                long epochNanos = EpochNanosUtil.parseRFC3339(jsonPrimitive.getAsString());
+                long seconds = Math.floorDiv(epochNanos, 1_000_000_000L);
+                long nanos = Math.floorMod(epochNanos, 1_000_000_000L);
+                output.write(0xd7);
+                output.write(0xff);
+                writeLong(output, nanos << 34 | seconds);
+            } else {
+                writeString(output, jsonPrimitive.getAsString());
+            }
+        }
+    }
+
+    private static void writeHeader(ByteArrayOutputStream output, int size, int fixFormat, int format16) {
+        if (size < 16) {
+            output.write(fixFormat | size);
+        } else {
+            output.write(format16);
+            output.write(size >>> 8);
+            output.write(size);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream output, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < 32) {
+            output.write(0xa0 | bytes.length);
+        } else {
+            output.write(0xda);
+            output.write(bytes.length >>> 8);
+            output.write(bytes.length);
+        }
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeLong(ByteArrayOutputStream output, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            output.write((int) (value >>> shift));
+        }
+    }
+
+    /**
+     * Decodes {@link #jsonFrames} with {@link MarketDataMessageDecoder}.
+     *
+     * @param blackhole the {@link Blackhole}
+     */
+    @Benchmark
+    public void jsonDecode(Blackhole blackhole) {
+        for (int index = 0; index < jsonFrames.size(); index++) {
+            marketDataMessageDecoder.decode(jsonFrames.get(index), (messageType, message) ->
+                    blackhole.consume(message));
+        }
+    }
+
+    /**
+     * Decodes {@link #messagePackFrames} with {@link MessagePackMarketDataDecoder}.
+     *
+     * @param blackhole the {@link Blackhole}
+     */
+    @Benchmark
+    public void messagePackDecode(Blackhole blackhole) {
+        for (int index = 0; index < messagePackFrames.size(); index++) {
+            messagePackMarketDataDecoder.decode(messagePackFrames.get(index), (messageType, message) ->
+                    blackhole.consume(message));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package net.jacobpeterson.alpaca.websocket.streaming;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.TradeUpdateMessage;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+
+/**
+ * {@link StreamingMessageDecoderBenchmark} compares the {@link JsonParser} tree decoding path that {@link
+ * StreamingWebsocket} previously used with {@link StreamingMessageDecoder} on a trade update frame.
+ * <br>
+ * Run with: <code>./gradlew jmh</code> and add <code>-prof gc</code> to the JMH arguments to compare allocation
+ * rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingMessageDecoderBenchmark {
+
+    private static final String TRADE_UPDATE_FRAME = "{\"stream\":\"trade_updates\",\"data\":{\"event\":\"fill\"," +
+            "\"price\":\"179.08\",\"timestamp\":\"2021-02-22T15:51:44.208123456-05:00\",\"position_qty\":\"100\"," +
+            "\"order\":{\"id\":\"7b7653c4-7468-494a-aeb3-d5f255789473\"," +
+            "\"client_order_id\":\"7a31ee97-a7b5-4c1b-9b8f-0e6e2d1b4d3e\"," +
+            "\"created_at\":\"2021-02-22T15:51:44.100Z\"," +
+            "\"updated_at\":\"2021-02-22T20:51:44.208Z\",\"submitted_at\":\"2021-02-22T15:51:44.100Z\"," +
+            "\"filled_at\":\"2021-02-22T20:51:44.208123456Z\",\"expired_at\":null,\"canceled_at\":null," +
+            "\"failed_at\":null,\"replaced_at\":null,\"replaced_by\":null,\"replaces\":null," +
+            "\"asset_id\":\"b0b6dd9d-8b9b-48a9-ba46-b9d54906e415\",\"symbol\":\"AAPL\",\"asset_class\":\"us_equity\"," +
+            "\"qty\":\"100\",\"filled_qty\":\"100\",\"filled_avg_price\":\"179.08\",\"order_class\":\"\"," +
+            "\"order_type\":\"market\",\"type\":\"market\",\"side\":\"buy\",\"time_in_force\":\"day\"," +
+            "\"limit_price\":null,\"stop_price\":null,\"status\":\"filled\",\"extended_hours\":false,\"legs\":null," +
+            "\"trail_percent\":null,\"trail_price\":null,\"hwm\":null}}}";
+
+    private ByteString frame;
+    private StreamingMessageDecoder streamingMessageDecoder;
+
+    /**
+     * Builds {@link #frame}.
+     */
+    @Setup
+    public void setup() {
+        frame = ByteString.encodeUtf8(TRADE_UPDATE_FRAME);
+        streamingMessageDecoder = new StreamingMessageDecoder();
+    }
+
+    /**
+     * Decodes {@link #frame} the way {@link StreamingWebsocket} did before {@link StreamingMessageDecoder}.
+     *
+     * @return the {@link TradeUpdateMessage}
+     */
+    @Benchmark
+    public TradeUpdateMessage treeDecode() {
+        JsonObject messageObject = JsonParser.parseString(frame.utf8()).getAsJsonObject();
+        return GSON.fromJson(messageObject, TradeUpdateMessage.class);
+    }
+
+    /**
+     * Decodes {@link #frame} with {@link StreamingMessageDecoder}.
+     *
+     * @return the {@link TradeUpdateMessage}
+     */
+    @Benchmark
+    public TradeUpdateMessage streamingDecode() {
+        return (TradeUpdateMessage) streamingMessageDecoder.decode(frame);
+    }
+}
@@ -0,0 +1,112 @@
+package net.jacobpeterson.alpaca.model.endpoint.marketdata.historical;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import net.jacobpeterson.alpaca.util.gson.EpochNanosAdapter;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * {@link TimestampedMarketData} is the hand-written base of the generated historical trade, quote, and bar models. It
+ * holds the <code>"t"</code> timestamp as a <code>long</code> of epoch nanoseconds and only creates a {@link
+ * ZonedDateTime} when {@link #getT()} is first called.
+ * <br>
+ * See <a href="https://alpaca.markets/docs/api-documentation/api-v2/market-data/alpaca-data-api-v2/historical/">Historical
+ * Data</a>.
+ */
+public class TimestampedMarketData implements Serializable {
+
+    private static final long serialVersionUID = -2265960180468151478L;
+
+    /**
+     * Timestamp with nanosecond precision as epoch nanoseconds.
+     */
+    @SerializedName("t")
+    @Expose
+    @JsonAdapter(EpochNanosAdapter.class)
+    private long timestampEpochNanos = EpochNanosUtil.NO_EPOCH_NANOS;
+
+    private transient ZonedDateTime t;
+
+    /**
+     * Instantiates a new {@link TimestampedMarketData}.
+     */
+    public TimestampedMarketData() {}
+
+    /**
+     * Instantiates a new {@link TimestampedMarketData}.
+     *
+     * @param source the source {@link TimestampedMarketData} to copy
+     */
+    public TimestampedMarketData(TimestampedMarketData source) {
+        timestampEpochNanos = source.timestampEpochNanos;
+        t = source.t;
+    }
+
+    /**
+     * Timestamp with nanosecond precision as epoch nanoseconds. This doesn't allocate.
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public long getTimestampEpochNanos() {
+        return timestampEpochNanos;
+    }
+
+    /**
+     * Timestamp with nanosecond precision as epoch nanoseconds.
+     *
+     * @param timestampEpochNanos the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public void setTimestampEpochNanos(long timestampEpochNanos) {
+        this.timestampEpochNanos = timestampEpochNanos;
+        t = null;
+    }
+
+    /**
+     * Timestamp with nanosecond precision. The {@link ZonedDateTime} is created from {@link
+     * #getTimestampEpochNanos()} in UTC on the first call.
+     *
+     * @return the {@link ZonedDateTime} or <code>null</code>
+     */
+    public ZonedDateTime getT() {
+        if (t == null) {
+            t = EpochNanosUtil.toZonedDateTime(timestampEpochNanos);
+        }
+        return t;
+    }
+
+    /**
+     * Timestamp with nanosecond precision.
+     *
+     * @param t the {@link ZonedDateTime} or <code>null</code>
+     */
+    public void setT(ZonedDateTime t) {
+        timestampEpochNanos = EpochNanosUtil.fromZonedDateTime(t);
+        this.t = t;
+    }
+
+    @Override
+    public String toString() {
+        return TimestampedMarketData.class.getName() + '@' + Integer.toHexString(System.identityHashCode(this)) +
+                "[t=" + getT() + ']';
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(timestampEpochNanos);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof TimestampedMarketData)) {
+            return false;
+        }
+        return timestampEpochNanos == ((TimestampedMarketData) other).timestampEpochNanos;
+    }
+}
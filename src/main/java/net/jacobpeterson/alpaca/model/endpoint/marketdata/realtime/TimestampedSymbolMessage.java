@@ -0,0 +1,186 @@
+package net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime;
+
+import com.google.gson.annotations.Expose;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
+import net.jacobpeterson.alpaca.util.gson.EpochNanosAdapter;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import java.time.ZonedDateTime;
+
+/**
+ * {@link TimestampedSymbolMessage} is the hand-written base of the generated trade, quote, and bar {@link
+ * SymbolMessage}s. It holds the <code>"t"</code> timestamp as a <code>long</code> of epoch nanoseconds and only
+ * creates a {@link ZonedDateTime} when {@link #getTimestamp()} is first called. It also carries the ID of the symbol
+ * in {@link SymbolTable#GLOBAL}.
+ * <br>
+ * See <a href="https://alpaca.markets/docs/api-documentation/api-v2/market-data/alpaca-data-api-v2/real-time/">Real-time
+ * Data</a>.
+ */
+public class TimestampedSymbolMessage extends SymbolMessage {
+
+    private static final long serialVersionUID = 4613218034728516307L;
+
+    /**
+     * Timestamp with nanosecond precision as epoch nanoseconds.
+     */
+    @SerializedName("t")
+    @Expose
+    @JsonAdapter(EpochNanosAdapter.class)
+    private long timestampEpochNanos = EpochNanosUtil.NO_EPOCH_NANOS;
+
+    private transient ZonedDateTime timestamp;
+    private transient int symbolID = SymbolTable.NO_ID;
+    private transient boolean replayed;
+
+    /**
+     * Instantiates a new {@link TimestampedSymbolMessage}.
+     */
+    public TimestampedSymbolMessage() {}
+
+    /**
+     * Instantiates a new {@link TimestampedSymbolMessage}.
+     *
+     * @param source the source {@link TimestampedSymbolMessage} to copy
+     */
+    public TimestampedSymbolMessage(TimestampedSymbolMessage source) {
+        super(source);
+        timestampEpochNanos = source.timestampEpochNanos;
+        timestamp = source.timestamp;
+        symbolID = source.symbolID;
+        replayed = source.replayed;
+    }
+
+    /**
+     * Gets the ID of {@link #getSymbol()} in {@link SymbolTable#GLOBAL}, interning the symbol on the first call if
+     * this message wasn't decoded with its ID.
+     *
+     * @return the symbol ID or {@link SymbolTable#NO_ID} if there is no symbol
+     */
+    public int getSymbolID() {
+        if (symbolID == SymbolTable.NO_ID) {
+            String symbol = getSymbol();
+            if (symbol != null) {
+                symbolID = SymbolTable.GLOBAL.intern(symbol);
+            }
+        }
+        return symbolID;
+    }
+
+    /**
+     * Sets the symbol ID and sets the symbol to the interned symbol {@link String} of <code>symbolID</code> in {@link
+     * SymbolTable#GLOBAL}.
+     *
+     * @param symbolID the symbol ID or {@link SymbolTable#NO_ID}
+     */
+    public void setSymbolID(int symbolID) {
+        super.setSymbol(symbolID == SymbolTable.NO_ID ? null : SymbolTable.GLOBAL.symbol(symbolID));
+        this.symbolID = symbolID;
+    }
+
+    @Override
+    public void setSymbol(String symbol) {
+        super.setSymbol(symbol);
+        symbolID = SymbolTable.NO_ID;
+    }
+
+    /**
+     * Returns true if this message wasn't received live, but recovered afterwards, such as by a backfill of the
+     * messages missed while reconnecting.
+     *
+     * @return a boolean
+     */
+    public boolean isReplayed() {
+        return replayed;
+    }
+
+    /**
+     * Sets whether this message wasn't received live.
+     *
+     * @param replayed true if this message was recovered afterwards
+     */
+    public void setReplayed(boolean replayed) {
+        this.replayed = replayed;
+    }
+
+    /**
+     * Timestamp with nanosecond precision as epoch nanoseconds. This doesn't allocate.
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public long getTimestampEpochNanos() {
+        return timestampEpochNanos;
+    }
+
+    /**
+     * Timestamp with nanosecond precision as epoch nanoseconds.
+     *
+     * @param timestampEpochNanos the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public void setTimestampEpochNanos(long timestampEpochNanos) {
+        this.timestampEpochNanos = timestampEpochNanos;
+        timestamp = null;
+    }
+
+    /**
+     * Timestamp with nanosecond precision. The {@link ZonedDateTime} is created from {@link
+     * #getTimestampEpochNanos()} in UTC on the first call.
+     *
+     * @return the {@link ZonedDateTime} or <code>null</code>
+     */
+    public ZonedDateTime getTimestamp() {
+        if (timestamp == null) {
+            timestamp = EpochNanosUtil.toZonedDateTime(timestampEpochNanos);
+        }
+        return timestamp;
+    }
+
+    /**
+     * Timestamp with nanosecond precision.
+     *
+     * @param timestamp the {@link ZonedDateTime} or <code>null</code>
+     */
+    public void setTimestamp(ZonedDateTime timestamp) {
+        timestampEpochNanos = EpochNanosUtil.fromZonedDateTime(timestamp);
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(TimestampedSymbolMessage.class.getName()).append('@')
+                .append(Integer.toHexString(System.identityHashCode(this))).append('[');
+        String superString = super.toString();
+        if (superString != null) {
+            int contentStart = superString.indexOf('[');
+            int contentEnd = superString.lastIndexOf(']');
+            if (contentStart >= 0 && contentEnd > contentStart) {
+                if (contentEnd - contentStart > 1) {
+                    sb.append(superString, contentStart + 1, contentEnd).append(',');
+                }
+            } else {
+                sb.append(superString).append(',');
+            }
+        }
+        sb.append("timestamp").append('=').append(getTimestamp()).append(']');
+        return sb.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Long.hashCode(timestampEpochNanos);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) {
+            return true;
+        }
+        if (!(other instanceof TimestampedSymbolMessage)) {
+            return false;
+        }
+        TimestampedSymbolMessage rhs = (TimestampedSymbolMessage) other;
+        return super.equals(rhs) && timestampEpochNanos == rhs.timestampEpochNanos;
+    }
+}
@@ -5,11 +5,13 @@ import net.jacobpeterson.alpaca.model.endpoint.asset.Asset;
 import net.jacobpeterson.alpaca.model.endpoint.asset.enums.AssetStatus;
 import net.jacobpeterson.alpaca.rest.AlpacaClient;
 import net.jacobpeterson.alpaca.rest.AlpacaClientException;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -29,6 +31,8 @@ public class AssetsEndpoint extends AlpacaEndpoint {
 
     /**
      * Get a list of {@link Asset}s.
+     * <br>
+     * Note that this interns the symbols of the returned {@link Asset}s in {@link SymbolTable#GLOBAL}.
      *
      * @param assetStatus the {@link AssetStatus}. By default, all {@link AssetStatus}es are included.
      * @param assetClass  the asset class. Defaults to "us_equity".
@@ -52,7 +56,11 @@ public class AssetsEndpoint extends AlpacaEndpoint {
         Request request = alpacaClient.requestBuilder(urlBuilder.build())
                 .get()
                 .build();
-        return alpacaClient.requestObject(request, new TypeToken<ArrayList<Asset>>() {}.getType());
+        List<Asset> assets = alpacaClient.requestObject(request, new TypeToken<ArrayList<Asset>>() {}.getType());
+        if (assets != null) {
+            SymbolTable.GLOBAL.internAll(assets.stream().map(Asset::getSymbol).collect(Collectors.toList()));
+        }
+        return assets;
     }
 
     /**
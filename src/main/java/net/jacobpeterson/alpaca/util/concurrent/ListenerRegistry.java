@@ -0,0 +1,135 @@
+package net.jacobpeterson.alpaca.util.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link ListenerRegistry} is a lock-free, copy-on-write registry of listeners. Every {@link #add(Object)} or {@link
+ * #remove(Object)} atomically swaps in a new immutable array, so dispatching is a plain loop over {@link #snapshot()}
+ * without any locking, and listeners can be added or removed from any thread while messages are being dispatched.
+ * <br>
+ * A dispatch that is already looping over a snapshot won't see a concurrent change, but the next dispatch will.
+ *
+ * @param <L> the listener type parameter
+ */
+public class ListenerRegistry<L> {
+
+    private final IntFunction<L[]> arrayFactory;
+    private final L[] emptySnapshot;
+    private final AtomicReference<L[]> snapshot;
+
+    /**
+     * Instantiates a new {@link ListenerRegistry}.
+     *
+     * @param arrayFactory an {@link IntFunction} that creates a listener array of the given size (e.g.
+     *                     <code>MyListener[]::new</code>)
+     */
+    public ListenerRegistry(IntFunction<L[]> arrayFactory) {
+        this.arrayFactory = checkNotNull(arrayFactory);
+
+        emptySnapshot = arrayFactory.apply(0);
+        snapshot = new AtomicReference<>(emptySnapshot);
+    }
+
+    /**
+     * Gets the current listeners. The returned array must not be modified.
+     *
+     * @return the listener array snapshot
+     */
+    public L[] snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Adds a listener.
+     *
+     * @param listener the listener
+     */
+    public void add(L listener) {
+        checkNotNull(listener);
+
+        L[] current;
+        L[] updated;
+        do {
+            current = snapshot.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = listener;
+        } while (!snapshot.compareAndSet(current, updated));
+    }
+
+    /**
+     * Removes the first occurrence of a listener.
+     *
+     * @param listener the listener
+     *
+     * @return true if the listener was removed
+     */
+    public boolean remove(L listener) {
+        L[] current;
+        L[] updated;
+        do {
+            current = snapshot.get();
+            int index = indexOf(current, listener);
+            if (index == -1) {
+                return false;
+            }
+
+            if (current.length == 1) {
+                updated = emptySnapshot;
+            } else {
+                updated = arrayFactory.apply(current.length - 1);
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            }
+        } while (!snapshot.compareAndSet(current, updated));
+        return true;
+    }
+
+    /**
+     * Returns true if the given listener is registered.
+     *
+     * @param listener the listener
+     *
+     * @return a boolean
+     */
+    public boolean contains(L listener) {
+        return indexOf(snapshot.get(), listener) != -1;
+    }
+
+    /**
+     * Gets the number of listeners.
+     *
+     * @return the number of listeners
+     */
+    public int size() {
+        return snapshot.get().length;
+    }
+
+    /**
+     * Returns true if there are no listeners.
+     *
+     * @return a boolean
+     */
+    public boolean isEmpty() {
+        return snapshot.get().length == 0;
+    }
+
+    /**
+     * Removes all listeners.
+     */
+    public void clear() {
+        snapshot.set(emptySnapshot);
+    }
+
+    private static int indexOf(Object[] listeners, Object listener) {
+        for (int index = 0; index < listeners.length; index++) {
+            if (listeners[index].equals(listener)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
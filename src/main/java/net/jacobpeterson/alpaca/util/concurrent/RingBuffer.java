@@ -0,0 +1,209 @@
+package net.jacobpeterson.alpaca.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link RingBuffer} is a bounded, pre-allocated, single-producer multi-consumer queue of mutable entries. Every entry
+ * is created once up front and reused, so passing an event through this buffer doesn't allocate.
+ * <br>
+ * The producer fills the entry returned by {@link #claim()} and then calls {@link #publish()}. Consumers take entries
+ * with {@link #poll(Consumer)}, which hands each entry to exactly one consumer. Each slot carries a sequence number
+ * that tells whether it is free for the producer or published for a consumer, so neither side takes a lock.
+ * <br>
+ * Only one thread at a time may produce. With more than one consumer, entries are handed out in order but may finish
+ * being handled out of order.
+ *
+ * @param <E> the entry type parameter
+ */
+public class RingBuffer<E> {
+
+    private final E[] entries;
+    private final long[] publishNanos;
+    private final AtomicLongArray slotSequences;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final AtomicLong consumerSequence;
+
+    // Only written by the producer
+    private volatile long producerSequence;
+    private volatile long maxDepth;
+    private volatile long producerWaitCount;
+
+    /**
+     * Instantiates a new {@link RingBuffer}.
+     *
+     * @param capacity     the number of entries, which must be a power of two
+     * @param entryFactory a {@link Supplier} that creates each entry
+     * @param waitStrategy the {@link WaitStrategy} used by {@link #claim()} when this buffer is full and by consumers
+     *                     when it is empty
+     */
+    @SuppressWarnings("unchecked")
+    public RingBuffer(int capacity, Supplier<E> entryFactory, WaitStrategy waitStrategy) {
+        checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "'capacity' must be a power of two!");
+        checkNotNull(entryFactory);
+        this.waitStrategy = checkNotNull(waitStrategy);
+
+        entries = (E[]) new Object[capacity];
+        publishNanos = new long[capacity];
+        slotSequences = new AtomicLongArray(capacity);
+        for (int slot = 0; slot < capacity; slot++) {
+            entries[slot] = entryFactory.get();
+            slotSequences.set(slot, slot);
+        }
+        mask = capacity - 1;
+        consumerSequence = new AtomicLong();
+    }
+
+    /**
+     * Gets the next free entry for the producer to fill, waiting with the {@link WaitStrategy} while this buffer is
+     * full. The entry must be passed on with {@link #publish()} before the next claim.
+     *
+     * @return the entry
+     */
+    public E claim() {
+        E entry = tryClaim();
+        if (entry == null) {
+            producerWaitCount++;
+            do {
+                waitStrategy.idle();
+            } while ((entry = tryClaim()) == null);
+        }
+        return entry;
+    }
+
+    /**
+     * Gets the next free entry for the producer to fill without waiting.
+     *
+     * @return the entry or <code>null</code> if this buffer is full
+     *
+     * @see #claim()
+     */
+    public E tryClaim() {
+        long sequence = producerSequence;
+        int slot = (int) sequence & mask;
+        return slotSequences.get(slot) == sequence ? entries[slot] : null;
+    }
+
+    /**
+     * Publishes the entry returned by the last {@link #claim()} or {@link #tryClaim()} to the consumers.
+     */
+    public void publish() {
+        long sequence = producerSequence;
+        int slot = (int) sequence & mask;
+        publishNanos[slot] = System.nanoTime();
+        slotSequences.lazySet(slot, sequence + 1);
+        producerSequence = sequence + 1;
+
+        long depth = sequence + 1 - consumerSequence.get();
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    /**
+     * Takes the next published entry, if any, and calls <code>entryHandler</code> with it. The entry is given back to
+     * the producer once <code>entryHandler</code> returns, so it must not be kept.
+     *
+     * @param entryHandler the entry handler {@link Consumer}
+     *
+     * @return true if an entry was handled, false if this buffer was empty
+     */
+    public boolean poll(Consumer<? super E> entryHandler) {
+        while (true) {
+            long sequence = consumerSequence.get();
+            int slot = (int) sequence & mask;
+            long slotSequence = slotSequences.get(slot);
+
+            if (slotSequence == sequence + 1) {
+                if (consumerSequence.compareAndSet(sequence, sequence + 1)) {
+                    try {
+                        entryHandler.accept(entries[slot]);
+                    } finally {
+                        slotSequences.lazySet(slot, sequence + entries.length);
+                    }
+                    return true;
+                }
+            } else if (slotSequence <= sequence) {
+                return false;
+            }
+            // Otherwise another consumer took this entry, so try the next one
+        }
+    }
+
+    /**
+     * Gets the {@link WaitStrategy}.
+     *
+     * @return the {@link WaitStrategy}
+     */
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return entries.length;
+    }
+
+    /**
+     * Gets the number of published entries that no consumer has taken yet.
+     *
+     * @return the queue depth
+     */
+    public long getDepth() {
+        return Math.max(0, producerSequence - consumerSequence.get());
+    }
+
+    /**
+     * Gets the highest queue depth seen right after a {@link #publish()}.
+     *
+     * @return the maximum queue depth
+     */
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Gets how long the oldest entry that no consumer has taken yet has been waiting, which is how far the consumers
+     * are behind the producer.
+     *
+     * @return the lag in nanoseconds or <code>0</code> if this buffer is empty
+     */
+    public long getLagNanos() {
+        long sequence = consumerSequence.get();
+        int slot = (int) sequence & mask;
+        if (slotSequences.get(slot) != sequence + 1) {
+            return 0;
+        }
+
+        // This may race with the slot being taken and reused, which only makes this metric momentarily inaccurate
+        return Math.max(0, System.nanoTime() - publishNanos[slot]);
+    }
+
+    /**
+     * Gets the total number of published entries.
+     *
+     * @return the published count
+     */
+    public long getPublishedCount() {
+        return producerSequence;
+    }
+
+    /**
+     * Gets the number of times {@link #claim()} found this buffer full and had to wait for a consumer.
+     *
+     * @return the producer wait count
+     */
+    public long getProducerWaitCount() {
+        return producerWaitCount;
+    }
+}
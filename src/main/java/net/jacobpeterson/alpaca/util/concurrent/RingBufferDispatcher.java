@@ -0,0 +1,117 @@
+package net.jacobpeterson.alpaca.util.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * {@link RingBufferDispatcher} runs consumer threads that drain a {@link RingBuffer} and call an entry handler with
+ * each entry. Idle consumers wait with the {@link WaitStrategy} of the {@link RingBuffer}.
+ * <br>
+ * An exception thrown by the entry handler is logged and doesn't stop the consumer thread.
+ *
+ * @param <E> the entry type parameter
+ */
+public class RingBufferDispatcher<E> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RingBufferDispatcher.class);
+
+    private final RingBuffer<E> ringBuffer;
+    private final Consumer<? super E> entryHandler;
+    private final Thread[] consumerThreads;
+
+    private volatile boolean running;
+
+    /**
+     * Instantiates a new {@link RingBufferDispatcher}.
+     *
+     * @param ringBuffer          the {@link RingBuffer} to drain
+     * @param entryHandler        the entry handler {@link Consumer}
+     * @param consumerThreadCount the number of consumer threads
+     * @param threadName          the name prefix of the consumer threads
+     */
+    public RingBufferDispatcher(RingBuffer<E> ringBuffer, Consumer<? super E> entryHandler, int consumerThreadCount,
+            String threadName) {
+        checkArgument(consumerThreadCount > 0, "'consumerThreadCount' must be positive!");
+        checkNotNull(threadName);
+
+        this.ringBuffer = checkNotNull(ringBuffer);
+        this.entryHandler = checkNotNull(entryHandler);
+
+        consumerThreads = new Thread[consumerThreadCount];
+        for (int index = 0; index < consumerThreadCount; index++) {
+            consumerThreads[index] = new Thread(this::consume, threadName + "-" + index);
+            consumerThreads[index].setDaemon(true);
+        }
+    }
+
+    /**
+     * Starts the consumer threads.
+     */
+    public void start() {
+        checkState(!running, "Already started!");
+
+        running = true;
+        for (Thread consumerThread : consumerThreads) {
+            consumerThread.start();
+        }
+    }
+
+    /**
+     * Stops the consumer threads after they have drained the entries that are already published and waits for them to
+     * finish.
+     *
+     * @throws InterruptedException thrown if interrupted while waiting
+     */
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread consumerThread : consumerThreads) {
+            if (consumerThread != Thread.currentThread()) {
+                consumerThread.join();
+            }
+        }
+    }
+
+    /**
+     * Returns true if the consumer threads are running.
+     *
+     * @return a boolean
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Gets the {@link RingBuffer}.
+     *
+     * @return the {@link RingBuffer}
+     */
+    public RingBuffer<E> getRingBuffer() {
+        return ringBuffer;
+    }
+
+    private void consume() {
+        WaitStrategy waitStrategy = ringBuffer.getWaitStrategy();
+        while (true) {
+            boolean handled;
+            try {
+                handled = ringBuffer.poll(entryHandler);
+            } catch (Exception exception) {
+                LOGGER.error("Ring buffer entry handler error!", exception);
+                continue;
+            }
+
+            if (!handled) {
+                if (!running) {
+                    return;
+                }
+                waitStrategy.idle();
+            }
+        }
+    }
+}
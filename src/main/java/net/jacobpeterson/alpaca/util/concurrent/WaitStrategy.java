@@ -0,0 +1,49 @@
+package net.jacobpeterson.alpaca.util.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link WaitStrategy} defines how a thread waits on a {@link RingBuffer} that is empty (for a consumer) or full (for
+ * the producer). The strategies trade CPU usage for wake-up latency.
+ */
+public enum WaitStrategy {
+
+    /**
+     * Spins in a tight loop. This has the lowest latency, but keeps a core fully busy per waiting thread, so it should
+     * only be used with dedicated cores.
+     */
+    BUSY_SPIN {
+        @Override
+        public void idle() {}
+    },
+
+    /**
+     * Calls {@link Thread#yield()} to let other threads run. This has low latency without starving other threads, but
+     * still uses a core while waiting.
+     */
+    YIELD {
+        @Override
+        public void idle() {
+            Thread.yield();
+        }
+    },
+
+    /**
+     * Calls {@link LockSupport#parkNanos(long)} for {@link #PARK_NANOS}. This uses almost no CPU while waiting at the
+     * cost of tens of microseconds of wake-up latency.
+     */
+    PARK {
+        @Override
+        public void idle() {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    /** The number of nanoseconds that {@link #PARK} parks for per {@link #idle()} call. */
+    public static final long PARK_NANOS = 10_000;
+
+    /**
+     * Waits once before the waiting thread checks the {@link RingBuffer} again.
+     */
+    public abstract void idle();
+}
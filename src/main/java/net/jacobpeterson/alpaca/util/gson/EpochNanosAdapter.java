@@ -0,0 +1,47 @@
+package net.jacobpeterson.alpaca.util.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * {@link EpochNanosAdapter} is a {@link Gson} adapter for RFC 3339 timestamp strings held as a <code>long</code> of
+ * epoch nanoseconds. Use it with {@link JsonAdapter} on a <code>long</code> field.
+ *
+ * @see EpochNanosUtil
+ */
+public class EpochNanosAdapter extends TypeAdapter<Long> {
+
+    @Override
+    public void write(JsonWriter out, Long value) throws IOException {
+        if (value == null || value == EpochNanosUtil.NO_EPOCH_NANOS) {
+            out.nullValue();
+        } else {
+            out.value(EpochNanosUtil.toZonedDateTime(value).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        }
+    }
+
+    @Override
+    public Long read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String timestamp = in.nextString();
+        try {
+            return EpochNanosUtil.parseRFC3339(timestamp);
+        } catch (DateTimeParseException | ArithmeticException exception) {
+            throw new JsonParseException("Could not parse timestamp: " + timestamp, exception);
+        }
+    }
+}
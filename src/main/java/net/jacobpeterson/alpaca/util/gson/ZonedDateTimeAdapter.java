@@ -1,10 +1,12 @@
 package net.jacobpeterson.alpaca.util.gson;
 
 import com.google.gson.*;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
 
 import java.lang.reflect.Type;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * {@link ZonedDateTimeAdapter} is a {@link Gson} adapter for {@link ZonedDateTime}s.
@@ -19,6 +21,14 @@ public class ZonedDateTimeAdapter implements JsonSerializer<ZonedDateTime>, Json
     @Override
     public ZonedDateTime deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
             throws JsonParseException {
-        return ZonedDateTime.parse(json.getAsJsonPrimitive().getAsString(), DateTimeFormatter.ISO_DATE_TIME);
+        String timestamp = json.getAsJsonPrimitive().getAsString();
+
+        // Alpaca's UTC timestamps (e.g. all market data timestamps) don't need the much slower 'DateTimeFormatter'
+        if (timestamp.endsWith("Z")) {
+            try {
+                return EpochNanosUtil.toZonedDateTime(EpochNanosUtil.parseRFC3339(timestamp));
+            } catch (DateTimeParseException | ArithmeticException ignored) {} // Fall back to 'DateTimeFormatter'
+        }
+        return ZonedDateTime.parse(timestamp, DateTimeFormatter.ISO_DATE_TIME);
     }
 }
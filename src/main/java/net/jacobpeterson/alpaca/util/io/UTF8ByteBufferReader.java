@@ -0,0 +1,144 @@
+package net.jacobpeterson.alpaca.util.io;
+
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+/**
+ * {@link UTF8ByteBufferReader} is a {@link Reader} that decodes the remaining UTF-8 bytes of a {@link ByteBuffer}
+ * directly into the caller's <code>char</code> array, so a binary frame can be parsed without first being copied into
+ * a {@link String}. Malformed sequences are decoded as {@link #REPLACEMENT_CHARACTER}, like {@link String} does.
+ * <br>
+ * A {@link UTF8ByteBufferReader} can be {@link #reset(ByteBuffer)} to read another {@link ByteBuffer}, and neither
+ * changes the position of the {@link ByteBuffer}. Note that this class is not thread-safe.
+ */
+public class UTF8ByteBufferReader extends Reader {
+
+    /** The character that malformed UTF-8 sequences are decoded as. */
+    public static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    private ByteBuffer byteBuffer;
+    private int position;
+    private int limit;
+    private char pendingLowSurrogate;
+
+    /**
+     * Instantiates a new {@link UTF8ByteBufferReader} without a {@link ByteBuffer}.
+     */
+    public UTF8ByteBufferReader() {
+        limit = -1;
+    }
+
+    /**
+     * Instantiates a new {@link UTF8ByteBufferReader}.
+     *
+     * @param byteBuffer the {@link ByteBuffer} to read the remaining bytes of
+     */
+    public UTF8ByteBufferReader(ByteBuffer byteBuffer) {
+        reset(byteBuffer);
+    }
+
+    /**
+     * Resets this {@link UTF8ByteBufferReader} to read the remaining bytes of <code>byteBuffer</code>.
+     *
+     * @param byteBuffer the {@link ByteBuffer}
+     */
+    public void reset(ByteBuffer byteBuffer) {
+        checkNotNull(byteBuffer);
+
+        this.byteBuffer = byteBuffer;
+        position = byteBuffer.position();
+        limit = byteBuffer.limit();
+        pendingLowSurrogate = 0;
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) {
+        checkPositionIndexes(offset, offset + length, chars.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= limit && pendingLowSurrogate == 0) {
+            return -1;
+        }
+
+        int charIndex = offset;
+        int charEnd = offset + length;
+        if (pendingLowSurrogate != 0) {
+            chars[charIndex++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+
+        while (charIndex < charEnd && position < limit) {
+            int firstByte = byteBuffer.get(position);
+            if (firstByte >= 0) { // ASCII
+                chars[charIndex++] = (char) firstByte;
+                position++;
+                continue;
+            }
+
+            int sequenceLength;
+            int codePoint;
+            int minCodePoint;
+            if ((firstByte & 0xe0) == 0xc0) {
+                sequenceLength = 2;
+                codePoint = firstByte & 0x1f;
+                minCodePoint = 0x80;
+            } else if ((firstByte & 0xf0) == 0xe0) {
+                sequenceLength = 3;
+                codePoint = firstByte & 0x0f;
+                minCodePoint = 0x800;
+            } else if ((firstByte & 0xf8) == 0xf0) {
+                sequenceLength = 4;
+                codePoint = firstByte & 0x07;
+                minCodePoint = 0x10000;
+            } else {
+                chars[charIndex++] = REPLACEMENT_CHARACTER;
+                position++;
+                continue;
+            }
+
+            // A truncated or malformed sequence is replaced up to its first unexpected byte
+            int sequenceIndex = 1;
+            for (; sequenceIndex < sequenceLength && position + sequenceIndex < limit; sequenceIndex++) {
+                int continuationByte = byteBuffer.get(position + sequenceIndex);
+                if ((continuationByte & 0xc0) != 0x80) {
+                    break;
+                }
+                codePoint = codePoint << 6 | continuationByte & 0x3f;
+            }
+            position += sequenceIndex;
+
+            if (sequenceIndex < sequenceLength || codePoint < minCodePoint || codePoint > Character.MAX_CODE_POINT ||
+                    codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+                chars[charIndex++] = REPLACEMENT_CHARACTER;
+            } else if (codePoint <= Character.MAX_VALUE) {
+                chars[charIndex++] = (char) codePoint;
+            } else {
+                chars[charIndex++] = Character.highSurrogate(codePoint);
+                if (charIndex < charEnd) {
+                    chars[charIndex++] = Character.lowSurrogate(codePoint);
+                } else {
+                    pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                }
+            }
+        }
+
+        return charIndex - offset;
+    }
+
+    @Override
+    public boolean ready() {
+        return position < limit || pendingLowSurrogate != 0;
+    }
+
+    @Override
+    public void close() {
+        byteBuffer = null;
+        position = 0;
+        limit = -1;
+        pendingLowSurrogate = 0;
+    }
+}
@@ -0,0 +1,149 @@
+package net.jacobpeterson.alpaca.util.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link LatencyHistogram} is a lock-free, fixed-size, log-linear histogram of non-negative <code>long</code> values,
+ * such as latencies in nanoseconds. Values below {@link #LINEAR_LIMIT} are counted exactly and larger values are
+ * counted in buckets that split every power of two into {@link #SUB_BUCKET_COUNT} linear sub-buckets, so every
+ * recorded value is off by at most about 3%.
+ * <br>
+ * {@link #record(long)} never allocates or locks and may be called from any number of threads. Negative values are
+ * counted as <code>0</code> and in {@link #getNegativeCount()}.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    /** The number of sub-buckets that every power of two is split into. */
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** The values below which every value has its own bucket. */
+    public static final long LINEAR_LIMIT = 2 * SUB_BUCKET_COUNT;
+    private static final int BUCKET_COUNT = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray bucketCounts;
+    private final AtomicLong totalCount;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+    private final AtomicLong negativeCount;
+
+    /**
+     * Instantiates a new {@link LatencyHistogram}.
+     */
+    public LatencyHistogram() {
+        bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+        totalCount = new AtomicLong();
+        sum = new AtomicLong();
+        max = new AtomicLong();
+        negativeCount = new AtomicLong();
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            negativeCount.incrementAndGet();
+            value = 0;
+        }
+
+        bucketCounts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        sum.addAndGet(value);
+
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {}
+    }
+
+    /**
+     * Gets the number of negative values recorded as <code>0</code>.
+     *
+     * @return the negative count
+     */
+    public long getNegativeCount() {
+        return negativeCount.get();
+    }
+
+    /**
+     * Creates a {@link LatencyHistogramSnapshot} of the values recorded so far. Values recorded concurrently may or may
+     * not be included.
+     *
+     * @return a {@link LatencyHistogramSnapshot}
+     */
+    public LatencyHistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts[index] = bucketCounts.get(index);
+            count += counts[index];
+        }
+        return new LatencyHistogramSnapshot(counts, count, sum.get(), max.get());
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            bucketCounts.set(index, 0);
+        }
+        totalCount.set(0);
+        sum.set(0);
+        max.set(0);
+        negativeCount.set(0);
+    }
+
+    /**
+     * Gets the total number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Gets the bucket index of a non-negative value.
+     *
+     * @param value the value
+     *
+     * @return the bucket index
+     */
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * Gets the lowest value counted in a bucket.
+     *
+     * @param bucketIndex the bucket index
+     *
+     * @return the lowest value
+     */
+    static long bucketLowestValue(int bucketIndex) {
+        if (bucketIndex < LINEAR_LIMIT) {
+            return bucketIndex;
+        }
+
+        int shift = bucketIndex / SUB_BUCKET_COUNT - 1;
+        return (long) (bucketIndex % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+    }
+
+    /**
+     * Gets the highest value counted in a bucket.
+     *
+     * @param bucketIndex the bucket index
+     *
+     * @return the highest value
+     */
+    static long bucketHighestValue(int bucketIndex) {
+        return bucketIndex + 1 == BUCKET_COUNT ? Long.MAX_VALUE : bucketLowestValue(bucketIndex + 1) - 1;
+    }
+}
@@ -0,0 +1,141 @@
+package net.jacobpeterson.alpaca.util.metrics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link LatencyHistogramSnapshot} is an immutable snapshot of a {@link LatencyHistogram}.
+ */
+public class LatencyHistogramSnapshot {
+
+    private final long[] bucketCounts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    /**
+     * Instantiates a new {@link LatencyHistogramSnapshot}.
+     *
+     * @param bucketCounts the bucket counts
+     * @param count        the total count
+     * @param sum          the sum of the values
+     * @param max          the maximum value
+     */
+    LatencyHistogramSnapshot(long[] bucketCounts, long count, long sum, long max) {
+        this.bucketCounts = bucketCounts;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Gets the value at the given <code>percentile</code>, which is the highest value of the bucket that contains it,
+     * capped at {@link #getMax()}.
+     *
+     * @param percentile the percentile in the range <code>[0, 100]</code> (e.g. <code>99.9</code>)
+     *
+     * @return the value or <code>0</code> if no values were recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        checkArgument(percentile >= 0 && percentile <= 100, "'percentile' must be in the range [0, 100]!");
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long cumulativeCount = 0;
+        for (int index = 0; index < bucketCounts.length; index++) {
+            cumulativeCount += bucketCounts[index];
+            if (cumulativeCount >= rank) {
+                return Math.min(LatencyHistogram.bucketHighestValue(index), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the 50th percentile.
+     *
+     * @return the value
+     *
+     * @see #getValueAtPercentile(double)
+     */
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+
+    /**
+     * Gets the 99th percentile.
+     *
+     * @return the value
+     *
+     * @see #getValueAtPercentile(double)
+     */
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    /**
+     * Gets the 99.9th percentile.
+     *
+     * @return the value
+     *
+     * @see #getValueAtPercentile(double)
+     */
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Gets the lowest recorded value, to within the accuracy of {@link LatencyHistogram}.
+     *
+     * @return the minimum value or <code>0</code> if no values were recorded
+     */
+    public long getMin() {
+        for (int index = 0; index < bucketCounts.length; index++) {
+            if (bucketCounts[index] != 0) {
+                return LatencyHistogram.bucketLowestValue(index);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return the mean or <code>0</code> if no values were recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Gets {@link #count}.
+     *
+     * @return a long
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets {@link #max}.
+     *
+     * @return a long
+     */
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogramSnapshot{" +
+                "count=" + count +
+                ", min=" + getMin() +
+                ", mean=" + getMean() +
+                ", p50=" + getP50() +
+                ", p99=" + getP99() +
+                ", p999=" + getP999() +
+                ", max=" + max +
+                '}';
+    }
+}
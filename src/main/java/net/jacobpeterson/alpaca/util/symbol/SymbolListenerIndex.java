@@ -0,0 +1,135 @@
+package net.jacobpeterson.alpaca.util.symbol;
+
+import net.jacobpeterson.alpaca.util.concurrent.ListenerRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link SymbolListenerIndex} maps symbol IDs of a {@link SymbolTable} to the listeners registered for that symbol,
+ * so that a message only needs to be dispatched to the listeners that are interested in its symbol.
+ * <br>
+ * Lookups with {@link #get(int)} are a lock-free array index. Registering the first listener of a symbol copies the
+ * index array under a lock, while further adds and removes only update the {@link ListenerRegistry} of the symbol.
+ *
+ * @param <L> the listener type parameter
+ */
+public class SymbolListenerIndex<L> {
+
+    private final SymbolTable symbolTable;
+    private final IntFunction<L[]> arrayFactory;
+    private final L[] emptyListeners;
+    private final Object writeLock;
+    private final AtomicInteger listenerCount;
+
+    private volatile ListenerRegistry<L>[] registries;
+
+    /**
+     * Instantiates a new {@link SymbolListenerIndex}.
+     *
+     * @param symbolTable  the {@link SymbolTable} that assigns symbol IDs
+     * @param arrayFactory an {@link IntFunction} that creates a listener array of the given size
+     */
+    @SuppressWarnings("unchecked")
+    public SymbolListenerIndex(SymbolTable symbolTable, IntFunction<L[]> arrayFactory) {
+        this.symbolTable = checkNotNull(symbolTable);
+        this.arrayFactory = checkNotNull(arrayFactory);
+
+        emptyListeners = arrayFactory.apply(0);
+        writeLock = new Object();
+        listenerCount = new AtomicInteger();
+        registries = (ListenerRegistry<L>[]) new ListenerRegistry[0];
+    }
+
+    /**
+     * Adds a listener for the given <code>symbol</code>.
+     *
+     * @param symbol   the symbol
+     * @param listener the listener
+     */
+    public void add(String symbol, L listener) {
+        checkNotNull(listener);
+        int symbolID = symbolTable.intern(symbol);
+
+        ListenerRegistry<L> registry = registry(symbolID);
+        if (registry == null) {
+            synchronized (writeLock) {
+                registry = registry(symbolID);
+                if (registry == null) {
+                    ListenerRegistry<L>[] updatedRegistries = Arrays.copyOf(registries,
+                            Math.max(registries.length, symbolID + 1));
+                    registry = new ListenerRegistry<>(arrayFactory);
+                    updatedRegistries[symbolID] = registry;
+                    registries = updatedRegistries;
+                }
+            }
+        }
+        registry.add(listener);
+        listenerCount.incrementAndGet();
+    }
+
+    /**
+     * Removes a listener for the given <code>symbol</code>.
+     *
+     * @param symbol   the symbol
+     * @param listener the listener
+     *
+     * @return true if the listener was removed
+     */
+    public boolean remove(String symbol, L listener) {
+        int symbolID = symbolTable.find(symbol);
+        if (symbolID == SymbolTable.NO_ID) {
+            return false;
+        }
+
+        ListenerRegistry<L> registry = registry(symbolID);
+        if (registry != null && registry.remove(listener)) {
+            listenerCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the listeners of the given <code>symbolID</code>. The returned array must not be modified.
+     *
+     * @param symbolID the symbol ID
+     *
+     * @return the listener array snapshot
+     */
+    public L[] get(int symbolID) {
+        ListenerRegistry<L> registry = registry(symbolID);
+        return registry == null ? emptyListeners : registry.snapshot();
+    }
+
+    /**
+     * Returns true if no symbol has any listeners.
+     *
+     * @return a boolean
+     */
+    public boolean isEmpty() {
+        return listenerCount.get() == 0;
+    }
+
+    /**
+     * Removes all listeners of all symbols.
+     */
+    public void clear() {
+        synchronized (writeLock) {
+            for (ListenerRegistry<L> registry : registries) {
+                if (registry != null) {
+                    listenerCount.addAndGet(-registry.size());
+                    registry.clear();
+                }
+            }
+        }
+    }
+
+    private ListenerRegistry<L> registry(int symbolID) {
+        ListenerRegistry<L>[] currentRegistries = registries;
+        return symbolID >= 0 && symbolID < currentRegistries.length ? currentRegistries[symbolID] : null;
+    }
+}
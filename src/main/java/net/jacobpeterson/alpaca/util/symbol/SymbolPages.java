@@ -0,0 +1,103 @@
+package net.jacobpeterson.alpaca.util.symbol;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link SymbolPages} holds per-symbol state in pages of {@link #PAGE_SIZE} consecutive symbol IDs, such as those of
+ * {@link SymbolTable#GLOBAL}. The slot of a symbol is at {@link #slotOf(int)} in the page returned by {@link
+ * #page(int)}.
+ * <br>
+ * Pages are created the first time one of their symbol IDs is used and are never copied or removed, so a slot can be
+ * updated in place with the atomic operations of the page type. Only the small array of page references is copied
+ * when it grows, which takes a lock. {@link #page(int)} and {@link #find(int)} are otherwise lock-free and may be
+ * called from any thread.
+ *
+ * @param <P> the page type, which holds {@link #PAGE_SIZE} slots
+ */
+public class SymbolPages<P> {
+
+    private static final int PAGE_SHIFT = 10;
+
+    /** The number of symbol IDs per page. */
+    public static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final Supplier<P> pageFactory;
+    private final Object growLock;
+
+    private volatile P[] pages;
+
+    /**
+     * Instantiates a new {@link SymbolPages}.
+     *
+     * @param pageFactory  the {@link Supplier} of new pages
+     * @param arrayFactory the {@link IntFunction} that creates page arrays of a given length, e.g.
+     *                     <code>AtomicLongArray[]::new</code>
+     */
+    public SymbolPages(Supplier<P> pageFactory, IntFunction<P[]> arrayFactory) {
+        this.pageFactory = checkNotNull(pageFactory);
+        checkNotNull(arrayFactory);
+
+        growLock = new Object();
+        pages = arrayFactory.apply(0);
+    }
+
+    /**
+     * Gets the page of the given <code>symbolID</code>, creating it and any pages before it if they don't exist yet.
+     *
+     * @param symbolID the symbol ID, which must not be negative
+     *
+     * @return the page
+     */
+    public P page(int symbolID) {
+        int pageIndex = symbolID >>> PAGE_SHIFT;
+        P[] currentPages = pages;
+        if (pageIndex < currentPages.length) {
+            return currentPages[pageIndex];
+        }
+
+        checkArgument(symbolID >= 0, "'symbolID' must not be negative!");
+        synchronized (growLock) {
+            currentPages = pages;
+            if (pageIndex >= currentPages.length) {
+                P[] grownPages = Arrays.copyOf(currentPages, pageIndex + 1);
+                for (int index = currentPages.length; index < grownPages.length; index++) {
+                    grownPages[index] = pageFactory.get();
+                }
+                pages = grownPages;
+                currentPages = grownPages;
+            }
+            return currentPages[pageIndex];
+        }
+    }
+
+    /**
+     * Gets the page of the given <code>symbolID</code> without creating it.
+     *
+     * @param symbolID the symbol ID
+     *
+     * @return the page or <code>null</code> if <code>symbolID</code> is negative or its page doesn't exist yet
+     */
+    public P find(int symbolID) {
+        int pageIndex = symbolID >>> PAGE_SHIFT;
+        P[] currentPages = pages;
+        return symbolID >= 0 && pageIndex < currentPages.length ? currentPages[pageIndex] : null;
+    }
+
+    /**
+     * Gets the index of the slot of the given <code>symbolID</code> within its page.
+     *
+     * @param symbolID the symbol ID
+     *
+     * @return the slot index, in the range <code>[0, PAGE_SIZE)</code>
+     */
+    public static int slotOf(int symbolID) {
+        return symbolID & PAGE_MASK;
+    }
+}
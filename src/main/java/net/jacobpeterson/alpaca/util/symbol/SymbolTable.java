@@ -0,0 +1,262 @@
+package net.jacobpeterson.alpaca.util.symbol;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link SymbolTable} interns symbol {@link String}s and assigns each one a dense <code>int</code> ID, starting at
+ * <code>0</code>, in the order they are first seen.
+ * <br>
+ * Lookups are lock-free and {@link #intern(CharSequence, int, int)} doesn't allocate for symbols that are already in
+ * this table, so it can be used directly on the characters of a received websocket frame. Adding a new symbol takes a
+ * lock, which only happens the first time a symbol is seen. IDs are never reassigned or removed.
+ * <br>
+ * {@link #GLOBAL} is shared by the whole process so that per-symbol state can be kept in arrays indexed by symbol ID
+ * instead of {@link String}-keyed maps.
+ */
+public class SymbolTable {
+
+    /** The ID returned by lookups for symbols that are not in a {@link SymbolTable}. */
+    public static final int NO_ID = -1;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    /**
+     * The process-wide {@link SymbolTable}. It's seeded with the symbols of the assets returned by {@link
+     * net.jacobpeterson.alpaca.rest.endpoint.AssetsEndpoint} and grown by the market data websockets as new symbols
+     * are received.
+     */
+    public static final SymbolTable GLOBAL = new SymbolTable(16_384);
+
+    private final Object writeLock;
+    private volatile Table table;
+
+    /**
+     * Instantiates a new {@link SymbolTable}.
+     */
+    public SymbolTable() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * Instantiates a new {@link SymbolTable}.
+     *
+     * @param initialCapacity the number of symbols to size this table for
+     */
+    public SymbolTable(int initialCapacity) {
+        checkArgument(initialCapacity > 0, "'initialCapacity' must be positive!");
+
+        writeLock = new Object();
+        table = new Table(initialCapacity);
+    }
+
+    /**
+     * Gets the ID of the given <code>symbol</code>, adding it to this table if it isn't in it already.
+     *
+     * @param symbol the symbol
+     *
+     * @return the symbol ID
+     */
+    public int intern(String symbol) {
+        checkNotNull(symbol);
+        return intern(symbol, 0, symbol.length());
+    }
+
+    /**
+     * Gets the ID of the symbol made up of the characters of <code>chars</code> from <code>start</code> (inclusive) to
+     * <code>end</code> (exclusive), adding it to this table if it isn't in it already. This doesn't allocate if the
+     * symbol is already in this table.
+     *
+     * @param chars the {@link CharSequence}
+     * @param start the start index (inclusive)
+     * @param end   the end index (exclusive)
+     *
+     * @return the symbol ID
+     */
+    public int intern(CharSequence chars, int start, int end) {
+        int hash = hash(chars, start, end);
+
+        int id = table.find(chars, start, end, hash);
+        if (id != NO_ID) {
+            return id;
+        }
+
+        synchronized (writeLock) {
+            // Check again since another thread may have added it or a racy read above may have missed it
+            Table currentTable = table;
+            id = currentTable.find(chars, start, end, hash);
+            if (id != NO_ID) {
+                return id;
+            }
+
+            if (currentTable.isFull()) {
+                currentTable = currentTable.grow();
+            }
+            id = currentTable.add(chars.subSequence(start, end).toString(), hash);
+            table = currentTable; // Volatile write publishes the new symbol
+            return id;
+        }
+    }
+
+    /**
+     * Interns all of the given <code>symbols</code>, in order.
+     *
+     * @param symbols an {@link Iterable} of symbols
+     */
+    public void internAll(Iterable<String> symbols) {
+        checkNotNull(symbols);
+        for (String symbol : symbols) {
+            if (symbol != null) {
+                intern(symbol);
+            }
+        }
+    }
+
+    /**
+     * Gets the ID of the given <code>symbol</code> without adding it.
+     *
+     * @param symbol the symbol
+     *
+     * @return the symbol ID or {@link #NO_ID}
+     */
+    public int find(String symbol) {
+        checkNotNull(symbol);
+        int id = table.find(symbol, 0, symbol.length(), symbol.hashCode());
+        if (id != NO_ID) {
+            return id;
+        }
+
+        // A racy read may have missed a symbol that was just added
+        synchronized (writeLock) {
+            return table.find(symbol, 0, symbol.length(), symbol.hashCode());
+        }
+    }
+
+    /**
+     * Gets the symbol of the given <code>id</code>.
+     *
+     * @param id the symbol ID
+     *
+     * @return the symbol {@link String}
+     *
+     * @throws IndexOutOfBoundsException thrown if <code>id</code> was not assigned by this table
+     */
+    public String symbol(int id) {
+        String symbol = table.symbol(id);
+        if (symbol == null) {
+            synchronized (writeLock) {
+                symbol = table.symbol(id);
+            }
+        }
+
+        if (symbol == null) {
+            throw new IndexOutOfBoundsException("Unknown symbol ID: " + id);
+        }
+        return symbol;
+    }
+
+    /**
+     * Gets the number of symbols in this table. All IDs are in the range <code>[0, size())</code>.
+     *
+     * @return the number of symbols
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Computes the same hash as {@link String#hashCode()} for the given character range.
+     */
+    private static int hash(CharSequence chars, int start, int end) {
+        if (chars instanceof String && start == 0 && end == chars.length()) {
+            return chars.hashCode(); // Cached by 'String'
+        }
+
+        int hash = 0;
+        for (int index = start; index < end; index++) {
+            hash = 31 * hash + chars.charAt(index);
+        }
+        return hash;
+    }
+
+    /**
+     * {@link Table} is an open-addressing hash table of symbols. Readers may race with a writer adding to the same
+     * {@link Table} instance, so a reader treats any missing or partially published entry as a miss and rechecks
+     * under {@link #writeLock}.
+     */
+    private static final class Table {
+
+        private final String[] symbols;
+        private final int[] slots; // Holds 'id + 1' or 0 for an empty slot
+        private final int mask;
+        private volatile int size;
+
+        private Table(int capacity) {
+            symbols = new String[capacity];
+            slots = new int[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) * 2];
+            mask = slots.length - 1;
+        }
+
+        private int find(CharSequence chars, int start, int end, int hash) {
+            int length = end - start;
+            for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+                int slotValue = slots[slot];
+                if (slotValue == 0) {
+                    return NO_ID;
+                }
+
+                String symbol = symbols[slotValue - 1];
+                if (symbol != null && symbol.length() == length && symbol.hashCode() == hash &&
+                        regionEquals(symbol, chars, start, length)) {
+                    return slotValue - 1;
+                }
+            }
+        }
+
+        private String symbol(int id) {
+            if (id < 0 || id >= symbols.length) {
+                return null;
+            }
+            return symbols[id];
+        }
+
+        private boolean isFull() {
+            return size == symbols.length;
+        }
+
+        private int add(String symbol, int hash) {
+            int id = size;
+            symbols[id] = symbol;
+
+            int slot = spread(hash) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+
+            size = id + 1;
+            return id;
+        }
+
+        private Table grow() {
+            Table grownTable = new Table(symbols.length * 2);
+            for (int id = 0; id < size; id++) {
+                grownTable.add(symbols[id], symbols[id].hashCode());
+            }
+            return grownTable;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        private static boolean regionEquals(String symbol, CharSequence chars, int start, int length) {
+            for (int index = 0; index < length; index++) {
+                if (symbol.charAt(index) != chars.charAt(start + index)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package net.jacobpeterson.alpaca.util.time;
+
+/**
+ * {@link EpochNanosClock} is a source of the current time as nanoseconds since the epoch.
+ */
+@FunctionalInterface
+public interface EpochNanosClock {
+
+    /** The {@link EpochNanosClock} of this system. */
+    EpochNanosClock SYSTEM = new SystemEpochNanosClock();
+
+    /**
+     * Gets the current time.
+     *
+     * @return the epoch nanoseconds
+     */
+    long epochNanos();
+}
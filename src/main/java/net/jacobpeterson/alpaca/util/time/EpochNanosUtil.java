@@ -0,0 +1,196 @@
+package net.jacobpeterson.alpaca.util.time;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link EpochNanosUtil} is a utility class for timestamps represented as a <code>long</code> of nanoseconds since
+ * the epoch, which covers the years 1677 through 2262.
+ */
+public class EpochNanosUtil {
+
+    /** The value used for a missing epoch nanoseconds timestamp. */
+    public static final long NO_EPOCH_NANOS = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    /**
+     * Parses an RFC 3339 timestamp such as <code>2021-02-22T15:51:45.335689322Z</code> into epoch nanoseconds. This
+     * is the format of every Alpaca market data timestamp. The fraction may have any number of digits and the offset
+     * may be <code>Z</code> or <code>+HH:MM</code>/<code>-HH:MM</code>.
+     *
+     * @param chars the {@link CharSequence}
+     *
+     * @return the epoch nanoseconds
+     *
+     * @throws DateTimeParseException thrown if <code>chars</code> is not an RFC 3339 timestamp
+     * @throws ArithmeticException    thrown if the timestamp is outside the range of epoch nanoseconds
+     */
+    public static long parseRFC3339(CharSequence chars) {
+        checkNotNull(chars);
+        return parseRFC3339(chars, 0, chars.length());
+    }
+
+    /**
+     * Parses the RFC 3339 timestamp made up of the characters of <code>chars</code> from <code>start</code>
+     * (inclusive) to <code>end</code> (exclusive) into epoch nanoseconds. This doesn't allocate unless the timestamp is
+     * malformed.
+     *
+     * @param chars the {@link CharSequence}
+     * @param start the start index (inclusive)
+     * @param end   the end index (exclusive)
+     *
+     * @return the epoch nanoseconds
+     *
+     * @throws DateTimeParseException thrown if the characters are not an RFC 3339 timestamp
+     * @throws ArithmeticException    thrown if the timestamp is outside the range of epoch nanoseconds
+     *
+     * @see #parseRFC3339(CharSequence)
+     */
+    public static long parseRFC3339(CharSequence chars, int start, int end) {
+        if (end - start < 20 || chars.charAt(start + 4) != '-' || chars.charAt(start + 7) != '-' ||
+                (chars.charAt(start + 10) != 'T' && chars.charAt(start + 10) != 't') ||
+                chars.charAt(start + 13) != ':' || chars.charAt(start + 16) != ':') {
+            throw parseException(chars, start, end, start);
+        }
+
+        int year = parseDigits(chars, start, end, start, 4);
+        int month = parseDigits(chars, start, end, start + 5, 2);
+        int day = parseDigits(chars, start, end, start + 8, 2);
+        int hour = parseDigits(chars, start, end, start + 11, 2);
+        int minute = parseDigits(chars, start, end, start + 14, 2);
+        int second = parseDigits(chars, start, end, start + 17, 2);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month) || hour > 23 || minute > 59 ||
+                second > 59) {
+            throw parseException(chars, start, end, start);
+        }
+
+        int index = start + 19;
+        long nanos = 0;
+        if (chars.charAt(index) == '.') {
+            index++;
+            int fractionDigits = 0;
+            char digit;
+            while (index < end && (digit = chars.charAt(index)) >= '0' && digit <= '9') {
+                if (fractionDigits < 9) {
+                    nanos = nanos * 10 + (digit - '0');
+                }
+                fractionDigits++;
+                index++;
+            }
+            if (fractionDigits == 0) {
+                throw parseException(chars, start, end, index);
+            }
+            for (; fractionDigits < 9; fractionDigits++) {
+                nanos *= 10;
+            }
+        }
+
+        if (index == end) {
+            throw parseException(chars, start, end, index);
+        }
+        int offsetSeconds;
+        char offsetSign = chars.charAt(index);
+        if ((offsetSign == 'Z' || offsetSign == 'z') && index + 1 == end) {
+            offsetSeconds = 0;
+        } else if ((offsetSign == '+' || offsetSign == '-') && index + 6 == end && chars.charAt(index + 3) == ':') {
+            int offsetHours = parseDigits(chars, start, end, index + 1, 2);
+            int offsetMinutes = parseDigits(chars, start, end, index + 4, 2);
+            if (offsetHours > 23 || offsetMinutes > 59) {
+                throw parseException(chars, start, end, index);
+            }
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (offsetSign == '-') {
+                offsetSeconds = -offsetSeconds;
+            }
+        } else {
+            throw parseException(chars, start, end, index);
+        }
+
+        long epochSeconds = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second -
+                offsetSeconds;
+        return Math.addExact(Math.multiplyExact(epochSeconds, NANOS_PER_SECOND), nanos);
+    }
+
+    /**
+     * Converts epoch nanoseconds to a {@link ZonedDateTime} in {@link ZoneOffset#UTC}.
+     *
+     * @param epochNanos the epoch nanoseconds
+     *
+     * @return a {@link ZonedDateTime} or <code>null</code> for {@link #NO_EPOCH_NANOS}
+     */
+    public static ZonedDateTime toZonedDateTime(long epochNanos) {
+        if (epochNanos == NO_EPOCH_NANOS) {
+            return null;
+        }
+
+        return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                Math.floorMod(epochNanos, NANOS_PER_SECOND)).atZone(ZoneOffset.UTC);
+    }
+
+    /**
+     * Converts a {@link ZonedDateTime} to epoch nanoseconds.
+     *
+     * @param zonedDateTime the {@link ZonedDateTime}
+     *
+     * @return the epoch nanoseconds or {@link #NO_EPOCH_NANOS} for <code>null</code>
+     *
+     * @throws ArithmeticException thrown if <code>zonedDateTime</code> is outside the range of epoch nanoseconds
+     */
+    public static long fromZonedDateTime(ZonedDateTime zonedDateTime) {
+        if (zonedDateTime == null) {
+            return NO_EPOCH_NANOS;
+        }
+
+        return Math.addExact(Math.multiplyExact(zonedDateTime.toEpochSecond(), NANOS_PER_SECOND),
+                zonedDateTime.getNano());
+    }
+
+    private static int parseDigits(CharSequence chars, int start, int end, int index, int count) {
+        int value = 0;
+        for (int digitIndex = index; digitIndex < index + count; digitIndex++) {
+            char digit = chars.charAt(digitIndex);
+            if (digit < '0' || digit > '9') {
+                throw parseException(chars, start, end, digitIndex);
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Computes the number of days since the epoch of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int adjustedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(adjustedYear, 400);
+        int yearOfEra = adjustedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+
+    private static DateTimeParseException parseException(CharSequence chars, int start, int end, int index) {
+        String text = chars.subSequence(start, end).toString();
+        return new DateTimeParseException("Text '" + text + "' is not an RFC 3339 timestamp", text, index - start);
+    }
+}
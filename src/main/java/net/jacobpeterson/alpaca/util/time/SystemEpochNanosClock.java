@@ -0,0 +1,46 @@
+package net.jacobpeterson.alpaca.util.time;
+
+/**
+ * {@link SystemEpochNanosClock} is the {@link EpochNanosClock} of this system. The wall clock of Java 8 only has
+ * millisecond resolution, so this anchors {@link System#nanoTime()} to the wall clock once and then only costs a
+ * {@link System#nanoTime()} call. It re-anchors if the wall clock moves away from the anchored time, such as when the
+ * system time is stepped.
+ */
+class SystemEpochNanosClock implements EpochNanosClock {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long CHECK_INTERVAL_NANOS = 1_000_000_000L;
+    private static final long MAX_DRIFT_NANOS = 2 * NANOS_PER_MILLI;
+
+    private volatile long offsetNanos;
+    private volatile long nextCheckNanoTime;
+
+    /**
+     * Instantiates a new {@link SystemEpochNanosClock}.
+     */
+    SystemEpochNanosClock() {
+        // Wait for the start of a new millisecond so that the anchor is accurate to well below a millisecond
+        long startMillis = System.currentTimeMillis();
+        long millis;
+        while ((millis = System.currentTimeMillis()) == startMillis) {
+            Thread.yield();
+        }
+        long nanoTime = System.nanoTime();
+        offsetNanos = millis * NANOS_PER_MILLI - nanoTime;
+        nextCheckNanoTime = nanoTime + CHECK_INTERVAL_NANOS;
+    }
+
+    @Override
+    public long epochNanos() {
+        long nanoTime = System.nanoTime();
+        if (nanoTime - nextCheckNanoTime >= 0) {
+            nextCheckNanoTime = nanoTime + CHECK_INTERVAL_NANOS;
+
+            long wallClockNanos = System.currentTimeMillis() * NANOS_PER_MILLI;
+            if (Math.abs(wallClockNanos - (offsetNanos + nanoTime)) > MAX_DRIFT_NANOS) {
+                offsetNanos = wallClockNanos - nanoTime;
+            }
+        }
+        return offsetNanos + nanoTime;
+    }
+}
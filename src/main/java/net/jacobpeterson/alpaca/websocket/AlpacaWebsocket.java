@@ -1,22 +1,36 @@
 package net.jacobpeterson.alpaca.websocket;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.jacobpeterson.alpaca.util.concurrent.ListenerRegistry;
 import net.jacobpeterson.alpaca.util.okhttp.WebsocketStateListener;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionPhaseMetrics;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionState;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionStateListener;
+import net.jacobpeterson.alpaca.websocket.connection.ReconnectPolicy;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
 import okhttp3.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * {@link AlpacaWebsocket} represents an abstract websocket for Alpaca.
+ * <br>
+ * The connection is driven through the {@link ConnectionState}s by websocket events alone: opening the websocket sends
+ * the authentication message, the authentication response restores the subscriptions of a reconnection, and the
+ * subscription confirmation makes the connection {@link ConnectionState#LIVE}. The time spent in each {@link
+ * ConnectionState} is recorded in {@link #getConnectionPhaseMetrics()}.
  *
  * @param <L> the {@link AlpacaWebsocketMessageListener} type parameter
  * @param <T> the 'message type' type parameter
@@ -39,13 +53,47 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
      */
     public static final String WEBSOCKET_NORMAL_CLOSURE_MESSAGE = "Normal closure";
 
-    /** Defines the maximum number of reconnection attempts to be made by an {@link AlpacaWebsocket}. */
-    public static int MAX_RECONNECT_ATTEMPTS = 5;
+    /**
+     * Defines the maximum number of reconnection attempts to be made by an {@link AlpacaWebsocket}.
+     *
+     * @deprecated use {@link #setReconnectPolicy(ReconnectPolicy)} instead. This is the maximum number of attempts
+     * of {@link ReconnectPolicy#DEFAULT}, and changing it makes new {@link AlpacaWebsocket}s use a {@link
+     * ReconnectPolicy#fixed(long, int)} policy with it and {@link #RECONNECT_SLEEP_INTERVAL}.
+     */
+    @Deprecated
+    public static int MAX_RECONNECT_ATTEMPTS = ReconnectPolicy.DEFAULT.getMaxAttempts();
 
     /**
      * Defines the millisecond sleep interval between reconnection attempts made by an {@link AlpacaWebsocket}.
+     *
+     * @deprecated use {@link #setReconnectPolicy(ReconnectPolicy)} instead. This is the initial delay of {@link
+     * ReconnectPolicy#DEFAULT}, and changing it makes new {@link AlpacaWebsocket}s use a {@link
+     * ReconnectPolicy#fixed(long, int)} policy with it and {@link #MAX_RECONNECT_ATTEMPTS}.
      */
-    public static int RECONNECT_SLEEP_INTERVAL = 1000;
+    @Deprecated
+    public static int RECONNECT_SLEEP_INTERVAL = (int) ReconnectPolicy.DEFAULT.getInitialDelayMillis();
+
+    /**
+     * The {@link ScheduledExecutorService} that schedules the reconnection attempts of all {@link AlpacaWebsocket}s
+     * by default. Its single daemon thread only ever calls {@link #connect()}, which doesn't block, so it isn't held
+     * up by many websockets reconnecting at the same time. It's private so that it can't be shut down.
+     */
+    private static final ScheduledExecutorService RECONNECT_SCHEDULER = createReconnectScheduler();
+
+    /**
+     * Creates {@link #RECONNECT_SCHEDULER}.
+     *
+     * @return a {@link ScheduledExecutorService}
+     */
+    private static ScheduledExecutorService createReconnectScheduler() {
+        ScheduledThreadPoolExecutor reconnectScheduler = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactoryBuilder().setNameFormat("alpaca-websocket-reconnect-%d").setDaemon(true).build());
+        reconnectScheduler.setRemoveOnCancelPolicy(true);
+        return reconnectScheduler;
+    }
+
+    /** The default milliseconds to wait for the response to the authentication message. */
+    public static final long DEFAULT_AUTHENTICATION_TIMEOUT_MILLIS = 10_000;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AlpacaWebsocket.class);
 
@@ -56,19 +104,29 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
     protected final String secretKey;
     protected final String oAuthToken;
     protected final boolean useOAuth;
-    protected final List<L> listeners;
-    protected final Object listenersLock;
-    protected final List<L> listenersToAdd;
-    protected final List<L> listenersToRemove;
+    protected final ListenerRegistry<L> listeners;
+    protected final ConnectionPhaseMetrics connectionPhaseMetrics;
+    private final ListenerRegistry<ConnectionStateListener> connectionStateListeners;
 
     protected WebsocketStateListener websocketStateListener;
-    protected WebSocket websocket;
-    protected boolean connected;
-    protected boolean authenticated;
+    // Written by the OkHttp, reconnect scheduler, and user threads
+    protected volatile WebSocket websocket;
+    protected volatile boolean connected;
+    protected volatile boolean authenticated;
     protected CompletableFuture<Boolean> authenticationMessageFuture;
     protected boolean intentionalClose;
     protected int reconnectAttempts;
     protected boolean automaticallyReconnect;
+    protected volatile ReconnectPolicy reconnectPolicy;
+    protected volatile ScheduledExecutorService reconnectScheduler;
+    protected ScheduledFuture<?> reconnectFuture;
+    protected volatile long authenticationTimeoutMillis;
+    protected volatile ScheduledFuture<?> authenticationTimeoutFuture;
+    protected volatile FrameJournal frameJournal;
+    protected volatile boolean reconnecting;
+    private volatile ConnectionState connectionState;
+    private long connectionStateNanoTime;
+    private long connectionLostNanoTime;
 
     /**
      * Instantiates a {@link AlpacaWebsocket}.
@@ -93,35 +151,80 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
         this.secretKey = secretKey;
         this.oAuthToken = oAuthToken;
         useOAuth = oAuthToken != null;
-        listeners = new ArrayList<>();
-        listenersLock = new Object();
-        listenersToAdd = new ArrayList<>();
-        listenersToRemove = new ArrayList<>();
+        listeners = createListenerRegistry();
+        connectionPhaseMetrics = new ConnectionPhaseMetrics();
+        connectionStateListeners = new ListenerRegistry<>(ConnectionStateListener[]::new);
 
         automaticallyReconnect = true;
+        reconnectPolicy = createDefaultReconnectPolicy();
+        reconnectScheduler = RECONNECT_SCHEDULER;
+        authenticationTimeoutMillis = DEFAULT_AUTHENTICATION_TIMEOUT_MILLIS;
+        connectionState = ConnectionState.DISCONNECTED;
+        connectionStateNanoTime = System.nanoTime();
+    }
+
+    /**
+     * Creates the default {@link #reconnectPolicy}, which is {@link ReconnectPolicy#DEFAULT} unless the deprecated
+     * {@link #MAX_RECONNECT_ATTEMPTS} or {@link #RECONNECT_SLEEP_INTERVAL} were changed.
+     *
+     * @return a {@link ReconnectPolicy}
+     */
+    @SuppressWarnings("deprecation")
+    private static ReconnectPolicy createDefaultReconnectPolicy() {
+        if (MAX_RECONNECT_ATTEMPTS == ReconnectPolicy.DEFAULT.getMaxAttempts() &&
+                RECONNECT_SLEEP_INTERVAL == ReconnectPolicy.DEFAULT.getInitialDelayMillis()) {
+            return ReconnectPolicy.DEFAULT;
+        }
+        return ReconnectPolicy.fixed(RECONNECT_SLEEP_INTERVAL, MAX_RECONNECT_ATTEMPTS);
     }
 
     @Override
     public void connect() {
         if (!isConnected()) {
-            Request websocketRequest = new Request.Builder()
-                    .url(websocketURL)
-                    .get()
-                    .build();
-            websocket = okHttpClient.newWebSocket(websocketRequest, this);
+            transitionTo(ConnectionState.CONNECTING);
+
+            // 'websocket' is set by 'onOpen()', since OkHttp may call back before this returns
+            okHttpClient.newWebSocket(createWebsocketRequest(), this);
         }
     }
 
+    /**
+     * Creates the {@link Request} that opens the {@link #websocket}. Subclasses may override this to add headers.
+     *
+     * @return the {@link Request}
+     */
+    protected Request createWebsocketRequest() {
+        return new Request.Builder()
+                .url(websocketURL)
+                .get()
+                .build();
+    }
+
     @Override
     public void disconnect() {
-        if (isConnected() && websocket != null) {
+        WebSocket currentWebsocket = websocket;
+        if (isConnected() && currentWebsocket != null) {
             intentionalClose = true;
-            websocket.close(WEBSOCKET_NORMAL_CLOSURE_CODE, WEBSOCKET_NORMAL_CLOSURE_MESSAGE);
+            currentWebsocket.close(WEBSOCKET_NORMAL_CLOSURE_CODE, WEBSOCKET_NORMAL_CLOSURE_MESSAGE);
         } else {
             cleanupState();
         }
     }
 
+    /**
+     * Cancels the {@link #websocket} without a closing handshake so that it's handled like a failed connection and
+     * reconnected according to the {@link #reconnectPolicy}. This is for a connection that stopped receiving messages
+     * without failing, which a closing handshake would wait on.
+     */
+    public void forceReconnect() {
+        WebSocket currentWebsocket = websocket;
+        if (connected && currentWebsocket != null) {
+            LOGGER.warn("Forcing {} websocket to reconnect...", websocketName);
+            // OkHttp calls 'onFailure()' for a cancelled websocket
+            currentWebsocket.cancel();
+        }
+    }
+
     @Override
     public boolean isConnected() {
         return connected;
@@ -137,9 +240,14 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
         LOGGER.info("{} websocket opened.", websocketName);
         LOGGER.debug("{} websocket response: {}", websocketName, response);
 
+        // Published before the authentication message is sent with it on this thread
+        websocket = webSocket;
         connected = true;
+        transitionTo(ConnectionState.AUTHENTICATING);
+        authenticationTimeoutFuture = reconnectScheduler.schedule(() -> handleAuthenticationTimeout(webSocket),
+                authenticationTimeoutMillis, TimeUnit.MILLISECONDS);
 
-        if (reconnectAttempts > 0) {
+        if (reconnecting) {
             reconnectAttempts = 0;
             onReconnection();
         } else {
@@ -159,7 +267,7 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
             cleanupState();
         } else {
             LOGGER.error("{} websocket closed unintentionally! Code: {}, Reason: {}", websocketName, code, reason);
-            handleReconnectionAttempt();
+            handleConnectionLost(webSocket);
         }
 
         if (websocketStateListener != null) {
@@ -170,7 +278,7 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
     @Override
     public void onFailure(@NotNull WebSocket webSocket, @NotNull Throwable cause, @Nullable Response response) {
         LOGGER.error("{} websocket failure! Response: {}", websocketName, response, cause);
-        handleReconnectionAttempt();
+        handleConnectionLost(webSocket);
 
         if (websocketStateListener != null) {
             websocketStateListener.onFailure(cause);
@@ -178,30 +286,50 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
     }
 
     /**
-     * Attempts to reconnect the disconnected {@link #websocket} asynchronously.
+     * Handles an unintentionally closed or failed {@link #websocket}.
+     *
+     * @param lostWebsocket the closed or failed {@link WebSocket}
+     */
+    private void handleConnectionLost(WebSocket lostWebsocket) {
+        // The websocket is gone, so 'connect()' must open a new one, but a newer websocket mustn't be forgotten
+        if (websocket == lostWebsocket) {
+            websocket = null;
+        }
+        connected = false;
+        authenticated = false;
+        cancelAuthenticationTimeout();
+
+        if (!reconnecting) {
+            reconnecting = true;
+            connectionLostNanoTime = System.nanoTime();
+        }
+
+        handleReconnectionAttempt();
+    }
+
+    /**
+     * Schedules an attempt to reconnect the disconnected {@link #websocket} on {@link #reconnectScheduler} after the
+     * delay of the {@link #reconnectPolicy}.
      */
     private void handleReconnectionAttempt() {
         if (!automaticallyReconnect) {
+            reconnecting = false;
+            transitionTo(ConnectionState.DISCONNECTED);
             return;
         }
 
-        if (reconnectAttempts < MAX_RECONNECT_ATTEMPTS) {
-            LOGGER.info("Attempting to reconnect {} websocket in {} milliseconds...",
-                    websocketName, RECONNECT_SLEEP_INTERVAL);
+        ReconnectPolicy currentReconnectPolicy = reconnectPolicy;
+        if (currentReconnectPolicy.shouldAttempt(reconnectAttempts)) {
+            transitionTo(ConnectionState.CONNECTING);
 
             reconnectAttempts++;
+            long delayMillis = currentReconnectPolicy.getDelayMillis(reconnectAttempts);
+            LOGGER.info("Attempting to reconnect {} websocket in {} milliseconds...", websocketName, delayMillis);
 
-            ForkJoinPool.commonPool().execute(() -> {
-                try {
-                    Thread.sleep(RECONNECT_SLEEP_INTERVAL);
-                } catch (InterruptedException ignored) {
-                    return;
-                }
-
-                connect();
-            });
+            reconnectFuture = reconnectScheduler.schedule(this::connect, delayMillis, TimeUnit.MILLISECONDS);
         } else {
-            LOGGER.error("Exhausted {} reconnection attempts. Not attempting to reconnect.", MAX_RECONNECT_ATTEMPTS);
+            LOGGER.error("Exhausted {} reconnection attempts. Not attempting to reconnect.", reconnectAttempts);
+            connectionPhaseMetrics.recordFailedRecovery();
             cleanupState();
         }
     }
@@ -211,14 +339,125 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
      */
     protected void cleanupState() {
         listeners.clear();
-        listenersToAdd.clear();
-        listenersToRemove.clear();
+
+        if (reconnectFuture != null) {
+            reconnectFuture.cancel(false);
+            reconnectFuture = null;
+        }
+        cancelAuthenticationTimeout();
 
         websocket = null;
         connected = false;
         authenticated = false;
         intentionalClose = false;
         reconnectAttempts = 0;
+        reconnecting = false;
+
+        transitionTo(ConnectionState.DISCONNECTED);
+    }
+
+    /**
+     * Cancels {@link #authenticationTimeoutFuture}, if any.
+     */
+    private void cancelAuthenticationTimeout() {
+        ScheduledFuture<?> currentAuthenticationTimeoutFuture = authenticationTimeoutFuture;
+        if (currentAuthenticationTimeoutFuture != null) {
+            currentAuthenticationTimeoutFuture.cancel(false);
+            authenticationTimeoutFuture = null;
+        }
+    }
+
+    /**
+     * Cancels <code>openedWebsocket</code> if it's still {@link ConnectionState#AUTHENTICATING}, so that it's handled
+     * like a failed connection and reconnected according to the {@link #reconnectPolicy}.
+     *
+     * @param openedWebsocket the {@link WebSocket} that the authentication message was sent with
+     */
+    private void handleAuthenticationTimeout(WebSocket openedWebsocket) {
+        if (connectionState == ConnectionState.AUTHENTICATING && websocket == openedWebsocket) {
+            LOGGER.error("{} websocket wasn't authenticated within {} milliseconds!", websocketName,
+                    authenticationTimeoutMillis);
+            // OkHttp calls 'onFailure()' for a cancelled websocket
+            openedWebsocket.cancel();
+        }
+    }
+
+    /**
+     * Handles the response to the authentication message, which moves a reconnection to {@link
+     * ConnectionState#RESUBSCRIBING}, a new connection to {@link ConnectionState#LIVE}, and a rejected connection to
+     * {@link ConnectionState#DISCONNECTED} by closing it, since retrying the same credentials wouldn't succeed. This
+     * is called from the websocket thread, so it must not block.
+     * <br>
+     * A response received while not connected, such as one replayed by a {@link
+     * net.jacobpeterson.alpaca.websocket.journal.FrameReplayer}, is ignored since there's no connection to change the
+     * state of.
+     *
+     * @param authorized true if the authentication succeeded
+     */
+    protected void handleAuthorization(boolean authorized) {
+        if (!connected) {
+            return;
+        }
+
+        authenticated = authorized;
+        cancelAuthenticationTimeout();
+
+        if (authorized) {
+            if (reconnecting) {
+                transitionTo(ConnectionState.RESUBSCRIBING);
+                if (!resubscribe()) {
+                    handleResubscribed();
+                }
+            } else {
+                transitionTo(ConnectionState.LIVE);
+            }
+        } else {
+            reconnecting = false;
+            disconnect();
+            transitionTo(ConnectionState.DISCONNECTED);
+        }
+
+        if (authenticationMessageFuture != null) {
+            authenticationMessageFuture.complete(authorized);
+        }
+    }
+
+    /**
+     * Handles the confirmation of the subscriptions requested by {@link #resubscribe()}, which moves the connection to
+     * {@link ConnectionState#LIVE}. Like {@link #handleAuthorization(boolean)}, this is ignored while not connected.
+     */
+    protected void handleResubscribed() {
+        if (connected && connectionState == ConnectionState.RESUBSCRIBING) {
+            reconnecting = false;
+            connectionPhaseMetrics.recordRecovery(System.nanoTime() - connectionLostNanoTime);
+            transitionTo(ConnectionState.LIVE);
+        }
+    }
+
+    /**
+     * Moves the connection to the given {@link ConnectionState}, records the time spent in the previous {@link
+     * ConnectionState}, and calls the {@link ConnectionStateListener}s.
+     *
+     * @param state the {@link ConnectionState}
+     */
+    private void transitionTo(ConnectionState state) {
+        ConnectionState previousState;
+        synchronized (connectionPhaseMetrics) {
+            previousState = connectionState;
+            if (previousState == state) {
+                return;
+            }
+
+            long nanoTime = System.nanoTime();
+            connectionPhaseMetrics.recordPhase(previousState, nanoTime - connectionStateNanoTime);
+            connectionStateNanoTime = nanoTime;
+            connectionState = state;
+        }
+
+        LOGGER.debug("{} websocket connection state: {} -> {}", websocketName, previousState, state);
+        for (ConnectionStateListener connectionStateListener : connectionStateListeners.snapshot()) {
+            connectionStateListener.onConnectionStateChange(previousState, state);
+        }
     }
 
     /**
@@ -236,6 +475,14 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
      */
     protected abstract void sendAuthenticationMessage();
 
+    /**
+     * Requests the subscriptions that were active before a reconnection, without waiting for them to be confirmed.
+     * Implementations call {@link #handleResubscribed()} when they are.
+     *
+     * @return true if subscriptions were requested, false if there were none to restore
+     */
+    protected abstract boolean resubscribe();
+
     @Override
     public Future<Boolean> getAuthorizationFuture() {
         if (authenticationMessageFuture == null || authenticationMessageFuture.isDone()) {
@@ -245,6 +492,17 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
         return authenticationMessageFuture;
     }
 
+    /**
+     * Creates the {@link ListenerRegistry} for {@link #listeners}.
+     *
+     * @return a {@link ListenerRegistry}
+     */
+    @SuppressWarnings("unchecked")
+    private ListenerRegistry<L> createListenerRegistry() {
+        // 'L[]' erases to the array type of the 'L' bound, so the array must be of that type
+        return new ListenerRegistry<>(size -> (L[]) new AlpacaWebsocketMessageListener[size]);
+    }
+
     /**
      * Calls the {@link AlpacaWebsocketMessageListener}s in {@link #listeners}.
      *
@@ -252,40 +510,35 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
      * @param message     the message
      */
     protected void callListeners(T messageType, M message) {
-        // Remove all listeners that were request to be removed then add all listeners that were request to be added
-        // on the last 'onMessage' call to the listeners.
-        synchronized (listenersLock) {
-            listeners.removeAll(listenersToRemove);
-            listenersToRemove.clear();
-
-            listeners.addAll(listenersToAdd);
-            listenersToAdd.clear();
-        }
-
-        // Note that this doesn't need to acquire 'listenersLock' since 'listeners' is isolated
-        // to this instance and is not modified outside a lock.
-        for (L listener : listeners) {
+        for (L listener : listeners.snapshot()) {
             listener.onMessage(messageType, message);
         }
     }
 
     @Override
     public void addListener(L listener) {
-        synchronized (listenersLock) {
-            listenersToAdd.add(listener);
-        }
+        listeners.add(listener);
     }
 
     @Override
     public void removeListener(L listener) {
-        if (listeners.size() == 1 && listeners.contains(listener)) {
+        L[] currentListeners = listeners.snapshot();
+        if (currentListeners.length == 1 && currentListeners[0].equals(listener) && !hasAdditionalListeners()) {
             disconnect();
             return;
         }
 
-        synchronized (listenersLock) {
-            listenersToRemove.add(listener);
-        }
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns true if this websocket has listeners other than those in {@link #listeners}, in which case {@link
+     * #removeListener(AlpacaWebsocketMessageListener)} won't disconnect when removing the last of {@link #listeners}.
+     *
+     * @return a boolean
+     */
+    protected boolean hasAdditionalListeners() {
+        return false;
     }
 
     /**
@@ -323,4 +576,109 @@ public abstract class AlpacaWebsocket<T, M, L extends AlpacaWebsocketMessageList
     public void setAutomaticallyReconnect(boolean automaticallyReconnect) {
         this.automaticallyReconnect = automaticallyReconnect;
     }
+
+    /**
+     * Gets {@link #connectionState}.
+     *
+     * @return the {@link ConnectionState}
+     */
+    public ConnectionState getConnectionState() {
+        return connectionState;
+    }
+
+    /**
+     * Gets {@link #connectionPhaseMetrics}.
+     *
+     * @return the {@link ConnectionPhaseMetrics}
+     */
+    public ConnectionPhaseMetrics getConnectionPhaseMetrics() {
+        return connectionPhaseMetrics;
+    }
+
+    /**
+     * Adds a {@link ConnectionStateListener}.
+     *
+     * @param connectionStateListener the {@link ConnectionStateListener}
+     */
+    public void addConnectionStateListener(ConnectionStateListener connectionStateListener) {
+        connectionStateListeners.add(connectionStateListener);
+    }
+
+    /**
+     * Removes a {@link ConnectionStateListener}.
+     *
+     * @param connectionStateListener the {@link ConnectionStateListener}
+     */
+    public void removeConnectionStateListener(ConnectionStateListener connectionStateListener) {
+        connectionStateListeners.remove(connectionStateListener);
+    }
+
+    /**
+     * Gets {@link #reconnectPolicy}.
+     *
+     * @return the {@link ReconnectPolicy}
+     */
+    public ReconnectPolicy getReconnectPolicy() {
+        return reconnectPolicy;
+    }
+
+    /**
+     * Sets {@link #reconnectPolicy}. Defaults to {@link ReconnectPolicy#DEFAULT}, unless the deprecated {@link
+     * #MAX_RECONNECT_ATTEMPTS} or {@link #RECONNECT_SLEEP_INTERVAL} were changed.
+     *
+     * @param reconnectPolicy the {@link ReconnectPolicy}
+     */
+    public void setReconnectPolicy(ReconnectPolicy reconnectPolicy) {
+        this.reconnectPolicy = checkNotNull(reconnectPolicy);
+    }
+
+    /**
+     * Gets {@link #reconnectScheduler}.
+     *
+     * @return the {@link ScheduledExecutorService}
+     */
+    public ScheduledExecutorService getReconnectScheduler() {
+        return reconnectScheduler;
+    }
+
+    /**
+     * Sets the {@link ScheduledExecutorService} that reconnection attempts are scheduled on. Defaults to a single
+     * daemon thread shared by all {@link AlpacaWebsocket}s.
+     *
+     * @param reconnectScheduler the {@link ScheduledExecutorService}
+     */
+    public void setReconnectScheduler(ScheduledExecutorService reconnectScheduler) {
+        this.reconnectScheduler = checkNotNull(reconnectScheduler);
+    }
+
+    /**
+     * Gets {@link #authenticationTimeoutMillis}.
+     *
+     * @return the authentication timeout in milliseconds
+     */
+    public long getAuthenticationTimeoutMillis() {
+        return authenticationTimeoutMillis;
+    }
+
+    /**
+     * Sets the milliseconds to wait for the response to the authentication message before the websocket is
+     * reconnected according to the {@link #reconnectPolicy}. Defaults to {@link
+     * #DEFAULT_AUTHENTICATION_TIMEOUT_MILLIS}.
+     *
+     * @param authenticationTimeoutMillis the authentication timeout in milliseconds
+     */
+    public void setAuthenticationTimeoutMillis(long authenticationTimeoutMillis) {
+        checkArgument(authenticationTimeoutMillis > 0, "'authenticationTimeoutMillis' must be positive!");
+        this.authenticationTimeoutMillis = authenticationTimeoutMillis;
+    }
+
+    @Override
+    public void setFrameJournal(FrameJournal frameJournal) {
+        this.frameJournal = frameJournal;
+    }
+
+    @Override
+    public FrameJournal getFrameJournal() {
+        return frameJournal;
+    }
 }
@@ -1,5 +1,7 @@
 package net.jacobpeterson.alpaca.websocket;
 
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -79,4 +81,19 @@ public interface AlpacaWebsocketInterface<L extends AlpacaWebsocketMessageListen
      * @param listener the {@link AlpacaWebsocketMessageListener}
      */
     void removeListener(L listener);
+
+    /**
+     * Sets the {@link FrameJournal} that records every frame received by this websocket. A {@link FrameJournal} may
+     * only be set on one websocket.
+     *
+     * @param frameJournal the {@link FrameJournal} or <code>null</code> to stop recording
+     */
+    void setFrameJournal(FrameJournal frameJournal);
+
+    /**
+     * Gets the {@link FrameJournal}.
+     *
+     * @return the {@link FrameJournal} or <code>null</code>
+     */
+    FrameJournal getFrameJournal();
 }
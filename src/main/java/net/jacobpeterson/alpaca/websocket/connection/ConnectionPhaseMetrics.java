@@ -0,0 +1,97 @@
+package net.jacobpeterson.alpaca.websocket.connection;
+
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogram;
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogramSnapshot;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ConnectionPhaseMetrics} holds a {@link LatencyHistogram} of the nanoseconds spent in each {@link
+ * ConnectionState} before leaving it, and a {@link LatencyHistogram} of the nanoseconds from losing a connection to
+ * being {@link ConnectionState#LIVE} again.
+ */
+public class ConnectionPhaseMetrics {
+
+    private final LatencyHistogram[] phaseHistograms;
+    private final LatencyHistogram recoveryHistogram;
+    private final AtomicLong failedRecoveryCount;
+
+    /**
+     * Instantiates a new {@link ConnectionPhaseMetrics}.
+     */
+    public ConnectionPhaseMetrics() {
+        phaseHistograms = new LatencyHistogram[ConnectionState.values().length];
+        for (int index = 0; index < phaseHistograms.length; index++) {
+            phaseHistograms[index] = new LatencyHistogram();
+        }
+        recoveryHistogram = new LatencyHistogram();
+        failedRecoveryCount = new AtomicLong();
+    }
+
+    /**
+     * Records the nanoseconds spent in a {@link ConnectionState}.
+     *
+     * @param connectionState the {@link ConnectionState}
+     * @param nanos           the nanoseconds
+     */
+    public void recordPhase(ConnectionState connectionState, long nanos) {
+        phaseHistograms[connectionState.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records the nanoseconds from losing a connection to being {@link ConnectionState#LIVE} again.
+     *
+     * @param nanos the nanoseconds
+     */
+    public void recordRecovery(long nanos) {
+        recoveryHistogram.record(nanos);
+    }
+
+    /**
+     * Counts a lost connection that was given up on.
+     */
+    public void recordFailedRecovery() {
+        failedRecoveryCount.incrementAndGet();
+    }
+
+    /**
+     * Creates a {@link LatencyHistogramSnapshot} of the nanoseconds spent in a {@link ConnectionState}.
+     *
+     * @param connectionState the {@link ConnectionState}
+     *
+     * @return a {@link LatencyHistogramSnapshot}
+     */
+    public LatencyHistogramSnapshot snapshotPhase(ConnectionState connectionState) {
+        return phaseHistograms[connectionState.ordinal()].snapshot();
+    }
+
+    /**
+     * Creates a {@link LatencyHistogramSnapshot} of the nanoseconds from losing a connection to being {@link
+     * ConnectionState#LIVE} again.
+     *
+     * @return a {@link LatencyHistogramSnapshot}
+     */
+    public LatencyHistogramSnapshot snapshotRecovery() {
+        return recoveryHistogram.snapshot();
+    }
+
+    /**
+     * Gets the number of lost connections that were given up on.
+     *
+     * @return the failed recovery count
+     */
+    public long getFailedRecoveryCount() {
+        return failedRecoveryCount.get();
+    }
+
+    /**
+     * Clears all recorded metrics.
+     */
+    public void reset() {
+        for (LatencyHistogram phaseHistogram : phaseHistograms) {
+            phaseHistogram.reset();
+        }
+        recoveryHistogram.reset();
+        failedRecoveryCount.set(0);
+    }
+}
@@ -0,0 +1,25 @@
+package net.jacobpeterson.alpaca.websocket.connection;
+
+/**
+ * {@link ConnectionState} defines the states of the connection of an {@link
+ * net.jacobpeterson.alpaca.websocket.AlpacaWebsocket}. A connection moves through {@link #CONNECTING}, {@link
+ * #AUTHENTICATING}, and, when reconnecting, {@link #RESUBSCRIBING} before it's {@link #LIVE}. Every transition is
+ * driven by a websocket event, so no websocket thread ever waits for the next state.
+ */
+public enum ConnectionState {
+
+    /** Not connected and not attempting to connect. */
+    DISCONNECTED,
+
+    /** Waiting for the websocket to open, including the wait before a reconnection attempt. */
+    CONNECTING,
+
+    /** The websocket is open and waiting for the response to the authentication message. */
+    AUTHENTICATING,
+
+    /** Reconnected and authenticated, and waiting for the server to confirm the restored subscriptions. */
+    RESUBSCRIBING,
+
+    /** Authenticated and subscribed. */
+    LIVE
+}
@@ -0,0 +1,17 @@
+package net.jacobpeterson.alpaca.websocket.connection;
+
+/**
+ * {@link ConnectionStateListener} defines a listener interface for {@link ConnectionState} transitions. It's called
+ * from the thread that caused the transition, which is often a websocket thread, so it must not block.
+ */
+@FunctionalInterface
+public interface ConnectionStateListener {
+
+    /**
+     * Called when the {@link ConnectionState} changes.
+     *
+     * @param previousState the previous {@link ConnectionState}
+     * @param state         the new {@link ConnectionState}
+     */
+    void onConnectionStateChange(ConnectionState previousState, ConnectionState state);
+}
@@ -0,0 +1,145 @@
+package net.jacobpeterson.alpaca.websocket.connection;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link ReconnectPolicy} defines how often and how long after losing its connection an {@link
+ * net.jacobpeterson.alpaca.websocket.AlpacaWebsocket} attempts to reconnect. The delay before an attempt is drawn
+ * uniformly between <code>0</code> and an exponentially growing, capped ceiling ("full jitter"), so that many
+ * websockets that lost their connections at the same time don't all reconnect at the same time.
+ */
+public class ReconnectPolicy {
+
+    /**
+     * The default {@link ReconnectPolicy}: a 500 millisecond initial ceiling that doubles on every attempt, is capped
+     * at 30 seconds, and gives up after 10 attempts.
+     */
+    public static final ReconnectPolicy DEFAULT = new ReconnectPolicy(500, 30_000, 2, 10);
+
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double multiplier;
+    private final int maxAttempts;
+
+    /**
+     * Instantiates a new {@link ReconnectPolicy}.
+     *
+     * @param initialDelayMillis the delay ceiling of the first attempt in milliseconds
+     * @param maxDelayMillis     the maximum delay ceiling in milliseconds
+     * @param multiplier         the factor that the delay ceiling grows by on every attempt, at least 1
+     * @param maxAttempts        the number of attempts before giving up, or {@link Integer#MAX_VALUE} to never give
+     *                           up
+     */
+    public ReconnectPolicy(long initialDelayMillis, long maxDelayMillis, double multiplier, int maxAttempts) {
+        checkArgument(initialDelayMillis >= 0, "'initialDelayMillis' must not be negative!");
+        checkArgument(maxDelayMillis >= initialDelayMillis, "'maxDelayMillis' must be at least 'initialDelayMillis'!");
+        checkArgument(multiplier >= 1, "'multiplier' must be at least 1!");
+        checkArgument(maxAttempts >= 0, "'maxAttempts' must not be negative!");
+
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.multiplier = multiplier;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Creates a {@link ReconnectPolicy} with a fixed delay and no jitter.
+     *
+     * @param delayMillis the delay in milliseconds
+     * @param maxAttempts the number of attempts before giving up
+     *
+     * @return a {@link ReconnectPolicy}
+     */
+    public static ReconnectPolicy fixed(long delayMillis, int maxAttempts) {
+        return new FixedReconnectPolicy(delayMillis, maxAttempts);
+    }
+
+    /**
+     * Returns true if another attempt should be made after <code>attempts</code> attempts.
+     *
+     * @param attempts the number of attempts made so far
+     *
+     * @return a boolean
+     */
+    public boolean shouldAttempt(int attempts) {
+        return attempts < maxAttempts;
+    }
+
+    /**
+     * Gets the delay ceiling of an attempt, which is <code>initialDelayMillis * multiplier ^ (attempt - 1)</code>
+     * capped at <code>maxDelayMillis</code>.
+     *
+     * @param attempt the attempt, starting at 1
+     *
+     * @return the delay ceiling in milliseconds
+     */
+    public long getDelayCeilingMillis(int attempt) {
+        checkArgument(attempt > 0, "'attempt' must be positive!");
+        double ceiling = initialDelayMillis * Math.pow(multiplier, attempt - 1);
+        return ceiling >= maxDelayMillis ? maxDelayMillis : (long) ceiling;
+    }
+
+    /**
+     * Draws the delay before an attempt, uniformly between <code>0</code> and {@link #getDelayCeilingMillis(int)}.
+     *
+     * @param attempt the attempt, starting at 1
+     *
+     * @return the delay in milliseconds
+     */
+    public long getDelayMillis(int attempt) {
+        return ThreadLocalRandom.current().nextLong(getDelayCeilingMillis(attempt) + 1);
+    }
+
+    /**
+     * Gets {@link #initialDelayMillis}.
+     *
+     * @return the initial delay ceiling in milliseconds
+     */
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    /**
+     * Gets {@link #maxDelayMillis}.
+     *
+     * @return the maximum delay ceiling in milliseconds
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Gets {@link #multiplier}.
+     *
+     * @return the multiplier
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Gets {@link #maxAttempts}.
+     *
+     * @return the maximum number of attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * {@link FixedReconnectPolicy} is a {@link ReconnectPolicy} that always waits its full delay.
+     */
+    private static class FixedReconnectPolicy extends ReconnectPolicy {
+
+        private FixedReconnectPolicy(long delayMillis, int maxAttempts) {
+            super(delayMillis, delayMillis, 1, maxAttempts);
+        }
+
+        @Override
+        public long getDelayMillis(int attempt) {
+            return getDelayCeilingMillis(attempt);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import net.jacobpeterson.alpaca.util.concurrent.RingBuffer;
+import net.jacobpeterson.alpaca.util.concurrent.RingBufferDispatcher;
+import net.jacobpeterson.alpaca.util.concurrent.WaitStrategy;
+import net.jacobpeterson.alpaca.util.time.EpochNanosClock;
+import okio.ByteString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * {@link FrameJournal} records raw websocket frames with their receive timestamps to rolling memory-mapped segment
+ * files, for post-trade analysis and for reproducing bugs with a {@link FrameJournalReader}. Set it on a websocket
+ * with {@link net.jacobpeterson.alpaca.websocket.AlpacaWebsocketInterface#setFrameJournal(FrameJournal)}.
+ * <br>
+ * {@link #append(String)} only copies the frame into a pre-allocated {@link RingBuffer} entry, so the websocket thread
+ * never blocks on disk I/O. A background thread writes the entries to the current segment and starts a new segment
+ * when it's full. If the background thread falls so far behind that the {@link RingBuffer} is full, frames are dropped
+ * and counted instead of blocking the websocket thread. Each segment has a time index with an entry per index interval,
+ * so {@link FrameJournalReader#seek(long)} finds a time with a binary search and a short scan. See {@link
+ * JournalFormat} for the file layout.
+ * <br>
+ * Frames may only be appended from one thread at a time, so each websocket needs its own {@link FrameJournal}. Use a
+ * different <code>name</code> for each {@link FrameJournal} that shares a directory.
+ */
+public class FrameJournal implements Closeable {
+
+    /** The default segment file size: 256 MiB. */
+    public static final int DEFAULT_SEGMENT_SIZE = 256 << 20;
+
+    /** The default time index interval: 1 second. */
+    public static final long DEFAULT_INDEX_INTERVAL_NANOS = 1_000_000_000L;
+
+    /** The default number of frames that can be waiting to be written. */
+    public static final int DEFAULT_RING_BUFFER_CAPACITY = 8192;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrameJournal.class);
+    private static final int INDEX_CAPACITY = 16_384;
+    private static final int INITIAL_PAYLOAD_CAPACITY = 512;
+
+    private final Path directory;
+    private final String name;
+    private final int segmentSize;
+    private final long indexIntervalNanos;
+    private final EpochNanosClock clock;
+    private final RingBuffer<FrameEntry> ringBuffer;
+    private final RingBufferDispatcher<FrameEntry> ringBufferDispatcher;
+    private final LongAdder droppedFrameCount;
+
+    private volatile boolean closed;
+    private volatile long writtenFrameCount;
+
+    // Only used by the writer thread
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private int segmentPosition;
+    private int indexCount;
+    private long nextIndexEpochNanos;
+
+    /**
+     * Instantiates a new {@link FrameJournal} with the default segment size, index interval, and {@link RingBuffer}
+     * capacity.
+     *
+     * @param directory the directory of the segment files, which is created if it doesn't exist
+     * @param name      the name that prefixes the segment files
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public FrameJournal(Path directory, String name) throws IOException {
+        this(directory, name, DEFAULT_SEGMENT_SIZE, DEFAULT_INDEX_INTERVAL_NANOS, DEFAULT_RING_BUFFER_CAPACITY,
+                EpochNanosClock.SYSTEM);
+    }
+
+    /**
+     * Instantiates a new {@link FrameJournal}.
+     *
+     * @param directory          the directory of the segment files, which is created if it doesn't exist
+     * @param name               the name that prefixes the segment files
+     * @param segmentSize        the size of each segment file in bytes
+     * @param indexIntervalNanos the time index interval in nanoseconds
+     * @param ringBufferCapacity the number of frames that can be waiting to be written, which must be a power of two
+     * @param clock              the {@link EpochNanosClock} of the receive timestamps
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public FrameJournal(Path directory, String name, int segmentSize, long indexIntervalNanos,
+            int ringBufferCapacity, EpochNanosClock clock) throws IOException {
+        checkNotNull(directory);
+        checkNotNull(name);
+        checkArgument(segmentSize >= JournalFormat.dataOffset(INDEX_CAPACITY) + JournalFormat.RECORD_HEADER_SIZE,
+                "'segmentSize' is too small!");
+        checkArgument(indexIntervalNanos > 0, "'indexIntervalNanos' must be positive!");
+
+        this.directory = Files.createDirectories(directory);
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.indexIntervalNanos = indexIntervalNanos;
+        this.clock = checkNotNull(clock);
+
+        ringBuffer = new RingBuffer<>(ringBufferCapacity, FrameEntry::new, WaitStrategy.PARK);
+        ringBufferDispatcher = new RingBufferDispatcher<>(ringBuffer, this::write, 1, "FrameJournal-" + name);
+        droppedFrameCount = new LongAdder();
+        ringBufferDispatcher.start();
+    }
+
+    /**
+     * Appends a text frame.
+     *
+     * @param frame the frame
+     *
+     * @return <code>true</code> if the frame was queued to be written, <code>false</code> if it was dropped
+     */
+    public boolean append(String frame) {
+        FrameEntry frameEntry = claim();
+        if (frameEntry == null) {
+            return false;
+        }
+
+        frameEntry.frameType = FrameType.TEXT;
+        frameEntry.encodeUTF8(frame);
+        ringBuffer.publish();
+        return true;
+    }
+
+    /**
+     * Appends a binary frame.
+     *
+     * @param frame the frame {@link ByteString}
+     *
+     * @return <code>true</code> if the frame was queued to be written, <code>false</code> if it was dropped
+     */
+    public boolean append(ByteString frame) {
+        FrameEntry frameEntry = claim();
+        if (frameEntry == null) {
+            return false;
+        }
+
+        frameEntry.frameType = FrameType.BINARY;
+        frameEntry.payloadLength = frame.size();
+        frameEntry.ensureCapacity(frameEntry.payloadLength);
+        frame.asByteBuffer().get(frameEntry.payload, 0, frameEntry.payloadLength);
+        ringBuffer.publish();
+        return true;
+    }
+
+    private FrameEntry claim() {
+        FrameEntry frameEntry = closed ? null : ringBuffer.tryClaim();
+        if (frameEntry == null) {
+            droppedFrameCount.increment();
+            return null;
+        }
+
+        frameEntry.receiveEpochNanos = clock.epochNanos();
+        return frameEntry;
+    }
+
+    /**
+     * Writes a {@link FrameEntry} to the current segment. This is only called by the writer thread.
+     */
+    private void write(FrameEntry frameEntry) {
+        int recordSize = JournalFormat.recordSize(frameEntry.payloadLength);
+        if (recordSize > segmentSize - JournalFormat.dataOffset(INDEX_CAPACITY)) {
+            LOGGER.warn("Dropping {} byte frame that doesn't fit in a {} journal segment!",
+                    frameEntry.payloadLength, name);
+            droppedFrameCount.increment();
+            return;
+        }
+
+        long receiveEpochNanos = frameEntry.receiveEpochNanos;
+        boolean indexed = receiveEpochNanos >= nextIndexEpochNanos;
+        try {
+            if (segment == null || segmentPosition + recordSize > segmentSize ||
+                    (indexed && indexCount == INDEX_CAPACITY)) {
+                rollSegment(receiveEpochNanos);
+                indexed = true;
+            }
+        } catch (IOException exception) {
+            LOGGER.error("Could not create {} journal segment!", name, exception);
+            droppedFrameCount.increment();
+            return;
+        }
+
+        if (indexed) {
+            int indexEntryOffset = JournalFormat.indexEntryOffset(indexCount);
+            segment.putLong(indexEntryOffset, receiveEpochNanos);
+            segment.putLong(indexEntryOffset + 8, segmentPosition);
+            segment.putInt(JournalFormat.INDEX_COUNT_OFFSET, ++indexCount);
+            nextIndexEpochNanos = Math.floorDiv(receiveEpochNanos, indexIntervalNanos) * indexIntervalNanos +
+                    indexIntervalNanos;
+        }
+
+        segment.position(segmentPosition + JournalFormat.RECORD_EPOCH_NANOS_OFFSET);
+        segment.putLong(receiveEpochNanos);
+        segment.put(frameEntry.payload, 0, frameEntry.payloadLength);
+        segment.putInt(segmentPosition + JournalFormat.RECORD_LENGTH_OFFSET, frameEntry.payloadLength);
+        // Written last since a non-zero frame type marks the record as complete
+        segment.putInt(segmentPosition + JournalFormat.RECORD_FRAME_TYPE_OFFSET, frameEntry.frameType.ordinal() + 1);
+
+        segmentPosition += recordSize;
+        writtenFrameCount++;
+    }
+
+    private void rollSegment(long firstEpochNanos) throws IOException {
+        closeSegment();
+
+        Path segmentPath = directory.resolve(JournalFormat.fileName(name, firstEpochNanos));
+        for (long epochNanos = firstEpochNanos; Files.exists(segmentPath); ) {
+            segmentPath = directory.resolve(JournalFormat.fileName(name, ++epochNanos));
+        }
+
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.order(ByteOrder.LITTLE_ENDIAN);
+        segment.putLong(JournalFormat.MAGIC_OFFSET, JournalFormat.MAGIC);
+        segment.putInt(JournalFormat.VERSION_OFFSET, JournalFormat.VERSION);
+        segment.putInt(JournalFormat.INDEX_CAPACITY_OFFSET, INDEX_CAPACITY);
+        segment.putLong(JournalFormat.INDEX_INTERVAL_OFFSET, indexIntervalNanos);
+
+        segmentPosition = JournalFormat.dataOffset(INDEX_CAPACITY);
+        indexCount = 0;
+        LOGGER.debug("Started {} journal segment: {}", name, segmentPath);
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+            segmentChannel.close();
+            segmentChannel = null;
+        }
+    }
+
+    /**
+     * Writes the frames that are already appended, flushes the current segment to disk, and stops the writer thread.
+     * Frames appended after this are dropped.
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            ringBufferDispatcher.stop();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing " + name + " journal!", exception);
+        }
+        closeSegment();
+    }
+
+    /**
+     * Opens a {@link FrameJournal} in the same directory and with the same settings as this one, such as for another
+     * connection of the same session.
+     *
+     * @param siblingName the name that prefixes the segment files of the sibling, which must differ from this name
+     *
+     * @return the sibling {@link FrameJournal}
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public FrameJournal openSibling(String siblingName) throws IOException {
+        checkArgument(!name.equals(siblingName), "'siblingName' must differ from this name!");
+        return new FrameJournal(directory, siblingName, segmentSize, indexIntervalNanos, ringBuffer.getCapacity(),
+                clock);
+    }
+
+    /**
+     * Gets the name that prefixes the segment files.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the directory of the segment files.
+     *
+     * @return the directory {@link Path}
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the number of frames written to segment files.
+     *
+     * @return the written frame count
+     */
+    public long getWrittenFrameCount() {
+        return writtenFrameCount;
+    }
+
+    /**
+     * Gets the number of frames that were dropped because the {@link RingBuffer} was full, this {@link FrameJournal}
+     * was closed, or they couldn't be written.
+     *
+     * @return the dropped frame count
+     */
+    public long getDroppedFrameCount() {
+        return droppedFrameCount.sum();
+    }
+
+    /**
+     * Gets the {@link RingBuffer} of frames waiting to be written, for its metrics.
+     *
+     * @return the {@link RingBuffer}
+     */
+    public RingBuffer<?> getRingBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * {@link FrameEntry} is a pre-allocated {@link RingBuffer} entry that holds a copy of a frame. Its payload array
+     * grows to the largest frame seen and is then reused.
+     */
+    private static final class FrameEntry {
+
+        private FrameType frameType;
+        private long receiveEpochNanos;
+        private byte[] payload = new byte[INITIAL_PAYLOAD_CAPACITY];
+        private int payloadLength;
+
+        private void ensureCapacity(int capacity) {
+            if (payload.length < capacity) {
+                payload = new byte[Math.max(capacity, payload.length * 2)];
+            }
+        }
+
+        /**
+         * Encodes <code>string</code> into {@link #payload} as UTF-8 without allocating an intermediate array.
+         */
+        private void encodeUTF8(String string) {
+            int length = string.length();
+            ensureCapacity(length * 3);
+
+            byte[] bytes = payload;
+            int position = 0;
+            for (int index = 0; index < length; index++) {
+                char character = string.charAt(index);
+                if (character < 0x80) {
+                    bytes[position++] = (byte) character;
+                } else if (character < 0x800) {
+                    bytes[position++] = (byte) (0xC0 | (character >> 6));
+                    bytes[position++] = (byte) (0x80 | (character & 0x3F));
+                } else if (Character.isHighSurrogate(character) && index + 1 < length &&
+                        Character.isLowSurrogate(string.charAt(index + 1))) {
+                    int codePoint = Character.toCodePoint(character, string.charAt(++index));
+                    bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(character)) {
+                    bytes[position++] = '?'; // An unpaired surrogate, as replaced by 'String#getBytes'
+                } else {
+                    bytes[position++] = (byte) (0xE0 | (character >> 12));
+                    bytes[position++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+                    bytes[position++] = (byte) (0x80 | (character & 0x3F));
+                }
+            }
+            payloadLength = position;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * {@link FrameJournalReader} is a cursor over the frames recorded by a {@link FrameJournal}, in the order they were
+ * received. Segments are memory-mapped read-only, so {@link #getPayload()} is a view of a frame rather than a copy.
+ * <br>
+ * The segments are listed when this reader is created, but frames that are appended to the last of them while reading
+ * are picked up by {@link #next()}.
+ */
+public class FrameJournalReader implements Closeable {
+
+    private final List<Path> segmentPaths;
+
+    private int segmentIndex;
+    private FileChannel segmentChannel;
+    private ByteBuffer segment;
+    private int segmentPosition;
+
+    private FrameType frameType;
+    private long receiveEpochNanos;
+    private int payloadOffset;
+    private int payloadLength;
+    private byte[] payloadBytes;
+
+    /**
+     * Instantiates a new {@link FrameJournalReader} positioned before the first frame.
+     *
+     * @param directory the directory of the segment files
+     * @param name      the name of the {@link FrameJournal}
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public FrameJournalReader(Path directory, String name) throws IOException {
+        checkNotNull(directory);
+        checkNotNull(name);
+
+        segmentPaths = JournalFormat.listSegments(directory, name);
+        segmentIndex = -1;
+        payloadBytes = new byte[1024];
+    }
+
+    /**
+     * Positions this reader so that {@link #next()} moves to the first frame received at or after
+     * <code>epochNanos</code>.
+     *
+     * @param epochNanos the receive epoch nanoseconds
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public void seek(long epochNanos) throws IOException {
+        if (segmentPaths.isEmpty()) {
+            return;
+        }
+
+        // Find the last segment that starts at or before 'epochNanos'
+        int targetSegmentIndex = 0;
+        for (int index = segmentPaths.size() - 1; index > 0; index--) {
+            if (JournalFormat.firstEpochNanos(segmentPaths.get(index)) <= epochNanos) {
+                targetSegmentIndex = index;
+                break;
+            }
+        }
+        openSegment(targetSegmentIndex);
+
+        // Binary search the time index for the last entry at or before 'epochNanos'
+        int low = 0;
+        int high = segment.getInt(JournalFormat.INDEX_COUNT_OFFSET) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int indexEntryOffset = JournalFormat.indexEntryOffset(middle);
+            if (segment.getLong(indexEntryOffset) <= epochNanos) {
+                segmentPosition = (int) segment.getLong(indexEntryOffset + 8);
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        // Then scan to the first frame at or after 'epochNanos'. If there's none in this segment, then the first frame
+        // of the next segment is the one.
+        while (hasRecord(segmentPosition) &&
+                segment.getLong(segmentPosition + JournalFormat.RECORD_EPOCH_NANOS_OFFSET) < epochNanos) {
+            segmentPosition += JournalFormat.recordSize(
+                    segment.getInt(segmentPosition + JournalFormat.RECORD_LENGTH_OFFSET));
+        }
+    }
+
+    /**
+     * Moves to the next frame.
+     *
+     * @return <code>true</code> if there is a next frame, <code>false</code> if all frames were read
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    public boolean next() throws IOException {
+        while (segment == null || !hasRecord(segmentPosition)) {
+            if (segmentIndex + 1 >= segmentPaths.size()) {
+                return false;
+            }
+            openSegment(segmentIndex + 1);
+        }
+
+        payloadLength = segment.getInt(segmentPosition + JournalFormat.RECORD_LENGTH_OFFSET);
+        frameType = FrameType.values()[segment.getInt(segmentPosition + JournalFormat.RECORD_FRAME_TYPE_OFFSET) - 1];
+        receiveEpochNanos = segment.getLong(segmentPosition + JournalFormat.RECORD_EPOCH_NANOS_OFFSET);
+        payloadOffset = segmentPosition + JournalFormat.RECORD_HEADER_SIZE;
+        segmentPosition += JournalFormat.recordSize(payloadLength);
+        return true;
+    }
+
+    /**
+     * Gets the {@link FrameType} of the current frame.
+     *
+     * @return the {@link FrameType}
+     */
+    public FrameType getFrameType() {
+        checkCurrentFrame();
+        return frameType;
+    }
+
+    /**
+     * Gets the receive epoch nanoseconds of the current frame.
+     *
+     * @return the receive epoch nanoseconds
+     */
+    public long getReceiveEpochNanos() {
+        checkCurrentFrame();
+        return receiveEpochNanos;
+    }
+
+    /**
+     * Gets a read-only {@link ByteBuffer} of the payload of the current frame, which is a view of the memory-mapped
+     * segment that is only valid until this reader moves to another segment or is closed.
+     *
+     * @return a {@link ByteBuffer}
+     */
+    public ByteBuffer getPayload() {
+        checkCurrentFrame();
+        ByteBuffer payload = segment.duplicate();
+        payload.position(payloadOffset);
+        payload.limit(payloadOffset + payloadLength);
+        return payload.slice();
+    }
+
+    /**
+     * Decodes the payload of the current frame as UTF-8, which is the text of a {@link FrameType#TEXT} frame.
+     *
+     * @return the payload {@link String}
+     */
+    public String getPayloadUTF8() {
+        checkCurrentFrame();
+        if (payloadBytes.length < payloadLength) {
+            payloadBytes = new byte[Math.max(payloadLength, payloadBytes.length * 2)];
+        }
+        segment.position(payloadOffset);
+        segment.get(payloadBytes, 0, payloadLength);
+        return new String(payloadBytes, 0, payloadLength, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the segment files, in time order.
+     *
+     * @return a {@link List} of {@link Path}s
+     */
+    public List<Path> getSegmentPaths() {
+        return segmentPaths;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    private boolean hasRecord(int position) {
+        return position + JournalFormat.RECORD_HEADER_SIZE <= segment.limit() &&
+                segment.getInt(position + JournalFormat.RECORD_FRAME_TYPE_OFFSET) != 0;
+    }
+
+    private void checkCurrentFrame() {
+        checkState(frameType != null, "'next()' didn't move to a frame!");
+    }
+
+    private void openSegment(int index) throws IOException {
+        closeSegment();
+
+        Path segmentPath = segmentPaths.get(index);
+        segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.READ);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        if (segment.limit() < JournalFormat.HEADER_SIZE ||
+                segment.getLong(JournalFormat.MAGIC_OFFSET) != JournalFormat.MAGIC) {
+            closeSegment();
+            throw new IOException("Not a frame journal segment: " + segmentPath);
+        }
+        if (segment.getInt(JournalFormat.VERSION_OFFSET) != JournalFormat.VERSION) {
+            closeSegment();
+            throw new IOException("Unsupported frame journal version in: " + segmentPath);
+        }
+
+        segmentIndex = index;
+        segmentPosition = JournalFormat.dataOffset(segment.getInt(JournalFormat.INDEX_CAPACITY_OFFSET));
+        frameType = null;
+    }
+
+    private void closeSegment() throws IOException {
+        if (segmentChannel != null) {
+            segment = null;
+            segmentChannel.close();
+            segmentChannel = null;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import net.jacobpeterson.alpaca.websocket.AlpacaWebsocket;
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okio.ByteString;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link FrameReplayer} replays the frames recorded by a {@link FrameJournal} into an {@link AlpacaWebsocket}, such
+ * as a {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket} or a {@link
+ * net.jacobpeterson.alpaca.websocket.streaming.StreamingWebsocket}, through the same <code>onMessage</code> decode and
+ * dispatch path as received frames. This runs the real listeners of the websocket against a recorded session for
+ * backtests and regression tests.
+ * <br>
+ * Frames are replayed on the thread that calls {@link #replay()}, in the order they were recorded, so a replay with
+ * inline dispatch is deterministic. Before each frame, the {@link ReplayClock} is set to its receive timestamp.
+ * <br>
+ * The websocket shouldn't be connected or have a {@link FrameJournal}, and its listeners shouldn't change its
+ * subscriptions during a replay. Replayed authentication and subscription responses don't change the {@link
+ * net.jacobpeterson.alpaca.websocket.connection.ConnectionState} of the unconnected websocket. A replay should start
+ * from the beginning of a session, since the recorded subscription messages decide which message types the websocket
+ * passes on to its listeners.
+ */
+public class FrameReplayer {
+
+    private static final WebSocket REPLAY_WEBSOCKET = new ReplayWebSocket();
+
+    private final FrameJournalReader frameJournalReader;
+    private final AlpacaWebsocket<?, ?, ?> websocket;
+    private final ReplaySpeed replaySpeed;
+    private final ReplayClock replayClock;
+
+    private volatile boolean stopped;
+    // True if the current frame of 'frameJournalReader' was read but not replayed since it was past 'toEpochNanos'
+    private boolean pendingFrame;
+    private volatile long replayedFrameCount;
+
+    /**
+     * Instantiates a new {@link FrameReplayer}.
+     *
+     * @param frameJournalReader the {@link FrameJournalReader} to replay the frames of
+     * @param websocket          the {@link AlpacaWebsocket} to replay the frames into
+     * @param replaySpeed        the {@link ReplaySpeed}
+     * @param replayClock        the {@link ReplayClock} to set to the receive timestamp of each frame
+     */
+    public FrameReplayer(FrameJournalReader frameJournalReader, AlpacaWebsocket<?, ?, ?> websocket,
+            ReplaySpeed replaySpeed, ReplayClock replayClock) {
+        this.frameJournalReader = checkNotNull(frameJournalReader);
+        this.websocket = checkNotNull(websocket);
+        this.replaySpeed = checkNotNull(replaySpeed);
+        this.replayClock = checkNotNull(replayClock);
+    }
+
+    /**
+     * Replays all remaining frames.
+     *
+     * @return the number of frames replayed
+     *
+     * @throws IOException          thrown for {@link IOException}s
+     * @throws InterruptedException thrown if interrupted while waiting for the time of a frame
+     * @see #replay(long, long)
+     */
+    public long replay() throws IOException, InterruptedException {
+        return replay(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Replays the frames received from <code>fromEpochNanos</code> (inclusive) to <code>toEpochNanos</code>
+     * (exclusive), or until {@link #stop()} is called.
+     *
+     * @param fromEpochNanos the receive epoch nanoseconds to start at
+     * @param toEpochNanos   the receive epoch nanoseconds to stop at
+     *
+     * @return the number of frames replayed
+     *
+     * @throws IOException          thrown for {@link IOException}s
+     * @throws InterruptedException thrown if interrupted while waiting for the time of a frame
+     */
+    public long replay(long fromEpochNanos, long toEpochNanos) throws IOException, InterruptedException {
+        if (fromEpochNanos != Long.MIN_VALUE) {
+            frameJournalReader.seek(fromEpochNanos);
+            pendingFrame = false;
+        }
+
+        stopped = false;
+        boolean paced = !replaySpeed.isAsFastAsPossible();
+        double multiplier = replaySpeed.getMultiplier();
+        long firstFrameEpochNanos = 0;
+        long startNanoTime = 0;
+        long frameCount = 0;
+
+        while (!stopped && (pendingFrame || frameJournalReader.next())) {
+            long receiveEpochNanos = frameJournalReader.getReceiveEpochNanos();
+            pendingFrame = receiveEpochNanos >= toEpochNanos;
+            if (pendingFrame) {
+                break;
+            }
+
+            if (paced) {
+                if (frameCount == 0) {
+                    firstFrameEpochNanos = receiveEpochNanos;
+                    startNanoTime = System.nanoTime();
+                } else {
+                    waitUntil(startNanoTime + (long) ((receiveEpochNanos - firstFrameEpochNanos) / multiplier));
+                }
+            }
+
+            replayClock.setEpochNanos(receiveEpochNanos);
+            switch (frameJournalReader.getFrameType()) {
+                case TEXT:
+                    websocket.onMessage(REPLAY_WEBSOCKET, frameJournalReader.getPayloadUTF8());
+                    break;
+                case BINARY:
+                    websocket.onMessage(REPLAY_WEBSOCKET, ByteString.of(frameJournalReader.getPayload()));
+                    break;
+                default:
+                    throw new UnsupportedOperationException();
+            }
+
+            frameCount++;
+            replayedFrameCount++;
+        }
+        return frameCount;
+    }
+
+    private static void waitUntil(long dueNanoTime) throws InterruptedException {
+        long remainingNanos;
+        while ((remainingNanos = dueNanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Stops a replay in progress after the current frame.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Gets the total number of frames replayed by this {@link FrameReplayer}.
+     *
+     * @return the replayed frame count
+     */
+    public long getReplayedFrameCount() {
+        return replayedFrameCount;
+    }
+
+    /**
+     * {@link ReplayWebSocket} is the {@link WebSocket} passed to <code>onMessage</code> during a replay. Nothing can be
+     * sent with it.
+     */
+    private static final class ReplayWebSocket implements WebSocket {
+
+        @NotNull
+        @Override
+        public Request request() {
+            throw new UnsupportedOperationException("A replayed websocket has no request!");
+        }
+
+        @Override
+        public long queueSize() {
+            return 0;
+        }
+
+        @Override
+        public boolean send(@NotNull String text) {
+            return false;
+        }
+
+        @Override
+        public boolean send(@NotNull ByteString bytes) {
+            return false;
+        }
+
+        @Override
+        public boolean close(int code, String reason) {
+            return false;
+        }
+
+        @Override
+        public void cancel() {}
+    }
+}
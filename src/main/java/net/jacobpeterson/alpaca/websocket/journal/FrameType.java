@@ -0,0 +1,17 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+/**
+ * {@link FrameType} defines the type of a websocket frame recorded in a {@link FrameJournal}.
+ */
+public enum FrameType {
+
+    /**
+     * A text frame, such as the frames of {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}.
+     */
+    TEXT,
+
+    /**
+     * A binary frame, such as the frames of {@link net.jacobpeterson.alpaca.websocket.streaming.StreamingWebsocket}.
+     */
+    BINARY
+}
@@ -0,0 +1,105 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link JournalFormat} defines the layout of the segment files of a {@link FrameJournal}. All values are
+ * little-endian.
+ * <br>
+ * A segment is named <code>&lt;name&gt;-&lt;epoch nanos of its first frame, zero-padded to 19
+ * digits&gt;.journal</code>, so the segments of a journal sort by time. It's laid out as:
+ * <ol>
+ *     <li>A {@link #HEADER_SIZE} byte header with the magic number, the format version, the capacity of the time
+ *     index, the index interval, and the number of index entries.</li>
+ *     <li>The time index: a fixed number of {@link #INDEX_ENTRY_SIZE} byte entries, each holding the receive epoch
+ *     nanoseconds and file offset of the first frame received in a new index interval.</li>
+ *     <li>The records, each an <code>int</code> payload length, an <code>int</code> {@link FrameType} ordinal plus
+ *     one, a <code>long</code> receive epoch nanoseconds, and the raw frame payload, padded to 8 bytes. The {@link
+ *     FrameType} field is written last, so a <code>0</code> there marks the end of the written records.</li>
+ * </ol>
+ */
+final class JournalFormat {
+
+    static final long MAGIC = 0x4C4E524A41504C41L; // "ALPAJRNL" in little-endian
+    static final int VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 8;
+    static final int INDEX_CAPACITY_OFFSET = 12;
+    static final int INDEX_INTERVAL_OFFSET = 16;
+    static final int INDEX_COUNT_OFFSET = 24;
+    static final int HEADER_SIZE = 64;
+
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    static final int RECORD_LENGTH_OFFSET = 0;
+    static final int RECORD_FRAME_TYPE_OFFSET = 4;
+    static final int RECORD_EPOCH_NANOS_OFFSET = 8;
+    static final int RECORD_HEADER_SIZE = 16;
+
+    static final String FILE_SUFFIX = ".journal";
+
+    private static final int EPOCH_NANOS_DIGITS = 19;
+
+    private JournalFormat() {}
+
+    static int indexEntryOffset(int index) {
+        return HEADER_SIZE + index * INDEX_ENTRY_SIZE;
+    }
+
+    static int dataOffset(int indexCapacity) {
+        return indexEntryOffset(indexCapacity);
+    }
+
+    static int recordSize(int payloadLength) {
+        return (RECORD_HEADER_SIZE + payloadLength + 7) & ~7;
+    }
+
+    static String fileName(String name, long firstEpochNanos) {
+        return name + "-" + String.format("%0" + EPOCH_NANOS_DIGITS + "d", firstEpochNanos) + FILE_SUFFIX;
+    }
+
+    /**
+     * Gets the epoch nanoseconds of the first frame of a segment from its file name.
+     */
+    static long firstEpochNanos(Path segmentPath) {
+        String fileName = segmentPath.getFileName().toString();
+        int end = fileName.length() - FILE_SUFFIX.length();
+        return Long.parseLong(fileName.substring(end - EPOCH_NANOS_DIGITS, end));
+    }
+
+    /**
+     * Lists the segments of the journal with the given <code>name</code> in <code>directory</code>, in time order.
+     */
+    static List<Path> listSegments(Path directory, String name) throws IOException {
+        List<Path> segmentPaths = new ArrayList<>();
+        String prefix = name + "-";
+        try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path path : directoryStream) {
+                String fileName = path.getFileName().toString();
+                if (fileName.length() == prefix.length() + EPOCH_NANOS_DIGITS + FILE_SUFFIX.length() &&
+                        fileName.startsWith(prefix) && isDigits(fileName, prefix.length(),
+                        prefix.length() + EPOCH_NANOS_DIGITS)) {
+                    segmentPaths.add(path);
+                }
+            }
+        }
+        Collections.sort(segmentPaths);
+        return segmentPaths;
+    }
+
+    private static boolean isDigits(String string, int start, int end) {
+        for (int index = start; index < end; index++) {
+            if (string.charAt(index) < '0' || string.charAt(index) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,37 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import net.jacobpeterson.alpaca.util.time.EpochNanosClock;
+
+/**
+ * {@link ReplayClock} is an {@link EpochNanosClock} of simulated time that a {@link FrameReplayer} sets to the receive
+ * timestamp of each frame before replaying it. Pass it to anything that takes an {@link EpochNanosClock}, such as a
+ * {@link net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBarBuilder}, so that it sees the recorded time instead
+ * of the time of the replay.
+ */
+public class ReplayClock implements EpochNanosClock {
+
+    private volatile long epochNanos;
+
+    /**
+     * Instantiates a new {@link ReplayClock}.
+     *
+     * @param epochNanos the initial epoch nanoseconds
+     */
+    public ReplayClock(long epochNanos) {
+        this.epochNanos = epochNanos;
+    }
+
+    @Override
+    public long epochNanos() {
+        return epochNanos;
+    }
+
+    /**
+     * Sets the simulated time.
+     *
+     * @param epochNanos the epoch nanoseconds
+     */
+    public void setEpochNanos(long epochNanos) {
+        this.epochNanos = epochNanos;
+    }
+}
@@ -0,0 +1,58 @@
+package net.jacobpeterson.alpaca.websocket.journal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link ReplaySpeed} defines how fast a {@link FrameReplayer} replays frames relative to the time they were recorded
+ * over.
+ */
+public final class ReplaySpeed {
+
+    /** Replays frames without waiting between them. */
+    public static final ReplaySpeed AS_FAST_AS_POSSIBLE = new ReplaySpeed(Double.POSITIVE_INFINITY);
+
+    /** Replays frames with the same gaps between them as when they were received. */
+    public static final ReplaySpeed REAL_TIME = new ReplaySpeed(1);
+
+    private final double multiplier;
+
+    private ReplaySpeed(double multiplier) {
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Creates a {@link ReplaySpeed} that is <code>multiplier</code> times as fast as real time, so that
+     * <code>2</code> replays an hour in 30 minutes.
+     *
+     * @param multiplier the positive multiplier
+     *
+     * @return a {@link ReplaySpeed}
+     */
+    public static ReplaySpeed multiple(double multiplier) {
+        checkArgument(multiplier > 0, "'multiplier' must be positive!");
+        return new ReplaySpeed(multiplier);
+    }
+
+    /**
+     * Gets the multiplier of real time, which is {@link Double#POSITIVE_INFINITY} for {@link #AS_FAST_AS_POSSIBLE}.
+     *
+     * @return the multiplier
+     */
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+     * Returns true if this is {@link #AS_FAST_AS_POSSIBLE}.
+     *
+     * @return a boolean
+     */
+    public boolean isAsFastAsPossible() {
+        return multiplier == Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public String toString() {
+        return isAsFastAsPossible() ? "AS_FAST_AS_POSSIBLE" : multiplier + "x";
+    }
+}
@@ -0,0 +1,17 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+
+/**
+ * {@link BarListener} defines a listener interface for {@link MarketDataWebsocket} {@link BarMessage}s.
+ */
+@FunctionalInterface
+public interface BarListener {
+
+    /**
+     * Called when a {@link BarMessage} is received.
+     *
+     * @param barMessage the {@link BarMessage}
+     */
+    void onBar(BarMessage barMessage);
+}
@@ -0,0 +1,35 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SuccessMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+
+/**
+ * {@link MarketDataControlListener} defines a listener interface for {@link MarketDataWebsocket} control messages.
+ * Control messages are always passed to a {@link MarketDataControlListener}, regardless of {@link
+ * MarketDataWebsocketInterface#subscribeToControl(MarketDataMessageType...)}.
+ */
+public interface MarketDataControlListener {
+
+    /**
+     * Called when a {@link SuccessMessage} is received.
+     *
+     * @param successMessage the {@link SuccessMessage}
+     */
+    default void onSuccess(SuccessMessage successMessage) {}
+
+    /**
+     * Called when an {@link ErrorMessage} is received.
+     *
+     * @param errorMessage the {@link ErrorMessage}
+     */
+    default void onError(ErrorMessage errorMessage) {}
+
+    /**
+     * Called when a {@link SubscriptionsMessage} is received.
+     *
+     * @param subscriptionsMessage the {@link SubscriptionsMessage}
+     */
+    default void onSubscriptions(SubscriptionsMessage subscriptionsMessage) {}
+}
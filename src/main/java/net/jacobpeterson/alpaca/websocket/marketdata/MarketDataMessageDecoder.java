@@ -0,0 +1,532 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SuccessMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+
+/**
+ * {@link MarketDataMessageDecoder} decodes {@link MarketDataWebsocket} text frames into {@link MarketDataMessage}s in
+ * a single pass with a streaming {@link JsonReader} instead of building an intermediate {@link JsonElement} tree.
+ * <br>
+ * Alpaca always sends the <code>"T"</code> element first, so the message type is switched on directly from its raw
+ * {@link String} value and the fields of the associated {@link MarketDataMessage} are filled as they are read. Objects
+ * that don't start with <code>"T"</code> fall back to the slower {@link JsonObject} tree path. Symbols are interned
+ * in {@link SymbolTable#GLOBAL}, so every decoded message shares the same symbol {@link String} instance and ID.
+ * <br>
+ * A {@link MarketDataMessageFilter} can reject a trade, quote, or bar by its type or symbol, in which case the rest of
+ * its object is skipped over without being materialized.
+ * <br>
+ * Note that this class is not thread-safe.
+ */
+public class MarketDataMessageDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MarketDataMessageDecoder.class);
+    private static final String MESSAGE_TYPE_ELEMENT_KEY = "T";
+
+    private MarketDataMessageFilter messageFilter = MarketDataMessageFilter.ACCEPT_ALL;
+
+    /**
+     * Decodes the given <code>message</code> text frame and calls <code>messageHandler</code> with every {@link
+     * MarketDataMessage} in it, in order.
+     *
+     * @param message        the JSON array text frame
+     * @param messageHandler the {@link MarketDataListener} to call with each decoded {@link MarketDataMessage}
+     *
+     * @throws JsonParseException thrown if <code>message</code> is malformed
+     */
+    public void decode(String message, MarketDataListener messageHandler) {
+        decode(message, MarketDataMessageFilter.ACCEPT_ALL, messageHandler);
+    }
+
+    /**
+     * Decodes the given <code>message</code> text frame and calls <code>messageHandler</code> with every {@link
+     * MarketDataMessage} in it that <code>messageFilter</code> accepts, in order.
+     *
+     * @param message        the JSON array text frame
+     * @param messageFilter  the {@link MarketDataMessageFilter}
+     * @param messageHandler the {@link MarketDataListener} to call with each decoded {@link MarketDataMessage}
+     *
+     * @throws JsonParseException thrown if <code>message</code> is malformed
+     */
+    public void decode(String message, MarketDataMessageFilter messageFilter, MarketDataListener messageHandler) {
+        checkNotNull(message);
+        checkNotNull(messageFilter);
+        checkNotNull(messageHandler);
+
+        this.messageFilter = messageFilter;
+        try (JsonReader jsonReader = new JsonReader(new StringReader(message))) {
+            jsonReader.setLenient(true);
+
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                decodeObject(jsonReader, messageHandler);
+            }
+            jsonReader.endArray();
+        } catch (IOException ioException) {
+            throw new JsonParseException("Could not decode message: " + message, ioException);
+        } finally {
+            this.messageFilter = MarketDataMessageFilter.ACCEPT_ALL;
+        }
+    }
+
+    /**
+     * Decodes the given single JSON object of a text frame and calls <code>messageHandler</code> with it.
+     *
+     * @param messageObject  the JSON object text
+     * @param messageHandler the {@link MarketDataListener} to call with the decoded {@link MarketDataMessage}
+     *
+     * @throws JsonParseException thrown if <code>messageObject</code> is malformed
+     */
+    public void decodeObject(String messageObject, MarketDataListener messageHandler) {
+        checkNotNull(messageObject);
+        checkNotNull(messageHandler);
+
+        try (JsonReader jsonReader = new JsonReader(new StringReader(messageObject))) {
+            jsonReader.setLenient(true);
+            decodeObject(jsonReader, messageHandler);
+        } catch (IOException ioException) {
+            throw new JsonParseException("Could not decode message object: " + messageObject, ioException);
+        }
+    }
+
+    /**
+     * Decodes the next JSON object in <code>jsonReader</code> and calls <code>messageHandler</code> with it.
+     *
+     * @param jsonReader     the {@link JsonReader}
+     * @param messageHandler the {@link MarketDataListener}
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private void decodeObject(JsonReader jsonReader, MarketDataListener messageHandler) throws IOException {
+        jsonReader.beginObject();
+
+        if (!jsonReader.hasNext()) {
+            jsonReader.endObject();
+            throw new IllegalStateException("MarketDataMessageType not found in empty message object!");
+        }
+
+        String firstName = jsonReader.nextName();
+        if (!firstName.equals(MESSAGE_TYPE_ELEMENT_KEY)) {
+            decodeObjectTree(jsonReader, firstName, messageHandler);
+            return;
+        }
+
+        String messageType = jsonReader.nextString();
+        switch (messageType) {
+            case "t":
+                if (acceptsType(jsonReader, MarketDataMessageType.TRADE)) {
+                    handleAccepted(MarketDataMessageType.TRADE, readTradeMessage(jsonReader), messageHandler);
+                }
+                break;
+            case "q":
+                if (acceptsType(jsonReader, MarketDataMessageType.QUOTE)) {
+                    handleAccepted(MarketDataMessageType.QUOTE, readQuoteMessage(jsonReader), messageHandler);
+                }
+                break;
+            case "b":
+                if (acceptsType(jsonReader, MarketDataMessageType.BAR)) {
+                    handleAccepted(MarketDataMessageType.BAR, readBarMessage(jsonReader), messageHandler);
+                }
+                break;
+            case "success":
+                messageHandler.onMessage(MarketDataMessageType.SUCCESS, readSuccessMessage(jsonReader));
+                break;
+            case "error":
+                messageHandler.onMessage(MarketDataMessageType.ERROR, readErrorMessage(jsonReader));
+                break;
+            case "subscription":
+                messageHandler.onMessage(MarketDataMessageType.SUBSCRIPTION, readSubscriptionsMessage(jsonReader));
+                break;
+            default:
+                LOGGER.error("Message type {} not implemented!", messageType);
+                skipRemainingObject(jsonReader);
+        }
+    }
+
+    /**
+     * Returns true if {@link #messageFilter} accepts <code>marketDataMessageType</code>, otherwise skips the rest of
+     * the current JSON object in <code>jsonReader</code>.
+     *
+     * @param jsonReader            the {@link JsonReader}
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     *
+     * @return a boolean
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private boolean acceptsType(JsonReader jsonReader, MarketDataMessageType marketDataMessageType)
+            throws IOException {
+        if (messageFilter.acceptsType(marketDataMessageType)) {
+            return true;
+        }
+        skipRemainingObject(jsonReader);
+        return false;
+    }
+
+    /**
+     * Reads the <code>"S"</code> element and returns its symbol ID if {@link #messageFilter} accepts it, otherwise
+     * skips the rest of the current JSON object in <code>jsonReader</code>.
+     *
+     * @param jsonReader            the {@link JsonReader}
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     *
+     * @return the symbol ID, or {@link Integer#MIN_VALUE} if the symbol was rejected
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private int readAcceptedSymbolID(JsonReader jsonReader, MarketDataMessageType marketDataMessageType)
+            throws IOException {
+        int symbolID = readSymbolID(jsonReader);
+        if (messageFilter.acceptsSymbol(marketDataMessageType, symbolID)) {
+            return symbolID;
+        }
+        skipRemainingObject(jsonReader);
+        return Integer.MIN_VALUE;
+    }
+
+    private static void handleAccepted(MarketDataMessageType marketDataMessageType,
+            MarketDataMessage marketDataMessage, MarketDataListener messageHandler) {
+        // A message is null if its symbol was rejected
+        if (marketDataMessage != null) {
+            messageHandler.onMessage(marketDataMessageType, marketDataMessage);
+        }
+    }
+
+    /**
+     * Decodes the remainder of the current JSON object in <code>jsonReader</code> into a {@link JsonObject} tree and
+     * deserializes it with {@link com.google.gson.Gson}. This is only used for objects whose first element is not
+     * {@link #MESSAGE_TYPE_ELEMENT_KEY}.
+     *
+     * @param jsonReader     the {@link JsonReader} positioned after <code>firstName</code>
+     * @param firstName      the already consumed first element name
+     * @param messageHandler the {@link MarketDataListener}
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private void decodeObjectTree(JsonReader jsonReader, String firstName, MarketDataListener messageHandler)
+            throws IOException {
+        JsonObject messageObject = new JsonObject();
+        messageObject.add(firstName, JsonParser.parseReader(jsonReader));
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            messageObject.add(name, JsonParser.parseReader(jsonReader));
+        }
+        jsonReader.endObject();
+
+        MarketDataMessageType marketDataMessageType = GSON.fromJson(
+                messageObject.get(MESSAGE_TYPE_ELEMENT_KEY), MarketDataMessageType.class);
+        checkNotNull(marketDataMessageType, "MarketDataMessageType not found in message: %s", messageObject);
+
+        Class<? extends MarketDataMessage> messageClass;
+        switch (marketDataMessageType) {
+            case SUCCESS:
+                messageClass = SuccessMessage.class;
+                break;
+            case ERROR:
+                messageClass = ErrorMessage.class;
+                break;
+            case SUBSCRIPTION:
+                messageClass = SubscriptionsMessage.class;
+                break;
+            case TRADE:
+                messageClass = TradeMessage.class;
+                break;
+            case QUOTE:
+                messageClass = QuoteMessage.class;
+                break;
+            case BAR:
+                messageClass = BarMessage.class;
+                break;
+            default:
+                LOGGER.error("Message type {} not implemented!", marketDataMessageType);
+                return;
+        }
+
+        messageHandler.onMessage(marketDataMessageType, GSON.fromJson(messageObject, messageClass));
+    }
+
+    private TradeMessage readTradeMessage(JsonReader jsonReader) throws IOException {
+        TradeMessage tradeMessage = new TradeMessage();
+        tradeMessage.setMessageType(MarketDataMessageType.TRADE);
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "S":
+                    int symbolID = readAcceptedSymbolID(jsonReader, MarketDataMessageType.TRADE);
+                    if (symbolID == Integer.MIN_VALUE) {
+                        return null;
+                    }
+                    tradeMessage.setSymbolID(symbolID);
+                    break;
+                case "i":
+                    tradeMessage.setTradeID(readLong(jsonReader));
+                    break;
+                case "x":
+                    tradeMessage.setExchange(readString(jsonReader));
+                    break;
+                case "p":
+                    tradeMessage.setPrice(readDouble(jsonReader));
+                    break;
+                case "s":
+                    tradeMessage.setSize(readInteger(jsonReader));
+                    break;
+                case "t":
+                    tradeMessage.setTimestampEpochNanos(readTimestampEpochNanos(jsonReader));
+                    break;
+                case "c":
+                    tradeMessage.setConditions(readStringList(jsonReader));
+                    break;
+                case "z":
+                    tradeMessage.setTape(readString(jsonReader));
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return tradeMessage;
+    }
+
+    private QuoteMessage readQuoteMessage(JsonReader jsonReader) throws IOException {
+        QuoteMessage quoteMessage = new QuoteMessage();
+        quoteMessage.setMessageType(MarketDataMessageType.QUOTE);
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "S":
+                    int symbolID = readAcceptedSymbolID(jsonReader, MarketDataMessageType.QUOTE);
+                    if (symbolID == Integer.MIN_VALUE) {
+                        return null;
+                    }
+                    quoteMessage.setSymbolID(symbolID);
+                    break;
+                case "ax":
+                    quoteMessage.setAskExchangeCode(readString(jsonReader));
+                    break;
+                case "ap":
+                    quoteMessage.setAskPrice(readDouble(jsonReader));
+                    break;
+                case "as":
+                    quoteMessage.setAskSize(readInteger(jsonReader));
+                    break;
+                case "bx":
+                    quoteMessage.setBidExchangeCode(readString(jsonReader));
+                    break;
+                case "bp":
+                    quoteMessage.setBidPrice(readDouble(jsonReader));
+                    break;
+                case "bs":
+                    quoteMessage.setBidSize(readInteger(jsonReader));
+                    break;
+                case "t":
+                    quoteMessage.setTimestampEpochNanos(readTimestampEpochNanos(jsonReader));
+                    break;
+                case "c":
+                    quoteMessage.setConditions(readStringList(jsonReader));
+                    break;
+                case "z":
+                    quoteMessage.setTape(readString(jsonReader));
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return quoteMessage;
+    }
+
+    private BarMessage readBarMessage(JsonReader jsonReader) throws IOException {
+        BarMessage barMessage = new BarMessage();
+        barMessage.setMessageType(MarketDataMessageType.BAR);
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "S":
+                    int symbolID = readAcceptedSymbolID(jsonReader, MarketDataMessageType.BAR);
+                    if (symbolID == Integer.MIN_VALUE) {
+                        return null;
+                    }
+                    barMessage.setSymbolID(symbolID);
+                    break;
+                case "o":
+                    barMessage.setOpen(readDouble(jsonReader));
+                    break;
+                case "h":
+                    barMessage.setHigh(readDouble(jsonReader));
+                    break;
+                case "l":
+                    barMessage.setLow(readDouble(jsonReader));
+                    break;
+                case "c":
+                    barMessage.setClose(readDouble(jsonReader));
+                    break;
+                case "v":
+                    barMessage.setVolume(readLong(jsonReader));
+                    break;
+                case "t":
+                    barMessage.setTimestampEpochNanos(readTimestampEpochNanos(jsonReader));
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return barMessage;
+    }
+
+    private SuccessMessage readSuccessMessage(JsonReader jsonReader) throws IOException {
+        SuccessMessage successMessage = new SuccessMessage();
+        successMessage.setMessageType(MarketDataMessageType.SUCCESS);
+
+        while (jsonReader.hasNext()) {
+            if (jsonReader.nextName().equals("msg")) {
+                successMessage.setMessage(readString(jsonReader));
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return successMessage;
+    }
+
+    private ErrorMessage readErrorMessage(JsonReader jsonReader) throws IOException {
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setMessageType(MarketDataMessageType.ERROR);
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "code":
+                    errorMessage.setCode(readInteger(jsonReader));
+                    break;
+                case "msg":
+                    errorMessage.setMessage(readString(jsonReader));
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return errorMessage;
+    }
+
+    private SubscriptionsMessage readSubscriptionsMessage(JsonReader jsonReader) throws IOException {
+        SubscriptionsMessage subscriptionsMessage = new SubscriptionsMessage();
+        subscriptionsMessage.setMessageType(MarketDataMessageType.SUBSCRIPTION);
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "trades":
+                    subscriptionsMessage.setTrades(readStringList(jsonReader));
+                    break;
+                case "quotes":
+                    subscriptionsMessage.setQuotes(readStringList(jsonReader));
+                    break;
+                case "bars":
+                    subscriptionsMessage.setBars(readStringList(jsonReader));
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+
+        return subscriptionsMessage;
+    }
+
+    /**
+     * Skips the remaining elements of the current JSON object in <code>jsonReader</code>.
+     *
+     * @param jsonReader the {@link JsonReader}
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private void skipRemainingObject(JsonReader jsonReader) throws IOException {
+        while (jsonReader.hasNext()) {
+            jsonReader.skipValue();
+        }
+        jsonReader.endObject();
+    }
+
+    /**
+     * Returns true and consumes the next value if it is a JSON <code>null</code>.
+     *
+     * @param jsonReader the {@link JsonReader}
+     *
+     * @return a boolean
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private boolean nextIsNull(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private String readString(JsonReader jsonReader) throws IOException {
+        return nextIsNull(jsonReader) ? null : jsonReader.nextString();
+    }
+
+    private int readSymbolID(JsonReader jsonReader) throws IOException {
+        return nextIsNull(jsonReader) ? SymbolTable.NO_ID : SymbolTable.GLOBAL.intern(jsonReader.nextString());
+    }
+
+    private Double readDouble(JsonReader jsonReader) throws IOException {
+        return nextIsNull(jsonReader) ? null : jsonReader.nextDouble();
+    }
+
+    private Integer readInteger(JsonReader jsonReader) throws IOException {
+        return nextIsNull(jsonReader) ? null : jsonReader.nextInt();
+    }
+
+    private Long readLong(JsonReader jsonReader) throws IOException {
+        return nextIsNull(jsonReader) ? null : jsonReader.nextLong();
+    }
+
+    private long readTimestampEpochNanos(JsonReader jsonReader) throws IOException {
+        return nextIsNull(jsonReader) ? EpochNanosUtil.NO_EPOCH_NANOS :
+                EpochNanosUtil.parseRFC3339(jsonReader.nextString());
+    }
+
+    private ArrayList<String> readStringList(JsonReader jsonReader) throws IOException {
+        if (nextIsNull(jsonReader)) {
+            return null;
+        }
+
+        ArrayList<String> strings = new ArrayList<>();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            strings.add(readString(jsonReader));
+        }
+        jsonReader.endArray();
+        return strings;
+    }
+}
@@ -0,0 +1,45 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+
+/**
+ * {@link MarketDataMessageFilter} decides, while a trade, quote, or bar is being decoded, whether it's wanted at all,
+ * so that {@link MarketDataMessageDecoder} and {@link MessagePackMarketDataDecoder} can skip over the rest of an
+ * unwanted message instead of materializing it into a {@link MarketDataMessage}. Control messages are never filtered.
+ * <br>
+ * It's called on the thread that decodes, once per message, so it should only do a few cheap lookups.
+ */
+@FunctionalInterface
+public interface MarketDataMessageFilter {
+
+    /**
+     * A {@link MarketDataMessageFilter} that accepts every message.
+     */
+    MarketDataMessageFilter ACCEPT_ALL = marketDataMessageType -> true;
+
+    /**
+     * Returns true if messages of <code>marketDataMessageType</code> are wanted. This is called as soon as the
+     * <code>"T"</code> element of a trade, quote, or bar is read.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     *
+     * @return a boolean
+     */
+    boolean acceptsType(MarketDataMessageType marketDataMessageType);
+
+    /**
+     * Returns true if the message of an accepted <code>marketDataMessageType</code> with <code>symbolID</code> is
+     * wanted. This is called as soon as the <code>"S"</code> element of the message is read. It returns true by
+     * default.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param symbolID              the {@link SymbolTable#GLOBAL} symbol ID
+     *
+     * @return a boolean
+     */
+    default boolean acceptsSymbol(MarketDataMessageType marketDataMessageType, int symbolID) {
+        return true;
+    }
+}
@@ -1,11 +1,9 @@
 package net.jacobpeterson.alpaca.websocket.marketdata;
 
-import com.google.common.collect.Iterables;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.TimestampedSymbolMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
@@ -14,20 +12,40 @@ import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketD
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
 import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.util.concurrent.ListenerRegistry;
+import net.jacobpeterson.alpaca.util.concurrent.RingBuffer;
+import net.jacobpeterson.alpaca.util.concurrent.RingBufferDispatcher;
+import net.jacobpeterson.alpaca.util.concurrent.WaitStrategy;
+import net.jacobpeterson.alpaca.util.symbol.SymbolListenerIndex;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
 import net.jacobpeterson.alpaca.websocket.AlpacaWebsocket;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+import net.jacobpeterson.alpaca.websocket.marketdata.conflation.ConflatingQuoteBuffer;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.BarView;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.FlyweightMarketDataDecoder;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.QuoteView;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.TradeView;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.IndicatorEngine;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.LatencyStage;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.MarketDataLatencyMetrics;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
 import okhttp3.WebSocket;
+import okio.ByteString;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.not;
-import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
 
 /**
  * {@link MarketDataWebsocket} is an {@link AlpacaWebsocket} implementation and provides the {@link
@@ -39,11 +57,11 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
         implements MarketDataWebsocketInterface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MarketDataWebsocket.class);
-    private static final String MESSAGE_TYPE_ELEMENT_KEY = "T";
     private static final List<String> AUTH_FAILURE_MESSAGES = Arrays.asList(
             "auth failed",
             "auth timeout",
             "not authenticated");
+    private static final String MESSAGE_PACK_CONTENT_TYPE = "application/msgpack";
     private static final List<MarketDataMessageType> SUBSCRIBABLE_MARKET_DATA_MESSAGE_TYPES = Arrays.asList(
             MarketDataMessageType.TRADE,
             MarketDataMessageType.QUOTE,
@@ -65,11 +83,35 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
                 .build();
     }
 
+    private final MarketDataMessageDecoder marketDataMessageDecoder;
+    private final MessagePackMarketDataDecoder messagePackMarketDataDecoder;
+    private final ListenedMessageFilter listenedMessageFilter;
+    private final FlyweightMarketDataDecoder flyweightMarketDataDecoder;
+    private final ListenerRegistry<MarketDataFlyweightListener> flyweightListeners;
+    private final FlyweightListenerDispatcher flyweightListenerDispatcher;
+    private final FlyweightMarketDataDecoder.FallbackHandler flyweightFallbackHandler;
+    private final Set<MarketDataMessageType> flyweightFallbackMessageTypes;
+    private final SymbolListenerIndex<MarketDataListener> symbolListeners;
+    private final ListenerRegistry<TradeListener> tradeListeners;
+    private final ListenerRegistry<QuoteListener> quoteListeners;
+    private final ListenerRegistry<BarListener> barListeners;
+    private final ListenerRegistry<MarketDataControlListener> controlListeners;
     private final Set<MarketDataMessageType> listenedMarketDataMessageTypes;
     private final Set<String> subscribedTrades;
     private final Set<String> subscribedQuotes;
     private final Set<String> subscribedBars;
 
+    private volatile RingBufferDispatcher<DispatchEntry>[] dispatchers;
+    private volatile MarketDataLatencyMetrics latencyMetrics;
+    private volatile boolean messagePackEnabled;
+    // Only written by the websocket reader thread
+    private volatile long receivedFrameCount;
+    private volatile long skippedMessageCount;
+    // Only used by the websocket reader thread
+    private MarketDataLatencyMetrics frameLatencyMetrics;
+    private long frameReceiveEpochNanos;
+    private boolean frameDecodedByFlyweight;
+
     /**
      * Instantiates a new {@link MarketDataWebsocket}.
      *
@@ -80,9 +122,38 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
      */
     public MarketDataWebsocket(OkHttpClient okHttpClient, DataAPIType dataAPIType,
             String keyID, String secretKey) {
-        super(okHttpClient, createWebsocketURL(dataAPIType), "Market Data", keyID, secretKey, null);
+        this(okHttpClient, dataAPIType, keyID, secretKey, "Market Data");
+    }
 
-        listenedMarketDataMessageTypes = new HashSet<>();
+    /**
+     * Instantiates a new {@link MarketDataWebsocket}.
+     *
+     * @param okHttpClient  the {@link OkHttpClient}
+     * @param dataAPIType   the {@link DataAPIType}
+     * @param keyID         the key ID
+     * @param secretKey     the secret key
+     * @param websocketName the websocket name
+     */
+    MarketDataWebsocket(OkHttpClient okHttpClient, DataAPIType dataAPIType, String keyID, String secretKey,
+            String websocketName) {
+        super(okHttpClient, createWebsocketURL(dataAPIType), websocketName, keyID, secretKey, null);
+
+        marketDataMessageDecoder = new MarketDataMessageDecoder();
+        messagePackMarketDataDecoder = new MessagePackMarketDataDecoder();
+        listenedMessageFilter = new ListenedMessageFilter();
+        flyweightMarketDataDecoder = new FlyweightMarketDataDecoder(SymbolTable.GLOBAL);
+        flyweightListeners = new ListenerRegistry<>(MarketDataFlyweightListener[]::new);
+        flyweightListenerDispatcher = new FlyweightListenerDispatcher();
+        flyweightFallbackHandler = (message, objectStart, objectEnd) -> marketDataMessageDecoder.decodeObject(
+                message.substring(objectStart, objectEnd), this::handleMarketDataMessage);
+        flyweightFallbackMessageTypes = EnumSet.noneOf(MarketDataMessageType.class);
+        symbolListeners = new SymbolListenerIndex<>(SymbolTable.GLOBAL, MarketDataListener[]::new);
+        tradeListeners = new ListenerRegistry<>(TradeListener[]::new);
+        quoteListeners = new ListenerRegistry<>(QuoteListener[]::new);
+        barListeners = new ListenerRegistry<>(BarListener[]::new);
+        controlListeners = new ListenerRegistry<>(MarketDataControlListener[]::new);
+        // Updated by the reader thread and read by dispatchReplayed() on backfill threads
+        listenedMarketDataMessageTypes = ConcurrentHashMap.newKeySet();
         subscribedTrades = new HashSet<>();
         subscribedQuotes = new HashSet<>();
         subscribedBars = new HashSet<>();
@@ -92,9 +163,21 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
     protected void cleanupState() {
         super.cleanupState();
 
+        flyweightListeners.clear();
+        symbolListeners.clear();
+        tradeListeners.clear();
+        quoteListeners.clear();
+        barListeners.clear();
+        controlListeners.clear();
         listenedMarketDataMessageTypes.clear();
     }
 
+    @Override
+    protected boolean hasAdditionalListeners() {
+        return !flyweightListeners.isEmpty() || !symbolListeners.isEmpty() || !tradeListeners.isEmpty() ||
+                !quoteListeners.isEmpty() || !barListeners.isEmpty() || !controlListeners.isEmpty();
+    }
+
     @Override
     protected void onConnection() {
         sendAuthenticationMessage();
@@ -103,10 +186,23 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
     @Override
     protected void onReconnection() {
         sendAuthenticationMessage();
-        if (waitForAuthorization()) {
-            subscribeToControl(Iterables.toArray(listenedMarketDataMessageTypes, MarketDataMessageType.class));
-            subscribe(subscribedTrades, subscribedQuotes, subscribedBars);
+    }
+
+    @Override
+    protected boolean resubscribe() {
+        return sendSubscriptionUpdate(subscribedTrades, subscribedQuotes, subscribedBars, true);
+    }
+
+    @Override
+    protected Request createWebsocketRequest() {
+        Request websocketRequest = super.createWebsocketRequest();
+        if (!messagePackEnabled) {
+            return websocketRequest;
         }
+        // Only frames from the server are MessagePack, the authentication and subscription messages are still JSON
+        return websocketRequest.newBuilder()
+                .header("Content-Type", MESSAGE_PACK_CONTENT_TYPE)
+                .build();
     }
 
     @Override
@@ -128,84 +224,271 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
         websocket.send(authObject.toString());
     }
 
-    // This websocket uses string frames and not binary frames.
+    // This websocket uses string frames, or binary frames if MessagePack is enabled.
     @Override
     public void onMessage(@NotNull WebSocket webSocket, @NotNull String message) {
-        JsonElement messageElement = JsonParser.parseString(message);
-        checkState(messageElement instanceof JsonArray, "Message must be a JsonArray! Received: %s", messageElement);
+        receivedFrameCount++;
 
-        JsonArray messageArray = messageElement.getAsJsonArray();
-        for (JsonElement arrayElement : messageArray) {
-            checkState(arrayElement instanceof JsonObject,
-                    "'arrayElement' must be a JsonObject! Received: %s", arrayElement);
+        FrameJournal currentFrameJournal = frameJournal;
+        if (currentFrameJournal != null) {
+            currentFrameJournal.append(message);
+        }
 
-            JsonObject messageObject = arrayElement.getAsJsonObject();
-            MarketDataMessageType marketDataMessageType = GSON.fromJson(
-                    messageObject.get(MESSAGE_TYPE_ELEMENT_KEY), MarketDataMessageType.class);
-            checkNotNull(marketDataMessageType, "MarketDataMessageType not found in message: %s", messageObject);
+        frameLatencyMetrics = latencyMetrics;
+        if (frameLatencyMetrics != null) {
+            frameReceiveEpochNanos = frameLatencyMetrics.now();
+        }
 
-            MarketDataMessage marketDataMessage;
-            switch (marketDataMessageType) {
-                case SUCCESS:
-                    marketDataMessage = GSON.fromJson(messageObject, SuccessMessage.class);
-                    LOGGER.debug("{}", marketDataMessage);
-
-                    if (isSuccessMessageAuthenticated((SuccessMessage) marketDataMessage)) {
-                        LOGGER.info("{} websocket authenticated.", websocketName);
-
-                        authenticated = true;
-
-                        if (authenticationMessageFuture != null) {
-                            authenticationMessageFuture.complete(true);
-                        }
-                    }
-                    break;
-                case ERROR:
-                    marketDataMessage = GSON.fromJson(messageObject, ErrorMessage.class);
-
-                    if (isErrorMessageAuthFailure((ErrorMessage) marketDataMessage) &&
-                            authenticationMessageFuture != null) {
-                        LOGGER.error("{} websocket not authenticated! Received: {}.", websocketName, marketDataMessage);
-
-                        authenticated = false;
-
-                        if (authenticationMessageFuture != null) {
-                            authenticationMessageFuture.complete(false);
-                        }
-                    } else {
-                        LOGGER.error("{} websocket error message: {}", websocketName, marketDataMessage);
-                    }
-                    break;
-                case SUBSCRIPTION:
-                    marketDataMessage = GSON.fromJson(messageObject, SubscriptionsMessage.class);
-                    LOGGER.debug("{}", marketDataMessage);
-
-                    // Update 'listenedMarketDataMessageTypes' and the associated subscribed symbols lists
-                    SubscriptionsMessage subscriptionsMessage = (SubscriptionsMessage) marketDataMessage;
-                    handleSubscriptionMessageList(MarketDataMessageType.TRADE, subscriptionsMessage.getTrades(),
-                            subscribedTrades);
-                    handleSubscriptionMessageList(MarketDataMessageType.QUOTE, subscriptionsMessage.getQuotes(),
-                            subscribedQuotes);
-                    handleSubscriptionMessageList(MarketDataMessageType.BAR, subscriptionsMessage.getBars(),
-                            subscribedBars);
-                    break;
-                case TRADE:
-                    marketDataMessage = GSON.fromJson(messageObject, TradeMessage.class);
-                    break;
-                case QUOTE:
-                    marketDataMessage = GSON.fromJson(messageObject, QuoteMessage.class);
-                    break;
-                case BAR:
-                    marketDataMessage = GSON.fromJson(messageObject, BarMessage.class);
-                    break;
-                default:
-                    LOGGER.error("Message type {} not implemented!", marketDataMessageType);
-                    continue;
+        frameDecodedByFlyweight = !flyweightListeners.isEmpty();
+        if (!frameDecodedByFlyweight) {
+            marketDataMessageDecoder.decode(message, listenedMessageFilter, this::handleMarketDataMessage);
+        } else {
+            // Trades, quotes, and bars only need to also be decoded into 'MarketDataMessage's if there are any
+            // other listeners to call with them.
+            boolean allMessageListeners = !listeners.isEmpty() || !symbolListeners.isEmpty();
+            flyweightFallbackMessageTypes.clear();
+            if (allMessageListeners || !tradeListeners.isEmpty()) {
+                flyweightFallbackMessageTypes.add(MarketDataMessageType.TRADE);
+            }
+            if (allMessageListeners || !quoteListeners.isEmpty()) {
+                flyweightFallbackMessageTypes.add(MarketDataMessageType.QUOTE);
+            }
+            if (allMessageListeners || !barListeners.isEmpty()) {
+                flyweightFallbackMessageTypes.add(MarketDataMessageType.BAR);
             }
+            flyweightMarketDataDecoder.decode(message, flyweightListenerDispatcher, flyweightFallbackMessageTypes,
+                    flyweightFallbackHandler);
+        }
+    }
 
-            if (listenedMarketDataMessageTypes.contains(marketDataMessageType)) {
-                callListeners(marketDataMessageType, marketDataMessage);
+    @Override
+    public void onMessage(@NotNull WebSocket webSocket, @NotNull ByteString bytes) {
+        receivedFrameCount++;
+
+        FrameJournal currentFrameJournal = frameJournal;
+        if (currentFrameJournal != null) {
+            currentFrameJournal.append(bytes);
+        }
+
+        frameLatencyMetrics = latencyMetrics;
+        if (frameLatencyMetrics != null) {
+            frameReceiveEpochNanos = frameLatencyMetrics.now();
+        }
+
+        frameDecodedByFlyweight = false;
+        messagePackMarketDataDecoder.decode(bytes.asByteBuffer(), listenedMessageFilter,
+                this::handleMarketDataMessage);
+    }
+
+    /**
+     * Handles a {@link MarketDataMessage} decoded by {@link #marketDataMessageDecoder} and calls the listeners if its
+     * {@link MarketDataMessageType} is listened to.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param marketDataMessage     the {@link MarketDataMessage}
+     */
+    private void handleMarketDataMessage(MarketDataMessageType marketDataMessageType,
+            MarketDataMessage marketDataMessage) {
+        switch (marketDataMessageType) {
+            case SUCCESS:
+                LOGGER.debug("{}", marketDataMessage);
+
+                if (isSuccessMessageAuthenticated((SuccessMessage) marketDataMessage)) {
+                    LOGGER.info("{} websocket authenticated.", websocketName);
+
+                    handleAuthorization(true);
+                }
+                break;
+            case ERROR:
+                if (isErrorMessageAuthFailure((ErrorMessage) marketDataMessage)) {
+                    LOGGER.error("{} websocket not authenticated! Received: {}.", websocketName, marketDataMessage);
+
+                    handleAuthorization(false);
+                } else {
+                    LOGGER.error("{} websocket error message: {}", websocketName, marketDataMessage);
+                }
+                break;
+            case SUBSCRIPTION:
+                LOGGER.debug("{}", marketDataMessage);
+
+                // Update 'listenedMarketDataMessageTypes' and the associated subscribed symbols lists
+                SubscriptionsMessage subscriptionsMessage = (SubscriptionsMessage) marketDataMessage;
+                handleSubscriptionMessageList(MarketDataMessageType.TRADE, subscriptionsMessage.getTrades(),
+                        subscribedTrades);
+                handleSubscriptionMessageList(MarketDataMessageType.QUOTE, subscriptionsMessage.getQuotes(),
+                        subscribedQuotes);
+                handleSubscriptionMessageList(MarketDataMessageType.BAR, subscriptionsMessage.getBars(),
+                        subscribedBars);
+                handleResubscribed();
+                break;
+        }
+
+        MarketDataLatencyMetrics currentLatencyMetrics = frameLatencyMetrics;
+        long decodedEpochNanos = 0;
+        if (currentLatencyMetrics != null) {
+            // Trades, quotes, and bars that were also decoded by 'flyweightMarketDataDecoder' had their feed latency
+            // recorded already
+            long exchangeEpochNanos = !frameDecodedByFlyweight &&
+                    marketDataMessage instanceof TimestampedSymbolMessage ?
+                    ((TimestampedSymbolMessage) marketDataMessage).getTimestampEpochNanos() :
+                    EpochNanosUtil.NO_EPOCH_NANOS;
+            decodedEpochNanos = recordDecoded(currentLatencyMetrics, marketDataMessageType, exchangeEpochNanos);
+        }
+
+        // Control listeners are always called, while all other listeners are only called if the
+        // 'MarketDataMessageType' is listened to.
+        boolean listened = listenedMarketDataMessageTypes.contains(marketDataMessageType);
+        if (!listened && SUBSCRIBABLE_MARKET_DATA_MESSAGE_TYPES.contains(marketDataMessageType)) {
+            return;
+        }
+
+        RingBufferDispatcher<DispatchEntry>[] currentDispatchers = dispatchers;
+        if (currentDispatchers == null) {
+            dispatchMarketDataMessage(marketDataMessageType, marketDataMessage, listened);
+            if (currentLatencyMetrics != null) {
+                recordDispatched(currentLatencyMetrics, marketDataMessageType, decodedEpochNanos);
             }
+        } else {
+            // Messages of the same symbol always go to the same shard so that they stay in order. Control messages
+            // go to the first shard.
+            int shard = 0;
+            if (currentDispatchers.length > 1 && marketDataMessage instanceof TimestampedSymbolMessage) {
+                shard = Math.floorMod(((TimestampedSymbolMessage) marketDataMessage).getSymbolID(),
+                        currentDispatchers.length);
+            }
+
+            RingBuffer<DispatchEntry> ringBuffer = currentDispatchers[shard].getRingBuffer();
+            DispatchEntry dispatchEntry = ringBuffer.claim();
+            dispatchEntry.marketDataMessageType = marketDataMessageType;
+            dispatchEntry.marketDataMessage = marketDataMessage;
+            dispatchEntry.listened = listened;
+            dispatchEntry.latencyMetrics = currentLatencyMetrics;
+            dispatchEntry.decodedEpochNanos = decodedEpochNanos;
+            ringBuffer.publish();
+        }
+    }
+
+    /**
+     * Calls the listeners with a {@link MarketDataMessage} that wasn't received live, such as a trade or bar recovered
+     * by a {@link net.jacobpeterson.alpaca.websocket.marketdata.backfill.GapBackfiller}, which should be flagged with
+     * {@link TimestampedSymbolMessage#setReplayed(boolean)}. The listeners are called on the calling thread and bypass
+     * ring buffer dispatching, so they may be called concurrently with live messages.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param marketDataMessage     the {@link MarketDataMessage}
+     */
+    public void dispatchReplayed(MarketDataMessageType marketDataMessageType, MarketDataMessage marketDataMessage) {
+        checkNotNull(marketDataMessageType);
+        checkNotNull(marketDataMessage);
+
+        boolean listened = listenedMarketDataMessageTypes.contains(marketDataMessageType);
+        if (!listened && SUBSCRIBABLE_MARKET_DATA_MESSAGE_TYPES.contains(marketDataMessageType)) {
+            return;
+        }
+        dispatchMarketDataMessage(marketDataMessageType, marketDataMessage, listened);
+    }
+
+    /**
+     * Records the {@link LatencyStage#DECODE} latency and, if <code>exchangeEpochNanos</code> is given, the {@link
+     * LatencyStage#FEED} latency of a message of the current frame.
+     *
+     * @param latencyMetrics        the {@link MarketDataLatencyMetrics}
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param exchangeEpochNanos    the exchange timestamp or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     *
+     * @return the epoch nanoseconds the message was decoded at
+     */
+    private long recordDecoded(MarketDataLatencyMetrics latencyMetrics, MarketDataMessageType marketDataMessageType,
+            long exchangeEpochNanos) {
+        long decodedEpochNanos = latencyMetrics.now();
+        latencyMetrics.record(LatencyStage.DECODE, marketDataMessageType, decodedEpochNanos - frameReceiveEpochNanos);
+        latencyMetrics.recordFeed(marketDataMessageType, exchangeEpochNanos, frameReceiveEpochNanos);
+        return decodedEpochNanos;
+    }
+
+    /**
+     * Records the {@link LatencyStage#DISPATCH} latency of a message whose listeners have all returned.
+     *
+     * @param latencyMetrics        the {@link MarketDataLatencyMetrics}
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param decodedEpochNanos     the epoch nanoseconds the message was decoded at
+     */
+    private static void recordDispatched(MarketDataLatencyMetrics latencyMetrics,
+            MarketDataMessageType marketDataMessageType, long decodedEpochNanos) {
+        latencyMetrics.record(LatencyStage.DISPATCH, marketDataMessageType, latencyMetrics.now() - decodedEpochNanos);
+    }
+
+    /**
+     * Calls the listeners with the given {@link MarketDataMessage}.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param marketDataMessage     the {@link MarketDataMessage}
+     * @param listened              true if <code>marketDataMessageType</code> is listened to
+     */
+    private void dispatchMarketDataMessage(MarketDataMessageType marketDataMessageType,
+            MarketDataMessage marketDataMessage, boolean listened) {
+        if (listened) {
+            callListeners(marketDataMessageType, marketDataMessage);
+            callSymbolListeners(marketDataMessageType, marketDataMessage);
+        }
+        callTypedListeners(marketDataMessageType, marketDataMessage);
+    }
+
+    /**
+     * Calls the {@link #symbolListeners} of the symbol of the given trade, quote, or bar.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param marketDataMessage     the {@link MarketDataMessage}
+     */
+    private void callSymbolListeners(MarketDataMessageType marketDataMessageType,
+            MarketDataMessage marketDataMessage) {
+        if (marketDataMessage instanceof TimestampedSymbolMessage) {
+            int symbolID = ((TimestampedSymbolMessage) marketDataMessage).getSymbolID();
+            for (MarketDataListener symbolListener : symbolListeners.get(symbolID)) {
+                symbolListener.onMessage(marketDataMessageType, marketDataMessage);
+            }
+        }
+    }
+
+    /**
+     * Calls the typed listeners of the given {@link MarketDataMessageType}.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param marketDataMessage     the {@link MarketDataMessage}
+     */
+    private void callTypedListeners(MarketDataMessageType marketDataMessageType,
+            MarketDataMessage marketDataMessage) {
+        switch (marketDataMessageType) {
+            case TRADE:
+                for (TradeListener tradeListener : tradeListeners.snapshot()) {
+                    tradeListener.onTrade((TradeMessage) marketDataMessage);
+                }
+                break;
+            case QUOTE:
+                for (QuoteListener quoteListener : quoteListeners.snapshot()) {
+                    quoteListener.onQuote((QuoteMessage) marketDataMessage);
+                }
+                break;
+            case BAR:
+                for (BarListener barListener : barListeners.snapshot()) {
+                    barListener.onBar((BarMessage) marketDataMessage);
+                }
+                break;
+            case SUCCESS:
+                for (MarketDataControlListener controlListener : controlListeners.snapshot()) {
+                    controlListener.onSuccess((SuccessMessage) marketDataMessage);
+                }
+                break;
+            case ERROR:
+                for (MarketDataControlListener controlListener : controlListeners.snapshot()) {
+                    controlListener.onError((ErrorMessage) marketDataMessage);
+                }
+                break;
+            case SUBSCRIPTION:
+                for (MarketDataControlListener controlListener : controlListeners.snapshot()) {
+                    controlListener.onSubscriptions((SubscriptionsMessage) marketDataMessage);
+                }
+                break;
         }
     }
 
@@ -281,8 +564,10 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
      * @param quoteSymbols a {@link Collection} of symbols to update for quotes or <code>null</code> for no change
      * @param barSymbols   a {@link Collection} of symbols to update for bars or <code>null</code> for no change
      * @param subscribe    true to subscribe, false to unsubscribe
+     *
+     * @return true if an update was sent
      */
-    private void sendSubscriptionUpdate(Collection<String> tradeSymbols, Collection<String> quoteSymbols,
+    private boolean sendSubscriptionUpdate(Collection<String> tradeSymbols, Collection<String> quoteSymbols,
             Collection<String> barSymbols, boolean subscribe) {
         if (!isConnected()) {
             connect();
@@ -310,6 +595,7 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
             websocket.send(subscriptionUpdateObject.toString());
             LOGGER.info("Requested subscriptions update: {}.", subscriptionUpdateObject);
         }
+        return updateExists;
     }
 
     /**
@@ -347,4 +633,340 @@ public class MarketDataWebsocket extends AlpacaWebsocket<MarketDataMessageType,
     public Collection<String> subscribedBars() {
         return new HashSet<>(subscribedBars);
     }
+
+    @Override
+    public void addFlyweightListener(MarketDataFlyweightListener flyweightListener) {
+        checkState(!messagePackEnabled, "Flyweight listeners can't be used with MessagePack frames!");
+        flyweightListeners.add(flyweightListener);
+    }
+
+    @Override
+    public void removeFlyweightListener(MarketDataFlyweightListener flyweightListener) {
+        removeAdditionalListener(flyweightListeners, flyweightListener);
+    }
+
+    @Override
+    public void addListener(Collection<String> symbols, MarketDataListener listener) {
+        checkNotNull(symbols);
+        symbols.forEach(symbol -> symbolListeners.add(symbol, listener));
+    }
+
+    @Override
+    public void removeListener(Collection<String> symbols, MarketDataListener listener) {
+        checkNotNull(symbols);
+        symbols.forEach(symbol -> symbolListeners.remove(symbol, listener));
+
+        if (listeners.isEmpty() && !hasAdditionalListeners()) {
+            disconnect();
+        }
+    }
+
+    @Override
+    public void addTradeListener(TradeListener tradeListener) {
+        tradeListeners.add(tradeListener);
+    }
+
+    @Override
+    public void removeTradeListener(TradeListener tradeListener) {
+        removeAdditionalListener(tradeListeners, tradeListener);
+    }
+
+    @Override
+    public void addQuoteListener(QuoteListener quoteListener) {
+        quoteListeners.add(quoteListener);
+    }
+
+    @Override
+    public void removeQuoteListener(QuoteListener quoteListener) {
+        removeAdditionalListener(quoteListeners, quoteListener);
+    }
+
+    @Override
+    public ConflatingQuoteBuffer addConflatingQuoteBuffer() {
+        ConflatingQuoteBuffer conflatingQuoteBuffer = new ConflatingQuoteBuffer();
+        quoteListeners.add(conflatingQuoteBuffer);
+        return conflatingQuoteBuffer;
+    }
+
+    @Override
+    public void addBarListener(BarListener barListener) {
+        barListeners.add(barListener);
+    }
+
+    @Override
+    public void removeBarListener(BarListener barListener) {
+        removeAdditionalListener(barListeners, barListener);
+    }
+
+    @Override
+    public void addIndicatorEngine(IndicatorEngine indicatorEngine) {
+        tradeListeners.add(indicatorEngine);
+        barListeners.add(indicatorEngine);
+    }
+
+    @Override
+    public void removeIndicatorEngine(IndicatorEngine indicatorEngine) {
+        removeAdditionalListener(tradeListeners, indicatorEngine);
+        removeAdditionalListener(barListeners, indicatorEngine);
+    }
+
+    @Override
+    public void addControlListener(MarketDataControlListener controlListener) {
+        controlListeners.add(controlListener);
+    }
+
+    @Override
+    public void removeControlListener(MarketDataControlListener controlListener) {
+        removeAdditionalListener(controlListeners, controlListener);
+    }
+
+    @Override
+    public void enableRingBufferDispatch(int capacity, int consumerThreadCount, WaitStrategy waitStrategy) {
+        startDispatchers(1, capacity, consumerThreadCount, waitStrategy);
+    }
+
+    @Override
+    public void enableShardedDispatch(int shardCount, int capacity, WaitStrategy waitStrategy) {
+        startDispatchers(shardCount, capacity, 1, waitStrategy);
+    }
+
+    /**
+     * Replaces the {@link #dispatchers} with <code>dispatcherCount</code> new started {@link RingBufferDispatcher}s.
+     *
+     * @param dispatcherCount     the number of {@link RingBufferDispatcher}s
+     * @param capacity            the {@link RingBuffer} capacity of each {@link RingBufferDispatcher}
+     * @param consumerThreadCount the number of consumer threads of each {@link RingBufferDispatcher}
+     * @param waitStrategy        the {@link WaitStrategy}
+     */
+    @SuppressWarnings("unchecked")
+    private void startDispatchers(int dispatcherCount, int capacity, int consumerThreadCount,
+            WaitStrategy waitStrategy) {
+        checkState(!isConnected(), "Ring buffer dispatching can only be changed while disconnected!");
+        checkArgument(dispatcherCount > 0, "'dispatcherCount' must be positive!");
+
+        disableRingBufferDispatch();
+        RingBufferDispatcher<DispatchEntry>[] newDispatchers = new RingBufferDispatcher[dispatcherCount];
+        for (int index = 0; index < dispatcherCount; index++) {
+            RingBuffer<DispatchEntry> ringBuffer = new RingBuffer<>(capacity, DispatchEntry::new, waitStrategy);
+            newDispatchers[index] = new RingBufferDispatcher<>(ringBuffer, dispatchEntry -> {
+                MarketDataMessage marketDataMessage = dispatchEntry.marketDataMessage;
+                MarketDataLatencyMetrics entryLatencyMetrics = dispatchEntry.latencyMetrics;
+                dispatchEntry.marketDataMessage = null;
+                dispatchEntry.latencyMetrics = null;
+
+                dispatchMarketDataMessage(dispatchEntry.marketDataMessageType, marketDataMessage,
+                        dispatchEntry.listened);
+                if (entryLatencyMetrics != null) {
+                    recordDispatched(entryLatencyMetrics, dispatchEntry.marketDataMessageType,
+                            dispatchEntry.decodedEpochNanos);
+                }
+            }, consumerThreadCount, websocketName + " Dispatch " + index);
+        }
+        for (RingBufferDispatcher<DispatchEntry> dispatcher : newDispatchers) {
+            dispatcher.start();
+        }
+        dispatchers = newDispatchers;
+    }
+
+    @Override
+    public void disableRingBufferDispatch() {
+        // The reader thread could otherwise still publish to a ring buffer whose consumers have stopped
+        checkState(!isConnected(), "Ring buffer dispatching can only be changed while disconnected!");
+
+        RingBufferDispatcher<DispatchEntry>[] currentDispatchers = dispatchers;
+        if (currentDispatchers == null) {
+            return;
+        }
+
+        dispatchers = null;
+        try {
+            for (RingBufferDispatcher<DispatchEntry> dispatcher : currentDispatchers) {
+                dispatcher.stop();
+            }
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public List<RingBuffer<?>> getDispatchRingBuffers() {
+        RingBufferDispatcher<DispatchEntry>[] currentDispatchers = dispatchers;
+        if (currentDispatchers == null) {
+            return Collections.emptyList();
+        }
+
+        List<RingBuffer<?>> ringBuffers = new ArrayList<>(currentDispatchers.length);
+        for (RingBufferDispatcher<DispatchEntry> dispatcher : currentDispatchers) {
+            ringBuffers.add(dispatcher.getRingBuffer());
+        }
+        return ringBuffers;
+    }
+
+    /**
+     * Gets the number of frames received since this {@link MarketDataWebsocket} was created, which only stops
+     * increasing when the connection goes silent.
+     *
+     * @return the received frame count
+     */
+    public long getReceivedFrameCount() {
+        return receivedFrameCount;
+    }
+
+    /**
+     * Gets the number of trades, quotes, and bars that were skipped over instead of decoded since this {@link
+     * MarketDataWebsocket} was created, because no listener wanted their {@link MarketDataMessageType} or symbol.
+     *
+     * @return the skipped message count
+     */
+    public long getSkippedMessageCount() {
+        return skippedMessageCount;
+    }
+
+    @Override
+    public MarketDataLatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    @Override
+    public void setLatencyMetrics(MarketDataLatencyMetrics latencyMetrics) {
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    @Override
+    public boolean isMessagePackEnabled() {
+        return messagePackEnabled;
+    }
+
+    @Override
+    public void setMessagePackEnabled(boolean messagePackEnabled) {
+        checkState(!isConnected(), "MessagePack can only be enabled or disabled while disconnected!");
+        checkState(!messagePackEnabled || flyweightListeners.isEmpty(),
+                "Flyweight listeners can't be used with MessagePack frames!");
+        this.messagePackEnabled = messagePackEnabled;
+    }
+
+    /**
+     * Removes <code>listener</code> from <code>listenerRegistry</code> and disconnects if it was the last listener of
+     * any kind.
+     *
+     * @param <A>              the listener type parameter
+     * @param listenerRegistry the {@link ListenerRegistry}
+     * @param listener         the listener
+     */
+    private <A> void removeAdditionalListener(ListenerRegistry<A> listenerRegistry, A listener) {
+        if (listenerRegistry.remove(listener) && listeners.isEmpty() && !hasAdditionalListeners()) {
+            disconnect();
+        }
+    }
+
+    /**
+     * {@link DispatchEntry} is a pre-allocated {@link RingBuffer} entry that passes a decoded {@link MarketDataMessage}
+     * from the websocket reader thread to a consumer thread.
+     */
+    private static final class DispatchEntry {
+
+        private MarketDataMessageType marketDataMessageType;
+        private MarketDataMessage marketDataMessage;
+        private boolean listened;
+        private MarketDataLatencyMetrics latencyMetrics;
+        private long decodedEpochNanos;
+    }
+
+    /**
+     * {@link ListenedMessageFilter} is the {@link MarketDataMessageFilter} of the websocket reader thread. It rejects
+     * trades, quotes, and bars whose {@link MarketDataMessageType} isn't listened to, since
+     * {@link #handleMarketDataMessage(MarketDataMessageType, MarketDataMessage)} would drop them, or that no listener
+     * would be called with.
+     */
+    private class ListenedMessageFilter implements MarketDataMessageFilter {
+
+        @Override
+        public boolean acceptsType(MarketDataMessageType marketDataMessageType) {
+            if (listenedMarketDataMessageTypes.contains(marketDataMessageType) &&
+                    (!listeners.isEmpty() || !symbolListeners.isEmpty() || hasTypedListeners(marketDataMessageType))) {
+                return true;
+            }
+            skippedMessageCount++;
+            return false;
+        }
+
+        @Override
+        public boolean acceptsSymbol(MarketDataMessageType marketDataMessageType, int symbolID) {
+            // Only symbol listeners depend on the symbol
+            if (!listeners.isEmpty() || hasTypedListeners(marketDataMessageType) ||
+                    symbolListeners.get(symbolID).length > 0) {
+                return true;
+            }
+            skippedMessageCount++;
+            return false;
+        }
+
+        private boolean hasTypedListeners(MarketDataMessageType marketDataMessageType) {
+            switch (marketDataMessageType) {
+                case TRADE:
+                    return !tradeListeners.isEmpty();
+                case QUOTE:
+                    return !quoteListeners.isEmpty();
+                case BAR:
+                    return !barListeners.isEmpty();
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * {@link FlyweightListenerDispatcher} calls the {@link #flyweightListeners} with the views decoded by {@link
+     * #flyweightMarketDataDecoder} if their {@link MarketDataMessageType} is listened to.
+     */
+    private class FlyweightListenerDispatcher implements MarketDataFlyweightListener {
+
+        @Override
+        public void onTrade(TradeView tradeView) {
+            MarketDataLatencyMetrics currentLatencyMetrics = frameLatencyMetrics;
+            long decodedEpochNanos = currentLatencyMetrics == null ? 0 : recordDecoded(currentLatencyMetrics,
+                    MarketDataMessageType.TRADE, tradeView.getTimestampEpochNanos());
+
+            if (listenedMarketDataMessageTypes.contains(MarketDataMessageType.TRADE)) {
+                for (MarketDataFlyweightListener flyweightListener : flyweightListeners.snapshot()) {
+                    flyweightListener.onTrade(tradeView);
+                }
+                if (currentLatencyMetrics != null) {
+                    recordDispatched(currentLatencyMetrics, MarketDataMessageType.TRADE, decodedEpochNanos);
+                }
+            }
+        }
+
+        @Override
+        public void onQuote(QuoteView quoteView) {
+            MarketDataLatencyMetrics currentLatencyMetrics = frameLatencyMetrics;
+            long decodedEpochNanos = currentLatencyMetrics == null ? 0 : recordDecoded(currentLatencyMetrics,
+                    MarketDataMessageType.QUOTE, quoteView.getTimestampEpochNanos());
+
+            if (listenedMarketDataMessageTypes.contains(MarketDataMessageType.QUOTE)) {
+                for (MarketDataFlyweightListener flyweightListener : flyweightListeners.snapshot()) {
+                    flyweightListener.onQuote(quoteView);
+                }
+                if (currentLatencyMetrics != null) {
+                    recordDispatched(currentLatencyMetrics, MarketDataMessageType.QUOTE, decodedEpochNanos);
+                }
+            }
+        }
+
+        @Override
+        public void onBar(BarView barView) {
+            MarketDataLatencyMetrics currentLatencyMetrics = frameLatencyMetrics;
+            long decodedEpochNanos = currentLatencyMetrics == null ? 0 : recordDecoded(currentLatencyMetrics,
+                    MarketDataMessageType.BAR, barView.getTimestampEpochNanos());
+
+            if (listenedMarketDataMessageTypes.contains(MarketDataMessageType.BAR)) {
+                for (MarketDataFlyweightListener flyweightListener : flyweightListeners.snapshot()) {
+                    flyweightListener.onBar(barView);
+                }
+                if (currentLatencyMetrics != null) {
+                    recordDispatched(currentLatencyMetrics, MarketDataMessageType.BAR, decodedEpochNanos);
+                }
+            }
+        }
+    }
 }
@@ -1,13 +1,24 @@
 package net.jacobpeterson.alpaca.websocket.marketdata;
 
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SuccessMessage;
 import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.concurrent.RingBuffer;
+import net.jacobpeterson.alpaca.util.concurrent.WaitStrategy;
 import net.jacobpeterson.alpaca.websocket.AlpacaWebsocketInterface;
+import net.jacobpeterson.alpaca.websocket.marketdata.conflation.ConflatingQuoteBuffer;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.IndicatorEngine;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.LatencyStage;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.MarketDataLatencyMetrics;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * {@link MarketDataWebsocketInterface} is an {@link AlpacaWebsocketInterface} for a {@link MarketDataWebsocket}.
@@ -84,4 +95,244 @@ public interface MarketDataWebsocketInterface extends AlpacaWebsocketInterface<M
      * @return a {@link Collection} of {@link String}s
      */
     Collection<String> subscribedBars();
+
+    /**
+     * Adds a {@link MarketDataListener} that is only called with the trades, quotes, and bars of the given
+     * <code>symbols</code>. Control messages are not passed to it. Dispatching a message to these listeners only
+     * costs as much as the number of listeners of its symbol.
+     *
+     * @param symbols  a {@link Collection} of symbols
+     * @param listener the {@link MarketDataListener}
+     *
+     * @see #removeListener(Collection, MarketDataListener)
+     */
+    void addListener(Collection<String> symbols, MarketDataListener listener);
+
+    /**
+     * Removes a {@link MarketDataListener} from the given <code>symbols</code> that was added with {@link
+     * #addListener(Collection, MarketDataListener)}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param symbols  a {@link Collection} of symbols
+     * @param listener the {@link MarketDataListener}
+     */
+    void removeListener(Collection<String> symbols, MarketDataListener listener);
+
+    /**
+     * Adds a {@link TradeListener}. Unlike a {@link MarketDataListener}, a {@link TradeListener} is only called for
+     * {@link TradeMessage}s.
+     *
+     * @param tradeListener the {@link TradeListener}
+     */
+    void addTradeListener(TradeListener tradeListener);
+
+    /**
+     * Removes a {@link TradeListener}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param tradeListener the {@link TradeListener}
+     */
+    void removeTradeListener(TradeListener tradeListener);
+
+    /**
+     * Adds a {@link QuoteListener}. Unlike a {@link MarketDataListener}, a {@link QuoteListener} is only called for
+     * {@link QuoteMessage}s.
+     *
+     * @param quoteListener the {@link QuoteListener}
+     */
+    void addQuoteListener(QuoteListener quoteListener);
+
+    /**
+     * Removes a {@link QuoteListener}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param quoteListener the {@link QuoteListener}
+     */
+    void removeQuoteListener(QuoteListener quoteListener);
+
+    /**
+     * Creates a {@link ConflatingQuoteBuffer} and adds it as a {@link QuoteListener}. This is a conflating delivery
+     * mode for consumers that only need the latest {@link QuoteMessage} of each symbol: they call {@link
+     * ConflatingQuoteBuffer#drain(QuoteListener)} at their own pace and never build up a backlog. The {@link
+     * ConflatingQuoteBuffer} is removed with {@link #removeQuoteListener(QuoteListener)}.
+     *
+     * @return the {@link ConflatingQuoteBuffer}
+     */
+    ConflatingQuoteBuffer addConflatingQuoteBuffer();
+
+    /**
+     * Adds a {@link BarListener}. Unlike a {@link MarketDataListener}, a {@link BarListener} is only called for
+     * {@link BarMessage}s.
+     *
+     * @param barListener the {@link BarListener}
+     */
+    void addBarListener(BarListener barListener);
+
+    /**
+     * Removes a {@link BarListener}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param barListener the {@link BarListener}
+     */
+    void removeBarListener(BarListener barListener);
+
+    /**
+     * Adds an {@link IndicatorEngine} as both a {@link TradeListener} and a {@link BarListener}, so that its
+     * indicators are updated with every received {@link TradeMessage} and {@link BarMessage}.
+     *
+     * @param indicatorEngine the {@link IndicatorEngine}
+     */
+    void addIndicatorEngine(IndicatorEngine indicatorEngine);
+
+    /**
+     * Removes an {@link IndicatorEngine}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param indicatorEngine the {@link IndicatorEngine}
+     */
+    void removeIndicatorEngine(IndicatorEngine indicatorEngine);
+
+    /**
+     * Adds a {@link MarketDataControlListener}.
+     *
+     * @param controlListener the {@link MarketDataControlListener}
+     */
+    void addControlListener(MarketDataControlListener controlListener);
+
+    /**
+     * Removes a {@link MarketDataControlListener}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param controlListener the {@link MarketDataControlListener}
+     */
+    void removeControlListener(MarketDataControlListener controlListener);
+
+    /**
+     * Adds a {@link MarketDataFlyweightListener}. While any {@link MarketDataFlyweightListener} is added, trades,
+     * quotes, and bars are decoded into reused views without allocating per message. {@link MarketDataListener}s
+     * still receive every {@link MarketDataMessage}, but decoding them costs the allocations that the flyweight
+     * listeners avoid.
+     *
+     * @param flyweightListener the {@link MarketDataFlyweightListener}
+     */
+    void addFlyweightListener(MarketDataFlyweightListener flyweightListener);
+
+    /**
+     * Removes a {@link MarketDataFlyweightListener}.
+     * <br>
+     * Note that this will call {@link MarketDataWebsocketInterface#disconnect()} if this is the last listener being
+     * removed.
+     *
+     * @param flyweightListener the {@link MarketDataFlyweightListener}
+     */
+    void removeFlyweightListener(MarketDataFlyweightListener flyweightListener);
+
+    /**
+     * Enables ring buffer dispatching, which moves all listener calls, except those of flyweight listeners, off of the
+     * websocket reader thread. The reader thread still decodes every frame and handles control messages, but then only
+     * publishes each decoded {@link MarketDataMessage} to a pre-allocated {@link RingBuffer} that
+     * <code>consumerThreadCount</code> consumer threads drain and call the listeners from. A slow listener then no
+     * longer stalls reading the websocket until the {@link RingBuffer} is full.
+     * <br>
+     * With one consumer thread, listeners are called in the order messages are received. With more, messages may be
+     * handled out of order and listeners may be called concurrently.
+     * <br>
+     * This must be called while this websocket is disconnected.
+     *
+     * @param capacity            the {@link RingBuffer} capacity, which must be a power of two
+     * @param consumerThreadCount the number of consumer threads
+     * @param waitStrategy        the {@link WaitStrategy} of the consumer threads and of the reader thread when the
+     *                            {@link RingBuffer} is full
+     *
+     * @see #enableShardedDispatch(int, int, WaitStrategy)
+     * @see #getDispatchRingBuffers()
+     */
+    void enableRingBufferDispatch(int capacity, int consumerThreadCount, WaitStrategy waitStrategy);
+
+    /**
+     * Enables symbol-sharded ring buffer dispatching. This works like {@link #enableRingBufferDispatch(int, int,
+     * WaitStrategy)}, except that there are <code>shardCount</code> {@link RingBuffer}s with one consumer thread each
+     * and every trade, quote, and bar is published to the shard of its symbol ID. Different symbols are then
+     * dispatched in parallel, while the messages of a symbol are always dispatched in order by the same thread.
+     * Control messages are dispatched by the first shard.
+     * <br>
+     * Listeners may be called concurrently for different symbols. The lag and depth metrics of each shard are available
+     * from {@link #getDispatchRingBuffers()} for sizing <code>shardCount</code>.
+     * <br>
+     * This must be called while this websocket is disconnected.
+     *
+     * @param shardCount   the number of shards and consumer threads
+     * @param capacity     the {@link RingBuffer} capacity of each shard, which must be a power of two
+     * @param waitStrategy the {@link WaitStrategy} of the consumer threads and of the reader thread when a {@link
+     *                     RingBuffer} is full
+     */
+    void enableShardedDispatch(int shardCount, int capacity, WaitStrategy waitStrategy);
+
+    /**
+     * Disables ring buffer dispatching, if enabled, after the consumer threads have called the listeners with the
+     * messages that are already in the {@link RingBuffer}s.
+     * <br>
+     * This must be called while this websocket is disconnected.
+     *
+     * @see #enableRingBufferDispatch(int, int, WaitStrategy)
+     * @see #enableShardedDispatch(int, int, WaitStrategy)
+     */
+    void disableRingBufferDispatch();
+
+    /**
+     * Gets the {@link RingBuffer}s used for ring buffer dispatching, one per shard, whose queue depth and lag metrics
+     * can be monitored.
+     *
+     * @return a {@link List} of {@link RingBuffer}s, which is empty if ring buffer dispatching is disabled
+     *
+     * @see #enableRingBufferDispatch(int, int, WaitStrategy)
+     * @see #enableShardedDispatch(int, int, WaitStrategy)
+     */
+    List<RingBuffer<?>> getDispatchRingBuffers();
+
+    /**
+     * Gets the {@link MarketDataLatencyMetrics} that this websocket records the {@link LatencyStage#FEED}, {@link
+     * LatencyStage#DECODE}, and {@link LatencyStage#DISPATCH} latencies of every message to.
+     *
+     * @return the {@link MarketDataLatencyMetrics} or <code>null</code> if latencies are not recorded
+     */
+    MarketDataLatencyMetrics getLatencyMetrics();
+
+    /**
+     * Sets the {@link MarketDataLatencyMetrics} that this websocket records the {@link LatencyStage#FEED}, {@link
+     * LatencyStage#DECODE}, and {@link LatencyStage#DISPATCH} latencies of every message to. Recording costs a few
+     * clock reads and atomic increments per message.
+     *
+     * @param latencyMetrics the {@link MarketDataLatencyMetrics} or <code>null</code> to stop recording latencies
+     */
+    void setLatencyMetrics(MarketDataLatencyMetrics latencyMetrics);
+
+    /**
+     * Returns true if MessagePack frames are requested instead of JSON frames.
+     *
+     * @return a boolean
+     */
+    boolean isMessagePackEnabled();
+
+    /**
+     * Sets whether MessagePack frames are requested instead of JSON frames, which are smaller and cheaper to decode
+     * with the {@link MessagePackMarketDataDecoder}. This takes effect on the next connection, so it may only be set
+     * while disconnected, and it can't be enabled while any {@link MarketDataFlyweightListener} is added since
+     * flyweight views are only decoded from JSON frames.
+     *
+     * @param messagePackEnabled true to request MessagePack frames
+     */
+    void setMessagePackEnabled(boolean messagePackEnabled);
 }
@@ -0,0 +1,933 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SuccessMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link MessagePackMarketDataDecoder} decodes {@link MarketDataWebsocket} binary frames, which are sent instead of
+ * text frames when the <code>application/msgpack</code> content type is requested, into {@link MarketDataMessage}s.
+ * <br>
+ * The <a href="https://github.com/msgpack/msgpack/blob/master/spec.md">MessagePack</a> format is read directly from
+ * the frame's bytes with absolute reads, so the only allocations are the {@link MarketDataMessage}s themselves and
+ * their boxed fields. Keys of trades, quotes, and bars are matched without creating {@link String}s, symbols are
+ * interned in {@link SymbolTable#GLOBAL}, and exchange codes, tapes, and conditions are interned in a table of this
+ * decoder. Timestamps are read from the MessagePack timestamp extension type, or parsed if they're RFC 3339 strings.
+ * <br>
+ * A {@link MarketDataMessageFilter} can reject a trade, quote, or bar by its type or symbol, in which case the rest of
+ * its map is skipped over without being materialized.
+ * <br>
+ * Note that this class is not thread-safe.
+ */
+public class MessagePackMarketDataDecoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessagePackMarketDataDecoder.class);
+
+    private static final int KEY_UNKNOWN = -1;
+    private static final int KEY_MESSAGE_TYPE = 'T';
+    private static final int KEY_SYMBOL = 'S';
+    private static final int KEY_TRADE_ID = 'i';
+    private static final int KEY_EXCHANGE = 'x';
+    private static final int KEY_PRICE = 'p';
+    private static final int KEY_SIZE = 's';
+    private static final int KEY_TIMESTAMP = 't';
+    private static final int KEY_CONDITIONS = 'c'; // Also the close price key of a bar
+    private static final int KEY_TAPE = 'z';
+    private static final int KEY_ASK_EXCHANGE = 'a' << 16 | 'x';
+    private static final int KEY_ASK_PRICE = 'a' << 16 | 'p';
+    private static final int KEY_ASK_SIZE = 'a' << 16 | 's';
+    private static final int KEY_BID_EXCHANGE = 'b' << 16 | 'x';
+    private static final int KEY_BID_PRICE = 'b' << 16 | 'p';
+    private static final int KEY_BID_SIZE = 'b' << 16 | 's';
+    private static final int KEY_OPEN = 'o';
+    private static final int KEY_HIGH = 'h';
+    private static final int KEY_LOW = 'l';
+    private static final int KEY_VOLUME = 'v';
+
+    private static final int NIL = 0xc0;
+    private static final int TIMESTAMP_EXTENSION_TYPE = -1;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final SymbolTable codeTable;
+    private final ByteChars byteChars;
+
+    private MarketDataMessageFilter messageFilter;
+    private ByteBuffer buffer;
+    private int position;
+    private byte[] utf8Bytes;
+
+    /**
+     * Instantiates a new {@link MessagePackMarketDataDecoder}.
+     */
+    public MessagePackMarketDataDecoder() {
+        codeTable = new SymbolTable(64);
+        byteChars = new ByteChars();
+        utf8Bytes = new byte[64];
+        messageFilter = MarketDataMessageFilter.ACCEPT_ALL;
+    }
+
+    /**
+     * Decodes the given binary frame and calls <code>messageHandler</code> with every {@link MarketDataMessage} in it,
+     * in order.
+     *
+     * @param frame          the MessagePack array of maps
+     * @param messageHandler the {@link MarketDataListener} to call with each decoded {@link MarketDataMessage}
+     *
+     * @throws IllegalArgumentException thrown if <code>frame</code> is malformed
+     */
+    public void decode(byte[] frame, MarketDataListener messageHandler) {
+        checkNotNull(frame);
+        decode(ByteBuffer.wrap(frame), MarketDataMessageFilter.ACCEPT_ALL, messageHandler);
+    }
+
+    /**
+     * Decodes the remaining bytes of the given binary frame and calls <code>messageHandler</code> with every {@link
+     * MarketDataMessage} in it, in order. The position of <code>frame</code> isn't changed.
+     *
+     * @param frame          the MessagePack array of maps
+     * @param messageHandler the {@link MarketDataListener} to call with each decoded {@link MarketDataMessage}
+     *
+     * @throws IllegalArgumentException thrown if <code>frame</code> is malformed
+     */
+    public void decode(ByteBuffer frame, MarketDataListener messageHandler) {
+        decode(frame, MarketDataMessageFilter.ACCEPT_ALL, messageHandler);
+    }
+
+    /**
+     * Decodes the remaining bytes of the given binary frame and calls <code>messageHandler</code> with every {@link
+     * MarketDataMessage} in it that <code>messageFilter</code> accepts, in order. The position of <code>frame</code>
+     * isn't changed.
+     *
+     * @param frame          the MessagePack array of maps
+     * @param messageFilter  the {@link MarketDataMessageFilter}
+     * @param messageHandler the {@link MarketDataListener} to call with each decoded {@link MarketDataMessage}
+     *
+     * @throws IllegalArgumentException thrown if <code>frame</code> is malformed
+     */
+    public void decode(ByteBuffer frame, MarketDataMessageFilter messageFilter, MarketDataListener messageHandler) {
+        checkNotNull(frame);
+        checkNotNull(messageFilter);
+        checkNotNull(messageHandler);
+
+        this.messageFilter = messageFilter;
+        buffer = frame.order() == ByteOrder.BIG_ENDIAN ? frame : frame.duplicate().order(ByteOrder.BIG_ENDIAN);
+        position = frame.position();
+        byteChars.buffer = buffer;
+        try {
+            int format = peekFormat();
+            if (isMap(format)) {
+                decodeObject(messageHandler);
+            } else {
+                int objectCount = readArrayHeader();
+                for (int index = 0; index < objectCount; index++) {
+                    decodeObject(messageHandler);
+                }
+            }
+
+            if (position != frame.limit()) {
+                throw new IllegalArgumentException("Trailing bytes after MessagePack frame at " + position + "!");
+            }
+        } catch (IndexOutOfBoundsException exception) {
+            throw new IllegalArgumentException("Truncated MessagePack frame!", exception);
+        } finally {
+            this.messageFilter = MarketDataMessageFilter.ACCEPT_ALL;
+            buffer = null;
+            byteChars.buffer = null;
+        }
+    }
+
+    /**
+     * Decodes the next map and calls <code>messageHandler</code> with it.
+     *
+     * @param messageHandler the {@link MarketDataListener}
+     */
+    private void decodeObject(MarketDataListener messageHandler) {
+        int fieldCount = readMapHeader();
+        int fieldsPosition = position;
+
+        // Alpaca sends the "T" key first, but the fields of a map may be in any order
+        String unknownMessageType = null;
+        MarketDataMessageType marketDataMessageType = null;
+        for (int index = 0; index < fieldCount && marketDataMessageType == null && unknownMessageType == null;
+                index++) {
+            if (readKey() == KEY_MESSAGE_TYPE) {
+                int length = readStringHeader();
+                marketDataMessageType = toMessageType(position, length);
+                if (marketDataMessageType == null) {
+                    unknownMessageType = decodeUTF8(position, length);
+                }
+                position += length;
+            } else {
+                skipValue();
+            }
+        }
+        position = fieldsPosition;
+
+        if (marketDataMessageType == null) {
+            if (unknownMessageType == null) {
+                throw new IllegalArgumentException("MarketDataMessageType not found in message map!");
+            }
+            LOGGER.error("Message type {} not implemented!", unknownMessageType);
+            skipFields(fieldCount);
+            return;
+        }
+
+        boolean filtered = marketDataMessageType == MarketDataMessageType.TRADE ||
+                marketDataMessageType == MarketDataMessageType.QUOTE ||
+                marketDataMessageType == MarketDataMessageType.BAR;
+        if (filtered && !messageFilter.acceptsType(marketDataMessageType)) {
+            skipFields(fieldCount);
+            return;
+        }
+
+        switch (marketDataMessageType) {
+            case TRADE:
+                handleAccepted(marketDataMessageType, readTradeMessage(fieldCount), messageHandler);
+                break;
+            case QUOTE:
+                handleAccepted(marketDataMessageType, readQuoteMessage(fieldCount), messageHandler);
+                break;
+            case BAR:
+                handleAccepted(marketDataMessageType, readBarMessage(fieldCount), messageHandler);
+                break;
+            case SUCCESS:
+                messageHandler.onMessage(marketDataMessageType, readSuccessMessage(fieldCount));
+                break;
+            case ERROR:
+                messageHandler.onMessage(marketDataMessageType, readErrorMessage(fieldCount));
+                break;
+            case SUBSCRIPTION:
+                messageHandler.onMessage(marketDataMessageType, readSubscriptionsMessage(fieldCount));
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private static void handleAccepted(MarketDataMessageType marketDataMessageType,
+            MarketDataMessage marketDataMessage, MarketDataListener messageHandler) {
+        // A message is null if its symbol was rejected
+        if (marketDataMessage != null) {
+            messageHandler.onMessage(marketDataMessageType, marketDataMessage);
+        }
+    }
+
+    /**
+     * Reads the <code>"S"</code> value and returns its symbol ID if {@link #messageFilter} accepts it, otherwise skips
+     * the remaining fields of the map.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param remainingFieldCount   the number of fields of the map after the <code>"S"</code> field
+     *
+     * @return the symbol ID, or {@link Integer#MIN_VALUE} if the symbol was rejected
+     */
+    private int readAcceptedSymbolID(MarketDataMessageType marketDataMessageType, int remainingFieldCount) {
+        int symbolID = readSymbolID();
+        if (messageFilter.acceptsSymbol(marketDataMessageType, symbolID)) {
+            return symbolID;
+        }
+        skipFields(remainingFieldCount);
+        return Integer.MIN_VALUE;
+    }
+
+    private MarketDataMessageType toMessageType(int start, int length) {
+        if (length == 1) {
+            switch (buffer.get(start)) {
+                case 't':
+                    return MarketDataMessageType.TRADE;
+                case 'q':
+                    return MarketDataMessageType.QUOTE;
+                case 'b':
+                    return MarketDataMessageType.BAR;
+                default:
+                    return null;
+            }
+        } else if (asciiEquals(start, length, "success")) {
+            return MarketDataMessageType.SUCCESS;
+        } else if (asciiEquals(start, length, "error")) {
+            return MarketDataMessageType.ERROR;
+        } else if (asciiEquals(start, length, "subscription")) {
+            return MarketDataMessageType.SUBSCRIPTION;
+        }
+        return null;
+    }
+
+    private TradeMessage readTradeMessage(int fieldCount) {
+        TradeMessage tradeMessage = new TradeMessage();
+        tradeMessage.setMessageType(MarketDataMessageType.TRADE);
+
+        for (int index = 0; index < fieldCount; index++) {
+            switch (readKey()) {
+                case KEY_SYMBOL:
+                    int symbolID = readAcceptedSymbolID(MarketDataMessageType.TRADE, fieldCount - index - 1);
+                    if (symbolID == Integer.MIN_VALUE) {
+                        return null;
+                    }
+                    tradeMessage.setSymbolID(symbolID);
+                    break;
+                case KEY_TRADE_ID:
+                    tradeMessage.setTradeID(readLong());
+                    break;
+                case KEY_EXCHANGE:
+                    tradeMessage.setExchange(readCode());
+                    break;
+                case KEY_PRICE:
+                    tradeMessage.setPrice(readDouble());
+                    break;
+                case KEY_SIZE:
+                    tradeMessage.setSize(readInteger());
+                    break;
+                case KEY_TIMESTAMP:
+                    tradeMessage.setTimestampEpochNanos(readTimestampEpochNanos());
+                    break;
+                case KEY_CONDITIONS:
+                    tradeMessage.setConditions(readCodeList());
+                    break;
+                case KEY_TAPE:
+                    tradeMessage.setTape(readCode());
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+
+        return tradeMessage;
+    }
+
+    private QuoteMessage readQuoteMessage(int fieldCount) {
+        QuoteMessage quoteMessage = new QuoteMessage();
+        quoteMessage.setMessageType(MarketDataMessageType.QUOTE);
+
+        for (int index = 0; index < fieldCount; index++) {
+            switch (readKey()) {
+                case KEY_SYMBOL:
+                    int symbolID = readAcceptedSymbolID(MarketDataMessageType.QUOTE, fieldCount - index - 1);
+                    if (symbolID == Integer.MIN_VALUE) {
+                        return null;
+                    }
+                    quoteMessage.setSymbolID(symbolID);
+                    break;
+                case KEY_ASK_EXCHANGE:
+                    quoteMessage.setAskExchangeCode(readCode());
+                    break;
+                case KEY_ASK_PRICE:
+                    quoteMessage.setAskPrice(readDouble());
+                    break;
+                case KEY_ASK_SIZE:
+                    quoteMessage.setAskSize(readInteger());
+                    break;
+                case KEY_BID_EXCHANGE:
+                    quoteMessage.setBidExchangeCode(readCode());
+                    break;
+                case KEY_BID_PRICE:
+                    quoteMessage.setBidPrice(readDouble());
+                    break;
+                case KEY_BID_SIZE:
+                    quoteMessage.setBidSize(readInteger());
+                    break;
+                case KEY_TIMESTAMP:
+                    quoteMessage.setTimestampEpochNanos(readTimestampEpochNanos());
+                    break;
+                case KEY_CONDITIONS:
+                    quoteMessage.setConditions(readCodeList());
+                    break;
+                case KEY_TAPE:
+                    quoteMessage.setTape(readCode());
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+
+        return quoteMessage;
+    }
+
+    private BarMessage readBarMessage(int fieldCount) {
+        BarMessage barMessage = new BarMessage();
+        barMessage.setMessageType(MarketDataMessageType.BAR);
+
+        for (int index = 0; index < fieldCount; index++) {
+            switch (readKey()) {
+                case KEY_SYMBOL:
+                    int symbolID = readAcceptedSymbolID(MarketDataMessageType.BAR, fieldCount - index - 1);
+                    if (symbolID == Integer.MIN_VALUE) {
+                        return null;
+                    }
+                    barMessage.setSymbolID(symbolID);
+                    break;
+                case KEY_OPEN:
+                    barMessage.setOpen(readDouble());
+                    break;
+                case KEY_HIGH:
+                    barMessage.setHigh(readDouble());
+                    break;
+                case KEY_LOW:
+                    barMessage.setLow(readDouble());
+                    break;
+                case KEY_CONDITIONS:
+                    barMessage.setClose(readDouble());
+                    break;
+                case KEY_VOLUME:
+                    barMessage.setVolume(readLong());
+                    break;
+                case KEY_TIMESTAMP:
+                    barMessage.setTimestampEpochNanos(readTimestampEpochNanos());
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+
+        return barMessage;
+    }
+
+    private SuccessMessage readSuccessMessage(int fieldCount) {
+        SuccessMessage successMessage = new SuccessMessage();
+        successMessage.setMessageType(MarketDataMessageType.SUCCESS);
+
+        for (int index = 0; index < fieldCount; index++) {
+            if (readKeyString().equals("msg")) {
+                successMessage.setMessage(readString());
+            } else {
+                skipValue();
+            }
+        }
+
+        return successMessage;
+    }
+
+    private ErrorMessage readErrorMessage(int fieldCount) {
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.setMessageType(MarketDataMessageType.ERROR);
+
+        for (int index = 0; index < fieldCount; index++) {
+            switch (readKeyString()) {
+                case "code":
+                    errorMessage.setCode(readInteger());
+                    break;
+                case "msg":
+                    errorMessage.setMessage(readString());
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+
+        return errorMessage;
+    }
+
+    private SubscriptionsMessage readSubscriptionsMessage(int fieldCount) {
+        SubscriptionsMessage subscriptionsMessage = new SubscriptionsMessage();
+        subscriptionsMessage.setMessageType(MarketDataMessageType.SUBSCRIPTION);
+
+        for (int index = 0; index < fieldCount; index++) {
+            switch (readKeyString()) {
+                case "trades":
+                    subscriptionsMessage.setTrades(readSymbolList());
+                    break;
+                case "quotes":
+                    subscriptionsMessage.setQuotes(readSymbolList());
+                    break;
+                case "bars":
+                    subscriptionsMessage.setBars(readSymbolList());
+                    break;
+                default:
+                    skipValue();
+            }
+        }
+
+        return subscriptionsMessage;
+    }
+
+    /**
+     * Reads a key of at most two ASCII characters as the <code>int</code> of its characters, like the
+     * <code>KEY_*</code> constants, or skips a longer key.
+     *
+     * @return the key <code>int</code> or {@link #KEY_UNKNOWN}
+     */
+    private int readKey() {
+        int length = readStringHeader();
+        int start = position;
+        position += length;
+        switch (length) {
+            case 1:
+                return buffer.get(start);
+            case 2:
+                return buffer.get(start) << 16 | buffer.get(start + 1);
+            default:
+                return KEY_UNKNOWN;
+        }
+    }
+
+    private String readKeyString() {
+        int length = readStringHeader();
+        String key = decodeUTF8(position, length);
+        position += length;
+        return key;
+    }
+
+    /**
+     * Returns true and consumes the next value if it is a MessagePack <code>nil</code>.
+     *
+     * @return a boolean
+     */
+    private boolean nextIsNil() {
+        if (peekFormat() == NIL) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private String readString() {
+        if (nextIsNil()) {
+            return null;
+        }
+
+        int length = readStringHeader();
+        String string = decodeUTF8(position, length);
+        position += length;
+        return string;
+    }
+
+    private int readSymbolID() {
+        return nextIsNil() ? SymbolTable.NO_ID : readInterned(SymbolTable.GLOBAL);
+    }
+
+    /**
+     * Reads an exchange code, tape, or condition as an interned {@link String} of {@link #codeTable}.
+     *
+     * @return the code {@link String} or <code>null</code>
+     */
+    private String readCode() {
+        return nextIsNil() ? null : codeTable.symbol(readInterned(codeTable));
+    }
+
+    private int readInterned(SymbolTable symbolTable) {
+        int length = readStringHeader();
+        int start = position;
+        position += length;
+
+        if (isASCII(start, length)) {
+            byteChars.start = start;
+            byteChars.length = length;
+            return symbolTable.intern(byteChars, 0, length);
+        }
+        return symbolTable.intern(decodeUTF8(start, length));
+    }
+
+    private ArrayList<String> readCodeList() {
+        if (nextIsNil()) {
+            return null;
+        }
+
+        int count = readArrayHeader();
+        ArrayList<String> codes = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            codes.add(readCode());
+        }
+        return codes;
+    }
+
+    private ArrayList<String> readSymbolList() {
+        if (nextIsNil()) {
+            return null;
+        }
+
+        int count = readArrayHeader();
+        ArrayList<String> symbols = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            int symbolID = readSymbolID();
+            symbols.add(symbolID == SymbolTable.NO_ID ? null : SymbolTable.GLOBAL.symbol(symbolID));
+        }
+        return symbols;
+    }
+
+    private Integer readInteger() {
+        return nextIsNil() ? null : Math.toIntExact(readLongValue());
+    }
+
+    private Long readLong() {
+        return nextIsNil() ? null : readLongValue();
+    }
+
+    private Double readDouble() {
+        if (nextIsNil()) {
+            return null;
+        }
+
+        int format = peekFormat();
+        switch (format) {
+            case 0xca:
+                double floatValue = buffer.getFloat(position + 1);
+                position += 5;
+                return floatValue;
+            case 0xcb:
+                double doubleValue = buffer.getDouble(position + 1);
+                position += 9;
+                return doubleValue;
+            default:
+                // Whole prices may be encoded as integers
+                return (double) readLongValue();
+        }
+    }
+
+    private long readLongValue() {
+        int format = peekFormat();
+        long value;
+        if (format <= 0x7f) { // Positive fixint
+            position++;
+            return format;
+        } else if (format >= 0xe0) { // Negative fixint
+            position++;
+            return (byte) format;
+        }
+
+        switch (format) {
+            case 0xcc:
+                value = buffer.get(position + 1) & 0xffL;
+                position += 2;
+                return value;
+            case 0xcd:
+                value = buffer.getShort(position + 1) & 0xffffL;
+                position += 3;
+                return value;
+            case 0xce:
+                value = buffer.getInt(position + 1) & 0xffff_ffffL;
+                position += 5;
+                return value;
+            case 0xcf:
+                value = buffer.getLong(position + 1);
+                if (value < 0) {
+                    throw new IllegalArgumentException("MessagePack uint 64 out of range at " + position + "!");
+                }
+                position += 9;
+                return value;
+            case 0xd0:
+                value = buffer.get(position + 1);
+                position += 2;
+                return value;
+            case 0xd1:
+                value = buffer.getShort(position + 1);
+                position += 3;
+                return value;
+            case 0xd2:
+                value = buffer.getInt(position + 1);
+                position += 5;
+                return value;
+            case 0xd3:
+                value = buffer.getLong(position + 1);
+                position += 9;
+                return value;
+            default:
+                throw unexpectedFormat(format, "integer");
+        }
+    }
+
+    /**
+     * Reads a timestamp extension value (32, 64, or 96 bit) or an RFC 3339 string as epoch nanoseconds.
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    private long readTimestampEpochNanos() {
+        if (nextIsNil()) {
+            return EpochNanosUtil.NO_EPOCH_NANOS;
+        }
+
+        int format = peekFormat();
+        long seconds;
+        long nanos;
+        switch (format) {
+            case 0xd6: // fixext 4: 32-bit unsigned seconds
+                checkTimestampExtensionType(position + 1);
+                seconds = buffer.getInt(position + 2) & 0xffff_ffffL;
+                nanos = 0;
+                position += 6;
+                break;
+            case 0xd7: // fixext 8: 30-bit nanoseconds and 34-bit unsigned seconds
+                checkTimestampExtensionType(position + 1);
+                long data = buffer.getLong(position + 2);
+                seconds = data & 0x3_ffff_ffffL;
+                nanos = data >>> 34;
+                position += 10;
+                break;
+            case 0xc7: // ext 8 of 12 bytes: 32-bit nanoseconds and 64-bit signed seconds
+                if ((buffer.get(position + 1) & 0xff) != 12) {
+                    throw unexpectedFormat(format, "timestamp");
+                }
+                checkTimestampExtensionType(position + 2);
+                nanos = buffer.getInt(position + 3) & 0xffff_ffffL;
+                seconds = buffer.getLong(position + 7);
+                position += 15;
+                break;
+            default:
+                if (!isString(format)) {
+                    throw unexpectedFormat(format, "timestamp");
+                }
+                int length = readStringHeader();
+                byteChars.start = position;
+                byteChars.length = length;
+                position += length;
+                return EpochNanosUtil.parseRFC3339(byteChars, 0, length);
+        }
+
+        return Math.addExact(Math.multiplyExact(seconds, NANOS_PER_SECOND), nanos);
+    }
+
+    private void checkTimestampExtensionType(int typePosition) {
+        if (buffer.get(typePosition) != TIMESTAMP_EXTENSION_TYPE) {
+            throw new IllegalArgumentException("Unexpected MessagePack extension type " + buffer.get(typePosition) +
+                    " at " + typePosition + "!");
+        }
+    }
+
+    private int readStringHeader() {
+        int format = peekFormat();
+        int length;
+        if (format >= 0xa0 && format <= 0xbf) { // fixstr
+            length = format & 0x1f;
+            position++;
+        } else if (format == 0xd9) {
+            length = buffer.get(position + 1) & 0xff;
+            position += 2;
+        } else if (format == 0xda) {
+            length = buffer.getShort(position + 1) & 0xffff;
+            position += 3;
+        } else if (format == 0xdb) {
+            length = checkLength(buffer.getInt(position + 1));
+            position += 5;
+        } else {
+            throw unexpectedFormat(format, "string");
+        }
+        return length;
+    }
+
+    private int readArrayHeader() {
+        int format = peekFormat();
+        int count;
+        if (format >= 0x90 && format <= 0x9f) { // fixarray
+            count = format & 0x0f;
+            position++;
+        } else if (format == 0xdc) {
+            count = buffer.getShort(position + 1) & 0xffff;
+            position += 3;
+        } else if (format == 0xdd) {
+            count = checkLength(buffer.getInt(position + 1));
+            position += 5;
+        } else {
+            throw unexpectedFormat(format, "array");
+        }
+        return count;
+    }
+
+    private int readMapHeader() {
+        int format = peekFormat();
+        int count;
+        if (format >= 0x80 && format <= 0x8f) { // fixmap
+            count = format & 0x0f;
+            position++;
+        } else if (format == 0xde) {
+            count = buffer.getShort(position + 1) & 0xffff;
+            position += 3;
+        } else if (format == 0xdf) {
+            count = checkLength(buffer.getInt(position + 1));
+            position += 5;
+        } else {
+            throw unexpectedFormat(format, "map");
+        }
+        return count;
+    }
+
+    private void skipFields(int fieldCount) {
+        for (int index = 0; index < fieldCount; index++) {
+            skipValue(); // Key
+            skipValue();
+        }
+    }
+
+    /**
+     * Skips the next value of any format, including nested arrays and maps.
+     */
+    private void skipValue() {
+        int format = peekFormat();
+        if (format <= 0x7f || format >= 0xe0 || format == NIL || format == 0xc2 || format == 0xc3) {
+            position++;
+        } else if (isString(format)) {
+            int length = readStringHeader();
+            position += length;
+        } else if (format >= 0x90 && format <= 0x9f || format == 0xdc || format == 0xdd) {
+            int count = readArrayHeader();
+            for (int index = 0; index < count; index++) {
+                skipValue();
+            }
+        } else if (isMap(format)) {
+            skipFields(readMapHeader());
+        } else {
+            switch (format) {
+                case 0xc4: // bin 8
+                    position += 2 + (buffer.get(position + 1) & 0xff);
+                    break;
+                case 0xc5: // bin 16
+                    position += 3 + (buffer.getShort(position + 1) & 0xffff);
+                    break;
+                case 0xc6: // bin 32
+                    position += 5 + checkLength(buffer.getInt(position + 1));
+                    break;
+                case 0xc7: // ext 8
+                    position += 3 + (buffer.get(position + 1) & 0xff);
+                    break;
+                case 0xc8: // ext 16
+                    position += 4 + (buffer.getShort(position + 1) & 0xffff);
+                    break;
+                case 0xc9: // ext 32
+                    position += 6 + checkLength(buffer.getInt(position + 1));
+                    break;
+                case 0xca: // float 32
+                case 0xce: // uint 32
+                case 0xd2: // int 32
+                    position += 5;
+                    break;
+                case 0xcb: // float 64
+                case 0xcf: // uint 64
+                case 0xd3: // int 64
+                    position += 9;
+                    break;
+                case 0xcc: // uint 8
+                case 0xd0: // int 8
+                    position += 2;
+                    break;
+                case 0xcd: // uint 16
+                case 0xd1: // int 16
+                    position += 3;
+                    break;
+                case 0xd4: // fixext 1
+                    position += 3;
+                    break;
+                case 0xd5: // fixext 2
+                    position += 4;
+                    break;
+                case 0xd6: // fixext 4
+                    position += 6;
+                    break;
+                case 0xd7: // fixext 8
+                    position += 10;
+                    break;
+                case 0xd8: // fixext 16
+                    position += 18;
+                    break;
+                default:
+                    throw unexpectedFormat(format, "value");
+            }
+        }
+    }
+
+    private int peekFormat() {
+        return buffer.get(position) & 0xff;
+    }
+
+    private static boolean isString(int format) {
+        return format >= 0xa0 && format <= 0xbf || format >= 0xd9 && format <= 0xdb;
+    }
+
+    private static boolean isMap(int format) {
+        return format >= 0x80 && format <= 0x8f || format == 0xde || format == 0xdf;
+    }
+
+    private int checkLength(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("MessagePack length out of range at " + position + "!");
+        }
+        return length;
+    }
+
+    private boolean isASCII(int start, int length) {
+        for (int index = start; index < start + length; index++) {
+            if (buffer.get(index) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean asciiEquals(int start, int length, String string) {
+        if (length != string.length()) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            if (buffer.get(start + index) != string.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decodeUTF8(int start, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+
+        if (utf8Bytes.length < length) {
+            utf8Bytes = new byte[Math.max(length, utf8Bytes.length * 2)];
+        }
+        for (int index = 0; index < length; index++) {
+            utf8Bytes[index] = buffer.get(start + index);
+        }
+        return new String(utf8Bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private IllegalArgumentException unexpectedFormat(int format, String expected) {
+        return new IllegalArgumentException(String.format("Expected MessagePack %s but found format 0x%02x at %d!",
+                expected, format, position));
+    }
+
+    /**
+     * {@link ByteChars} is a reused {@link CharSequence} view of an ASCII range of {@link #buffer}, so symbols and
+     * codes can be interned and timestamps parsed without creating a {@link String}.
+     */
+    private static final class ByteChars implements CharSequence {
+
+        private ByteBuffer buffer;
+        private int start;
+        private int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+            for (int index = 0; index < length; index++) {
+                chars[index] = charAt(index);
+            }
+            return new String(chars);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+
+/**
+ * {@link QuoteListener} defines a listener interface for {@link MarketDataWebsocket} {@link QuoteMessage}s.
+ */
+@FunctionalInterface
+public interface QuoteListener {
+
+    /**
+     * Called when a {@link QuoteMessage} is received.
+     *
+     * @param quoteMessage the {@link QuoteMessage}
+     */
+    void onQuote(QuoteMessage quoteMessage);
+}
@@ -0,0 +1,557 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.util.concurrent.RingBuffer;
+import net.jacobpeterson.alpaca.util.concurrent.WaitStrategy;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+import net.jacobpeterson.alpaca.websocket.marketdata.conflation.ConflatingQuoteBuffer;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.IndicatorEngine;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.MarketDataLatencyMetrics;
+import okhttp3.OkHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link ShardedMarketDataWebsocket} is a {@link MarketDataWebsocketInterface} that splits its subscriptions across
+ * several {@link MarketDataWebsocket} connections, so that a very large symbol universe isn't limited by a single TCP
+ * stream and reader thread. Every symbol is assigned to one shard with rendezvous hashing, which is stable across runs
+ * and only moves about <code>1 / connectionCount</code> of the symbols when the number of connections changes. A
+ * wildcard subscription can't be split, so it's carried by the first shard.
+ * <br>
+ * Listeners are added to every shard and are called from the reader thread of the shard that received the message, so
+ * listeners of different symbols may be called concurrently. Control listeners are called with the control messages
+ * of every shard. Each shard reconnects and resubscribes on its own when its connection drops.
+ * <br>
+ * A {@link MarketDataLatencyMetrics} is shared by every shard. A {@link FrameJournal} can only record one connection,
+ * so {@link #setFrameJournal(FrameJournal)} opens a sibling journal for each of the other shards.
+ */
+public class ShardedMarketDataWebsocket implements MarketDataWebsocketInterface {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedMarketDataWebsocket.class);
+    private static final String WILDCARD = "*";
+
+    private final MarketDataWebsocket[] shards;
+
+    private volatile MarketDataLatencyMetrics latencyMetrics;
+    private volatile FrameJournal frameJournal;
+    private FrameJournal[] siblingFrameJournals;
+
+    /**
+     * Instantiates a new {@link ShardedMarketDataWebsocket}.
+     *
+     * @param okHttpClient    the {@link OkHttpClient}
+     * @param dataAPIType     the {@link DataAPIType}
+     * @param keyID           the key ID
+     * @param secretKey       the secret key
+     * @param connectionCount the number of connections, which must not exceed the connection limit of the account
+     */
+    public ShardedMarketDataWebsocket(OkHttpClient okHttpClient, DataAPIType dataAPIType, String keyID,
+            String secretKey, int connectionCount) {
+        checkArgument(connectionCount > 0, "'connectionCount' must be positive!");
+
+        shards = new MarketDataWebsocket[connectionCount];
+        for (int index = 0; index < connectionCount; index++) {
+            shards[index] = new MarketDataWebsocket(okHttpClient, dataAPIType, keyID, secretKey,
+                    "Market Data (" + (index + 1) + "/" + connectionCount + ")");
+        }
+    }
+
+    /**
+     * Gets the index of the shard that the given <code>symbol</code> is assigned to.
+     *
+     * @param symbol the symbol
+     *
+     * @return the shard index
+     */
+    public int shardOf(String symbol) {
+        checkNotNull(symbol);
+        if (shards.length == 1 || symbol.equals(WILDCARD)) {
+            return 0;
+        }
+
+        // Rendezvous hashing: the shard with the highest weight for the symbol wins
+        int symbolHash = symbol.hashCode();
+        int bestShard = 0;
+        long bestWeight = Long.MIN_VALUE;
+        for (int shard = 0; shard < shards.length; shard++) {
+            long weight = mix(symbolHash * 0x9E3779B97F4A7C15L + shard);
+            if (weight > bestWeight) {
+                bestWeight = weight;
+                bestShard = shard;
+            }
+        }
+        return bestShard;
+    }
+
+    /**
+     * The MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Gets the {@link MarketDataWebsocket} shards.
+     *
+     * @return an unmodifiable {@link List} of {@link MarketDataWebsocket}s
+     */
+    public List<MarketDataWebsocket> getShards() {
+        return Collections.unmodifiableList(Arrays.asList(shards));
+    }
+
+    /**
+     * Splits <code>symbols</code> by shard.
+     *
+     * @param symbols a {@link Collection} of symbols or <code>null</code>
+     *
+     * @return an array of {@link List}s indexed by shard, or <code>null</code> if <code>symbols</code> is
+     * <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    private List<String>[] partition(Collection<String> symbols) {
+        if (symbols == null) {
+            return null;
+        }
+
+        List<String>[] shardSymbols = new List[shards.length];
+        for (int shard = 0; shard < shards.length; shard++) {
+            shardSymbols[shard] = new ArrayList<>();
+        }
+        for (String symbol : symbols) {
+            shardSymbols[shardOf(symbol)].add(symbol);
+        }
+        return shardSymbols;
+    }
+
+    /**
+     * Gets the symbols of a shard from a partition, or <code>null</code> for a <code>null</code> partition or no
+     * symbols, which means no change.
+     */
+    private static List<String> shardSymbols(List<String>[] partition, int shard) {
+        return partition == null || partition[shard].isEmpty() ? null : partition[shard];
+    }
+
+    @Override
+    public void connect() {
+        for (MarketDataWebsocket shard : shards) {
+            shard.connect();
+        }
+    }
+
+    @Override
+    public void disconnect() {
+        for (MarketDataWebsocket shard : shards) {
+            shard.disconnect();
+        }
+    }
+
+    /**
+     * Returns true if every shard is connected.
+     *
+     * @return a boolean
+     */
+    @Override
+    public boolean isConnected() {
+        for (MarketDataWebsocket shard : shards) {
+            if (!shard.isConnected()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if every shard is authenticated.
+     *
+     * @return a boolean
+     */
+    @Override
+    public boolean isAuthenticated() {
+        for (MarketDataWebsocket shard : shards) {
+            if (!shard.isAuthenticated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a {@link Boolean} {@link Future} that completes when the next authentication message of every shard is
+     * received, with <code>true</code> only if all of them indicate a successful authorization.
+     *
+     * @return a {@link Boolean} {@link Future}
+     */
+    @Override
+    public Future<Boolean> getAuthorizationFuture() {
+        CompletableFuture<Boolean> authorizationFuture = CompletableFuture.completedFuture(true);
+        for (MarketDataWebsocket shard : shards) {
+            CompletableFuture<Boolean> shardAuthorizationFuture = (CompletableFuture<Boolean>) shard
+                    .getAuthorizationFuture();
+            authorizationFuture = authorizationFuture.thenCombine(shardAuthorizationFuture,
+                    (authorized, shardAuthorized) -> authorized && shardAuthorized);
+        }
+        return authorizationFuture;
+    }
+
+    @Override
+    public void subscribeToControl(MarketDataMessageType... marketDataMessageTypes) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.subscribeToControl(marketDataMessageTypes);
+        }
+    }
+
+    @Override
+    public void subscribe(Collection<String> tradeSymbols, Collection<String> quoteSymbols,
+            Collection<String> barSymbols) {
+        updateSubscriptions(tradeSymbols, quoteSymbols, barSymbols, true);
+    }
+
+    @Override
+    public void unsubscribe(Collection<String> tradeSymbols, Collection<String> quoteSymbols,
+            Collection<String> barSymbols) {
+        updateSubscriptions(tradeSymbols, quoteSymbols, barSymbols, false);
+    }
+
+    private void updateSubscriptions(Collection<String> tradeSymbols, Collection<String> quoteSymbols,
+            Collection<String> barSymbols, boolean subscribe) {
+        List<String>[] tradePartition = partition(tradeSymbols);
+        List<String>[] quotePartition = partition(quoteSymbols);
+        List<String>[] barPartition = partition(barSymbols);
+
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<String> shardTradeSymbols = shardSymbols(tradePartition, shard);
+            List<String> shardQuoteSymbols = shardSymbols(quotePartition, shard);
+            List<String> shardBarSymbols = shardSymbols(barPartition, shard);
+            if (shardTradeSymbols == null && shardQuoteSymbols == null && shardBarSymbols == null) {
+                continue; // Don't connect shards that have nothing to subscribe to
+            }
+
+            if (subscribe) {
+                shards[shard].subscribe(shardTradeSymbols, shardQuoteSymbols, shardBarSymbols);
+            } else {
+                shards[shard].unsubscribe(shardTradeSymbols, shardQuoteSymbols, shardBarSymbols);
+            }
+        }
+    }
+
+    @Override
+    public Collection<MarketDataMessageType> subscribedControls() {
+        return union(MarketDataWebsocket::subscribedControls);
+    }
+
+    @Override
+    public Collection<String> subscribedTrades() {
+        return union(MarketDataWebsocket::subscribedTrades);
+    }
+
+    @Override
+    public Collection<String> subscribedQuotes() {
+        return union(MarketDataWebsocket::subscribedQuotes);
+    }
+
+    @Override
+    public Collection<String> subscribedBars() {
+        return union(MarketDataWebsocket::subscribedBars);
+    }
+
+    private <T> Collection<T> union(Function<MarketDataWebsocket, Collection<T>> shardCollection) {
+        Set<T> union = new LinkedHashSet<>();
+        for (MarketDataWebsocket shard : shards) {
+            union.addAll(shardCollection.apply(shard));
+        }
+        return union;
+    }
+
+    @Override
+    public void addListener(MarketDataListener listener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addListener(listener);
+        }
+    }
+
+    @Override
+    public void removeListener(MarketDataListener listener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeListener(listener);
+        }
+    }
+
+    @Override
+    public void addListener(Collection<String> symbols, MarketDataListener listener) {
+        checkNotNull(symbols);
+        List<String>[] partition = partition(symbols);
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (!partition[shard].isEmpty()) {
+                shards[shard].addListener(partition[shard], listener);
+            }
+        }
+    }
+
+    @Override
+    public void removeListener(Collection<String> symbols, MarketDataListener listener) {
+        checkNotNull(symbols);
+        List<String>[] partition = partition(symbols);
+        for (int shard = 0; shard < shards.length; shard++) {
+            if (!partition[shard].isEmpty()) {
+                shards[shard].removeListener(partition[shard], listener);
+            }
+        }
+    }
+
+    @Override
+    public void addTradeListener(TradeListener tradeListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addTradeListener(tradeListener);
+        }
+    }
+
+    @Override
+    public void removeTradeListener(TradeListener tradeListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeTradeListener(tradeListener);
+        }
+    }
+
+    @Override
+    public void addQuoteListener(QuoteListener quoteListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addQuoteListener(quoteListener);
+        }
+    }
+
+    @Override
+    public void removeQuoteListener(QuoteListener quoteListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeQuoteListener(quoteListener);
+        }
+    }
+
+    /**
+     * Creates one {@link ConflatingQuoteBuffer} and adds it as a {@link QuoteListener} of every shard.
+     *
+     * @return the {@link ConflatingQuoteBuffer}
+     */
+    @Override
+    public ConflatingQuoteBuffer addConflatingQuoteBuffer() {
+        ConflatingQuoteBuffer conflatingQuoteBuffer = new ConflatingQuoteBuffer();
+        addQuoteListener(conflatingQuoteBuffer);
+        return conflatingQuoteBuffer;
+    }
+
+    @Override
+    public void addBarListener(BarListener barListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addBarListener(barListener);
+        }
+    }
+
+    @Override
+    public void removeBarListener(BarListener barListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeBarListener(barListener);
+        }
+    }
+
+    @Override
+    public void addIndicatorEngine(IndicatorEngine indicatorEngine) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addIndicatorEngine(indicatorEngine);
+        }
+    }
+
+    @Override
+    public void removeIndicatorEngine(IndicatorEngine indicatorEngine) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeIndicatorEngine(indicatorEngine);
+        }
+    }
+
+    @Override
+    public void addControlListener(MarketDataControlListener controlListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addControlListener(controlListener);
+        }
+    }
+
+    @Override
+    public void removeControlListener(MarketDataControlListener controlListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeControlListener(controlListener);
+        }
+    }
+
+    @Override
+    public void addFlyweightListener(MarketDataFlyweightListener flyweightListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.addFlyweightListener(flyweightListener);
+        }
+    }
+
+    @Override
+    public void removeFlyweightListener(MarketDataFlyweightListener flyweightListener) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.removeFlyweightListener(flyweightListener);
+        }
+    }
+
+    /**
+     * Enables ring buffer dispatching on every shard, each with its own {@link RingBuffer} and consumer threads.
+     *
+     * @see MarketDataWebsocket#enableRingBufferDispatch(int, int, WaitStrategy)
+     */
+    @Override
+    public void enableRingBufferDispatch(int capacity, int consumerThreadCount, WaitStrategy waitStrategy) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.enableRingBufferDispatch(capacity, consumerThreadCount, waitStrategy);
+        }
+    }
+
+    /**
+     * Enables symbol-sharded ring buffer dispatching on every shard, each with its own {@link RingBuffer}s and
+     * consumer threads.
+     *
+     * @see MarketDataWebsocket#enableShardedDispatch(int, int, WaitStrategy)
+     */
+    @Override
+    public void enableShardedDispatch(int shardCount, int capacity, WaitStrategy waitStrategy) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.enableShardedDispatch(shardCount, capacity, waitStrategy);
+        }
+    }
+
+    @Override
+    public void disableRingBufferDispatch() {
+        for (MarketDataWebsocket shard : shards) {
+            shard.disableRingBufferDispatch();
+        }
+    }
+
+    @Override
+    public List<RingBuffer<?>> getDispatchRingBuffers() {
+        List<RingBuffer<?>> ringBuffers = new ArrayList<>();
+        for (MarketDataWebsocket shard : shards) {
+            ringBuffers.addAll(shard.getDispatchRingBuffers());
+        }
+        return ringBuffers;
+    }
+
+    @Override
+    public MarketDataLatencyMetrics getLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /**
+     * Sets the {@link MarketDataLatencyMetrics} that every shard records its latencies to.
+     *
+     * @see MarketDataWebsocket#setLatencyMetrics(MarketDataLatencyMetrics)
+     */
+    @Override
+    public void setLatencyMetrics(MarketDataLatencyMetrics latencyMetrics) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.setLatencyMetrics(latencyMetrics);
+        }
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    @Override
+    public boolean isMessagePackEnabled() {
+        return shards[0].isMessagePackEnabled();
+    }
+
+    @Override
+    public void setMessagePackEnabled(boolean messagePackEnabled) {
+        for (MarketDataWebsocket shard : shards) {
+            shard.setMessagePackEnabled(messagePackEnabled);
+        }
+    }
+
+    /**
+     * Sets the {@link FrameJournal} of the first shard. Since a {@link FrameJournal} can only record one connection,
+     * every other shard records to a sibling journal named <code>&lt;name&gt;-&lt;shard number&gt;</code>, opened with
+     * {@link FrameJournal#openSibling(String)}. The sibling journals are closed by this websocket when the {@link
+     * FrameJournal} is replaced or removed, while <code>frameJournal</code> itself is left to the caller to close.
+     *
+     * @throws UncheckedIOException thrown if a sibling journal couldn't be opened
+     */
+    @Override
+    public synchronized void setFrameJournal(FrameJournal frameJournal) {
+        FrameJournal[] newSiblingFrameJournals = null;
+        if (frameJournal != null && shards.length > 1) {
+            newSiblingFrameJournals = new FrameJournal[shards.length];
+            try {
+                for (int shard = 1; shard < shards.length; shard++) {
+                    newSiblingFrameJournals[shard] =
+                            frameJournal.openSibling(frameJournal.getName() + "-" + (shard + 1));
+                }
+            } catch (IOException exception) {
+                closeFrameJournals(newSiblingFrameJournals);
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        for (int shard = 0; shard < shards.length; shard++) {
+            shards[shard].setFrameJournal(shard == 0 || newSiblingFrameJournals == null ?
+                    frameJournal : newSiblingFrameJournals[shard]);
+        }
+        closeFrameJournals(siblingFrameJournals);
+        siblingFrameJournals = newSiblingFrameJournals;
+        this.frameJournal = frameJournal;
+    }
+
+    /**
+     * Closes the given sibling {@link FrameJournal}s, logging any {@link IOException}s.
+     *
+     * @param frameJournals the {@link FrameJournal}s, which may be or contain <code>null</code>
+     */
+    private static void closeFrameJournals(FrameJournal[] frameJournals) {
+        if (frameJournals == null) {
+            return;
+        }
+
+        for (FrameJournal siblingFrameJournal : frameJournals) {
+            if (siblingFrameJournal == null) {
+                continue;
+            }
+
+            try {
+                siblingFrameJournal.close();
+            } catch (IOException exception) {
+                LOGGER.error("Could not close {} journal!", siblingFrameJournal.getName(), exception);
+            }
+        }
+    }
+
+    /**
+     * Gets the {@link FrameJournal} of the first shard. The sibling journals of the other shards can be gotten from
+     * {@link #getShards()}.
+     *
+     * @return the {@link FrameJournal} or <code>null</code>
+     */
+    @Override
+    public FrameJournal getFrameJournal() {
+        return frameJournal;
+    }
+}
@@ -0,0 +1,17 @@
+package net.jacobpeterson.alpaca.websocket.marketdata;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+
+/**
+ * {@link TradeListener} defines a listener interface for {@link MarketDataWebsocket} {@link TradeMessage}s.
+ */
+@FunctionalInterface
+public interface TradeListener {
+
+    /**
+     * Called when a {@link TradeMessage} is received.
+     *
+     * @param tradeMessage the {@link TradeMessage}
+     */
+    void onTrade(TradeMessage tradeMessage);
+}
@@ -0,0 +1,382 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.backfill;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.bar.Bar;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.bar.BarsResponse;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.bar.enums.BarsTimeFrame;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.trade.Trade;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.trade.TradesResponse;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.TimestampedSymbolMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.rest.AlpacaClientException;
+import net.jacobpeterson.alpaca.rest.endpoint.MarketDataEndpoint;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosClock;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionState;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionStateListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.BarListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.TradeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link GapBackfiller} recovers the trades and bars that a {@link MarketDataWebsocket} missed while it was
+ * reconnecting. It records the latest exchange timestamp of the live trades and bars of every symbol, and when a
+ * reconnection is {@link ConnectionState#LIVE} again, it requests every subscribed symbol's gap from {@link
+ * MarketDataEndpoint#getTrades(String, ZonedDateTime, ZonedDateTime, Integer, String)} and {@link
+ * MarketDataEndpoint#getBars(String, ZonedDateTime, ZonedDateTime, Integer, String, BarsTimeFrame)} as separate tasks
+ * on the given {@link Executor}, so gaps are backfilled concurrently and the websocket thread never waits for them.
+ * <br>
+ * A gap starts after the last live message before the connection was lost and ends before the first live message
+ * after it was restored, or before the time the subscriptions were restored if no live message of the symbol arrived
+ * yet, so the backfill doesn't repeat live messages. Backfilled messages are flagged with {@link
+ * TimestampedSymbolMessage#isReplayed()} and passed to {@link MarketDataWebsocket#dispatchReplayed(
+ *MarketDataMessageType, net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage)} one at a time
+ * and in order per symbol, but concurrently with live messages. Wildcard subscriptions aren't backfilled.
+ */
+public class GapBackfiller implements TradeListener, BarListener, ConnectionStateListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GapBackfiller.class);
+
+    private static final int PAGE_LIMIT = 10_000;
+    private static final String WILDCARD = "*";
+
+    private final MarketDataWebsocket marketDataWebsocket;
+    private final MarketDataEndpoint marketDataEndpoint;
+    private final Executor executor;
+    private final EpochNanosClock clock;
+    private final SymbolTimestamps lastTradeEpochNanos;
+    private final SymbolTimestamps lastBarEpochNanos;
+    private final ConcurrentHashMap<Integer, Gap> tradeGaps;
+    private final ConcurrentHashMap<Integer, Gap> barGaps;
+    private final Object dispatchLock;
+    private final AtomicLong backfilledMessageCount;
+    private final AtomicLong failedBackfillCount;
+
+    /**
+     * Instantiates a new {@link GapBackfiller} with {@link EpochNanosClock#SYSTEM} and adds it as a {@link
+     * TradeListener}, {@link BarListener}, and {@link ConnectionStateListener} of <code>marketDataWebsocket</code>.
+     *
+     * @param marketDataWebsocket the {@link MarketDataWebsocket}
+     * @param marketDataEndpoint  the {@link MarketDataEndpoint} to request the missed trades and bars from
+     * @param executor            the {@link Executor} to request them on
+     */
+    public GapBackfiller(MarketDataWebsocket marketDataWebsocket, MarketDataEndpoint marketDataEndpoint,
+            Executor executor) {
+        this(marketDataWebsocket, marketDataEndpoint, executor, EpochNanosClock.SYSTEM);
+    }
+
+    /**
+     * Instantiates a new {@link GapBackfiller} and adds it as a {@link TradeListener}, {@link BarListener}, and {@link
+     * ConnectionStateListener} of <code>marketDataWebsocket</code>.
+     *
+     * @param marketDataWebsocket the {@link MarketDataWebsocket}
+     * @param marketDataEndpoint  the {@link MarketDataEndpoint} to request the missed trades and bars from
+     * @param executor            the {@link Executor} to request them on
+     * @param clock               the {@link EpochNanosClock} that the time subscriptions were restored is read from
+     */
+    public GapBackfiller(MarketDataWebsocket marketDataWebsocket, MarketDataEndpoint marketDataEndpoint,
+            Executor executor, EpochNanosClock clock) {
+        this.marketDataWebsocket = checkNotNull(marketDataWebsocket);
+        this.marketDataEndpoint = checkNotNull(marketDataEndpoint);
+        this.executor = checkNotNull(executor);
+        this.clock = checkNotNull(clock);
+
+        lastTradeEpochNanos = new SymbolTimestamps();
+        lastBarEpochNanos = new SymbolTimestamps();
+        tradeGaps = new ConcurrentHashMap<>();
+        barGaps = new ConcurrentHashMap<>();
+        dispatchLock = new Object();
+        backfilledMessageCount = new AtomicLong();
+        failedBackfillCount = new AtomicLong();
+
+        marketDataWebsocket.addTradeListener(this);
+        marketDataWebsocket.addBarListener(this);
+        marketDataWebsocket.addConnectionStateListener(this);
+    }
+
+    @Override
+    public void onTrade(TradeMessage tradeMessage) {
+        if (!tradeMessage.isReplayed()) {
+            onLiveMessage(tradeMessage, lastTradeEpochNanos, tradeGaps);
+        }
+    }
+
+    @Override
+    public void onBar(BarMessage barMessage) {
+        if (!barMessage.isReplayed()) {
+            onLiveMessage(barMessage, lastBarEpochNanos, barGaps);
+        }
+    }
+
+    private static void onLiveMessage(TimestampedSymbolMessage message, SymbolTimestamps lastEpochNanos,
+            ConcurrentHashMap<Integer, Gap> gaps) {
+        int symbolID = message.getSymbolID();
+        long epochNanos = message.getTimestampEpochNanos();
+        lastEpochNanos.advance(symbolID, epochNanos);
+
+        if (!gaps.isEmpty()) {
+            Gap gap = gaps.get(symbolID);
+            if (gap != null) {
+                gap.closeAt(epochNanos);
+            }
+        }
+    }
+
+    @Override
+    public void onConnectionStateChange(ConnectionState previousState, ConnectionState state) {
+        // A reconnection is the only way to become 'LIVE' from 'RESUBSCRIBING'. This is called from the websocket
+        // thread while it handles the subscription confirmation, so no live message of the restored subscriptions has
+        // been handled yet.
+        if (previousState == ConnectionState.RESUBSCRIBING && state == ConnectionState.LIVE) {
+            long resumeEpochNanos = clock.epochNanos();
+            for (String symbol : marketDataWebsocket.subscribedTrades()) {
+                scheduleBackfill(MarketDataMessageType.TRADE, symbol, lastTradeEpochNanos, tradeGaps,
+                        resumeEpochNanos);
+            }
+            for (String symbol : marketDataWebsocket.subscribedBars()) {
+                scheduleBackfill(MarketDataMessageType.BAR, symbol, lastBarEpochNanos, barGaps, resumeEpochNanos);
+            }
+        }
+    }
+
+    private void scheduleBackfill(MarketDataMessageType marketDataMessageType, String symbol,
+            SymbolTimestamps lastEpochNanos, ConcurrentHashMap<Integer, Gap> gaps, long resumeEpochNanos) {
+        if (symbol.equals(WILDCARD)) {
+            return;
+        }
+
+        int symbolID = SymbolTable.GLOBAL.intern(symbol);
+        long startEpochNanos = lastEpochNanos.get(symbolID);
+        if (startEpochNanos == EpochNanosUtil.NO_EPOCH_NANOS || startEpochNanos >= resumeEpochNanos) {
+            return; // Nothing was received before the connection was lost, so there's no known gap
+        }
+
+        Gap gap = new Gap(marketDataMessageType, symbol, symbolID, startEpochNanos, resumeEpochNanos);
+        Gap previousGap = gaps.put(symbolID, gap);
+        if (previousGap != null) {
+            // The previous backfill of this symbol is still running, so let it stop where this one starts
+            previousGap.closeAt(startEpochNanos + 1);
+        }
+
+        try {
+            executor.execute(() -> backfill(gap, gaps));
+        } catch (RejectedExecutionException exception) {
+            LOGGER.error("Could not schedule the {} backfill of {}!", marketDataMessageType, symbol, exception);
+            gaps.remove(symbolID, gap);
+            failedBackfillCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Requests and dispatches the messages of a {@link Gap}.
+     *
+     * @param gap  the {@link Gap}
+     * @param gaps the {@link Gap}s that <code>gap</code> is in
+     */
+    private void backfill(Gap gap, ConcurrentHashMap<Integer, Gap> gaps) {
+        // The REST API doesn't accept fractions of a second, so the range is widened to whole seconds
+        ZonedDateTime start = EpochNanosUtil.toZonedDateTime(floorToSecond(gap.startEpochNanos));
+        ZonedDateTime end = EpochNanosUtil.toZonedDateTime(floorToSecond(gap.resumeEpochNanos) +
+                TimeUnit.SECONDS.toNanos(1));
+        long dispatchedCount = 0;
+        try {
+            String pageToken = null;
+            boolean closed = false;
+            do {
+                if (gap.marketDataMessageType == MarketDataMessageType.TRADE) {
+                    TradesResponse tradesResponse = marketDataEndpoint.getTrades(gap.symbol, start, end, PAGE_LIMIT,
+                            pageToken);
+                    List<Trade> trades = tradesResponse.getTrades();
+                    if (trades != null) {
+                        for (Trade trade : trades) {
+                            if (gap.isAfterEnd(trade.getTimestampEpochNanos())) {
+                                closed = true;
+                                break;
+                            }
+                            if (gap.contains(trade.getTimestampEpochNanos())) {
+                                dispatch(MarketDataMessageType.TRADE, toTradeMessage(gap.symbolID, trade));
+                                dispatchedCount++;
+                            }
+                        }
+                    }
+                    pageToken = tradesResponse.getNextPageToken();
+                } else {
+                    BarsResponse barsResponse = marketDataEndpoint.getBars(gap.symbol, start, end, PAGE_LIMIT,
+                            pageToken, BarsTimeFrame.ONE_MINUTE);
+                    List<Bar> bars = barsResponse.getBars();
+                    if (bars != null) {
+                        for (Bar bar : bars) {
+                            if (gap.isAfterEnd(bar.getTimestampEpochNanos())) {
+                                closed = true;
+                                break;
+                            }
+                            if (gap.contains(bar.getTimestampEpochNanos())) {
+                                dispatch(MarketDataMessageType.BAR, toBarMessage(gap.symbolID, bar));
+                                dispatchedCount++;
+                            }
+                        }
+                    }
+                    pageToken = barsResponse.getNextPageToken();
+                }
+            } while (!closed && pageToken != null);
+
+            LOGGER.info("Backfilled {} {} messages of {}.", dispatchedCount, gap.marketDataMessageType, gap.symbol);
+        } catch (AlpacaClientException | RuntimeException exception) {
+            LOGGER.error("Could not backfill the {} messages of {} after {} dispatched!", gap.marketDataMessageType,
+                    gap.symbol, dispatchedCount, exception);
+            failedBackfillCount.incrementAndGet();
+        } finally {
+            backfilledMessageCount.addAndGet(dispatchedCount);
+            gaps.remove(gap.symbolID, gap);
+        }
+    }
+
+    private void dispatch(MarketDataMessageType marketDataMessageType, TimestampedSymbolMessage message) {
+        message.setReplayed(true);
+        // Backfills of different symbols run concurrently, but listeners are only called by one of them at a time
+        synchronized (dispatchLock) {
+            marketDataWebsocket.dispatchReplayed(marketDataMessageType, message);
+        }
+    }
+
+    private static long floorToSecond(long epochNanos) {
+        return Math.floorDiv(epochNanos, TimeUnit.SECONDS.toNanos(1)) * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static TradeMessage toTradeMessage(int symbolID, Trade trade) {
+        TradeMessage tradeMessage = new TradeMessage();
+        tradeMessage.setMessageType(MarketDataMessageType.TRADE);
+        tradeMessage.setSymbolID(symbolID);
+        tradeMessage.setTimestampEpochNanos(trade.getTimestampEpochNanos());
+        tradeMessage.setTradeID(trade.getI());
+        tradeMessage.setExchange(trade.getX());
+        tradeMessage.setPrice(trade.getP());
+        tradeMessage.setSize(trade.getS());
+        tradeMessage.setConditions(trade.getC());
+        tradeMessage.setTape(trade.getZ());
+        return tradeMessage;
+    }
+
+    private static BarMessage toBarMessage(int symbolID, Bar bar) {
+        BarMessage barMessage = new BarMessage();
+        barMessage.setMessageType(MarketDataMessageType.BAR);
+        barMessage.setSymbolID(symbolID);
+        barMessage.setTimestampEpochNanos(bar.getTimestampEpochNanos());
+        barMessage.setOpen(bar.getO());
+        barMessage.setHigh(bar.getH());
+        barMessage.setLow(bar.getL());
+        barMessage.setClose(bar.getC());
+        barMessage.setVolume(bar.getV());
+        return barMessage;
+    }
+
+    /**
+     * Gets the latest exchange timestamp of the live trades of a symbol.
+     *
+     * @param symbol the symbol
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public long getLastTradeEpochNanos(String symbol) {
+        int symbolID = SymbolTable.GLOBAL.find(symbol);
+        return symbolID == SymbolTable.NO_ID ? EpochNanosUtil.NO_EPOCH_NANOS : lastTradeEpochNanos.get(symbolID);
+    }
+
+    /**
+     * Gets the latest exchange timestamp of the live bars of a symbol.
+     *
+     * @param symbol the symbol
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public long getLastBarEpochNanos(String symbol) {
+        int symbolID = SymbolTable.GLOBAL.find(symbol);
+        return symbolID == SymbolTable.NO_ID ? EpochNanosUtil.NO_EPOCH_NANOS : lastBarEpochNanos.get(symbolID);
+    }
+
+    /**
+     * Gets the number of gaps that are being backfilled.
+     *
+     * @return the number of gaps
+     */
+    public int getActiveBackfillCount() {
+        return tradeGaps.size() + barGaps.size();
+    }
+
+    /**
+     * Gets the number of trades and bars that were backfilled.
+     *
+     * @return the backfilled message count
+     */
+    public long getBackfilledMessageCount() {
+        return backfilledMessageCount.get();
+    }
+
+    /**
+     * Gets the number of gaps that couldn't be backfilled completely.
+     *
+     * @return the failed backfill count
+     */
+    public long getFailedBackfillCount() {
+        return failedBackfillCount.get();
+    }
+
+    /**
+     * {@link Gap} is the time range of the missed messages of one {@link MarketDataMessageType} and symbol.
+     */
+    private static class Gap {
+
+        private final MarketDataMessageType marketDataMessageType;
+        private final String symbol;
+        private final int symbolID;
+        private final long startEpochNanos;
+        private final long resumeEpochNanos;
+        private final AtomicLong endEpochNanos;
+
+        private Gap(MarketDataMessageType marketDataMessageType, String symbol, int symbolID, long startEpochNanos,
+                long resumeEpochNanos) {
+            this.marketDataMessageType = marketDataMessageType;
+            this.symbol = symbol;
+            this.symbolID = symbolID;
+            this.startEpochNanos = startEpochNanos;
+            this.resumeEpochNanos = resumeEpochNanos;
+            endEpochNanos = new AtomicLong(EpochNanosUtil.NO_EPOCH_NANOS);
+        }
+
+        /**
+         * Ends this {@link Gap} before <code>epochNanos</code> if it hasn't ended yet.
+         *
+         * @param epochNanos the epoch nanoseconds of the first message that isn't missing
+         */
+        private void closeAt(long epochNanos) {
+            endEpochNanos.compareAndSet(EpochNanosUtil.NO_EPOCH_NANOS, epochNanos);
+        }
+
+        private long end() {
+            long end = endEpochNanos.get();
+            return end == EpochNanosUtil.NO_EPOCH_NANOS ? resumeEpochNanos : end;
+        }
+
+        private boolean contains(long epochNanos) {
+            return epochNanos > startEpochNanos && epochNanos < end();
+        }
+
+        private boolean isAfterEnd(long epochNanos) {
+            return epochNanos >= end();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.backfill;
+
+import net.jacobpeterson.alpaca.util.symbol.SymbolPages;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link SymbolTimestamps} holds the latest epoch nanoseconds timestamp of every {@link SymbolTable#GLOBAL} symbol ID.
+ * It may be advanced from one thread at a time and read from any thread.
+ */
+class SymbolTimestamps {
+
+    private final SymbolPages<AtomicLongArray> pages;
+
+    /**
+     * Instantiates a new {@link SymbolTimestamps}.
+     */
+    SymbolTimestamps() {
+        pages = new SymbolPages<>(() -> new AtomicLongArray(SymbolPages.PAGE_SIZE), AtomicLongArray[]::new);
+    }
+
+    /**
+     * Advances the timestamp of a symbol to <code>epochNanos</code> if it's later than the current one.
+     *
+     * @param symbolID   the {@link SymbolTable#GLOBAL} symbol ID
+     * @param epochNanos the epoch nanoseconds
+     */
+    void advance(int symbolID, long epochNanos) {
+        if (symbolID < 0 || epochNanos == EpochNanosUtil.NO_EPOCH_NANOS) {
+            return;
+        }
+
+        AtomicLongArray page = pages.page(symbolID);
+        int slot = SymbolPages.slotOf(symbolID);
+        // Slots start at 0, which is also earlier than any real timestamp
+        if (epochNanos > page.get(slot)) {
+            page.lazySet(slot, epochNanos);
+        }
+    }
+
+    /**
+     * Gets the timestamp of a symbol.
+     *
+     * @param symbolID the {@link SymbolTable#GLOBAL} symbol ID
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS} if there is none
+     */
+    long get(int symbolID) {
+        AtomicLongArray page = pages.find(symbolID);
+        if (page == null) {
+            return EpochNanosUtil.NO_EPOCH_NANOS;
+        }
+
+        long epochNanos = page.get(SymbolPages.slotOf(symbolID));
+        return epochNanos == 0 ? EpochNanosUtil.NO_EPOCH_NANOS : epochNanos;
+    }
+}
@@ -0,0 +1,20 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.bar;
+
+/**
+ * {@link BarAlignment} defines which time a {@link LocalBarBuilder} closes bars by. Trades are always assigned to bars
+ * by their exchange timestamp.
+ */
+public enum BarAlignment {
+
+    /**
+     * Bars are closed once a trade of any symbol has an exchange timestamp past their end, so bar closes follow the
+     * feed, including when it is replayed.
+     */
+    EXCHANGE_TIME,
+
+    /**
+     * Bars are closed once the wall clock is past their end, even if no more trades are received. This requires
+     * {@link LocalBarBuilder#advanceTime()} to be called periodically.
+     */
+    WALL_CLOCK
+}
@@ -0,0 +1,161 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.bar;
+
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import java.time.ZonedDateTime;
+
+/**
+ * {@link LocalBar} is a reusable, mutable OHLCV bar built by a {@link LocalBarBuilder}.
+ */
+public final class LocalBar {
+
+    int symbolID;
+    long intervalNanos;
+    long startEpochNanos;
+    double open;
+    double high;
+    double low;
+    double close;
+    long volume;
+    double notional;
+    int tradeCount;
+
+    /**
+     * Instantiates a new {@link LocalBar}.
+     */
+    LocalBar() {}
+
+    /**
+     * Gets the {@link SymbolTable#GLOBAL} symbol ID.
+     *
+     * @return the symbol ID
+     */
+    public int getSymbolID() {
+        return symbolID;
+    }
+
+    /**
+     * Gets the symbol.
+     *
+     * @return the symbol
+     */
+    public String getSymbol() {
+        return SymbolTable.GLOBAL.symbol(symbolID);
+    }
+
+    /**
+     * Gets the bar interval.
+     *
+     * @return the interval in nanoseconds
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * Gets the start of this bar (inclusive), which is a multiple of the interval since the epoch.
+     *
+     * @return the epoch nanoseconds
+     */
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * Gets the end of this bar (exclusive).
+     *
+     * @return the epoch nanoseconds
+     */
+    public long getEndEpochNanos() {
+        return startEpochNanos + intervalNanos;
+    }
+
+    /**
+     * Gets the start of this bar as a {@link ZonedDateTime}. This allocates.
+     *
+     * @return a {@link ZonedDateTime}
+     */
+    public ZonedDateTime getStart() {
+        return EpochNanosUtil.toZonedDateTime(startEpochNanos);
+    }
+
+    /**
+     * Gets the open price.
+     *
+     * @return the open price
+     */
+    public double getOpen() {
+        return open;
+    }
+
+    /**
+     * Gets the high price.
+     *
+     * @return the high price
+     */
+    public double getHigh() {
+        return high;
+    }
+
+    /**
+     * Gets the low price.
+     *
+     * @return the low price
+     */
+    public double getLow() {
+        return low;
+    }
+
+    /**
+     * Gets the close price.
+     *
+     * @return the close price
+     */
+    public double getClose() {
+        return close;
+    }
+
+    /**
+     * Gets the volume.
+     *
+     * @return the volume
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    /**
+     * Gets the volume-weighted average price.
+     *
+     * @return the VWAP or {@link Double#NaN} if the volume is <code>0</code>
+     */
+    public double getVWAP() {
+        return volume == 0 ? Double.NaN : notional / volume;
+    }
+
+    /**
+     * Gets the number of trades.
+     *
+     * @return the trade count
+     */
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalBar{" +
+                "symbol=" + getSymbol() +
+                ", intervalNanos=" + intervalNanos +
+                ", startEpochNanos=" + startEpochNanos +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                ", vwap=" + getVWAP() +
+                ", tradeCount=" + tradeCount +
+                '}';
+    }
+}
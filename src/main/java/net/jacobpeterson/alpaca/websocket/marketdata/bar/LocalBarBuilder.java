@@ -0,0 +1,374 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.bar;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosClock;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.TradeListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.ConditionsView;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.TradeView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link LocalBarBuilder} incrementally aggregates trades into OHLCV bars of any interval, such as 1 second, 5
+ * seconds, or 15 seconds, which Alpaca doesn't stream. Add it as either a {@link TradeListener} or, to avoid
+ * allocating a {@link TradeMessage} per trade, as a {@link MarketDataFlyweightListener}.
+ * <br>
+ * Every interval added with {@link #addInterval(long)} applies to all symbols and every interval added with {@link
+ * #addInterval(String, long)} only applies to that symbol. Bars start at multiples of their interval since the epoch
+ * and are closed according to the {@link BarAlignment}. Intervals without trades don't produce bars. Trades with any
+ * of the excluded conditions are ignored, as are trades older than the bar already built for their symbol.
+ * <br>
+ * The state of the bars being built is kept in primitive arrays indexed by {@link SymbolTable#GLOBAL} symbol ID, so a
+ * trade costs a few array writes no matter how many symbols are streamed. All methods are synchronized, which is
+ * uncontended when trades are received on one thread.
+ */
+public class LocalBarBuilder implements TradeListener, MarketDataFlyweightListener {
+
+    private final LocalBarListener localBarListener;
+    private final BarAlignment barAlignment;
+    private final EpochNanosClock clock;
+    private final long closeDelayNanos;
+    private final List<BarSeries> barSeries;
+    private final LocalBar localBar;
+
+    // Replaced as a whole and read without locking by the trade listener methods
+    private volatile String[] excludedConditions;
+    private long exchangeTimeWatermark;
+    private long lateTradeCount;
+
+    /**
+     * Instantiates a new {@link LocalBarBuilder} with {@link BarAlignment#EXCHANGE_TIME} and no close delay.
+     *
+     * @param localBarListener the {@link LocalBarListener} to call with closed bars
+     */
+    public LocalBarBuilder(LocalBarListener localBarListener) {
+        this(localBarListener, BarAlignment.EXCHANGE_TIME, EpochNanosClock.SYSTEM, 0);
+    }
+
+    /**
+     * Instantiates a new {@link LocalBarBuilder}.
+     *
+     * @param localBarListener the {@link LocalBarListener} to call with closed bars
+     * @param barAlignment     the {@link BarAlignment}
+     * @param clock            the {@link EpochNanosClock} used for {@link BarAlignment#WALL_CLOCK}
+     * @param closeDelayNanos  how long after its end a bar is closed, which gives late trades time to arrive
+     */
+    public LocalBarBuilder(LocalBarListener localBarListener, BarAlignment barAlignment, EpochNanosClock clock,
+            long closeDelayNanos) {
+        checkArgument(closeDelayNanos >= 0, "'closeDelayNanos' must not be negative!");
+
+        this.localBarListener = checkNotNull(localBarListener);
+        this.barAlignment = checkNotNull(barAlignment);
+        this.clock = checkNotNull(clock);
+        this.closeDelayNanos = closeDelayNanos;
+
+        barSeries = new ArrayList<>();
+        localBar = new LocalBar();
+        excludedConditions = new String[0];
+        exchangeTimeWatermark = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds a bar interval for all symbols.
+     *
+     * @param intervalNanos the interval in nanoseconds
+     */
+    public synchronized void addInterval(long intervalNanos) {
+        seriesOf(intervalNanos).allSymbols = true;
+    }
+
+    /**
+     * Adds a bar interval for one symbol.
+     *
+     * @param symbol        the symbol
+     * @param intervalNanos the interval in nanoseconds
+     */
+    public synchronized void addInterval(String symbol, long intervalNanos) {
+        BarSeries series = seriesOf(intervalNanos);
+        int symbolID = SymbolTable.GLOBAL.intern(symbol);
+        series.ensureCapacity(symbolID);
+        series.enabledSymbols[symbolID] = true;
+    }
+
+    /**
+     * Sets the trade conditions (the <code>"c"</code> field) of trades that are ignored, such as the conditions that
+     * don't update the last price or volume.
+     *
+     * @param excludedConditions a {@link Collection} of conditions
+     */
+    public synchronized void setExcludedConditions(Collection<String> excludedConditions) {
+        checkNotNull(excludedConditions);
+        this.excludedConditions = excludedConditions.toArray(new String[0]);
+    }
+
+    @Override
+    public void onTrade(TradeMessage tradeMessage) {
+        List<String> conditions = tradeMessage.getConditions();
+        if (conditions != null) {
+            for (String excludedCondition : excludedConditions) {
+                if (conditions.contains(excludedCondition)) {
+                    return;
+                }
+            }
+        }
+
+        if (tradeMessage.getPrice() != null && tradeMessage.getSize() != null) {
+            onTrade(tradeMessage.getSymbolID(), tradeMessage.getPrice(), tradeMessage.getSize(),
+                    tradeMessage.getTimestampEpochNanos());
+        }
+    }
+
+    /**
+     * Adds a trade from a {@link TradeView} whose symbol ID is from {@link SymbolTable#GLOBAL}, which is the case for
+     * the views of {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}.
+     *
+     * @param tradeView the {@link TradeView}
+     */
+    @Override
+    public void onTrade(TradeView tradeView) {
+        ConditionsView conditions = tradeView.getConditions();
+        for (String excludedCondition : excludedConditions) {
+            if (conditions.contains(excludedCondition)) {
+                return;
+            }
+        }
+
+        if (!Double.isNaN(tradeView.getPrice())) {
+            onTrade(tradeView.getSymbolID(), tradeView.getPrice(), tradeView.getSize(),
+                    tradeView.getTimestampEpochNanos());
+        }
+    }
+
+    /**
+     * Adds a trade to the bars of its symbol. Excluded conditions must already be filtered out.
+     *
+     * @param symbolID            the {@link SymbolTable#GLOBAL} symbol ID
+     * @param price               the price
+     * @param size                the size
+     * @param timestampEpochNanos the exchange timestamp
+     */
+    public synchronized void onTrade(int symbolID, double price, int size, long timestampEpochNanos) {
+        if (timestampEpochNanos == EpochNanosUtil.NO_EPOCH_NANOS) {
+            return;
+        }
+
+        for (int seriesIndex = 0; seriesIndex < barSeries.size(); seriesIndex++) {
+            BarSeries series = barSeries.get(seriesIndex);
+            if (series.isEnabled(symbolID)) {
+                addTrade(series, symbolID, price, size, timestampEpochNanos);
+            }
+        }
+
+        if (barAlignment == BarAlignment.EXCHANGE_TIME && timestampEpochNanos > exchangeTimeWatermark) {
+            exchangeTimeWatermark = timestampEpochNanos;
+            closeBars(timestampEpochNanos);
+        }
+    }
+
+    /**
+     * Closes the bars whose end plus the close delay has passed by {@link BarAlignment#WALL_CLOCK} time. With {@link
+     * BarAlignment#WALL_CLOCK}, this should be called periodically (e.g. from a {@link
+     * java.util.concurrent.ScheduledExecutorService}) so that bars are closed even if no trades are received.
+     */
+    public synchronized void advanceTime() {
+        if (barAlignment == BarAlignment.WALL_CLOCK) {
+            closeBars(clock.epochNanos());
+        }
+    }
+
+    /**
+     * Closes all bars that are being built, regardless of time.
+     */
+    public synchronized void flush() {
+        closeBars(Long.MAX_VALUE);
+    }
+
+    /**
+     * Gets the number of trades that were ignored because the bar they belong to was already closed.
+     *
+     * @return the late trade count
+     */
+    public synchronized long getLateTradeCount() {
+        return lateTradeCount;
+    }
+
+    private void addTrade(BarSeries series, int symbolID, double price, int size, long timestampEpochNanos) {
+        series.ensureCapacity(symbolID);
+        long startEpochNanos = Math.floorDiv(timestampEpochNanos, series.intervalNanos) * series.intervalNanos;
+        long currentStartEpochNanos = series.startEpochNanos[symbolID];
+
+        if (currentStartEpochNanos == EpochNanosUtil.NO_EPOCH_NANOS || startEpochNanos > currentStartEpochNanos) {
+            if (currentStartEpochNanos != EpochNanosUtil.NO_EPOCH_NANOS) {
+                // The symbol stays in the open symbols for its new bar
+                closeBar(series, symbolID);
+            } else if (series.closedEpochNanos[symbolID] > startEpochNanos) {
+                lateTradeCount++;
+                return;
+            } else {
+                series.addOpenSymbol(symbolID, startEpochNanos + series.intervalNanos);
+            }
+
+            series.startEpochNanos[symbolID] = startEpochNanos;
+            series.open[symbolID] = price;
+            series.high[symbolID] = price;
+            series.low[symbolID] = price;
+            series.volume[symbolID] = 0;
+            series.notional[symbolID] = 0;
+            series.tradeCount[symbolID] = 0;
+        } else if (startEpochNanos < currentStartEpochNanos) {
+            lateTradeCount++;
+            return;
+        }
+
+        if (price > series.high[symbolID]) {
+            series.high[symbolID] = price;
+        }
+        if (price < series.low[symbolID]) {
+            series.low[symbolID] = price;
+        }
+        series.close[symbolID] = price;
+        series.volume[symbolID] += size;
+        series.notional[symbolID] += price * size;
+        series.tradeCount[symbolID]++;
+    }
+
+    private void closeBars(long epochNanos) {
+        for (int seriesIndex = 0; seriesIndex < barSeries.size(); seriesIndex++) {
+            BarSeries series = barSeries.get(seriesIndex);
+            if (epochNanos == Long.MAX_VALUE || epochNanos - closeDelayNanos >= series.nextEndEpochNanos) {
+                closeBars(series, epochNanos == Long.MAX_VALUE ? Long.MAX_VALUE : epochNanos - closeDelayNanos);
+            }
+        }
+    }
+
+    private void closeBars(BarSeries series, long endEpochNanos) {
+        long nextEndEpochNanos = Long.MAX_VALUE;
+        int remainingCount = 0;
+        for (int index = 0; index < series.openSymbolCount; index++) {
+            int symbolID = series.openSymbolIDs[index];
+            long barEndEpochNanos = series.startEpochNanos[symbolID] + series.intervalNanos;
+            if (barEndEpochNanos <= endEpochNanos) {
+                closeBar(series, symbolID);
+            } else {
+                series.openSymbolIDs[remainingCount++] = symbolID;
+                nextEndEpochNanos = Math.min(nextEndEpochNanos, barEndEpochNanos);
+            }
+        }
+        series.openSymbolCount = remainingCount;
+        series.nextEndEpochNanos = nextEndEpochNanos;
+    }
+
+    private void closeBar(BarSeries series, int symbolID) {
+        localBar.symbolID = symbolID;
+        localBar.intervalNanos = series.intervalNanos;
+        localBar.startEpochNanos = series.startEpochNanos[symbolID];
+        localBar.open = series.open[symbolID];
+        localBar.high = series.high[symbolID];
+        localBar.low = series.low[symbolID];
+        localBar.close = series.close[symbolID];
+        localBar.volume = series.volume[symbolID];
+        localBar.notional = series.notional[symbolID];
+        localBar.tradeCount = series.tradeCount[symbolID];
+
+        series.closedEpochNanos[symbolID] = localBar.getEndEpochNanos();
+        series.startEpochNanos[symbolID] = EpochNanosUtil.NO_EPOCH_NANOS;
+        localBarListener.onBar(localBar);
+    }
+
+    private BarSeries seriesOf(long intervalNanos) {
+        checkArgument(intervalNanos > 0, "'intervalNanos' must be positive!");
+        for (BarSeries series : barSeries) {
+            if (series.intervalNanos == intervalNanos) {
+                return series;
+            }
+        }
+
+        BarSeries series = new BarSeries(intervalNanos);
+        barSeries.add(series);
+        return series;
+    }
+
+    /**
+     * {@link BarSeries} holds the state of the bars of one interval of all symbols in arrays indexed by symbol ID.
+     */
+    private static final class BarSeries {
+
+        private final long intervalNanos;
+        private boolean allSymbols;
+        private boolean[] enabledSymbols;
+
+        private long[] startEpochNanos;
+        private long[] closedEpochNanos;
+        private double[] open;
+        private double[] high;
+        private double[] low;
+        private double[] close;
+        private long[] volume;
+        private double[] notional;
+        private int[] tradeCount;
+
+        // The symbols that have a bar being built
+        private int[] openSymbolIDs;
+        private int openSymbolCount;
+        private long nextEndEpochNanos;
+
+        private BarSeries(long intervalNanos) {
+            this.intervalNanos = intervalNanos;
+
+            enabledSymbols = new boolean[0];
+            startEpochNanos = new long[0];
+            closedEpochNanos = new long[0];
+            open = new double[0];
+            high = new double[0];
+            low = new double[0];
+            close = new double[0];
+            volume = new long[0];
+            notional = new double[0];
+            tradeCount = new int[0];
+            openSymbolIDs = new int[16];
+            nextEndEpochNanos = Long.MAX_VALUE;
+        }
+
+        private boolean isEnabled(int symbolID) {
+            return allSymbols || (symbolID < enabledSymbols.length && enabledSymbols[symbolID]);
+        }
+
+        private void ensureCapacity(int symbolID) {
+            if (symbolID < startEpochNanos.length) {
+                return;
+            }
+
+            int oldLength = startEpochNanos.length;
+            int newLength = Math.max(symbolID + 1, Math.max(1024, oldLength * 2));
+            enabledSymbols = Arrays.copyOf(enabledSymbols, newLength);
+            startEpochNanos = Arrays.copyOf(startEpochNanos, newLength);
+            Arrays.fill(startEpochNanos, oldLength, newLength, EpochNanosUtil.NO_EPOCH_NANOS);
+            closedEpochNanos = Arrays.copyOf(closedEpochNanos, newLength);
+            Arrays.fill(closedEpochNanos, oldLength, newLength, Long.MIN_VALUE);
+            open = Arrays.copyOf(open, newLength);
+            high = Arrays.copyOf(high, newLength);
+            low = Arrays.copyOf(low, newLength);
+            close = Arrays.copyOf(close, newLength);
+            volume = Arrays.copyOf(volume, newLength);
+            notional = Arrays.copyOf(notional, newLength);
+            tradeCount = Arrays.copyOf(tradeCount, newLength);
+        }
+
+        private void addOpenSymbol(int symbolID, long endEpochNanos) {
+            if (openSymbolCount == openSymbolIDs.length) {
+                openSymbolIDs = Arrays.copyOf(openSymbolIDs, openSymbolCount * 2);
+            }
+            openSymbolIDs[openSymbolCount++] = symbolID;
+            nextEndEpochNanos = Math.min(nextEndEpochNanos, endEpochNanos);
+        }
+    }
+}
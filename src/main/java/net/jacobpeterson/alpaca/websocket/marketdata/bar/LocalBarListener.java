@@ -0,0 +1,16 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.bar;
+
+/**
+ * {@link LocalBarListener} defines a listener interface for bars closed by a {@link LocalBarBuilder}.
+ */
+@FunctionalInterface
+public interface LocalBarListener {
+
+    /**
+     * Called when a {@link LocalBar} is closed. The {@link LocalBar} is reused for the next call, so it must be copied
+     * if it is kept.
+     *
+     * @param localBar the {@link LocalBar}
+     */
+    void onBar(LocalBar localBar);
+}
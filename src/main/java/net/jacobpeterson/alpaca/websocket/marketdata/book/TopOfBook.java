@@ -0,0 +1,147 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.book;
+
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.FlyweightMarketDataDecoder;
+
+import java.time.ZonedDateTime;
+
+/**
+ * {@link TopOfBook} is a reusable, mutable holder of the best bid and ask of a symbol that {@link
+ * TopOfBookCache#read(int, TopOfBook)} copies into. A missing price is {@link Double#NaN} and a missing exchange code
+ * is {@link FlyweightMarketDataDecoder#NO_CODE}.
+ */
+public final class TopOfBook {
+
+    int symbolID;
+    double bidPrice;
+    int bidSize;
+    char bidExchange;
+    double askPrice;
+    int askSize;
+    char askExchange;
+    long timestampEpochNanos;
+
+    /**
+     * Instantiates a new {@link TopOfBook}.
+     */
+    public TopOfBook() {
+        symbolID = SymbolTable.NO_ID;
+        bidPrice = Double.NaN;
+        askPrice = Double.NaN;
+        timestampEpochNanos = EpochNanosUtil.NO_EPOCH_NANOS;
+    }
+
+    /**
+     * Gets the {@link SymbolTable#GLOBAL} symbol ID.
+     *
+     * @return the symbol ID
+     */
+    public int getSymbolID() {
+        return symbolID;
+    }
+
+    /**
+     * Gets the symbol.
+     *
+     * @return the symbol
+     */
+    public String getSymbol() {
+        return SymbolTable.GLOBAL.symbol(symbolID);
+    }
+
+    /**
+     * Gets the bid price.
+     *
+     * @return the bid price or {@link Double#NaN}
+     */
+    public double getBidPrice() {
+        return bidPrice;
+    }
+
+    /**
+     * Gets the bid size.
+     *
+     * @return the bid size
+     */
+    public int getBidSize() {
+        return bidSize;
+    }
+
+    /**
+     * Gets the bid exchange code.
+     *
+     * @return the bid exchange code or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getBidExchange() {
+        return bidExchange;
+    }
+
+    /**
+     * Gets the ask price.
+     *
+     * @return the ask price or {@link Double#NaN}
+     */
+    public double getAskPrice() {
+        return askPrice;
+    }
+
+    /**
+     * Gets the ask size.
+     *
+     * @return the ask size
+     */
+    public int getAskSize() {
+        return askSize;
+    }
+
+    /**
+     * Gets the ask exchange code.
+     *
+     * @return the ask exchange code or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getAskExchange() {
+        return askExchange;
+    }
+
+    /**
+     * Gets the timestamp of the quote.
+     *
+     * @return the epoch nanoseconds
+     */
+    public long getTimestampEpochNanos() {
+        return timestampEpochNanos;
+    }
+
+    /**
+     * Gets the timestamp of the quote as a {@link ZonedDateTime}. This allocates.
+     *
+     * @return a {@link ZonedDateTime}
+     */
+    public ZonedDateTime getTimestamp() {
+        return EpochNanosUtil.toZonedDateTime(timestampEpochNanos);
+    }
+
+    /**
+     * Gets the midpoint of the bid and ask prices.
+     *
+     * @return the midpoint or {@link Double#NaN} if either price is missing
+     */
+    public double getMidPrice() {
+        return (bidPrice + askPrice) / 2;
+    }
+
+    @Override
+    public String toString() {
+        return "TopOfBook{" +
+                "symbol=" + (symbolID == SymbolTable.NO_ID ? null : getSymbol()) +
+                ", bidPrice=" + bidPrice +
+                ", bidSize=" + bidSize +
+                ", bidExchange=" + bidExchange +
+                ", askPrice=" + askPrice +
+                ", askSize=" + askSize +
+                ", askExchange=" + askExchange +
+                ", timestampEpochNanos=" + timestampEpochNanos +
+                '}';
+    }
+}
@@ -0,0 +1,275 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.book;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.quote.Quote;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.snapshot.Snapshot;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.rest.AlpacaClientException;
+import net.jacobpeterson.alpaca.rest.endpoint.MarketDataEndpoint;
+import net.jacobpeterson.alpaca.util.symbol.SymbolPages;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.QuoteListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.FlyweightMarketDataDecoder;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.QuoteView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link TopOfBookCache} is an in-process store of the best bid and ask of every symbol, updated from the quote
+ * stream of a {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}. Add it as either a {@link
+ * QuoteListener} or, to avoid allocating a {@link QuoteMessage} per quote, as a {@link MarketDataFlyweightListener}.
+ * <br>
+ * Each symbol has a slot that is guarded by a seqlock: a writer makes the slot's sequence number odd, writes the
+ * fields, and makes it even again, and a reader retries if the sequence number was odd or changed while it read the
+ * fields. Readers never lock or allocate and never block writers, so reads from any thread take nanoseconds. The
+ * slots are packed into the {@link AtomicLongArray} pages of a {@link SymbolPages}. A quote older than the one already
+ * in a slot is ignored.
+ * <br>
+ * If a {@link MarketDataEndpoint} is given, {@link #get(String)} and {@link #get(Collection)} fall back to {@link
+ * MarketDataEndpoint#getSnapshots(List)} for symbols that have no quote yet.
+ */
+public class TopOfBookCache implements QuoteListener, MarketDataFlyweightListener {
+
+    // The 'long' fields of a slot
+    private static final int SEQUENCE = 0;
+    private static final int BID_PRICE = 1;
+    private static final int BID_SIZE = 2;
+    private static final int ASK_PRICE = 3;
+    private static final int ASK_SIZE = 4;
+    private static final int EXCHANGES = 5;
+    private static final int TIMESTAMP = 6;
+    private static final int SLOT_SIZE = 8; // Padded to a power of two
+
+    private final MarketDataEndpoint fallbackMarketDataEndpoint;
+    private final SymbolPages<AtomicLongArray> pages;
+
+    /**
+     * Instantiates a new {@link TopOfBookCache} without a fallback.
+     */
+    public TopOfBookCache() {
+        this(null);
+    }
+
+    /**
+     * Instantiates a new {@link TopOfBookCache}.
+     *
+     * @param fallbackMarketDataEndpoint the {@link MarketDataEndpoint} to get snapshots from on a cache miss or
+     *                                   <code>null</code> for no fallback
+     */
+    public TopOfBookCache(MarketDataEndpoint fallbackMarketDataEndpoint) {
+        this.fallbackMarketDataEndpoint = fallbackMarketDataEndpoint;
+
+        pages = new SymbolPages<>(() -> new AtomicLongArray(SymbolPages.PAGE_SIZE * SLOT_SIZE),
+                AtomicLongArray[]::new);
+    }
+
+    @Override
+    public void onQuote(QuoteMessage quoteMessage) {
+        update(quoteMessage.getSymbolID(),
+                quoteMessage.getBidPrice() == null ? Double.NaN : quoteMessage.getBidPrice(),
+                quoteMessage.getBidSize() == null ? 0 : quoteMessage.getBidSize(),
+                firstCode(quoteMessage.getBidExchangeCode()),
+                quoteMessage.getAskPrice() == null ? Double.NaN : quoteMessage.getAskPrice(),
+                quoteMessage.getAskSize() == null ? 0 : quoteMessage.getAskSize(),
+                firstCode(quoteMessage.getAskExchangeCode()),
+                quoteMessage.getTimestampEpochNanos());
+    }
+
+    /**
+     * Updates this cache with a {@link QuoteView} whose symbol ID is from {@link SymbolTable#GLOBAL}, which is the
+     * case for the views of {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}.
+     *
+     * @param quoteView the {@link QuoteView}
+     */
+    @Override
+    public void onQuote(QuoteView quoteView) {
+        update(quoteView.getSymbolID(), quoteView.getBidPrice(), quoteView.getBidSize(), quoteView.getBidExchange(),
+                quoteView.getAskPrice(), quoteView.getAskSize(), quoteView.getAskExchange(),
+                quoteView.getTimestampEpochNanos());
+    }
+
+    /**
+     * Updates the slot of a symbol, unless it already has a newer quote. Quotes without a symbol are ignored.
+     *
+     * @param symbolID            the {@link SymbolTable#GLOBAL} symbol ID
+     * @param bidPrice            the bid price
+     * @param bidSize             the bid size
+     * @param bidExchange         the bid exchange code
+     * @param askPrice            the ask price
+     * @param askSize             the ask size
+     * @param askExchange         the ask exchange code
+     * @param timestampEpochNanos the timestamp
+     */
+    public void update(int symbolID, double bidPrice, int bidSize, char bidExchange, double askPrice, int askSize,
+            char askExchange, long timestampEpochNanos) {
+        if (symbolID < 0) {
+            return;
+        }
+
+        AtomicLongArray page = pages.page(symbolID);
+        int slot = SymbolPages.slotOf(symbolID) * SLOT_SIZE;
+
+        // Writers take the slot by making its sequence number odd
+        long sequence;
+        do {
+            sequence = page.get(slot + SEQUENCE);
+        } while ((sequence & 1) != 0 || !page.compareAndSet(slot + SEQUENCE, sequence, sequence + 1));
+
+        long currentTimestamp = page.get(slot + TIMESTAMP);
+        if (sequence != 0 && timestampEpochNanos < currentTimestamp) {
+            page.lazySet(slot + SEQUENCE, sequence); // Nothing changed, so readers don't need to retry
+            return;
+        }
+
+        page.lazySet(slot + BID_PRICE, Double.doubleToRawLongBits(bidPrice));
+        page.lazySet(slot + BID_SIZE, bidSize);
+        page.lazySet(slot + ASK_PRICE, Double.doubleToRawLongBits(askPrice));
+        page.lazySet(slot + ASK_SIZE, askSize);
+        page.lazySet(slot + EXCHANGES, (long) bidExchange << 16 | askExchange);
+        page.lazySet(slot + TIMESTAMP, timestampEpochNanos);
+        page.lazySet(slot + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Copies the cached top of book of a symbol into <code>topOfBook</code>. This never locks or allocates.
+     *
+     * @param symbolID  the {@link SymbolTable#GLOBAL} symbol ID
+     * @param topOfBook the {@link TopOfBook} to copy into
+     *
+     * @return true if the symbol has a cached quote, false otherwise, in which case <code>topOfBook</code> is unchanged
+     */
+    public boolean read(int symbolID, TopOfBook topOfBook) {
+        checkNotNull(topOfBook);
+
+        AtomicLongArray page = pages.find(symbolID);
+        if (page == null) {
+            return false;
+        }
+        int slot = SymbolPages.slotOf(symbolID) * SLOT_SIZE;
+
+        while (true) {
+            long sequence = page.get(slot + SEQUENCE);
+            if (sequence == 0) {
+                return false;
+            }
+            if ((sequence & 1) != 0) {
+                continue; // A write is in progress
+            }
+
+            long bidPriceBits = page.get(slot + BID_PRICE);
+            long bidSize = page.get(slot + BID_SIZE);
+            long askPriceBits = page.get(slot + ASK_PRICE);
+            long askSize = page.get(slot + ASK_SIZE);
+            long exchanges = page.get(slot + EXCHANGES);
+            long timestampEpochNanos = page.get(slot + TIMESTAMP);
+
+            if (page.get(slot + SEQUENCE) == sequence) {
+                topOfBook.symbolID = symbolID;
+                topOfBook.bidPrice = Double.longBitsToDouble(bidPriceBits);
+                topOfBook.bidSize = (int) bidSize;
+                topOfBook.askPrice = Double.longBitsToDouble(askPriceBits);
+                topOfBook.askSize = (int) askSize;
+                topOfBook.bidExchange = (char) (exchanges >>> 16);
+                topOfBook.askExchange = (char) exchanges;
+                topOfBook.timestampEpochNanos = timestampEpochNanos;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Copies the cached top of book of a symbol into <code>topOfBook</code>.
+     *
+     * @param symbol    the symbol
+     * @param topOfBook the {@link TopOfBook} to copy into
+     *
+     * @return true if the symbol has a cached quote
+     *
+     * @see #read(int, TopOfBook)
+     */
+    public boolean read(String symbol, TopOfBook topOfBook) {
+        int symbolID = SymbolTable.GLOBAL.find(symbol);
+        return symbolID != SymbolTable.NO_ID && read(symbolID, topOfBook);
+    }
+
+    /**
+     * Gets the top of book of a symbol, falling back to {@link MarketDataEndpoint#getSnapshots(List)} on a cache miss
+     * if this cache has a fallback {@link MarketDataEndpoint}.
+     *
+     * @param symbol the symbol
+     *
+     * @return a new {@link TopOfBook} or <code>null</code> if there is no quote for <code>symbol</code>
+     *
+     * @throws AlpacaClientException thrown for {@link AlpacaClientException}s of the fallback
+     */
+    public TopOfBook get(String symbol) throws AlpacaClientException {
+        return get(Collections.singletonList(symbol)).get(symbol);
+    }
+
+    /**
+     * Gets the top of book of each of the given symbols, falling back to one {@link
+     * MarketDataEndpoint#getSnapshots(List)} request for all cache misses if this cache has a fallback {@link
+     * MarketDataEndpoint}. Quotes from the fallback are added to this cache.
+     *
+     * @param symbols a {@link Collection} of symbols
+     *
+     * @return a {@link Map} of symbols to new {@link TopOfBook}s, without symbols that have no quote
+     *
+     * @throws AlpacaClientException thrown for {@link AlpacaClientException}s of the fallback
+     */
+    public Map<String, TopOfBook> get(Collection<String> symbols) throws AlpacaClientException {
+        checkNotNull(symbols);
+
+        Map<String, TopOfBook> topOfBooks = new HashMap<>();
+        List<String> missedSymbols = new ArrayList<>();
+        for (String symbol : symbols) {
+            TopOfBook topOfBook = new TopOfBook();
+            if (read(symbol, topOfBook)) {
+                topOfBooks.put(symbol, topOfBook);
+            } else {
+                missedSymbols.add(symbol);
+            }
+        }
+
+        if (fallbackMarketDataEndpoint != null && !missedSymbols.isEmpty()) {
+            Map<String, Snapshot> snapshots = fallbackMarketDataEndpoint.getSnapshots(missedSymbols);
+            if (snapshots != null) {
+                for (Map.Entry<String, Snapshot> snapshotEntry : snapshots.entrySet()) {
+                    Quote quote = snapshotEntry.getValue() == null ? null : snapshotEntry.getValue().getLatestQuote();
+                    if (quote == null) {
+                        continue;
+                    }
+
+                    int symbolID = SymbolTable.GLOBAL.intern(snapshotEntry.getKey());
+                    update(symbolID,
+                            quote.getBp() == null ? Double.NaN : quote.getBp(),
+                            quote.getBs() == null ? 0 : quote.getBs(),
+                            firstCode(quote.getBx()),
+                            quote.getAp() == null ? Double.NaN : quote.getAp(),
+                            quote.getAs() == null ? 0 : quote.getAs(),
+                            firstCode(quote.getAx()),
+                            quote.getTimestampEpochNanos());
+
+                    TopOfBook topOfBook = new TopOfBook();
+                    if (read(symbolID, topOfBook)) {
+                        topOfBooks.put(snapshotEntry.getKey(), topOfBook);
+                    }
+                }
+            }
+        }
+        return topOfBooks;
+    }
+
+    private static char firstCode(String code) {
+        return code == null || code.isEmpty() ? FlyweightMarketDataDecoder.NO_CODE : code.charAt(0);
+    }
+}
@@ -0,0 +1,145 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.conflation;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolPages;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.QuoteListener;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link ConflatingQuoteBuffer} is a {@link QuoteListener} that only keeps the latest {@link QuoteMessage} of each
+ * symbol. Every received {@link QuoteMessage} overwrites the slot of its symbol and {@link #drain(QuoteListener)}
+ * passes on only the latest {@link QuoteMessage} of the symbols that changed since the last drain.
+ * <br>
+ * Memory is bounded by the number of symbols, so a consumer that only needs the latest quotes can fall arbitrarily
+ * far behind without a backlog building up. The slots live in {@link SymbolPages} keyed by {@link SymbolTable#GLOBAL}
+ * symbol ID, so receiving a {@link QuoteMessage} is lock-free unless it's the first change of its symbol since the last
+ * drain.
+ * <br>
+ * {@link #onQuote(QuoteMessage)} may be called from any number of threads. {@link #drain(QuoteListener)} should only
+ * be called from one thread at a time.
+ */
+public class ConflatingQuoteBuffer implements QuoteListener {
+
+    private static final int INITIAL_CHANGED_CAPACITY = 1024;
+
+    private final Object writeLock;
+    private final SymbolPages<Page> pages;
+
+    // Guarded by 'writeLock'
+    private int[] changedSymbolIDs;
+    private int changedSymbolCount;
+    // Only used by the draining thread
+    private int[] drainingSymbolIDs;
+
+    /**
+     * Instantiates a new {@link ConflatingQuoteBuffer}.
+     */
+    public ConflatingQuoteBuffer() {
+        writeLock = new Object();
+        pages = new SymbolPages<>(Page::new, Page[]::new);
+        changedSymbolIDs = new int[INITIAL_CHANGED_CAPACITY];
+        drainingSymbolIDs = new int[INITIAL_CHANGED_CAPACITY];
+    }
+
+    /**
+     * Overwrites the slot of the symbol of <code>quoteMessage</code>. {@link QuoteMessage}s without a symbol are
+     * ignored.
+     *
+     * @param quoteMessage the {@link QuoteMessage}
+     */
+    @Override
+    public void onQuote(QuoteMessage quoteMessage) {
+        int symbolID = quoteMessage.getSymbolID();
+        if (symbolID < 0) {
+            return;
+        }
+
+        Page page = pages.page(symbolID);
+        int index = SymbolPages.slotOf(symbolID);
+
+        page.quoteMessages.set(index, quoteMessage);
+        if (page.changed.get(index) == 0 && page.changed.compareAndSet(index, 0, 1)) {
+            synchronized (writeLock) {
+                if (changedSymbolCount == changedSymbolIDs.length) {
+                    changedSymbolIDs = Arrays.copyOf(changedSymbolIDs, changedSymbolIDs.length * 2);
+                }
+                changedSymbolIDs[changedSymbolCount++] = symbolID;
+            }
+        }
+    }
+
+    /**
+     * Calls <code>quoteListener</code> with the latest {@link QuoteMessage} of every symbol that changed since the
+     * last drain, in the order the symbols first changed.
+     *
+     * @param quoteListener the {@link QuoteListener}
+     *
+     * @return the number of {@link QuoteMessage}s drained
+     */
+    public int drain(QuoteListener quoteListener) {
+        checkNotNull(quoteListener);
+
+        int drainingCount;
+        synchronized (writeLock) {
+            // Swap the arrays so that receiving quotes isn't blocked while 'quoteListener' is called
+            int[] drainedSymbolIDs = changedSymbolIDs;
+            changedSymbolIDs = drainingSymbolIDs.length >= drainedSymbolIDs.length ?
+                    drainingSymbolIDs : new int[drainedSymbolIDs.length];
+            drainingSymbolIDs = drainedSymbolIDs;
+            drainingCount = changedSymbolCount;
+            changedSymbolCount = 0;
+        }
+
+        for (int drainingIndex = 0; drainingIndex < drainingCount; drainingIndex++) {
+            int symbolID = drainingSymbolIDs[drainingIndex];
+            Page page = pages.find(symbolID);
+            int index = SymbolPages.slotOf(symbolID);
+
+            // Clear the flag before reading the slot so that a quote received in between marks the symbol as
+            // changed again instead of being missed
+            page.changed.set(index, 0);
+            quoteListener.onQuote(page.quoteMessages.get(index));
+        }
+        return drainingCount;
+    }
+
+    /**
+     * Gets the latest {@link QuoteMessage} of the given <code>symbol</code>, regardless of whether it was drained.
+     *
+     * @param symbol the symbol
+     *
+     * @return the {@link QuoteMessage} or <code>null</code> if none was received
+     */
+    public QuoteMessage getLatest(String symbol) {
+        int symbolID = SymbolTable.GLOBAL.find(symbol);
+        Page page = pages.find(symbolID);
+        return page == null ? null : page.quoteMessages.get(SymbolPages.slotOf(symbolID));
+    }
+
+    /**
+     * Gets the number of symbols that changed since the last drain.
+     *
+     * @return the number of changed symbols
+     */
+    public int getChangedCount() {
+        synchronized (writeLock) {
+            return changedSymbolCount;
+        }
+    }
+
+    /**
+     * {@link Page} holds the slots of {@link SymbolPages#PAGE_SIZE} consecutive symbol IDs.
+     */
+    private static final class Page {
+
+        private final AtomicReferenceArray<QuoteMessage> quoteMessages =
+                new AtomicReferenceArray<>(SymbolPages.PAGE_SIZE);
+        private final AtomicIntegerArray changed = new AtomicIntegerArray(SymbolPages.PAGE_SIZE);
+    }
+}
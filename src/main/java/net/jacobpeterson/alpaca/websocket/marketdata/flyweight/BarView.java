@@ -0,0 +1,115 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+
+/**
+ * {@link BarView} is a reusable, mutable flyweight view of a {@link BarMessage}.
+ *
+ * @see SymbolView
+ */
+public final class BarView extends SymbolView {
+
+    double open;
+    double high;
+    double low;
+    double close;
+    long volume;
+
+    /**
+     * Instantiates a new {@link BarView}.
+     *
+     * @param symbolTable the {@link SymbolTable}
+     */
+    BarView(SymbolTable symbolTable) {
+        super(symbolTable);
+    }
+
+    @Override
+    void reset() {
+        super.reset();
+
+        open = Double.NaN;
+        high = Double.NaN;
+        low = Double.NaN;
+        close = Double.NaN;
+        volume = 0;
+    }
+
+    /**
+     * Gets the open price.
+     *
+     * @return the open price or {@link Double#NaN}
+     */
+    public double getOpen() {
+        return open;
+    }
+
+    /**
+     * Gets the high price.
+     *
+     * @return the high price or {@link Double#NaN}
+     */
+    public double getHigh() {
+        return high;
+    }
+
+    /**
+     * Gets the low price.
+     *
+     * @return the low price or {@link Double#NaN}
+     */
+    public double getLow() {
+        return low;
+    }
+
+    /**
+     * Gets the close price.
+     *
+     * @return the close price or {@link Double#NaN}
+     */
+    public double getClose() {
+        return close;
+    }
+
+    /**
+     * Gets the volume.
+     *
+     * @return the volume
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    /**
+     * Copies this view into a new {@link BarMessage}.
+     *
+     * @return a {@link BarMessage}
+     */
+    public BarMessage toMessage() {
+        BarMessage barMessage = new BarMessage();
+        barMessage.setMessageType(MarketDataMessageType.BAR);
+        copySymbolTo(barMessage);
+        barMessage.setOpen(Double.isNaN(open) ? null : open);
+        barMessage.setHigh(Double.isNaN(high) ? null : high);
+        barMessage.setLow(Double.isNaN(low) ? null : low);
+        barMessage.setClose(Double.isNaN(close) ? null : close);
+        barMessage.setVolume(volume);
+        barMessage.setTimestampEpochNanos(timestampEpochNanos);
+        return barMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "BarView{" +
+                "symbol=" + getSymbol() +
+                ", open=" + open +
+                ", high=" + high +
+                ", low=" + low +
+                ", close=" + close +
+                ", volume=" + volume +
+                ", timestampEpochNanos=" + timestampEpochNanos +
+                '}';
+    }
+}
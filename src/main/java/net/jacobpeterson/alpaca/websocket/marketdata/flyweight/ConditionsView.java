@@ -0,0 +1,86 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@link ConditionsView} holds the interned trade or quote condition {@link String}s of a {@link TradeView} or {@link
+ * QuoteView} without allocating a {@link java.util.List} per message.
+ */
+public final class ConditionsView {
+
+    String[] conditions;
+    int count;
+
+    ConditionsView() {
+        conditions = new String[4];
+    }
+
+    /**
+     * Appends a condition, growing {@link #conditions} if needed.
+     *
+     * @param condition the interned condition or <code>null</code>
+     */
+    void add(String condition) {
+        if (count == conditions.length) {
+            conditions = Arrays.copyOf(conditions, count * 2);
+        }
+        conditions[count++] = condition;
+    }
+
+    /**
+     * Gets the number of conditions.
+     *
+     * @return the number of conditions
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the condition at <code>index</code>.
+     *
+     * @param index the index
+     *
+     * @return the interned condition {@link String} or <code>null</code> for a <code>null</code> element
+     */
+    public String get(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        return conditions[index];
+    }
+
+    /**
+     * Returns true if any of the conditions equals <code>condition</code>.
+     *
+     * @param condition the condition
+     *
+     * @return a boolean
+     */
+    public boolean contains(String condition) {
+        for (int index = 0; index < count; index++) {
+            if (Objects.equals(conditions[index], condition)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the conditions into a new {@link ArrayList}.
+     *
+     * @return an {@link ArrayList}
+     */
+    public ArrayList<String> toList() {
+        ArrayList<String> list = new ArrayList<>(count);
+        list.addAll(Arrays.asList(conditions).subList(0, count));
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,810 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import com.google.gson.JsonParseException;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataMessageDecoder;
+
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link FlyweightMarketDataDecoder} decodes the trade, quote, and bar objects of a market data text frame directly
+ * from its characters into a reused {@link TradeView}, {@link QuoteView}, or {@link BarView}, so that decoding a
+ * frame doesn't allocate in the steady state. Symbols and conditions are interned in a {@link SymbolTable}, numbers
+ * are parsed without creating substrings, and timestamps are kept as epoch nanoseconds.
+ * <br>
+ * Any other object (e.g. control messages) is handed to a {@link FallbackHandler} as a character range of the frame
+ * so that it can be decoded with {@link MarketDataMessageDecoder}.
+ * <br>
+ * Note that this class is not thread-safe.
+ */
+public class FlyweightMarketDataDecoder {
+
+    /** The <code>char</code> used for a missing exchange code or tape. */
+    public static final char NO_CODE = '\0';
+
+    private static final int KEY_UNKNOWN = -1;
+    private static final int KEY_MESSAGE_TYPE = 'T';
+    private static final int KEY_SYMBOL = 'S';
+    private static final int KEY_TRADE_ID = 'i';
+    private static final int KEY_EXCHANGE = 'x';
+    private static final int KEY_PRICE = 'p';
+    private static final int KEY_SIZE = 's';
+    private static final int KEY_TIMESTAMP = 't';
+    private static final int KEY_CONDITIONS = 'c'; // Also the close price key of a bar
+    private static final int KEY_TAPE = 'z';
+    private static final int KEY_ASK_EXCHANGE = 'a' << 16 | 'x';
+    private static final int KEY_ASK_PRICE = 'a' << 16 | 'p';
+    private static final int KEY_ASK_SIZE = 'a' << 16 | 's';
+    private static final int KEY_BID_EXCHANGE = 'b' << 16 | 'x';
+    private static final int KEY_BID_PRICE = 'b' << 16 | 'p';
+    private static final int KEY_BID_SIZE = 'b' << 16 | 's';
+    private static final int KEY_OPEN = 'o';
+    private static final int KEY_HIGH = 'h';
+    private static final int KEY_LOW = 'l';
+    private static final int KEY_VOLUME = 'v';
+
+    private static final int MAX_EXACT_MANTISSA_DIGITS = 15;
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final SymbolTable symbolTable;
+    private final SymbolTable conditionTable;
+    private final TradeView tradeView;
+    private final QuoteView quoteView;
+    private final BarView barView;
+    private final StringBuilder unescapeBuilder;
+
+    private String message;
+    private int position;
+
+    /**
+     * Instantiates a new {@link FlyweightMarketDataDecoder}.
+     *
+     * @param symbolTable the {@link SymbolTable} to intern symbols in
+     */
+    public FlyweightMarketDataDecoder(SymbolTable symbolTable) {
+        this.symbolTable = checkNotNull(symbolTable);
+
+        conditionTable = new SymbolTable(64);
+        tradeView = new TradeView(symbolTable);
+        quoteView = new QuoteView(symbolTable);
+        barView = new BarView(symbolTable);
+        unescapeBuilder = new StringBuilder();
+    }
+
+    /**
+     * Decodes the given <code>message</code> text frame, calling <code>listener</code> with a reused view for every
+     * trade, quote, and bar in it and <code>fallbackHandler</code> for every other object, in order.
+     *
+     * @param message              the JSON array text frame
+     * @param listener             the {@link MarketDataFlyweightListener}
+     * @param fallbackMessageTypes the trade, quote, or bar {@link MarketDataMessageType}s that should also be passed
+     *                             to <code>fallbackHandler</code> after <code>listener</code> is called
+     * @param fallbackHandler      the {@link FallbackHandler}
+     *
+     * @throws JsonParseException thrown if <code>message</code> is malformed
+     */
+    public void decode(String message, MarketDataFlyweightListener listener,
+            Set<MarketDataMessageType> fallbackMessageTypes, FallbackHandler fallbackHandler) {
+        checkNotNull(message);
+        checkNotNull(listener);
+        checkNotNull(fallbackMessageTypes);
+        checkNotNull(fallbackHandler);
+
+        this.message = message;
+        position = 0;
+        try {
+            skipWhitespace();
+            expect('[');
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+                return;
+            }
+
+            while (true) {
+                skipWhitespace();
+                decodeObject(listener, fallbackMessageTypes, fallbackHandler);
+                skipWhitespace();
+
+                char next = next();
+                if (next == ']') {
+                    return;
+                } else if (next != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        } finally {
+            this.message = null;
+        }
+    }
+
+    /**
+     * Gets the {@link SymbolTable} that symbols are interned in.
+     *
+     * @return the {@link SymbolTable}
+     */
+    public SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    private void decodeObject(MarketDataFlyweightListener listener, Set<MarketDataMessageType> fallbackMessageTypes,
+            FallbackHandler fallbackHandler) {
+        int objectStart = position;
+        expect('{');
+        int bodyStart = position;
+
+        MarketDataMessageType messageType = findMessageType();
+        position = bodyStart;
+
+        if (messageType == null) {
+            position = objectStart;
+            skipValue();
+            fallbackHandler.onObject(message, objectStart, position);
+            return;
+        }
+
+        switch (messageType) {
+            case TRADE:
+                readTrade();
+                listener.onTrade(tradeView);
+                break;
+            case QUOTE:
+                readQuote();
+                listener.onQuote(quoteView);
+                break;
+            case BAR:
+                readBar();
+                listener.onBar(barView);
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+
+        if (fallbackMessageTypes.contains(messageType)) {
+            fallbackHandler.onObject(message, objectStart, position);
+        }
+    }
+
+    /**
+     * Finds the <code>"T"</code> element of the current object, which Alpaca sends first, but may be anywhere.
+     *
+     * @return {@link MarketDataMessageType#TRADE}, {@link MarketDataMessageType#QUOTE}, {@link
+     * MarketDataMessageType#BAR}, or <code>null</code> for any other message type
+     */
+    private MarketDataMessageType findMessageType() {
+        skipWhitespace();
+        if (peek() == '}') {
+            return null;
+        }
+
+        while (true) {
+            int key = readKey();
+            skipWhitespace();
+            if (key == KEY_MESSAGE_TYPE) {
+                if (peek() != '"') {
+                    return null;
+                }
+
+                int valueStart = position + 1;
+                skipString();
+                if (position - valueStart != 2) { // One character and the closing quote
+                    return null;
+                }
+                switch (message.charAt(valueStart)) {
+                    case 't':
+                        return MarketDataMessageType.TRADE;
+                    case 'q':
+                        return MarketDataMessageType.QUOTE;
+                    case 'b':
+                        return MarketDataMessageType.BAR;
+                    default:
+                        return null;
+                }
+            }
+
+            skipValue();
+            if (!nextElement()) {
+                return null;
+            }
+        }
+    }
+
+    private void readTrade() {
+        tradeView.reset();
+        if (!firstElement()) {
+            return;
+        }
+
+        do {
+            switch (readKey()) {
+                case KEY_SYMBOL:
+                    tradeView.symbolID = readSymbolID();
+                    break;
+                case KEY_TRADE_ID:
+                    tradeView.tradeID = readLong();
+                    break;
+                case KEY_EXCHANGE:
+                    tradeView.exchange = readCode();
+                    break;
+                case KEY_PRICE:
+                    tradeView.price = readDouble();
+                    break;
+                case KEY_SIZE:
+                    tradeView.size = readInt();
+                    break;
+                case KEY_TIMESTAMP:
+                    tradeView.timestampEpochNanos = readTimestamp();
+                    break;
+                case KEY_CONDITIONS:
+                    readConditions(tradeView.conditions);
+                    break;
+                case KEY_TAPE:
+                    tradeView.tape = readCode();
+                    break;
+                default:
+                    skipWhitespace();
+                    skipValue();
+            }
+        } while (nextElement());
+    }
+
+    private void readQuote() {
+        quoteView.reset();
+        if (!firstElement()) {
+            return;
+        }
+
+        do {
+            switch (readKey()) {
+                case KEY_SYMBOL:
+                    quoteView.symbolID = readSymbolID();
+                    break;
+                case KEY_ASK_EXCHANGE:
+                    quoteView.askExchange = readCode();
+                    break;
+                case KEY_ASK_PRICE:
+                    quoteView.askPrice = readDouble();
+                    break;
+                case KEY_ASK_SIZE:
+                    quoteView.askSize = readInt();
+                    break;
+                case KEY_BID_EXCHANGE:
+                    quoteView.bidExchange = readCode();
+                    break;
+                case KEY_BID_PRICE:
+                    quoteView.bidPrice = readDouble();
+                    break;
+                case KEY_BID_SIZE:
+                    quoteView.bidSize = readInt();
+                    break;
+                case KEY_TIMESTAMP:
+                    quoteView.timestampEpochNanos = readTimestamp();
+                    break;
+                case KEY_CONDITIONS:
+                    readConditions(quoteView.conditions);
+                    break;
+                case KEY_TAPE:
+                    quoteView.tape = readCode();
+                    break;
+                default:
+                    skipWhitespace();
+                    skipValue();
+            }
+        } while (nextElement());
+    }
+
+    private void readBar() {
+        barView.reset();
+        if (!firstElement()) {
+            return;
+        }
+
+        do {
+            switch (readKey()) {
+                case KEY_SYMBOL:
+                    barView.symbolID = readSymbolID();
+                    break;
+                case KEY_OPEN:
+                    barView.open = readDouble();
+                    break;
+                case KEY_HIGH:
+                    barView.high = readDouble();
+                    break;
+                case KEY_LOW:
+                    barView.low = readDouble();
+                    break;
+                case KEY_CONDITIONS:
+                    barView.close = readDouble();
+                    break;
+                case KEY_VOLUME:
+                    barView.volume = readLong();
+                    break;
+                case KEY_TIMESTAMP:
+                    barView.timestampEpochNanos = readTimestamp();
+                    break;
+                default:
+                    skipWhitespace();
+                    skipValue();
+            }
+        } while (nextElement());
+    }
+
+    /**
+     * Consumes the end of the current object if it is empty.
+     *
+     * @return true if the object has at least one element
+     */
+    private boolean firstElement() {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Consumes the <code>','</code> before the next element or the <code>'}'</code> that ends the current object.
+     *
+     * @return true if there is another element
+     */
+    private boolean nextElement() {
+        skipWhitespace();
+        char next = next();
+        if (next == ',') {
+            skipWhitespace();
+            return true;
+        } else if (next == '}') {
+            return false;
+        }
+        throw error("Expected ',' or '}'");
+    }
+
+    /**
+     * Reads an element name and the following <code>':'</code>.
+     *
+     * @return the element name encoded as an <code>int</code> if it is one or two characters long, otherwise {@link
+     * #KEY_UNKNOWN}
+     */
+    private int readKey() {
+        int keyStart = position + 1;
+        skipString();
+        int keyLength = position - 1 - keyStart;
+
+        int key = KEY_UNKNOWN;
+        if (keyLength == 1 && message.charAt(keyStart) != '\\') {
+            key = message.charAt(keyStart);
+        } else if (keyLength == 2 && message.charAt(keyStart) != '\\') {
+            key = message.charAt(keyStart) << 16 | message.charAt(keyStart + 1);
+        }
+
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+        return key;
+    }
+
+    private boolean nextIsNull() {
+        if (message.startsWith("null", position)) {
+            position += 4;
+            return true;
+        }
+        return false;
+    }
+
+    private int readSymbolID() {
+        if (nextIsNull()) {
+            return SymbolTable.NO_ID;
+        }
+        return internString(symbolTable);
+    }
+
+    /**
+     * Reads a JSON string and interns it in <code>table</code>, unescaping it first if needed.
+     *
+     * @param table the {@link SymbolTable}
+     *
+     * @return the ID in <code>table</code>
+     */
+    private int internString(SymbolTable table) {
+        expect('"');
+        int start = position;
+        while (true) {
+            char next = next();
+            if (next == '"') {
+                return table.intern(message, start, position - 1);
+            } else if (next == '\\') {
+                position = start;
+                unescapeString();
+                return table.intern(unescapeBuilder, 0, unescapeBuilder.length());
+            }
+        }
+    }
+
+    /**
+     * Reads a one character JSON string such as an exchange code or a tape.
+     *
+     * @return the character or {@link #NO_CODE}
+     */
+    private char readCode() {
+        if (nextIsNull()) {
+            return NO_CODE;
+        }
+
+        expect('"');
+        char code = next();
+        if (code == '"') {
+            return NO_CODE;
+        } else if (code == '\\') {
+            position--;
+            unescapeString();
+            return unescapeBuilder.length() == 0 ? NO_CODE : unescapeBuilder.charAt(0);
+        }
+
+        skipStringRemainder();
+        return code;
+    }
+
+    private void readConditions(ConditionsView conditionsView) {
+        conditionsView.count = 0;
+        if (nextIsNull()) {
+            return;
+        }
+
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return;
+        }
+
+        while (true) {
+            skipWhitespace();
+            if (nextIsNull()) {
+                conditionsView.add(null);
+            } else {
+                conditionsView.add(conditionTable.symbol(internString(conditionTable)));
+            }
+            skipWhitespace();
+
+            char next = next();
+            if (next == ']') {
+                return;
+            } else if (next != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON number as a <code>double</code>. Numbers with at most 15 significant digits and a decimal
+     * exponent of at most 22 (e.g. all prices) are computed exactly with a single multiplication or division,
+     * otherwise this falls back to {@link Double#parseDouble(String)}.
+     *
+     * @return the <code>double</code> or {@link Double#NaN} for <code>null</code>
+     */
+    private double readDouble() {
+        if (nextIsNull()) {
+            return Double.NaN;
+        }
+
+        int start = position;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+
+        char next;
+        while (isDigit(next = peek())) {
+            anyDigits = true;
+            if (mantissa != 0 || next != '0') {
+                mantissa = mantissa * 10 + (next - '0');
+                digits++;
+            }
+            position++;
+        }
+        if (next == '.') {
+            position++;
+            while (isDigit(next = peek())) {
+                anyDigits = true;
+                if (mantissa != 0 || next != '0') {
+                    mantissa = mantissa * 10 + (next - '0');
+                    digits++;
+                }
+                exponent--;
+                position++;
+            }
+        }
+        if (!anyDigits) {
+            throw error("Expected a number");
+        }
+
+        if (next == 'e' || next == 'E' || digits > MAX_EXACT_MANTISSA_DIGITS) {
+            skipNumberRemainder();
+            return parseDoubleSlow(start);
+        }
+        if (exponent < -22) {
+            return parseDoubleSlow(start);
+        }
+
+        double value = exponent == 0 ? mantissa : mantissa / EXACT_POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private double parseDoubleSlow(int start) {
+        try {
+            return Double.parseDouble(message.substring(start, position));
+        } catch (NumberFormatException numberFormatException) {
+            throw error("Malformed number");
+        }
+    }
+
+    private void skipNumberRemainder() {
+        char next;
+        while (position < message.length() && (isDigit(next = message.charAt(position)) || next == '.' ||
+                next == 'e' || next == 'E' || next == '+' || next == '-')) {
+            position++;
+        }
+    }
+
+    /**
+     * Reads a JSON number as a <code>long</code>, truncating a fractional part if there is one.
+     *
+     * @return the <code>long</code> or <code>0</code> for <code>null</code>
+     */
+    private long readLong() {
+        if (nextIsNull()) {
+            return 0;
+        }
+
+        int start = position;
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            position++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        char next;
+        while (isDigit(next = peek())) {
+            value = value * 10 + (next - '0');
+            digits++;
+            position++;
+        }
+        if (digits == 0) {
+            throw error("Expected a number");
+        }
+
+        if (next == '.' || next == 'e' || next == 'E' || digits > 18) {
+            skipNumberRemainder();
+            double slowValue = parseDoubleSlow(start);
+            if (slowValue < Long.MIN_VALUE || slowValue > Long.MAX_VALUE) {
+                throw error("Number out of range");
+            }
+            return (long) slowValue;
+        }
+
+        return negative ? -value : value;
+    }
+
+    private int readInt() {
+        int start = position;
+        long value = readLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            position = start;
+            throw error("Number out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads an RFC 3339 timestamp string.
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS} for <code>null</code>
+     */
+    private long readTimestamp() {
+        if (nextIsNull()) {
+            return EpochNanosUtil.NO_EPOCH_NANOS;
+        }
+
+        expect('"');
+        int start = position;
+        skipString(start - 1);
+        try {
+            return EpochNanosUtil.parseRFC3339(message, start, position - 1);
+        } catch (DateTimeParseException | ArithmeticException exception) {
+            position = start;
+            throw error("Malformed timestamp");
+        }
+    }
+
+    /**
+     * Skips the JSON value at {@link #position} of any type.
+     */
+    private void skipValue() {
+        char next = peek();
+        if (next == '"') {
+            skipString();
+        } else if (next == '{' || next == '[') {
+            int depth = 0;
+            do {
+                next = peek();
+                if (next == '"') {
+                    skipString();
+                    continue;
+                } else if (next == '{' || next == '[') {
+                    depth++;
+                } else if (next == '}' || next == ']') {
+                    depth--;
+                }
+                position++;
+            } while (depth > 0);
+        } else {
+            int start = position;
+            while (position < message.length() && (next = message.charAt(position)) != ',' && next != '}' &&
+                    next != ']' && !isWhitespace(next)) {
+                position++;
+            }
+            if (position == start) {
+                throw error("Expected a value");
+            }
+        }
+    }
+
+    private void skipString() {
+        skipString(position);
+    }
+
+    /**
+     * Skips the JSON string starting with the quote at <code>quoteIndex</code>.
+     *
+     * @param quoteIndex the index of the opening quote
+     */
+    private void skipString(int quoteIndex) {
+        position = quoteIndex;
+        expect('"');
+        skipStringRemainder();
+    }
+
+    /**
+     * Skips the rest of a JSON string up to and including its closing quote.
+     */
+    private void skipStringRemainder() {
+        while (true) {
+            char next = next();
+            if (next == '"') {
+                return;
+            } else if (next == '\\') {
+                next();
+            }
+        }
+    }
+
+    /**
+     * Unescapes the JSON string starting after the opening quote at {@link #position} into {@link #unescapeBuilder}.
+     */
+    private void unescapeString() {
+        unescapeBuilder.setLength(0);
+        while (true) {
+            char next = next();
+            if (next == '"') {
+                return;
+            } else if (next != '\\') {
+                unescapeBuilder.append(next);
+                continue;
+            }
+
+            char escaped = next();
+            switch (escaped) {
+                case 'b':
+                    unescapeBuilder.append('\b');
+                    break;
+                case 'f':
+                    unescapeBuilder.append('\f');
+                    break;
+                case 'n':
+                    unescapeBuilder.append('\n');
+                    break;
+                case 'r':
+                    unescapeBuilder.append('\r');
+                    break;
+                case 't':
+                    unescapeBuilder.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > message.length()) {
+                        throw error("Unterminated escape sequence");
+                    }
+                    try {
+                        unescapeBuilder.append((char) Integer.parseInt(message.substring(position, position + 4),
+                                16));
+                    } catch (NumberFormatException numberFormatException) {
+                        throw error("Malformed escape sequence");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    unescapeBuilder.append(escaped);
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < message.length() && isWhitespace(message.charAt(position))) {
+            position++;
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            position--;
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private char peek() {
+        if (position >= message.length()) {
+            throw error("Unexpected end of message");
+        }
+        return message.charAt(position);
+    }
+
+    private char next() {
+        char next = peek();
+        position++;
+        return next;
+    }
+
+    private JsonParseException error(String reason) {
+        return new JsonParseException(reason + " at position " + position + " of message: " + message);
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isWhitespace(char character) {
+        return character == ' ' || character == '\n' || character == '\r' || character == '\t';
+    }
+
+    /**
+     * Converts the given exchange code or tape <code>char</code> to a {@link String}.
+     *
+     * @param code the code
+     *
+     * @return the {@link String} or <code>null</code> for {@link #NO_CODE}
+     */
+    static String codeToString(char code) {
+        return code == NO_CODE ? null : String.valueOf(code);
+    }
+
+    /**
+     * {@link FallbackHandler} receives the objects of a frame that {@link FlyweightMarketDataDecoder} doesn't decode
+     * into a view.
+     */
+    public interface FallbackHandler {
+
+        /**
+         * Called with the character range of a JSON object in a text frame.
+         *
+         * @param message     the text frame
+         * @param objectStart the index of the <code>'{'</code> of the object (inclusive)
+         * @param objectEnd   the index after the <code>'}'</code> of the object (exclusive)
+         */
+        void onObject(String message, int objectStart, int objectEnd);
+    }
+}
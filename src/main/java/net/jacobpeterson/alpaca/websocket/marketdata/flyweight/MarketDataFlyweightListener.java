@@ -0,0 +1,31 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+
+/**
+ * {@link MarketDataFlyweightListener} defines a listener interface for the reusable flyweight views of {@link
+ * MarketDataWebsocket} trades, quotes, and bars. The given views are only valid until the callback returns.
+ */
+public interface MarketDataFlyweightListener {
+
+    /**
+     * Called when a trade is received.
+     *
+     * @param tradeView the reused {@link TradeView}
+     */
+    default void onTrade(TradeView tradeView) {}
+
+    /**
+     * Called when a quote is received.
+     *
+     * @param quoteView the reused {@link QuoteView}
+     */
+    default void onQuote(QuoteView quoteView) {}
+
+    /**
+     * Called when a bar is received.
+     *
+     * @param barView the reused {@link BarView}
+     */
+    default void onBar(BarView barView) {}
+}
@@ -0,0 +1,157 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+
+/**
+ * {@link QuoteView} is a reusable, mutable flyweight view of a {@link QuoteMessage}.
+ *
+ * @see SymbolView
+ */
+public final class QuoteView extends SymbolView {
+
+    final ConditionsView conditions;
+
+    char askExchange;
+    double askPrice;
+    int askSize;
+    char bidExchange;
+    double bidPrice;
+    int bidSize;
+    char tape;
+
+    /**
+     * Instantiates a new {@link QuoteView}.
+     *
+     * @param symbolTable the {@link SymbolTable}
+     */
+    QuoteView(SymbolTable symbolTable) {
+        super(symbolTable);
+
+        conditions = new ConditionsView();
+    }
+
+    @Override
+    void reset() {
+        super.reset();
+
+        conditions.count = 0;
+        askExchange = FlyweightMarketDataDecoder.NO_CODE;
+        askPrice = Double.NaN;
+        askSize = 0;
+        bidExchange = FlyweightMarketDataDecoder.NO_CODE;
+        bidPrice = Double.NaN;
+        bidSize = 0;
+        tape = FlyweightMarketDataDecoder.NO_CODE;
+    }
+
+    /**
+     * Gets the ask exchange code.
+     *
+     * @return the ask exchange code or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getAskExchange() {
+        return askExchange;
+    }
+
+    /**
+     * Gets the ask price.
+     *
+     * @return the ask price or {@link Double#NaN}
+     */
+    public double getAskPrice() {
+        return askPrice;
+    }
+
+    /**
+     * Gets the ask size.
+     *
+     * @return the ask size
+     */
+    public int getAskSize() {
+        return askSize;
+    }
+
+    /**
+     * Gets the bid exchange code.
+     *
+     * @return the bid exchange code or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getBidExchange() {
+        return bidExchange;
+    }
+
+    /**
+     * Gets the bid price.
+     *
+     * @return the bid price or {@link Double#NaN}
+     */
+    public double getBidPrice() {
+        return bidPrice;
+    }
+
+    /**
+     * Gets the bid size.
+     *
+     * @return the bid size
+     */
+    public int getBidSize() {
+        return bidSize;
+    }
+
+    /**
+     * Gets the quote conditions.
+     *
+     * @return the {@link ConditionsView}
+     */
+    public ConditionsView getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Gets the tape.
+     *
+     * @return the tape or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getTape() {
+        return tape;
+    }
+
+    /**
+     * Copies this view into a new {@link QuoteMessage}.
+     *
+     * @return a {@link QuoteMessage}
+     */
+    public QuoteMessage toMessage() {
+        QuoteMessage quoteMessage = new QuoteMessage();
+        quoteMessage.setMessageType(MarketDataMessageType.QUOTE);
+        copySymbolTo(quoteMessage);
+        quoteMessage.setAskExchangeCode(FlyweightMarketDataDecoder.codeToString(askExchange));
+        quoteMessage.setAskPrice(Double.isNaN(askPrice) ? null : askPrice);
+        quoteMessage.setAskSize(askSize);
+        quoteMessage.setBidExchangeCode(FlyweightMarketDataDecoder.codeToString(bidExchange));
+        quoteMessage.setBidPrice(Double.isNaN(bidPrice) ? null : bidPrice);
+        quoteMessage.setBidSize(bidSize);
+        quoteMessage.setTimestampEpochNanos(timestampEpochNanos);
+        quoteMessage.setConditions(conditions.toList());
+        quoteMessage.setTape(FlyweightMarketDataDecoder.codeToString(tape));
+        return quoteMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "QuoteView{" +
+                "symbol=" + getSymbol() +
+                ", askExchange=" + askExchange +
+                ", askPrice=" + askPrice +
+                ", askSize=" + askSize +
+                ", bidExchange=" + bidExchange +
+                ", bidPrice=" + bidPrice +
+                ", bidSize=" + bidSize +
+                ", timestampEpochNanos=" + timestampEpochNanos +
+                ", conditions=" + conditions +
+                ", tape=" + tape +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.TimestampedSymbolMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * {@link SymbolView} is the base of the mutable flyweight views that {@link FlyweightMarketDataDecoder} reuses for
+ * every decoded trade, quote, or bar.
+ * <br>
+ * A view is only valid for the duration of the {@link MarketDataFlyweightListener} callback it is passed to, after
+ * which it is overwritten with the next message. Use the <code>toMessage()</code> method of a view to keep a copy.
+ */
+public abstract class SymbolView {
+
+    protected final SymbolTable symbolTable;
+
+    int symbolID;
+    long timestampEpochNanos;
+
+    /**
+     * Instantiates a new {@link SymbolView}.
+     *
+     * @param symbolTable the {@link SymbolTable} that resolves {@link #getSymbolID()}
+     */
+    protected SymbolView(SymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
+    }
+
+    /**
+     * Resets all fields of this view.
+     */
+    void reset() {
+        symbolID = SymbolTable.NO_ID;
+        timestampEpochNanos = EpochNanosUtil.NO_EPOCH_NANOS;
+    }
+
+    /**
+     * Gets the ID of the symbol in the {@link SymbolTable} of this view.
+     *
+     * @return the symbol ID or {@link SymbolTable#NO_ID}
+     */
+    public int getSymbolID() {
+        return symbolID;
+    }
+
+    /**
+     * Gets the interned symbol {@link String}. This doesn't allocate.
+     *
+     * @return the symbol or <code>null</code>
+     */
+    public String getSymbol() {
+        return symbolID == SymbolTable.NO_ID ? null : symbolTable.symbol(symbolID);
+    }
+
+    /**
+     * Copies the symbol and its ID to the given <code>message</code>.
+     *
+     * @param message the {@link TimestampedSymbolMessage}
+     */
+    void copySymbolTo(TimestampedSymbolMessage message) {
+        if (symbolTable == SymbolTable.GLOBAL) {
+            message.setSymbolID(symbolID);
+        } else {
+            message.setSymbol(getSymbol());
+        }
+    }
+
+    /**
+     * Gets the timestamp as the number of nanoseconds since the epoch.
+     *
+     * @return the epoch nanoseconds or {@link EpochNanosUtil#NO_EPOCH_NANOS}
+     */
+    public long getTimestampEpochNanos() {
+        return timestampEpochNanos;
+    }
+
+    /**
+     * Creates a new {@link ZonedDateTime} from {@link #getTimestampEpochNanos()}. Note that this allocates.
+     *
+     * @return a {@link ZonedDateTime} in {@link ZoneOffset#UTC} or <code>null</code>
+     */
+    public ZonedDateTime getTimestamp() {
+        return EpochNanosUtil.toZonedDateTime(timestampEpochNanos);
+    }
+}
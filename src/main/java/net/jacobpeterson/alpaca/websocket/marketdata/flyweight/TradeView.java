@@ -0,0 +1,131 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.flyweight;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+
+/**
+ * {@link TradeView} is a reusable, mutable flyweight view of a {@link TradeMessage}.
+ *
+ * @see SymbolView
+ */
+public final class TradeView extends SymbolView {
+
+    final ConditionsView conditions;
+
+    long tradeID;
+    char exchange;
+    double price;
+    int size;
+    char tape;
+
+    /**
+     * Instantiates a new {@link TradeView}.
+     *
+     * @param symbolTable the {@link SymbolTable}
+     */
+    TradeView(SymbolTable symbolTable) {
+        super(symbolTable);
+
+        conditions = new ConditionsView();
+    }
+
+    @Override
+    void reset() {
+        super.reset();
+
+        conditions.count = 0;
+        tradeID = 0;
+        exchange = FlyweightMarketDataDecoder.NO_CODE;
+        price = Double.NaN;
+        size = 0;
+        tape = FlyweightMarketDataDecoder.NO_CODE;
+    }
+
+    /**
+     * Gets the trade ID.
+     *
+     * @return the trade ID
+     */
+    public long getTradeID() {
+        return tradeID;
+    }
+
+    /**
+     * Gets the exchange code where the trade occurred.
+     *
+     * @return the exchange code or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getExchange() {
+        return exchange;
+    }
+
+    /**
+     * Gets the trade price.
+     *
+     * @return the price or {@link Double#NaN}
+     */
+    public double getPrice() {
+        return price;
+    }
+
+    /**
+     * Gets the trade size.
+     *
+     * @return the size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the trade conditions.
+     *
+     * @return the {@link ConditionsView}
+     */
+    public ConditionsView getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Gets the tape.
+     *
+     * @return the tape or {@link FlyweightMarketDataDecoder#NO_CODE}
+     */
+    public char getTape() {
+        return tape;
+    }
+
+    /**
+     * Copies this view into a new {@link TradeMessage}.
+     *
+     * @return a {@link TradeMessage}
+     */
+    public TradeMessage toMessage() {
+        TradeMessage tradeMessage = new TradeMessage();
+        tradeMessage.setMessageType(MarketDataMessageType.TRADE);
+        copySymbolTo(tradeMessage);
+        tradeMessage.setTradeID(tradeID);
+        tradeMessage.setExchange(FlyweightMarketDataDecoder.codeToString(exchange));
+        tradeMessage.setPrice(Double.isNaN(price) ? null : price);
+        tradeMessage.setSize(size);
+        tradeMessage.setTimestampEpochNanos(timestampEpochNanos);
+        tradeMessage.setConditions(conditions.toList());
+        tradeMessage.setTape(FlyweightMarketDataDecoder.codeToString(tape));
+        return tradeMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "TradeView{" +
+                "symbol=" + getSymbol() +
+                ", tradeID=" + tradeID +
+                ", exchange=" + exchange +
+                ", price=" + price +
+                ", size=" + size +
+                ", timestampEpochNanos=" + timestampEpochNanos +
+                ", conditions=" + conditions +
+                ", tape=" + tape +
+                '}';
+    }
+}
@@ -0,0 +1,48 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link ExponentialMovingAverage} is the exponential moving average of the price, seeded with the first price.
+ */
+public class ExponentialMovingAverage implements Indicator {
+
+    private final double alpha;
+    private double value;
+
+    /**
+     * Instantiates a new {@link ExponentialMovingAverage} with a smoothing factor of <code>2 / (periods + 1)</code>.
+     *
+     * @param periods the number of periods
+     */
+    public ExponentialMovingAverage(int periods) {
+        this(alphaOf(periods));
+    }
+
+    /**
+     * Instantiates a new {@link ExponentialMovingAverage}.
+     *
+     * @param alpha the smoothing factor in <code>(0, 1]</code>
+     */
+    public ExponentialMovingAverage(double alpha) {
+        checkArgument(alpha > 0 && alpha <= 1, "'alpha' must be in (0, 1]!");
+
+        this.alpha = alpha;
+        value = Double.NaN;
+    }
+
+    private static double alphaOf(int periods) {
+        checkArgument(periods > 0, "'periods' must be positive!");
+        return 2.0 / (periods + 1);
+    }
+
+    @Override
+    public void update(double price, double volume) {
+        value = Double.isNaN(value) ? price : value + alpha * (price - value);
+    }
+
+    @Override
+    public double getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,26 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+/**
+ * {@link Indicator} is the incremental state of a streaming indicator for one symbol. Each update must take constant
+ * (or amortized constant) time, regardless of the size of the window of the {@link Indicator}.
+ * <br>
+ * An {@link IndicatorEngine} creates one {@link Indicator} per symbol and indicator and only calls it from one thread
+ * at a time, so implementations don't need to be thread-safe.
+ */
+public interface Indicator {
+
+    /**
+     * Updates this {@link Indicator} with a new sample.
+     *
+     * @param price  the price
+     * @param volume the volume
+     */
+    void update(double price, double volume);
+
+    /**
+     * Gets the current value of this {@link Indicator}.
+     *
+     * @return the value or {@link Double#NaN} if not enough samples were received yet
+     */
+    double getValue();
+}
@@ -0,0 +1,281 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolPages;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.BarListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.TradeListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBar;
+import net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBarListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.BarView;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.TradeView;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link IndicatorEngine} keeps streaming {@link Indicator}s, such as an {@link ExponentialMovingAverage} or a {@link
+ * RollingVWAP}, up to date for every symbol it receives trades or bars of. Each {@link Indicator} is updated
+ * incrementally, so a trade or bar costs constant time per indicator instead of a recomputation over the whole window.
+ * <br>
+ * Add it to a {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocketInterface} with {@link
+ * net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocketInterface#addIndicatorEngine(IndicatorEngine)},
+ * as a {@link MarketDataFlyweightListener}, or as the {@link LocalBarListener} of a {@link
+ * net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBarBuilder}.
+ * <br>
+ * Updates only lock the indicators of their own symbol, so symbols can be updated concurrently, e.g. from the
+ * dispatch threads of a sharded websocket. The current values of each symbol are published to an {@link
+ * AtomicLongArray} that is looked up through {@link SymbolPages}, so {@link #getValue(int, int)} is lock-free and can
+ * be called from any thread.
+ */
+public class IndicatorEngine implements TradeListener, BarListener, LocalBarListener, MarketDataFlyweightListener {
+
+    private final SymbolPages<Page> pages;
+
+    private volatile String[] names;
+    // Written under 'this', with 'inputs' written before 'indicatorSuppliers'
+    private volatile IndicatorInput[] inputs;
+    private volatile Supplier<? extends Indicator>[] indicatorSuppliers;
+
+    /**
+     * Instantiates a new {@link IndicatorEngine}.
+     */
+    @SuppressWarnings("unchecked")
+    public IndicatorEngine() {
+        pages = new SymbolPages<>(Page::new, Page[]::new);
+        names = new String[0];
+        inputs = new IndicatorInput[0];
+        indicatorSuppliers = new Supplier[0];
+    }
+
+    /**
+     * Adds an indicator that is computed for every symbol. The {@link Indicator} of a symbol is created with
+     * <code>indicatorSupplier</code> when the first sample of that symbol is received.
+     *
+     * @param name              the unique name of the indicator (e.g. <code>"ema20"</code>)
+     * @param input             the {@link IndicatorInput}
+     * @param indicatorSupplier the {@link Supplier} of a new {@link Indicator} (e.g. <code>() -> new
+     *                          RollingVWAP(100)</code>)
+     *
+     * @return the index of the indicator for {@link #getValue(int, int)}
+     */
+    public synchronized int addIndicator(String name, IndicatorInput input,
+            Supplier<? extends Indicator> indicatorSupplier) {
+        checkNotNull(name);
+        checkNotNull(input);
+        checkNotNull(indicatorSupplier);
+        checkArgument(indexOf(name) == -1, "An indicator named '%s' was already added!", name);
+
+        int index = names.length;
+        IndicatorInput[] newInputs = Arrays.copyOf(inputs, index + 1);
+        newInputs[index] = input;
+        inputs = newInputs;
+        Supplier<? extends Indicator>[] newIndicatorSuppliers = Arrays.copyOf(indicatorSuppliers, index + 1);
+        newIndicatorSuppliers[index] = indicatorSupplier;
+        indicatorSuppliers = newIndicatorSuppliers;
+
+        String[] newNames = Arrays.copyOf(names, index + 1);
+        newNames[index] = name;
+        names = newNames;
+        return index;
+    }
+
+    /**
+     * Gets the index of the indicator with the given <code>name</code>.
+     *
+     * @param name the name
+     *
+     * @return the index or <code>-1</code> if there's no such indicator
+     */
+    public int indexOf(String name) {
+        String[] currentNames = names;
+        for (int index = 0; index < currentNames.length; index++) {
+            if (currentNames[index].equals(name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the current value of an indicator of a symbol without locking or allocating.
+     *
+     * @param symbolID       the {@link SymbolTable#GLOBAL} symbol ID
+     * @param indicatorIndex the indicator index returned by {@link #addIndicator(String, IndicatorInput, Supplier)}
+     *
+     * @return the value or {@link Double#NaN} if it isn't available yet
+     */
+    public double getValue(int symbolID, int indicatorIndex) {
+        Page page = pages.find(symbolID);
+        if (page == null || indicatorIndex < 0) {
+            return Double.NaN;
+        }
+
+        SymbolIndicators symbolIndicators = page.symbolIndicators.get(SymbolPages.slotOf(symbolID));
+        if (symbolIndicators == null) {
+            return Double.NaN;
+        }
+        AtomicLongArray values = symbolIndicators.values;
+        return indicatorIndex < values.length() ? Double.longBitsToDouble(values.get(indicatorIndex)) : Double.NaN;
+    }
+
+    /**
+     * Gets the current value of an indicator of a symbol.
+     *
+     * @param symbol the symbol
+     * @param name   the indicator name
+     *
+     * @return the value or {@link Double#NaN} if it isn't available yet
+     *
+     * @see #getValue(int, int)
+     */
+    public double getValue(String symbol, String name) {
+        checkNotNull(symbol);
+        checkNotNull(name);
+        return getValue(SymbolTable.GLOBAL.find(symbol), indexOf(name));
+    }
+
+    @Override
+    public void onTrade(TradeMessage tradeMessage) {
+        if (tradeMessage.getPrice() != null && tradeMessage.getSize() != null) {
+            update(IndicatorInput.TRADES, tradeMessage.getSymbolID(), tradeMessage.getPrice(), tradeMessage.getSize());
+        }
+    }
+
+    /**
+     * Updates the indicators of a symbol from a {@link TradeView} whose symbol ID is from {@link SymbolTable#GLOBAL},
+     * which is the case for the views of {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}.
+     *
+     * @param tradeView the {@link TradeView}
+     */
+    @Override
+    public void onTrade(TradeView tradeView) {
+        if (!Double.isNaN(tradeView.getPrice())) {
+            update(IndicatorInput.TRADES, tradeView.getSymbolID(), tradeView.getPrice(), tradeView.getSize());
+        }
+    }
+
+    @Override
+    public void onBar(BarMessage barMessage) {
+        if (barMessage.getClose() != null && barMessage.getVolume() != null) {
+            update(IndicatorInput.BARS, barMessage.getSymbolID(), barMessage.getClose(), barMessage.getVolume());
+        }
+    }
+
+    /**
+     * Updates the indicators of a symbol from a {@link BarView} whose symbol ID is from {@link SymbolTable#GLOBAL},
+     * which is the case for the views of {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}.
+     *
+     * @param barView the {@link BarView}
+     */
+    @Override
+    public void onBar(BarView barView) {
+        if (!Double.isNaN(barView.getClose())) {
+            update(IndicatorInput.BARS, barView.getSymbolID(), barView.getClose(), barView.getVolume());
+        }
+    }
+
+    @Override
+    public void onBar(LocalBar localBar) {
+        update(IndicatorInput.BARS, localBar.getSymbolID(), localBar.getClose(), localBar.getVolume());
+    }
+
+    /**
+     * Updates the indicators of a symbol that use the given {@link IndicatorInput} with a new sample. Samples without
+     * a symbol are ignored.
+     *
+     * @param input    the {@link IndicatorInput}
+     * @param symbolID the {@link SymbolTable#GLOBAL} symbol ID
+     * @param price    the price
+     * @param volume   the volume
+     */
+    public void update(IndicatorInput input, int symbolID, double price, double volume) {
+        if (symbolID < 0) {
+            return;
+        }
+
+        SymbolIndicators symbolIndicators = symbolIndicators(symbolID);
+        synchronized (symbolIndicators) {
+            symbolIndicators.addIndicators(indicatorSuppliers);
+            // 'inputs' is read after 'indicatorSuppliers', so it has an input for every indicator
+            IndicatorInput[] currentInputs = inputs;
+            Indicator[] indicators = symbolIndicators.indicators;
+            AtomicLongArray values = symbolIndicators.values;
+            for (int index = 0; index < indicators.length; index++) {
+                if (currentInputs[index] == input) {
+                    Indicator indicator = indicators[index];
+                    indicator.update(price, volume);
+                    values.lazySet(index, Double.doubleToRawLongBits(indicator.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the {@link SymbolIndicators} of a symbol, creating it if it doesn't exist yet.
+     */
+    private SymbolIndicators symbolIndicators(int symbolID) {
+        AtomicReferenceArray<SymbolIndicators> page = pages.page(symbolID).symbolIndicators;
+        int index = SymbolPages.slotOf(symbolID);
+        SymbolIndicators symbolIndicators = page.get(index);
+        if (symbolIndicators == null) {
+            SymbolIndicators newSymbolIndicators = new SymbolIndicators();
+            symbolIndicators = page.compareAndSet(index, null, newSymbolIndicators) ? newSymbolIndicators :
+                    page.get(index);
+        }
+        return symbolIndicators;
+    }
+
+    /**
+     * {@link SymbolIndicators} holds the {@link Indicator}s of one symbol and their published values. It's updated
+     * while holding its own monitor.
+     */
+    private static final class SymbolIndicators {
+
+        private Indicator[] indicators;
+        private volatile AtomicLongArray values;
+
+        private SymbolIndicators() {
+            indicators = new Indicator[0];
+            values = new AtomicLongArray(0);
+        }
+
+        /**
+         * Creates the {@link Indicator}s that were added since the last call.
+         */
+        private void addIndicators(Supplier<? extends Indicator>[] indicatorSuppliers) {
+            int previousLength = indicators.length;
+            if (previousLength >= indicatorSuppliers.length) {
+                return;
+            }
+
+            indicators = Arrays.copyOf(indicators, indicatorSuppliers.length);
+            AtomicLongArray newValues = new AtomicLongArray(indicatorSuppliers.length);
+            for (int index = 0; index < indicatorSuppliers.length; index++) {
+                if (index < previousLength) {
+                    newValues.set(index, values.get(index));
+                } else {
+                    indicators[index] = checkNotNull(indicatorSuppliers[index].get());
+                    newValues.set(index, Double.doubleToRawLongBits(indicators[index].getValue()));
+                }
+            }
+            values = newValues;
+        }
+    }
+
+    /**
+     * {@link Page} holds the {@link SymbolIndicators} of {@link SymbolPages#PAGE_SIZE} consecutive symbol IDs.
+     */
+    private static final class Page {
+
+        private final AtomicReferenceArray<SymbolIndicators> symbolIndicators =
+                new AtomicReferenceArray<>(SymbolPages.PAGE_SIZE);
+    }
+}
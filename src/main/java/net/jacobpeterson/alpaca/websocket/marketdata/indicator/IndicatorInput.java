@@ -0,0 +1,16 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+/**
+ * {@link IndicatorInput} defines the samples that an {@link Indicator} of an {@link IndicatorEngine} is updated with.
+ */
+public enum IndicatorInput {
+
+    /** The price and size of every trade. */
+    TRADES,
+
+    /**
+     * The close price and volume of every bar, which are either the bars streamed by Alpaca or the bars built by a
+     * {@link net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBarBuilder}.
+     */
+    BARS
+}
@@ -0,0 +1,61 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link RollingExtremum} is the minimum or maximum price of the last <code>windowSize</code> samples. It keeps a
+ * monotonic deque of the prices that can still become the extremum, so each update takes amortized constant time.
+ */
+abstract class RollingExtremum implements Indicator {
+
+    private final int windowSize;
+    // A circular deque of prices and the sample sequence number they were received at
+    private final double[] dequePrices;
+    private final long[] dequeSequences;
+    private int dequeHead;
+    private int dequeSize;
+    private long sequence;
+
+    RollingExtremum(int windowSize) {
+        checkArgument(windowSize > 0, "'windowSize' must be positive!");
+
+        this.windowSize = windowSize;
+        dequePrices = new double[windowSize];
+        dequeSequences = new long[windowSize];
+    }
+
+    /**
+     * Returns whether <code>price</code> makes the older <code>dequePrice</code> irrelevant.
+     */
+    abstract boolean supersedes(double price, double dequePrice);
+
+    @Override
+    public void update(double price, double volume) {
+        if (dequeSize > 0 && dequeSequences[dequeHead] <= sequence - windowSize) {
+            dequeHead = next(dequeHead);
+            dequeSize--;
+        }
+
+        while (dequeSize > 0 && supersedes(price, dequePrices[index(dequeSize - 1)])) {
+            dequeSize--;
+        }
+
+        int tailIndex = index(dequeSize++);
+        dequePrices[tailIndex] = price;
+        dequeSequences[tailIndex] = sequence++;
+    }
+
+    @Override
+    public double getValue() {
+        return sequence >= windowSize ? dequePrices[dequeHead] : Double.NaN;
+    }
+
+    private int index(int offset) {
+        int index = dequeHead + offset;
+        return index >= windowSize ? index - windowSize : index;
+    }
+
+    private int next(int index) {
+        return index + 1 == windowSize ? 0 : index + 1;
+    }
+}
@@ -0,0 +1,21 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+/**
+ * {@link RollingMaximum} is the maximum price of the last <code>windowSize</code> samples.
+ */
+public class RollingMaximum extends RollingExtremum {
+
+    /**
+     * Instantiates a new {@link RollingMaximum}.
+     *
+     * @param windowSize the number of samples in the window
+     */
+    public RollingMaximum(int windowSize) {
+        super(windowSize);
+    }
+
+    @Override
+    boolean supersedes(double price, double dequePrice) {
+        return price >= dequePrice;
+    }
+}
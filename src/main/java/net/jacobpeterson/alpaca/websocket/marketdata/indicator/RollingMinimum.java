@@ -0,0 +1,21 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+/**
+ * {@link RollingMinimum} is the minimum price of the last <code>windowSize</code> samples.
+ */
+public class RollingMinimum extends RollingExtremum {
+
+    /**
+     * Instantiates a new {@link RollingMinimum}.
+     *
+     * @param windowSize the number of samples in the window
+     */
+    public RollingMinimum(int windowSize) {
+        super(windowSize);
+    }
+
+    @Override
+    boolean supersedes(double price, double dequePrice) {
+        return price <= dequePrice;
+    }
+}
@@ -0,0 +1,35 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link RollingVWAP} is the volume-weighted average price of the last <code>windowSize</code> samples.
+ */
+public class RollingVWAP implements Indicator {
+
+    private final RollingWindow notional;
+    private final RollingWindow volume;
+
+    /**
+     * Instantiates a new {@link RollingVWAP}.
+     *
+     * @param windowSize the number of samples in the window
+     */
+    public RollingVWAP(int windowSize) {
+        checkArgument(windowSize > 0, "'windowSize' must be positive!");
+
+        notional = new RollingWindow(windowSize);
+        volume = new RollingWindow(windowSize);
+    }
+
+    @Override
+    public void update(double price, double volume) {
+        notional.add(price * volume);
+        this.volume.add(volume);
+    }
+
+    @Override
+    public double getValue() {
+        return volume.isFull() && volume.sum() > 0 ? notional.sum() / volume.sum() : Double.NaN;
+    }
+}
@@ -0,0 +1,42 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link RollingVolatility} is the sample standard deviation of the log returns between the last
+ * <code>windowSize + 1</code> prices. It isn't annualized.
+ */
+public class RollingVolatility implements Indicator {
+
+    private final RollingWindow logReturns;
+    private double lastPrice;
+
+    /**
+     * Instantiates a new {@link RollingVolatility}.
+     *
+     * @param windowSize the number of log returns in the window, which must be at least 2
+     */
+    public RollingVolatility(int windowSize) {
+        checkArgument(windowSize > 1, "'windowSize' must be at least 2!");
+
+        logReturns = new RollingWindow(windowSize);
+        lastPrice = Double.NaN;
+    }
+
+    @Override
+    public void update(double price, double volume) {
+        if (price <= 0) {
+            return;
+        }
+
+        if (!Double.isNaN(lastPrice)) {
+            logReturns.add(Math.log(price / lastPrice));
+        }
+        lastPrice = price;
+    }
+
+    @Override
+    public double getValue() {
+        return logReturns.isFull() ? Math.sqrt(logReturns.variance()) : Double.NaN;
+    }
+}
@@ -0,0 +1,75 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+/**
+ * {@link RollingWindow} is a ring buffer of the last <code>size</code> samples that keeps their running sum and sum of
+ * squares. Since subtracting evicted samples accumulates floating-point error, the sums are recomputed from the
+ * samples once every <code>size</code> updates, which is still amortized constant time.
+ */
+final class RollingWindow {
+
+    private final double[] samples;
+    private int nextIndex;
+    private int count;
+    private int updatesSinceRecompute;
+    private double sum;
+    private double sumOfSquares;
+
+    RollingWindow(int size) {
+        samples = new double[size];
+    }
+
+    /**
+     * Adds a sample, evicting the oldest one if this window is full.
+     */
+    void add(double sample) {
+        if (count == samples.length) {
+            double evicted = samples[nextIndex];
+            sum -= evicted;
+            sumOfSquares -= evicted * evicted;
+        } else {
+            count++;
+        }
+
+        samples[nextIndex] = sample;
+        nextIndex = nextIndex + 1 == samples.length ? 0 : nextIndex + 1;
+        sum += sample;
+        sumOfSquares += sample * sample;
+
+        if (++updatesSinceRecompute == samples.length) {
+            updatesSinceRecompute = 0;
+            sum = 0;
+            sumOfSquares = 0;
+            for (int index = 0; index < count; index++) {
+                sum += samples[index];
+                sumOfSquares += samples[index] * samples[index];
+            }
+        }
+    }
+
+    boolean isFull() {
+        return count == samples.length;
+    }
+
+    int count() {
+        return count;
+    }
+
+    double sum() {
+        return sum;
+    }
+
+    double mean() {
+        return sum / count;
+    }
+
+    /**
+     * Computes the sample variance, which is <code>0</code> for fewer than 2 samples.
+     */
+    double variance() {
+        if (count < 2) {
+            return 0;
+        }
+        // Rounding may make the variance of equal samples slightly negative
+        return Math.max(0, (sumOfSquares - sum * sum / count) / (count - 1));
+    }
+}
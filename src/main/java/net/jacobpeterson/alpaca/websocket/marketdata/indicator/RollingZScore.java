@@ -0,0 +1,40 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.indicator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link RollingZScore} is the number of standard deviations that the latest price is from the mean of the last
+ * <code>windowSize</code> prices, or <code>0</code> if those prices are all equal.
+ */
+public class RollingZScore implements Indicator {
+
+    private final RollingWindow prices;
+    private double lastPrice;
+
+    /**
+     * Instantiates a new {@link RollingZScore}.
+     *
+     * @param windowSize the number of prices in the window, which must be at least 2
+     */
+    public RollingZScore(int windowSize) {
+        checkArgument(windowSize > 1, "'windowSize' must be at least 2!");
+
+        prices = new RollingWindow(windowSize);
+    }
+
+    @Override
+    public void update(double price, double volume) {
+        prices.add(price);
+        lastPrice = price;
+    }
+
+    @Override
+    public double getValue() {
+        if (!prices.isFull()) {
+            return Double.NaN;
+        }
+
+        double standardDeviation = Math.sqrt(prices.variance());
+        return standardDeviation == 0 ? 0 : (lastPrice - prices.mean()) / standardDeviation;
+    }
+}
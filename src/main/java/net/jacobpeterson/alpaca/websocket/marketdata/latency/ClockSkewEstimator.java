@@ -0,0 +1,106 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.latency;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link ClockSkewEstimator} estimates the skew of the local clock relative to the exchange clocks from observed feed
+ * latencies, which are the local receive time minus the exchange timestamp of a message.
+ * <br>
+ * An observed feed latency is the true latency, which is never negative, plus the skew. So the lowest observed feed
+ * latency is an upper bound of the skew. The estimate is the lowest observed feed latency in the current and previous
+ * window, so it follows clock changes within two windows without keeping any history. A negative estimate means that
+ * the local clock is behind by at least that much, in which case {@link #getCorrectionNanos()} removes it from feed
+ * latencies, bounded by the maximum skew so that a bad timestamp can't distort every latency.
+ * <br>
+ * {@link #update(long, long)} must only be called from one thread at a time.
+ */
+public class ClockSkewEstimator {
+
+    /** The default window length, which is one minute. */
+    public static final long DEFAULT_WINDOW_NANOS = 60_000_000_000L;
+
+    /** The default maximum skew, which is one second. */
+    public static final long DEFAULT_MAX_SKEW_NANOS = 1_000_000_000L;
+
+    private final long windowNanos;
+    private final long maxSkewNanos;
+
+    private long windowStartEpochNanos;
+    private long windowMinLatencyNanos;
+    private volatile long previousWindowMinLatencyNanos;
+    private volatile long estimateNanos;
+
+    /**
+     * Instantiates a new {@link ClockSkewEstimator} with {@link #DEFAULT_WINDOW_NANOS} and {@link
+     * #DEFAULT_MAX_SKEW_NANOS}.
+     */
+    public ClockSkewEstimator() {
+        this(DEFAULT_WINDOW_NANOS, DEFAULT_MAX_SKEW_NANOS);
+    }
+
+    /**
+     * Instantiates a new {@link ClockSkewEstimator}.
+     *
+     * @param windowNanos  the window length in nanoseconds
+     * @param maxSkewNanos the maximum magnitude of {@link #getCorrectionNanos()} in nanoseconds
+     */
+    public ClockSkewEstimator(long windowNanos, long maxSkewNanos) {
+        checkArgument(windowNanos > 0, "'windowNanos' must be positive!");
+        checkArgument(maxSkewNanos >= 0, "'maxSkewNanos' must not be negative!");
+
+        this.windowNanos = windowNanos;
+        this.maxSkewNanos = maxSkewNanos;
+
+        reset();
+    }
+
+    /**
+     * Updates this estimate with an observed feed latency.
+     *
+     * @param observedLatencyNanos the observed feed latency in nanoseconds
+     * @param receiveEpochNanos    the epoch nanoseconds the message was received at
+     */
+    public void update(long observedLatencyNanos, long receiveEpochNanos) {
+        if (receiveEpochNanos - windowStartEpochNanos >= windowNanos) {
+            previousWindowMinLatencyNanos = windowMinLatencyNanos;
+            windowStartEpochNanos = receiveEpochNanos;
+            windowMinLatencyNanos = Long.MAX_VALUE;
+        }
+
+        if (observedLatencyNanos < windowMinLatencyNanos) {
+            windowMinLatencyNanos = observedLatencyNanos;
+        }
+        estimateNanos = Math.min(windowMinLatencyNanos, previousWindowMinLatencyNanos);
+    }
+
+    /**
+     * Gets the estimated upper bound of the local clock minus the exchange clocks, which is the lowest observed feed
+     * latency of the current and previous window.
+     *
+     * @return the estimate in nanoseconds or {@link Long#MAX_VALUE} if nothing was observed yet
+     */
+    public long getEstimateNanos() {
+        return estimateNanos;
+    }
+
+    /**
+     * Gets the correction to subtract from observed feed latencies. This is the estimate if it is negative, bounded by
+     * the maximum skew, and <code>0</code> otherwise since a positive estimate can't be told apart from the true
+     * minimum latency.
+     *
+     * @return the correction in nanoseconds, which is in the range <code>[-maxSkewNanos, 0]</code>
+     */
+    public long getCorrectionNanos() {
+        return Math.max(-maxSkewNanos, Math.min(estimateNanos, 0));
+    }
+
+    /**
+     * Forgets all observed feed latencies.
+     */
+    public void reset() {
+        windowStartEpochNanos = Long.MIN_VALUE / 2;
+        windowMinLatencyNanos = Long.MAX_VALUE;
+        previousWindowMinLatencyNanos = Long.MAX_VALUE;
+        estimateNanos = Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,20 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.latency;
+
+/**
+ * {@link LatencyStage} defines the stages of the path of a market data message whose latencies are measured by {@link
+ * MarketDataLatencyMetrics}.
+ */
+public enum LatencyStage {
+
+    /**
+     * From the exchange timestamp (<code>"t"</code>) of a message to when the websocket frame containing it is
+     * received, corrected by the {@link ClockSkewEstimator}. Only trades, quotes, and bars have this stage.
+     */
+    FEED,
+
+    /** From when the websocket frame is received to when the message in it is decoded. */
+    DECODE,
+
+    /** From when a message is decoded to when all of its listeners have returned. */
+    DISPATCH
+}
@@ -0,0 +1,136 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.latency;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogram;
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogramSnapshot;
+import net.jacobpeterson.alpaca.util.time.EpochNanosClock;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link MarketDataLatencyMetrics} holds a {@link LatencyHistogram} per {@link LatencyStage} and {@link
+ * MarketDataMessageType} for a {@link net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket}, along with
+ * the {@link ClockSkewEstimator} that corrects its {@link LatencyStage#FEED} latencies.
+ */
+public class MarketDataLatencyMetrics {
+
+    private final EpochNanosClock clock;
+    private final ClockSkewEstimator clockSkewEstimator;
+    private final LatencyHistogram[][] latencyHistograms;
+
+    /**
+     * Instantiates a new {@link MarketDataLatencyMetrics} with {@link EpochNanosClock#SYSTEM}.
+     */
+    public MarketDataLatencyMetrics() {
+        this(EpochNanosClock.SYSTEM, new ClockSkewEstimator());
+    }
+
+    /**
+     * Instantiates a new {@link MarketDataLatencyMetrics}.
+     *
+     * @param clock              the {@link EpochNanosClock} that receive, decode, and dispatch times are read from
+     * @param clockSkewEstimator the {@link ClockSkewEstimator}
+     */
+    public MarketDataLatencyMetrics(EpochNanosClock clock, ClockSkewEstimator clockSkewEstimator) {
+        this.clock = checkNotNull(clock);
+        this.clockSkewEstimator = checkNotNull(clockSkewEstimator);
+
+        latencyHistograms = new LatencyHistogram[LatencyStage.values().length][MarketDataMessageType.values().length];
+        for (LatencyHistogram[] stageLatencyHistograms : latencyHistograms) {
+            for (int index = 0; index < stageLatencyHistograms.length; index++) {
+                stageLatencyHistograms[index] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /**
+     * Gets the current time of the {@link EpochNanosClock}.
+     *
+     * @return the epoch nanoseconds
+     */
+    public long now() {
+        return clock.epochNanos();
+    }
+
+    /**
+     * Records the {@link LatencyStage#FEED} latency of a message and updates the {@link ClockSkewEstimator} with it.
+     * This may be called from several reader threads, such as those of the shards of a {@link
+     * net.jacobpeterson.alpaca.websocket.marketdata.ShardedMarketDataWebsocket}, which share one estimate since the
+     * local clock is the same for every connection.
+     *
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param exchangeEpochNanos    the exchange timestamp of the message
+     * @param receiveEpochNanos     the time the message was received
+     */
+    public void recordFeed(MarketDataMessageType marketDataMessageType, long exchangeEpochNanos,
+            long receiveEpochNanos) {
+        if (exchangeEpochNanos == EpochNanosUtil.NO_EPOCH_NANOS) {
+            return;
+        }
+
+        long observedLatencyNanos = receiveEpochNanos - exchangeEpochNanos;
+        long correctionNanos;
+        synchronized (clockSkewEstimator) {
+            clockSkewEstimator.update(observedLatencyNanos, receiveEpochNanos);
+            correctionNanos = clockSkewEstimator.getCorrectionNanos();
+        }
+        record(LatencyStage.FEED, marketDataMessageType, observedLatencyNanos - correctionNanos);
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param latencyStage          the {@link LatencyStage}
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     * @param latencyNanos          the latency in nanoseconds
+     */
+    public void record(LatencyStage latencyStage, MarketDataMessageType marketDataMessageType, long latencyNanos) {
+        latencyHistograms[latencyStage.ordinal()][marketDataMessageType.ordinal()].record(latencyNanos);
+    }
+
+    /**
+     * Creates a {@link LatencyHistogramSnapshot} of the latencies of the given {@link LatencyStage} and {@link
+     * MarketDataMessageType}.
+     *
+     * @param latencyStage          the {@link LatencyStage}
+     * @param marketDataMessageType the {@link MarketDataMessageType}
+     *
+     * @return a {@link LatencyHistogramSnapshot}
+     */
+    public LatencyHistogramSnapshot snapshot(LatencyStage latencyStage, MarketDataMessageType marketDataMessageType) {
+        return latencyHistograms[latencyStage.ordinal()][marketDataMessageType.ordinal()].snapshot();
+    }
+
+    /**
+     * Clears all recorded latencies and the {@link ClockSkewEstimator}.
+     */
+    public void reset() {
+        for (LatencyHistogram[] stageLatencyHistograms : latencyHistograms) {
+            for (LatencyHistogram latencyHistogram : stageLatencyHistograms) {
+                latencyHistogram.reset();
+            }
+        }
+        synchronized (clockSkewEstimator) {
+            clockSkewEstimator.reset();
+        }
+    }
+
+    /**
+     * Gets {@link #clock}.
+     *
+     * @return the {@link EpochNanosClock}
+     */
+    public EpochNanosClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Gets {@link #clockSkewEstimator}.
+     *
+     * @return the {@link ClockSkewEstimator}
+     */
+    public ClockSkewEstimator getClockSkewEstimator() {
+        return clockSkewEstimator;
+    }
+}
@@ -0,0 +1,119 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.liveness;
+
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+
+/**
+ * {@link ActivityBaseline} learns the expected message rate of a source from samples of its ever-increasing message
+ * count and tracks how long it has been silent. Samples are taken periodically, so a busy source costs nothing more
+ * than a counter increment per message. It's only used by the thread of its {@link LivenessMonitor}.
+ */
+class ActivityBaseline {
+
+    private long lastCount;
+    private long lastActiveEpochNanos;
+    private int generation;
+    private double ratePerNano;
+    private long learnedCount;
+    private boolean stale;
+
+    /**
+     * Instantiates a new {@link ActivityBaseline}.
+     */
+    ActivityBaseline() {
+        lastActiveEpochNanos = EpochNanosUtil.NO_EPOCH_NANOS;
+        generation = -1;
+    }
+
+    /**
+     * Samples the message count of the source.
+     * <br>
+     * A change of <code>generation</code> marks a discontinuity, such as a reconnection or the market opening, so the
+     * time since the previous sample isn't a silence of the source: the silence restarts and nothing is learned from
+     * the sample, but what was learned before is kept.
+     *
+     * @param count         the message count
+     * @param epochNanos    the epoch nanoseconds of the sample
+     * @param generation    the generation of the sample
+     * @param learn         true to learn the message rate from the sample
+     * @param windowNanos   the time constant of the message rate average in nanoseconds
+     *
+     * @return true if the count increased since the previous sample of the same generation
+     */
+    boolean sample(long count, long epochNanos, int generation, boolean learn, long windowNanos) {
+        long delta = count - lastCount;
+        lastCount = count;
+
+        if (generation != this.generation) {
+            this.generation = generation;
+            lastActiveEpochNanos = epochNanos;
+            return false;
+        }
+
+        if (delta <= 0) {
+            return false;
+        }
+
+        long intervalNanos = epochNanos - lastActiveEpochNanos;
+        if (learn && intervalNanos > 0) {
+            double sampleRatePerNano = (double) delta / intervalNanos;
+            if (learnedCount == 0) {
+                ratePerNano = sampleRatePerNano;
+            } else {
+                // Longer intervals weigh more, so the average is over time and not over samples
+                double weight = 1 - Math.exp(-(double) intervalNanos / windowNanos);
+                ratePerNano += weight * (sampleRatePerNano - ratePerNano);
+            }
+            learnedCount += delta;
+        }
+        lastActiveEpochNanos = epochNanos;
+        return true;
+    }
+
+    /**
+     * Gets the nanoseconds since the source was last active.
+     *
+     * @param epochNanos the current epoch nanoseconds
+     *
+     * @return the silent nanoseconds
+     */
+    long getSilentNanos(long epochNanos) {
+        return lastActiveEpochNanos == EpochNanosUtil.NO_EPOCH_NANOS ? 0 : epochNanos - lastActiveEpochNanos;
+    }
+
+    /**
+     * Gets the expected nanoseconds between messages.
+     *
+     * @return the expected interval nanoseconds or {@link Long#MAX_VALUE} if nothing was learned
+     */
+    long getExpectedIntervalNanos() {
+        return ratePerNano > 0 ? (long) Math.min(Long.MAX_VALUE, 1 / ratePerNano) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns true if the silence of the source is anomalous according to <code>livenessPolicy</code>.
+     *
+     * @param epochNanos       the current epoch nanoseconds
+     * @param livenessPolicy   the {@link LivenessPolicy}
+     * @param minSilenceMillis the minimum anomalous silence in milliseconds
+     *
+     * @return a boolean
+     */
+    boolean isSilenceAnomalous(long epochNanos, LivenessPolicy livenessPolicy, long minSilenceMillis) {
+        if (learnedCount < livenessPolicy.getMinLearnedMessages()) {
+            return false;
+        }
+
+        long silentNanos = getSilentNanos(epochNanos);
+        double thresholdNanos = Math.max(minSilenceMillis * 1_000_000d,
+                livenessPolicy.getSilenceFactor() * getExpectedIntervalNanos());
+        return silentNanos > thresholdNanos;
+    }
+
+    boolean isStale() {
+        return stale;
+    }
+
+    void setStale(boolean stale) {
+        this.stale = stale;
+    }
+}
@@ -0,0 +1,35 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.liveness;
+
+/**
+ * {@link LivenessListener} is an interface to listen for the anomalies detected by a {@link LivenessMonitor}. It's
+ * called from the thread of the {@link LivenessMonitor}, never from the websocket thread.
+ */
+public interface LivenessListener {
+
+    /**
+     * Called when a subscribed symbol has been silent for much longer than its expected message interval during
+     * market hours, such as when its subscription was silently dropped.
+     *
+     * @param symbol                the symbol
+     * @param silentNanos           the nanoseconds since its last message
+     * @param expectedIntervalNanos the expected nanoseconds between its messages
+     */
+    void onSymbolStale(String symbol, long silentNanos, long expectedIntervalNanos);
+
+    /**
+     * Called when a symbol that was reported to {@link #onSymbolStale(String, long, long)} receives messages again.
+     *
+     * @param symbol      the symbol
+     * @param silentNanos the nanoseconds it was silent for
+     */
+    void onSymbolRecovered(String symbol, long silentNanos);
+
+    /**
+     * Called when the whole connection has been silent for much longer than its expected message interval during
+     * market hours, such as when its TCP connection is half-dead.
+     *
+     * @param silentNanos          the nanoseconds since its last frame
+     * @param reconnectingForcibly true if the {@link LivenessMonitor} is forcing the websocket to reconnect
+     */
+    void onConnectionStale(long silentNanos, boolean reconnectingForcibly);
+}
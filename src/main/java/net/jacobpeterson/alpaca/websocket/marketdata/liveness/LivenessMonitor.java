@@ -0,0 +1,372 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.liveness;
+
+import net.jacobpeterson.alpaca.model.endpoint.clock.Clock;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.TimestampedSymbolMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.rest.AlpacaClientException;
+import net.jacobpeterson.alpaca.rest.endpoint.ClockEndpoint;
+import net.jacobpeterson.alpaca.util.concurrent.ListenerRegistry;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.util.time.EpochNanosClock;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionState;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionStateListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.BarListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.QuoteListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.TradeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * {@link LivenessMonitor} detects when a {@link MarketDataWebsocket} or one of its subscribed symbols stops receiving
+ * messages, which a half-dead TCP connection or a silently dropped subscription causes without any error. A quiet
+ * market looks the same, so the expected message rate of every subscribed symbol and of the whole connection is
+ * learned while the market is open, and only a silence that is anomalous according to the {@link LivenessPolicy} is
+ * reported to the {@link LivenessListener}s. Whether the market is open is learned from the {@link ClockEndpoint}, and
+ * nothing is reported or learned while it's closed.
+ * <br>
+ * Messages are only counted as they're dispatched, so the websocket thread never does more than increment a counter,
+ * and the counts are sampled every check interval on the given {@link ScheduledExecutorService}, which also requests
+ * the {@link Clock}, so it shouldn't be one that runs latency-sensitive tasks. When the whole connection is silent, a
+ * {@link LivenessMonitor} also forces the websocket to reconnect with {@link MarketDataWebsocket#forceReconnect()},
+ * unless disabled with {@link #setForceReconnect(boolean)}. Symbols of wildcard subscriptions aren't monitored.
+ */
+public class LivenessMonitor implements TradeListener, QuoteListener, BarListener, ConnectionStateListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LivenessMonitor.class);
+
+    /** The default check interval in milliseconds. */
+    public static final long DEFAULT_CHECK_INTERVAL_MILLIS = 1000;
+
+    private static final String WILDCARD = "*";
+    private static final long CLOCK_REFRESH_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final long CLOCK_RETRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final MarketDataWebsocket marketDataWebsocket;
+    private final ClockEndpoint clockEndpoint;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long checkIntervalMillis;
+    private final LivenessPolicy livenessPolicy;
+    private final EpochNanosClock clock;
+    private final ListenerRegistry<LivenessListener> livenessListeners;
+    private final SymbolCounters symbolCounts;
+    // Only used while synchronized on this instance
+    private final Map<String, ActivityBaseline> symbolBaselines;
+    private final ActivityBaseline connectionBaseline;
+
+    private volatile boolean forceReconnect;
+    private volatile int connectionGeneration;
+    private volatile Boolean marketOpen;
+    private ScheduledFuture<?> checkFuture;
+    private int marketGeneration;
+    private long nextClockRefreshEpochNanos;
+
+    /**
+     * Instantiates a new {@link LivenessMonitor} with {@link #DEFAULT_CHECK_INTERVAL_MILLIS}, {@link
+     * LivenessPolicy#DEFAULT}, and {@link EpochNanosClock#SYSTEM}.
+     *
+     * @param marketDataWebsocket      the {@link MarketDataWebsocket}
+     * @param clockEndpoint            the {@link ClockEndpoint} to learn whether the market is open from
+     * @param scheduledExecutorService the {@link ScheduledExecutorService} to check on
+     */
+    public LivenessMonitor(MarketDataWebsocket marketDataWebsocket, ClockEndpoint clockEndpoint,
+            ScheduledExecutorService scheduledExecutorService) {
+        this(marketDataWebsocket, clockEndpoint, scheduledExecutorService, DEFAULT_CHECK_INTERVAL_MILLIS,
+                LivenessPolicy.DEFAULT, EpochNanosClock.SYSTEM);
+    }
+
+    /**
+     * Instantiates a new {@link LivenessMonitor} and adds it as a {@link TradeListener}, {@link QuoteListener}, {@link
+     * BarListener}, and {@link ConnectionStateListener} of <code>marketDataWebsocket</code>. {@link #start()} must be
+     * called to begin checking.
+     *
+     * @param marketDataWebsocket      the {@link MarketDataWebsocket}
+     * @param clockEndpoint            the {@link ClockEndpoint} to learn whether the market is open from
+     * @param scheduledExecutorService the {@link ScheduledExecutorService} to check on
+     * @param checkIntervalMillis      the check interval in milliseconds
+     * @param livenessPolicy           the {@link LivenessPolicy}
+     * @param clock                    the {@link EpochNanosClock}
+     */
+    public LivenessMonitor(MarketDataWebsocket marketDataWebsocket, ClockEndpoint clockEndpoint,
+            ScheduledExecutorService scheduledExecutorService, long checkIntervalMillis, LivenessPolicy livenessPolicy,
+            EpochNanosClock clock) {
+        checkArgument(checkIntervalMillis > 0, "'checkIntervalMillis' must be positive!");
+
+        this.marketDataWebsocket = checkNotNull(marketDataWebsocket);
+        this.clockEndpoint = checkNotNull(clockEndpoint);
+        this.scheduledExecutorService = checkNotNull(scheduledExecutorService);
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.livenessPolicy = checkNotNull(livenessPolicy);
+        this.clock = checkNotNull(clock);
+
+        livenessListeners = new ListenerRegistry<>(LivenessListener[]::new);
+        symbolCounts = new SymbolCounters();
+        symbolBaselines = new HashMap<>();
+        connectionBaseline = new ActivityBaseline();
+        forceReconnect = true;
+
+        marketDataWebsocket.addTradeListener(this);
+        marketDataWebsocket.addQuoteListener(this);
+        marketDataWebsocket.addBarListener(this);
+        marketDataWebsocket.addConnectionStateListener(this);
+    }
+
+    /**
+     * Starts checking every check interval.
+     */
+    public synchronized void start() {
+        checkState(checkFuture == null, "Already started!");
+        checkFuture = scheduledExecutorService.scheduleAtFixedRate(this::checkSafely, checkIntervalMillis,
+                checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops checking.
+     */
+    public synchronized void stop() {
+        if (checkFuture != null) {
+            checkFuture.cancel(false);
+            checkFuture = null;
+        }
+    }
+
+    @Override
+    public void onTrade(TradeMessage tradeMessage) {
+        count(tradeMessage);
+    }
+
+    @Override
+    public void onQuote(QuoteMessage quoteMessage) {
+        count(quoteMessage);
+    }
+
+    @Override
+    public void onBar(BarMessage barMessage) {
+        count(barMessage);
+    }
+
+    private void count(TimestampedSymbolMessage message) {
+        // Replayed messages say nothing about whether the subscription is alive
+        if (!message.isReplayed()) {
+            symbolCounts.increment(message.getSymbolID());
+        }
+    }
+
+    @Override
+    public void onConnectionStateChange(ConnectionState previousState, ConnectionState state) {
+        if (state == ConnectionState.LIVE) {
+            // The silence while reconnecting is expected, so every silence restarts at the next check
+            connectionGeneration++;
+        }
+    }
+
+    private void checkSafely() {
+        try {
+            check();
+        } catch (RuntimeException exception) {
+            // An exception would stop the periodic checks
+            LOGGER.error("Liveness check failed!", exception);
+        }
+    }
+
+    /**
+     * Samples the message counts, learns the expected message rates, and calls the {@link LivenessListener}s for any
+     * anomalous silence. This is called every check interval after {@link #start()}.
+     */
+    public synchronized void check() {
+        long epochNanos = clock.epochNanos();
+        refreshMarketOpen(epochNanos);
+
+        boolean live = marketDataWebsocket.getConnectionState() == ConnectionState.LIVE;
+        boolean monitoring = live && marketOpen == Boolean.TRUE;
+        // Both only increase, so their sum changes whenever either does
+        int generation = connectionGeneration + marketGeneration;
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(livenessPolicy.getBaselineWindowMillis());
+
+        checkConnection(epochNanos, generation, monitoring, windowNanos);
+        checkSymbols(epochNanos, generation, monitoring, windowNanos);
+    }
+
+    private void checkConnection(long epochNanos, int generation, boolean monitoring, long windowNanos) {
+        boolean active = connectionBaseline.sample(marketDataWebsocket.getReceivedFrameCount(), epochNanos, generation,
+                monitoring, windowNanos);
+        if (active || !monitoring) {
+            connectionBaseline.setStale(false);
+            return;
+        }
+
+        if (!connectionBaseline.isStale() && connectionBaseline.isSilenceAnomalous(epochNanos, livenessPolicy,
+                livenessPolicy.getMinConnectionSilenceMillis())) {
+            connectionBaseline.setStale(true);
+            long silentNanos = connectionBaseline.getSilentNanos(epochNanos);
+            boolean reconnectingForcibly = forceReconnect;
+            LOGGER.warn("Market data connection has been silent for {} milliseconds!",
+                    TimeUnit.NANOSECONDS.toMillis(silentNanos));
+
+            for (LivenessListener livenessListener : livenessListeners.snapshot()) {
+                livenessListener.onConnectionStale(silentNanos, reconnectingForcibly);
+            }
+            if (reconnectingForcibly) {
+                marketDataWebsocket.forceReconnect();
+            }
+        }
+    }
+
+    private void checkSymbols(long epochNanos, int generation, boolean monitoring, long windowNanos) {
+        Set<String> subscribedSymbols = new HashSet<>(marketDataWebsocket.subscribedTrades());
+        subscribedSymbols.addAll(marketDataWebsocket.subscribedQuotes());
+        subscribedSymbols.addAll(marketDataWebsocket.subscribedBars());
+        subscribedSymbols.remove(WILDCARD);
+
+        // What was learned of an unsubscribed symbol may not apply when it's subscribed again
+        symbolBaselines.keySet().retainAll(subscribedSymbols);
+
+        for (String symbol : subscribedSymbols) {
+            ActivityBaseline baseline = symbolBaselines.computeIfAbsent(symbol, key -> new ActivityBaseline());
+            long silentNanos = baseline.getSilentNanos(epochNanos);
+            long count = symbolCounts.get(SymbolTable.GLOBAL.intern(symbol));
+            boolean active = baseline.sample(count, epochNanos, generation, monitoring, windowNanos);
+
+            if (baseline.isStale()) {
+                if (active) {
+                    baseline.setStale(false);
+                    LOGGER.info("{} recovered after {} milliseconds of silence.", symbol,
+                            TimeUnit.NANOSECONDS.toMillis(silentNanos));
+                    for (LivenessListener livenessListener : livenessListeners.snapshot()) {
+                        livenessListener.onSymbolRecovered(symbol, silentNanos);
+                    }
+                }
+            } else if (monitoring && !active && baseline.isSilenceAnomalous(epochNanos, livenessPolicy,
+                    livenessPolicy.getMinSymbolSilenceMillis())) {
+                baseline.setStale(true);
+                silentNanos = baseline.getSilentNanos(epochNanos);
+                long expectedIntervalNanos = baseline.getExpectedIntervalNanos();
+                LOGGER.warn("{} has been silent for {} milliseconds, but is expected every {} milliseconds!", symbol,
+                        TimeUnit.NANOSECONDS.toMillis(silentNanos),
+                        TimeUnit.NANOSECONDS.toMillis(expectedIntervalNanos));
+                for (LivenessListener livenessListener : livenessListeners.snapshot()) {
+                    livenessListener.onSymbolStale(symbol, silentNanos, expectedIntervalNanos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Requests the {@link Clock} when the market is due to open or close, or when the last {@link Clock} is an hour
+     * old, so that halts and holidays are noticed too.
+     *
+     * @param epochNanos the current epoch nanoseconds
+     */
+    private void refreshMarketOpen(long epochNanos) {
+        if (epochNanos < nextClockRefreshEpochNanos) {
+            return;
+        }
+
+        try {
+            Clock marketClock = clockEndpoint.get();
+            boolean open = Boolean.TRUE.equals(marketClock.getIsOpen());
+            ZonedDateTime nextTransition = open ? marketClock.getNextClose() : marketClock.getNextOpen();
+
+            nextClockRefreshEpochNanos = epochNanos + CLOCK_REFRESH_NANOS;
+            if (nextTransition != null) {
+                nextClockRefreshEpochNanos = Math.min(nextClockRefreshEpochNanos,
+                        Math.max(epochNanos, EpochNanosUtil.fromZonedDateTime(nextTransition)));
+            }
+
+            if (marketOpen == null || marketOpen != open) {
+                LOGGER.info("Market is {}.", open ? "open" : "closed");
+                marketGeneration++;
+            }
+            marketOpen = open;
+        } catch (AlpacaClientException exception) {
+            LOGGER.warn("Could not request the market clock! Retrying in {} seconds.",
+                    TimeUnit.NANOSECONDS.toSeconds(CLOCK_RETRY_NANOS), exception);
+            nextClockRefreshEpochNanos = epochNanos + CLOCK_RETRY_NANOS;
+        }
+    }
+
+    /**
+     * Gets whether the market was open at the last check.
+     *
+     * @return a {@link Boolean} or <code>null</code> if unknown
+     */
+    public Boolean isMarketOpen() {
+        return marketOpen;
+    }
+
+    /**
+     * Gets the symbols that are currently reported as stale.
+     *
+     * @return a {@link Set} of symbols
+     */
+    public synchronized Set<String> getStaleSymbols() {
+        Set<String> staleSymbols = new HashSet<>();
+        for (Map.Entry<String, ActivityBaseline> entry : symbolBaselines.entrySet()) {
+            if (entry.getValue().isStale()) {
+                staleSymbols.add(entry.getKey());
+            }
+        }
+        return staleSymbols;
+    }
+
+    /**
+     * Returns true if the whole connection is currently reported as stale.
+     *
+     * @return a boolean
+     */
+    public synchronized boolean isConnectionStale() {
+        return connectionBaseline.isStale();
+    }
+
+    /**
+     * Adds a {@link LivenessListener}.
+     *
+     * @param livenessListener the {@link LivenessListener}
+     */
+    public void addLivenessListener(LivenessListener livenessListener) {
+        livenessListeners.add(checkNotNull(livenessListener));
+    }
+
+    /**
+     * Removes a {@link LivenessListener}.
+     *
+     * @param livenessListener the {@link LivenessListener}
+     */
+    public void removeLivenessListener(LivenessListener livenessListener) {
+        livenessListeners.remove(livenessListener);
+    }
+
+    /**
+     * Gets {@link #forceReconnect}.
+     *
+     * @return a boolean
+     */
+    public boolean doesForceReconnect() {
+        return forceReconnect;
+    }
+
+    /**
+     * Sets {@link #forceReconnect}, which is true by default.
+     *
+     * @param forceReconnect true to force the websocket to reconnect when the whole connection is silent
+     */
+    public void setForceReconnect(boolean forceReconnect) {
+        this.forceReconnect = forceReconnect;
+    }
+}
@@ -0,0 +1,95 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.liveness;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link LivenessPolicy} defines how long a symbol or a connection may be silent before a {@link LivenessMonitor}
+ * reports it. The expected message rate of each symbol and of the whole connection is learned as an exponentially
+ * weighted moving average over the baseline window, and a silence is anomalous once it exceeds
+ * <code>silenceFactor</code> expected message intervals and the minimum silence. For messages that arrive
+ * independently at the expected rate, a silence of <code>silenceFactor</code> intervals has a probability of
+ * <code>e ^ -silenceFactor</code>.
+ */
+public class LivenessPolicy {
+
+    /**
+     * The default {@link LivenessPolicy}: 10 expected intervals, at least 30 seconds for a symbol and 10 seconds for
+     * the connection, a 15 minute baseline window, and at least 30 messages learned before judging a silence.
+     */
+    public static final LivenessPolicy DEFAULT = new LivenessPolicy(10, 30_000, 10_000, 900_000, 30);
+
+    private final double silenceFactor;
+    private final long minSymbolSilenceMillis;
+    private final long minConnectionSilenceMillis;
+    private final long baselineWindowMillis;
+    private final int minLearnedMessages;
+
+    /**
+     * Instantiates a new {@link LivenessPolicy}.
+     *
+     * @param silenceFactor              the number of expected message intervals of silence that are anomalous
+     * @param minSymbolSilenceMillis     the minimum anomalous silence of a symbol in milliseconds
+     * @param minConnectionSilenceMillis the minimum anomalous silence of the connection in milliseconds
+     * @param baselineWindowMillis       the time constant of the expected message rate average in milliseconds
+     * @param minLearnedMessages         the number of messages that must be learned before a silence is judged
+     */
+    public LivenessPolicy(double silenceFactor, long minSymbolSilenceMillis, long minConnectionSilenceMillis,
+            long baselineWindowMillis, int minLearnedMessages) {
+        checkArgument(silenceFactor >= 1, "'silenceFactor' must be at least 1!");
+        checkArgument(minSymbolSilenceMillis >= 0, "'minSymbolSilenceMillis' must not be negative!");
+        checkArgument(minConnectionSilenceMillis >= 0, "'minConnectionSilenceMillis' must not be negative!");
+        checkArgument(baselineWindowMillis > 0, "'baselineWindowMillis' must be positive!");
+        checkArgument(minLearnedMessages > 0, "'minLearnedMessages' must be positive!");
+
+        this.silenceFactor = silenceFactor;
+        this.minSymbolSilenceMillis = minSymbolSilenceMillis;
+        this.minConnectionSilenceMillis = minConnectionSilenceMillis;
+        this.baselineWindowMillis = baselineWindowMillis;
+        this.minLearnedMessages = minLearnedMessages;
+    }
+
+    /**
+     * Gets {@link #silenceFactor}.
+     *
+     * @return the silence factor
+     */
+    public double getSilenceFactor() {
+        return silenceFactor;
+    }
+
+    /**
+     * Gets {@link #minSymbolSilenceMillis}.
+     *
+     * @return the minimum anomalous silence of a symbol in milliseconds
+     */
+    public long getMinSymbolSilenceMillis() {
+        return minSymbolSilenceMillis;
+    }
+
+    /**
+     * Gets {@link #minConnectionSilenceMillis}.
+     *
+     * @return the minimum anomalous silence of the connection in milliseconds
+     */
+    public long getMinConnectionSilenceMillis() {
+        return minConnectionSilenceMillis;
+    }
+
+    /**
+     * Gets {@link #baselineWindowMillis}.
+     *
+     * @return the baseline window in milliseconds
+     */
+    public long getBaselineWindowMillis() {
+        return baselineWindowMillis;
+    }
+
+    /**
+     * Gets {@link #minLearnedMessages}.
+     *
+     * @return the minimum number of learned messages
+     */
+    public int getMinLearnedMessages() {
+        return minLearnedMessages;
+    }
+}
@@ -0,0 +1,45 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.liveness;
+
+import net.jacobpeterson.alpaca.util.symbol.SymbolPages;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link SymbolCounters} holds a message count for every {@link SymbolTable#GLOBAL} symbol ID. It may be incremented
+ * and read from any thread.
+ */
+class SymbolCounters {
+
+    private final SymbolPages<AtomicLongArray> pages;
+
+    /**
+     * Instantiates a new {@link SymbolCounters}.
+     */
+    SymbolCounters() {
+        pages = new SymbolPages<>(() -> new AtomicLongArray(SymbolPages.PAGE_SIZE), AtomicLongArray[]::new);
+    }
+
+    /**
+     * Increments the count of a symbol.
+     *
+     * @param symbolID the {@link SymbolTable#GLOBAL} symbol ID
+     */
+    void increment(int symbolID) {
+        if (symbolID >= 0) {
+            pages.page(symbolID).getAndIncrement(SymbolPages.slotOf(symbolID));
+        }
+    }
+
+    /**
+     * Gets the count of a symbol.
+     *
+     * @param symbolID the {@link SymbolTable#GLOBAL} symbol ID
+     *
+     * @return the count
+     */
+    long get(int symbolID) {
+        AtomicLongArray page = pages.find(symbolID);
+        return page == null ? 0 : page.get(SymbolPages.slotOf(symbolID));
+    }
+}
@@ -0,0 +1,30 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.subscription;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+
+/**
+ * {@link SubscriptionException} is thrown when a subscription update is rejected with an {@link ErrorMessage}.
+ */
+public class SubscriptionException extends Exception {
+
+    private final ErrorMessage errorMessage;
+
+    /**
+     * Instantiates a new {@link SubscriptionException}.
+     *
+     * @param errorMessage the {@link ErrorMessage}
+     */
+    public SubscriptionException(ErrorMessage errorMessage) {
+        super("Subscription update rejected with code " + errorMessage.getCode() + ": " + errorMessage.getMessage());
+        this.errorMessage = errorMessage;
+    }
+
+    /**
+     * Gets {@link #errorMessage}.
+     *
+     * @return the {@link ErrorMessage}
+     */
+    public ErrorMessage getErrorMessage() {
+        return errorMessage;
+    }
+}
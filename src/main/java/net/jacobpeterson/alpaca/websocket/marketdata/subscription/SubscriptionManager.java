@@ -0,0 +1,396 @@
+package net.jacobpeterson.alpaca.websocket.marketdata.subscription;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataControlListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocketInterface;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link SubscriptionManager} maintains the desired trade, quote, and bar subscriptions of a {@link
+ * MarketDataWebsocketInterface} and only sends what differs from the subscriptions it last sent, or from {@link
+ * MarketDataWebsocketInterface#subscribedTrades()}, {@link MarketDataWebsocketInterface#subscribedQuotes()}, and {@link
+ * MarketDataWebsocketInterface#subscribedBars()} if nothing is awaiting acknowledgement. Changes requested within the
+ * coalescing window are sent together, in subscription update frames of at most <code>maxSymbolsPerFrame</code>
+ * symbols, so rebalancing thousands of symbols doesn't flood the websocket or exceed its frame size limit.
+ * <br>
+ * Every change returns a {@link CompletableFuture} that completes when a {@link SubscriptionsMessage} confirms that
+ * the subscriptions of the websocket match the desired subscriptions as of that change, or that completes
+ * exceptionally when the websocket rejects a subscription update with an {@link ErrorMessage}. A {@link
+ * SubscriptionManager} is added as a {@link MarketDataControlListener} of its websocket, which removes all of its
+ * listeners when it's disconnected intentionally, so a new {@link SubscriptionManager} is needed after that.
+ */
+public class SubscriptionManager implements MarketDataControlListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionManager.class);
+
+    /** The default coalescing window in milliseconds. */
+    public static final long DEFAULT_COALESCING_WINDOW_MILLIS = 50;
+
+    /** The default maximum number of symbols in one subscription update frame. */
+    public static final int DEFAULT_MAX_SYMBOLS_PER_FRAME = 1000;
+
+    /**
+     * The {@link ErrorMessage#getCode()}s that are sent in response to a subscription update: invalid syntax, symbol
+     * limit exceeded, insufficient subscription, and invalid subscribe action.
+     */
+    private static final Set<Integer> SUBSCRIPTION_ERROR_CODES = new HashSet<>(Arrays.asList(400, 405, 409, 410));
+
+    private final MarketDataWebsocketInterface websocket;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final long coalescingWindowMillis;
+    private final int maxSymbolsPerFrame;
+    private final Set<String> desiredTrades;
+    private final Set<String> desiredQuotes;
+    private final Set<String> desiredBars;
+    private final ArrayDeque<PendingUpdate> pendingUpdates;
+    private final Object sendLock;
+
+    private CompletableFuture<Void> nextUpdateFuture;
+
+    /**
+     * Instantiates a new {@link SubscriptionManager} with {@link #DEFAULT_COALESCING_WINDOW_MILLIS} and {@link
+     * #DEFAULT_MAX_SYMBOLS_PER_FRAME}.
+     *
+     * @param websocket                the {@link MarketDataWebsocketInterface}
+     * @param scheduledExecutorService the {@link ScheduledExecutorService} to send coalesced changes with
+     */
+    public SubscriptionManager(MarketDataWebsocketInterface websocket,
+            ScheduledExecutorService scheduledExecutorService) {
+        this(websocket, scheduledExecutorService, DEFAULT_COALESCING_WINDOW_MILLIS, DEFAULT_MAX_SYMBOLS_PER_FRAME);
+    }
+
+    /**
+     * Instantiates a new {@link SubscriptionManager}. The desired subscriptions start out as the current
+     * subscriptions of <code>websocket</code>.
+     *
+     * @param websocket                the {@link MarketDataWebsocketInterface}
+     * @param scheduledExecutorService the {@link ScheduledExecutorService} to send coalesced changes with
+     * @param coalescingWindowMillis   the milliseconds to wait for more changes after the first change, or 0 to send
+     *                                 changes as soon as possible
+     * @param maxSymbolsPerFrame       the maximum number of symbols in one subscription update frame
+     */
+    public SubscriptionManager(MarketDataWebsocketInterface websocket,
+            ScheduledExecutorService scheduledExecutorService, long coalescingWindowMillis, int maxSymbolsPerFrame) {
+        checkNotNull(websocket);
+        checkNotNull(scheduledExecutorService);
+        checkArgument(coalescingWindowMillis >= 0, "'coalescingWindowMillis' must not be negative!");
+        checkArgument(maxSymbolsPerFrame > 0, "'maxSymbolsPerFrame' must be positive!");
+
+        this.websocket = websocket;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.coalescingWindowMillis = coalescingWindowMillis;
+        this.maxSymbolsPerFrame = maxSymbolsPerFrame;
+        desiredTrades = new HashSet<>(websocket.subscribedTrades());
+        desiredQuotes = new HashSet<>(websocket.subscribedQuotes());
+        desiredBars = new HashSet<>(websocket.subscribedBars());
+        pendingUpdates = new ArrayDeque<>();
+        sendLock = new Object();
+
+        websocket.addControlListener(this);
+    }
+
+    /**
+     * Adds symbols to the desired subscriptions.
+     *
+     * @param tradeSymbols a {@link Collection} of symbols to subscribe to trades or <code>null</code> for no change
+     * @param quoteSymbols a {@link Collection} of symbols to subscribe to quotes or <code>null</code> for no change
+     * @param barSymbols   a {@link Collection} of symbols to subscribe to bars or <code>null</code> for no change
+     *
+     * @return a {@link CompletableFuture} that completes when the change is confirmed
+     */
+    public synchronized CompletableFuture<Void> subscribe(Collection<String> tradeSymbols,
+            Collection<String> quoteSymbols, Collection<String> barSymbols) {
+        addAll(desiredTrades, tradeSymbols);
+        addAll(desiredQuotes, quoteSymbols);
+        addAll(desiredBars, barSymbols);
+        return scheduleUpdate();
+    }
+
+    /**
+     * Removes symbols from the desired subscriptions.
+     *
+     * @param tradeSymbols a {@link Collection} of symbols to unsubscribe from trades or <code>null</code> for no change
+     * @param quoteSymbols a {@link Collection} of symbols to unsubscribe from quotes or <code>null</code> for no change
+     * @param barSymbols   a {@link Collection} of symbols to unsubscribe from bars or <code>null</code> for no change
+     *
+     * @return a {@link CompletableFuture} that completes when the change is confirmed
+     */
+    public synchronized CompletableFuture<Void> unsubscribe(Collection<String> tradeSymbols,
+            Collection<String> quoteSymbols, Collection<String> barSymbols) {
+        removeAll(desiredTrades, tradeSymbols);
+        removeAll(desiredQuotes, quoteSymbols);
+        removeAll(desiredBars, barSymbols);
+        return scheduleUpdate();
+    }
+
+    /**
+     * Replaces the desired subscriptions, so that symbols that aren't in the given {@link Collection}s are
+     * unsubscribed from.
+     *
+     * @param tradeSymbols a {@link Collection} of all symbols to subscribe to trades or <code>null</code> for no change
+     * @param quoteSymbols a {@link Collection} of all symbols to subscribe to quotes or <code>null</code> for no change
+     * @param barSymbols   a {@link Collection} of all symbols to subscribe to bars or <code>null</code> for no change
+     *
+     * @return a {@link CompletableFuture} that completes when the change is confirmed
+     */
+    public synchronized CompletableFuture<Void> setSubscriptions(Collection<String> tradeSymbols,
+            Collection<String> quoteSymbols, Collection<String> barSymbols) {
+        replaceAll(desiredTrades, tradeSymbols);
+        replaceAll(desiredQuotes, quoteSymbols);
+        replaceAll(desiredBars, barSymbols);
+        return scheduleUpdate();
+    }
+
+    private static void addAll(Set<String> desiredSymbols, Collection<String> symbols) {
+        if (symbols != null) {
+            desiredSymbols.addAll(symbols);
+        }
+    }
+
+    private static void removeAll(Set<String> desiredSymbols, Collection<String> symbols) {
+        if (symbols != null) {
+            desiredSymbols.removeAll(symbols);
+        }
+    }
+
+    private static void replaceAll(Set<String> desiredSymbols, Collection<String> symbols) {
+        if (symbols != null) {
+            desiredSymbols.clear();
+            desiredSymbols.addAll(symbols);
+        }
+    }
+
+    /**
+     * Schedules {@link #sendUpdate()} if it isn't scheduled already.
+     *
+     * @return the {@link CompletableFuture} of the scheduled update
+     */
+    private CompletableFuture<Void> scheduleUpdate() {
+        if (nextUpdateFuture == null) {
+            nextUpdateFuture = new CompletableFuture<>();
+            scheduledExecutorService.schedule(this::sendUpdate, coalescingWindowMillis, TimeUnit.MILLISECONDS);
+        }
+        return nextUpdateFuture;
+    }
+
+    /**
+     * Sends the difference between the desired subscriptions and the subscriptions of the newest {@link
+     * PendingUpdate}, or of {@link #websocket} if no update is pending.
+     */
+    private void sendUpdate() {
+        // Updates are sent one at a time so that their frames aren't interleaved
+        synchronized (sendLock) {
+            PendingUpdate pendingUpdate;
+            List<String> subscribeTrades;
+            List<String> subscribeQuotes;
+            List<String> subscribeBars;
+            List<String> unsubscribeTrades;
+            List<String> unsubscribeQuotes;
+            List<String> unsubscribeBars;
+            synchronized (this) {
+                pendingUpdate = new PendingUpdate(nextUpdateFuture, new HashSet<>(desiredTrades),
+                        new HashSet<>(desiredQuotes), new HashSet<>(desiredBars));
+                nextUpdateFuture = null;
+
+                // Diff against what was last sent, since the websocket's subscriptions only change when acknowledged
+                PendingUpdate lastSentUpdate = pendingUpdates.peekLast();
+                Collection<String> sentTrades = lastSentUpdate != null ?
+                        lastSentUpdate.trades : websocket.subscribedTrades();
+                Collection<String> sentQuotes = lastSentUpdate != null ?
+                        lastSentUpdate.quotes : websocket.subscribedQuotes();
+                Collection<String> sentBars = lastSentUpdate != null ?
+                        lastSentUpdate.bars : websocket.subscribedBars();
+                subscribeTrades = difference(pendingUpdate.trades, sentTrades);
+                subscribeQuotes = difference(pendingUpdate.quotes, sentQuotes);
+                subscribeBars = difference(pendingUpdate.bars, sentBars);
+                unsubscribeTrades = difference(sentTrades, pendingUpdate.trades);
+                unsubscribeQuotes = difference(sentQuotes, pendingUpdate.quotes);
+                unsubscribeBars = difference(sentBars, pendingUpdate.bars);
+
+                pendingUpdates.add(pendingUpdate);
+                if (subscribeTrades.isEmpty() && subscribeQuotes.isEmpty() && subscribeBars.isEmpty() &&
+                        unsubscribeTrades.isEmpty() && unsubscribeQuotes.isEmpty() && unsubscribeBars.isEmpty()) {
+                    // A no-op update is confirmed along with the newest pending update, if there is one
+                    if (lastSentUpdate == null) {
+                        completePendingUpdates(pendingUpdate);
+                    }
+                    return;
+                }
+            }
+
+            try {
+                // Unsubscribe first so that the symbol limit isn't exceeded while rebalancing
+                sendChunked(unsubscribeTrades, unsubscribeQuotes, unsubscribeBars, false);
+                sendChunked(subscribeTrades, subscribeQuotes, subscribeBars, true);
+            } catch (Exception exception) {
+                LOGGER.error("Could not send subscription update!", exception);
+                failPendingUpdates(exception);
+            }
+        }
+    }
+
+    private static List<String> difference(Collection<String> symbols, Collection<String> excludedSymbols) {
+        List<String> difference = new ArrayList<>();
+        for (String symbol : symbols) {
+            if (!excludedSymbols.contains(symbol)) {
+                difference.add(symbol);
+            }
+        }
+        return difference;
+    }
+
+    /**
+     * Sends subscription updates of at most {@link #maxSymbolsPerFrame} symbols each.
+     *
+     * @param tradeSymbols the trade symbols
+     * @param quoteSymbols the quote symbols
+     * @param barSymbols   the bar symbols
+     * @param subscribe    true to subscribe, false to unsubscribe
+     */
+    private void sendChunked(List<String> tradeSymbols, List<String> quoteSymbols, List<String> barSymbols,
+            boolean subscribe) {
+        int tradeIndex = 0;
+        int quoteIndex = 0;
+        int barIndex = 0;
+        while (tradeIndex < tradeSymbols.size() || quoteIndex < quoteSymbols.size() || barIndex < barSymbols.size()) {
+            int remaining = maxSymbolsPerFrame;
+            int tradeEnd = Math.min(tradeSymbols.size(), tradeIndex + remaining);
+            remaining -= tradeEnd - tradeIndex;
+            int quoteEnd = Math.min(quoteSymbols.size(), quoteIndex + remaining);
+            remaining -= quoteEnd - quoteIndex;
+            int barEnd = Math.min(barSymbols.size(), barIndex + remaining);
+
+            List<String> tradeChunk = tradeSymbols.subList(tradeIndex, tradeEnd);
+            List<String> quoteChunk = quoteSymbols.subList(quoteIndex, quoteEnd);
+            List<String> barChunk = barSymbols.subList(barIndex, barEnd);
+            if (subscribe) {
+                websocket.subscribe(tradeChunk, quoteChunk, barChunk);
+            } else {
+                websocket.unsubscribe(tradeChunk, quoteChunk, barChunk);
+            }
+
+            tradeIndex = tradeEnd;
+            quoteIndex = quoteEnd;
+            barIndex = barEnd;
+        }
+    }
+
+    @Override
+    public void onSubscriptions(SubscriptionsMessage subscriptionsMessage) {
+        Set<String> subscribedTrades = new HashSet<>(websocket.subscribedTrades());
+        Set<String> subscribedQuotes = new HashSet<>(websocket.subscribedQuotes());
+        Set<String> subscribedBars = new HashSet<>(websocket.subscribedBars());
+
+        synchronized (this) {
+            // The newest matching update confirms all updates before it, which were superseded
+            Iterator<PendingUpdate> descendingIterator = pendingUpdates.descendingIterator();
+            while (descendingIterator.hasNext()) {
+                PendingUpdate pendingUpdate = descendingIterator.next();
+                if (pendingUpdate.trades.equals(subscribedTrades) && pendingUpdate.quotes.equals(subscribedQuotes) &&
+                        pendingUpdate.bars.equals(subscribedBars)) {
+                    completePendingUpdates(pendingUpdate);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onError(ErrorMessage errorMessage) {
+        if (errorMessage.getCode() != null && SUBSCRIPTION_ERROR_CODES.contains(errorMessage.getCode())) {
+            failPendingUpdates(new SubscriptionException(errorMessage));
+        }
+    }
+
+    /**
+     * Completes <code>pendingUpdate</code> and removes it and the {@link PendingUpdate}s before it from {@link
+     * #pendingUpdates}.
+     */
+    private synchronized void completePendingUpdates(PendingUpdate pendingUpdate) {
+        PendingUpdate removedUpdate;
+        while ((removedUpdate = pendingUpdates.poll()) != null && removedUpdate != pendingUpdate) {
+            removedUpdate.future.complete(null);
+        }
+        pendingUpdate.future.complete(null);
+    }
+
+    private synchronized void failPendingUpdates(Exception exception) {
+        PendingUpdate removedUpdate;
+        while ((removedUpdate = pendingUpdates.poll()) != null) {
+            removedUpdate.future.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Gets the desired trade subscriptions.
+     *
+     * @return an unmodifiable {@link Set} copy of the desired trade symbols
+     */
+    public synchronized Set<String> getDesiredTrades() {
+        return Collections.unmodifiableSet(new HashSet<>(desiredTrades));
+    }
+
+    /**
+     * Gets the desired quote subscriptions.
+     *
+     * @return an unmodifiable {@link Set} copy of the desired quote symbols
+     */
+    public synchronized Set<String> getDesiredQuotes() {
+        return Collections.unmodifiableSet(new HashSet<>(desiredQuotes));
+    }
+
+    /**
+     * Gets the desired bar subscriptions.
+     *
+     * @return an unmodifiable {@link Set} copy of the desired bar symbols
+     */
+    public synchronized Set<String> getDesiredBars() {
+        return Collections.unmodifiableSet(new HashSet<>(desiredBars));
+    }
+
+    /**
+     * Gets the number of sent updates that haven't been confirmed yet.
+     *
+     * @return the number of pending updates
+     */
+    public synchronized int getPendingUpdateCount() {
+        return pendingUpdates.size();
+    }
+
+    /**
+     * {@link PendingUpdate} is a sent update and the subscriptions that confirm it.
+     */
+    private static class PendingUpdate {
+
+        private final CompletableFuture<Void> future;
+        private final Set<String> trades;
+        private final Set<String> quotes;
+        private final Set<String> bars;
+
+        private PendingUpdate(CompletableFuture<Void> future, Set<String> trades, Set<String> quotes,
+                Set<String> bars) {
+            this.future = future;
+            this.trades = trades;
+            this.quotes = quotes;
+            this.bars = bars;
+        }
+    }
+}
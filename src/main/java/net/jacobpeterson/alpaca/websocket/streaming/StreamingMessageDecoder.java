@@ -0,0 +1,201 @@
+package net.jacobpeterson.alpaca.websocket.streaming;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.StreamingMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.authorization.AuthorizationData;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.authorization.AuthorizationMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.enums.StreamingMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.listening.ListeningData;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.listening.ListeningMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.TradeUpdate;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.TradeUpdateMessage;
+import net.jacobpeterson.alpaca.util.io.UTF8ByteBufferReader;
+import okio.ByteString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+
+/**
+ * {@link StreamingMessageDecoder} decodes {@link StreamingWebsocket} binary frames into {@link StreamingMessage}s in a
+ * single pass with a streaming {@link JsonReader}, reading the UTF-8 bytes of the frame in place instead of first
+ * copying them into a {@link String} and building an intermediate {@link JsonElement} tree.
+ * <br>
+ * Alpaca sends the <code>"stream"</code> element before the <code>"data"</code> element, so the data is read straight
+ * into the data type of the {@link StreamingMessageType} with the {@link TypeAdapter}s of <code>GsonUtil.GSON</code>.
+ * Data that comes first falls back to the slower {@link JsonElement} tree path.
+ * <br>
+ * Note that this class is not thread-safe.
+ */
+public class StreamingMessageDecoder {
+
+    private static final String STREAM_ELEMENT_KEY = "stream";
+    private static final String DATA_ELEMENT_KEY = "data";
+    private static final Map<String, StreamingMessageType> STREAMING_MESSAGE_TYPES_BY_VALUE = new HashMap<>();
+
+    static {
+        for (StreamingMessageType streamingMessageType : StreamingMessageType.values()) {
+            STREAMING_MESSAGE_TYPES_BY_VALUE.put(streamingMessageType.toString(), streamingMessageType);
+        }
+    }
+
+    private final UTF8ByteBufferReader frameReader;
+    private final TypeAdapter<AuthorizationData> authorizationDataAdapter;
+    private final TypeAdapter<ListeningData> listeningDataAdapter;
+    private final TypeAdapter<TradeUpdate> tradeUpdateAdapter;
+
+    /**
+     * Instantiates a new {@link StreamingMessageDecoder}.
+     */
+    public StreamingMessageDecoder() {
+        frameReader = new UTF8ByteBufferReader();
+        authorizationDataAdapter = GSON.getAdapter(AuthorizationData.class);
+        listeningDataAdapter = GSON.getAdapter(ListeningData.class);
+        tradeUpdateAdapter = GSON.getAdapter(TradeUpdate.class);
+    }
+
+    /**
+     * Decodes the given binary frame.
+     *
+     * @param frame the JSON object binary frame
+     *
+     * @return the decoded {@link StreamingMessage}
+     *
+     * @throws JsonParseException    thrown if <code>frame</code> is malformed
+     * @throws IllegalStateException thrown if <code>frame</code> isn't an object with a <code>"stream"</code> element
+     * @throws NullPointerException  thrown if the <code>"stream"</code> element isn't a {@link StreamingMessageType}
+     */
+    public StreamingMessage decode(ByteString frame) {
+        checkNotNull(frame);
+        return decode(frame.asByteBuffer());
+    }
+
+    /**
+     * Decodes the remaining bytes of the given binary frame. The position of <code>frame</code> isn't changed.
+     *
+     * @param frame the JSON object binary frame
+     *
+     * @return the decoded {@link StreamingMessage}
+     *
+     * @throws JsonParseException    thrown if <code>frame</code> is malformed
+     * @throws IllegalStateException thrown if <code>frame</code> isn't an object with a <code>"stream"</code> element
+     * @throws NullPointerException  thrown if the <code>"stream"</code> element isn't a {@link StreamingMessageType}
+     */
+    public StreamingMessage decode(ByteBuffer frame) {
+        checkNotNull(frame);
+
+        frameReader.reset(frame);
+        try (JsonReader jsonReader = new JsonReader(frameReader)) {
+            jsonReader.setLenient(true);
+            return readStreamingMessage(jsonReader);
+        } catch (IOException ioException) {
+            throw new JsonParseException("Could not decode streaming message!", ioException);
+        }
+    }
+
+    private StreamingMessage readStreamingMessage(JsonReader jsonReader) throws IOException {
+        jsonReader.beginObject();
+
+        String streamValue = null;
+        StreamingMessage streamingMessage = null;
+        JsonElement dataElement = null;
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case STREAM_ELEMENT_KEY:
+                    if (jsonReader.peek() == JsonToken.NULL) {
+                        jsonReader.nextNull();
+                        break;
+                    }
+                    streamValue = jsonReader.nextString();
+                    streamingMessage = createStreamingMessage(streamValue);
+                    break;
+                case DATA_ELEMENT_KEY:
+                    if (streamingMessage != null) {
+                        readData(jsonReader, streamingMessage);
+                    } else {
+                        dataElement = JsonParser.parseReader(jsonReader);
+                    }
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+
+        jsonReader.endObject();
+
+        checkState(streamValue != null, "Message must contain %s element!", STREAM_ELEMENT_KEY);
+        checkNotNull(streamingMessage, "StreamingMessageType not found for %s: %s", STREAM_ELEMENT_KEY, streamValue);
+
+        if (dataElement != null) {
+            readDataTree(dataElement, streamingMessage);
+        }
+
+        return streamingMessage;
+    }
+
+    private static StreamingMessage createStreamingMessage(String streamValue) {
+        StreamingMessageType streamingMessageType = STREAMING_MESSAGE_TYPES_BY_VALUE.get(streamValue);
+        if (streamingMessageType == null) {
+            return null;
+        }
+
+        StreamingMessage streamingMessage;
+        switch (streamingMessageType) {
+            case AUTHORIZATION:
+                streamingMessage = new AuthorizationMessage();
+                break;
+            case LISTENING:
+                streamingMessage = new ListeningMessage();
+                break;
+            case TRADE_UPDATES:
+                streamingMessage = new TradeUpdateMessage();
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+        streamingMessage.setStream(streamingMessageType);
+        return streamingMessage;
+    }
+
+    private void readData(JsonReader jsonReader, StreamingMessage streamingMessage) throws IOException {
+        switch (streamingMessage.getStream()) {
+            case AUTHORIZATION:
+                ((AuthorizationMessage) streamingMessage).setData(authorizationDataAdapter.read(jsonReader));
+                break;
+            case LISTENING:
+                ((ListeningMessage) streamingMessage).setData(listeningDataAdapter.read(jsonReader));
+                break;
+            case TRADE_UPDATES:
+                ((TradeUpdateMessage) streamingMessage).setData(tradeUpdateAdapter.read(jsonReader));
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private void readDataTree(JsonElement dataElement, StreamingMessage streamingMessage) {
+        switch (streamingMessage.getStream()) {
+            case AUTHORIZATION:
+                ((AuthorizationMessage) streamingMessage).setData(authorizationDataAdapter.fromJsonTree(dataElement));
+                break;
+            case LISTENING:
+                ((ListeningMessage) streamingMessage).setData(listeningDataAdapter.fromJsonTree(dataElement));
+                break;
+            case TRADE_UPDATES:
+                ((TradeUpdateMessage) streamingMessage).setData(tradeUpdateAdapter.fromJsonTree(dataElement));
+                break;
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package net.jacobpeterson.alpaca.websocket.streaming;
 
 import com.google.common.collect.Iterables;
-import com.google.gson.*;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import net.jacobpeterson.alpaca.model.endpoint.streaming.StreamingMessage;
 import net.jacobpeterson.alpaca.model.endpoint.streaming.authorization.AuthorizationData;
 import net.jacobpeterson.alpaca.model.endpoint.streaming.authorization.AuthorizationMessage;
 import net.jacobpeterson.alpaca.model.endpoint.streaming.enums.StreamingMessageType;
 import net.jacobpeterson.alpaca.model.endpoint.streaming.listening.ListeningMessage;
-import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.TradeUpdateMessage;
 import net.jacobpeterson.alpaca.websocket.AlpacaWebsocket;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.WebSocket;
@@ -19,10 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.not;
-import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
 
 /**
  * {@link StreamingWebsocket} is an {@link AlpacaWebsocket} implementation and provides the {@link
@@ -33,7 +31,6 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
         implements StreamingWebsocketInterface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StreamingWebsocket.class);
-    private static final String STREAM_ELEMENT_KEY = "stream";
     private static final List<StreamingMessageType> SUBSCRIBABLE_STREAMING_MESSAGE_TYPES = Collections.singletonList(
             StreamingMessageType.TRADE_UPDATES);
 
@@ -52,6 +49,7 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
                 .build();
     }
 
+    private final StreamingMessageDecoder streamingMessageDecoder;
     private final Set<StreamingMessageType> listenedStreamMessageTypes;
 
     /**
@@ -67,6 +65,7 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
             String keyID, String secretKey, String oAuthToken) {
         super(okHttpClient, createWebsocketURL(alpacaSubdomain), "Streaming", keyID, secretKey, oAuthToken);
 
+        streamingMessageDecoder = new StreamingMessageDecoder();
         listenedStreamMessageTypes = new HashSet<>();
     }
 
@@ -85,9 +84,11 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
     @Override
     protected void onReconnection() {
         sendAuthenticationMessage();
-        if (waitForAuthorization()) {
-            streams(Iterables.toArray(listenedStreamMessageTypes, StreamingMessageType.class));
-        }
+    }
+
+    @Override
+    protected boolean resubscribe() {
+        return sendStreamsRequest(Iterables.toArray(listenedStreamMessageTypes, StreamingMessageType.class));
     }
 
     @Override
@@ -123,39 +124,27 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
     // This websocket uses binary frames and not text frames.
     @Override
     public void onMessage(@NotNull WebSocket webSocket, @NotNull ByteString byteString) {
-        String message = byteString.utf8();
-
-        JsonElement messageElement = JsonParser.parseString(message);
-        checkState(messageElement instanceof JsonObject, "Message must be a JsonObject! Received: %s", messageElement);
-
-        JsonObject messageObject = messageElement.getAsJsonObject();
-        JsonElement streamElement = messageObject.get(STREAM_ELEMENT_KEY);
-        checkState(streamElement instanceof JsonPrimitive,
-                "Message must contain %s element! Received: %s", STREAM_ELEMENT_KEY, messageElement);
-
-        StreamingMessageType streamingMessageType = GSON.fromJson(streamElement, StreamingMessageType.class);
-        checkNotNull(streamingMessageType, "StreamingMessageType not found in message: %s", messageObject);
+        FrameJournal currentFrameJournal = frameJournal;
+        if (currentFrameJournal != null) {
+            currentFrameJournal.append(byteString);
+        }
 
-        StreamingMessage streamingMessage;
+        StreamingMessage streamingMessage = streamingMessageDecoder.decode(byteString);
+        StreamingMessageType streamingMessageType = streamingMessage.getStream();
         switch (streamingMessageType) {
             case AUTHORIZATION:
-                streamingMessage = GSON.fromJson(messageObject, AuthorizationMessage.class);
-
-                authenticated = isAuthorizationMessageSuccess((AuthorizationMessage) streamingMessage);
+                boolean authorized = isAuthorizationMessageSuccess((AuthorizationMessage) streamingMessage);
 
-                if (!authenticated) {
+                if (!authorized) {
                     LOGGER.error("{} websocket not authenticated! Received: {}.", websocketName, streamingMessage);
                 } else {
                     LOGGER.info("{} websocket authenticated.", websocketName);
                     LOGGER.debug("{}", streamingMessage);
                 }
 
-                if (authenticationMessageFuture != null) {
-                    authenticationMessageFuture.complete(authenticated);
-                }
+                handleAuthorization(authorized);
                 break;
             case LISTENING:
-                streamingMessage = GSON.fromJson(messageObject, ListeningMessage.class);
                 LOGGER.debug("{}", streamingMessage);
 
                 // Remove all 'StreamingMessageType's that are no longer listened to and add new ones
@@ -164,9 +153,9 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
                         .filter(not(listenedStreamMessageTypes::contains))
                         .forEach(listenedStreamMessageTypes::remove);
                 listenedStreamMessageTypes.addAll(currentTypes);
+                handleResubscribed();
                 break;
             case TRADE_UPDATES:
-                streamingMessage = GSON.fromJson(messageObject, TradeUpdateMessage.class);
                 LOGGER.debug("{}", streamingMessage);
                 break;
             default:
@@ -202,6 +191,17 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
             waitForAuthorization();
         }
 
+        sendStreamsRequest(streamingMessageTypes);
+    }
+
+    /**
+     * Sends a stream request for the subscribable <code>streamingMessageTypes</code>.
+     *
+     * @param streamingMessageTypes the {@link StreamingMessageType}s
+     *
+     * @return true if a request was sent
+     */
+    private boolean sendStreamsRequest(StreamingMessageType... streamingMessageTypes) {
         // Stream request format:
         // {
         //     "action": "listen",
@@ -219,7 +219,7 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
                 .forEach((type) -> streamsArray.add(type.toString()));
 
         if (streamsArray.isEmpty()) {
-            return;
+            return false;
         }
 
         JsonObject dataObject = new JsonObject();
@@ -229,6 +229,7 @@ public class StreamingWebsocket extends AlpacaWebsocket<StreamingMessageType, St
 
         websocket.send(requestObject.toString());
         LOGGER.info("Requested streams: {}.", streamsArray);
+        return true;
     }
 
     @Override
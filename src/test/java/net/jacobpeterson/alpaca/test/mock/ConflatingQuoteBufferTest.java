@@ -0,0 +1,63 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.websocket.marketdata.conflation.ConflatingQuoteBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ConflatingQuoteBufferTest} tests {@link ConflatingQuoteBuffer}.
+ */
+public class ConflatingQuoteBufferTest {
+
+    /**
+     * Creates a {@link QuoteMessage}.
+     *
+     * @param symbol   the symbol
+     * @param askPrice the ask price
+     *
+     * @return a {@link QuoteMessage}
+     */
+    private static QuoteMessage createQuoteMessage(String symbol, double askPrice) {
+        QuoteMessage quoteMessage = new QuoteMessage();
+        quoteMessage.setSymbol(symbol);
+        quoteMessage.setAskPrice(askPrice);
+        return quoteMessage;
+    }
+
+    /**
+     * Tests that only the latest {@link QuoteMessage} of each changed symbol is drained.
+     */
+    @Test
+    public void testDrain() {
+        ConflatingQuoteBuffer conflatingQuoteBuffer = new ConflatingQuoteBuffer();
+        List<QuoteMessage> drainedQuoteMessages = new ArrayList<>();
+
+        conflatingQuoteBuffer.onQuote(createQuoteMessage("AAPL", 1));
+        conflatingQuoteBuffer.onQuote(createQuoteMessage("AMD", 2));
+        conflatingQuoteBuffer.onQuote(createQuoteMessage("AAPL", 3));
+        assertEquals(2, conflatingQuoteBuffer.getChangedCount());
+
+        assertEquals(2, conflatingQuoteBuffer.drain(drainedQuoteMessages::add));
+        assertEquals("AAPL", drainedQuoteMessages.get(0).getSymbol());
+        assertEquals(3, (double) drainedQuoteMessages.get(0).getAskPrice());
+        assertEquals("AMD", drainedQuoteMessages.get(1).getSymbol());
+
+        drainedQuoteMessages.clear();
+        assertEquals(0, conflatingQuoteBuffer.drain(drainedQuoteMessages::add));
+
+        conflatingQuoteBuffer.onQuote(createQuoteMessage("AMD", 4));
+        assertEquals(1, conflatingQuoteBuffer.drain(drainedQuoteMessages::add));
+        assertEquals(4, (double) drainedQuoteMessages.get(0).getAskPrice());
+        assertEquals(3, (double) conflatingQuoteBuffer.getLatest("AAPL").getAskPrice());
+        assertNull(conflatingQuoteBuffer.getLatest("NOT_RECEIVED_SYMBOL"));
+
+        // Quotes without a symbol are ignored
+        conflatingQuoteBuffer.onQuote(createQuoteMessage(null, 5));
+        assertEquals(0, conflatingQuoteBuffer.getChangedCount());
+    }
+}
@@ -0,0 +1,125 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionPhaseMetrics;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionState;
+import net.jacobpeterson.alpaca.websocket.connection.ReconnectPolicy;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ConnectionStateTest} tests the {@link ConnectionState} transitions of a {@link MarketDataWebsocket} by
+ * feeding it websocket events on the test thread, which would hang if any of them waited for a later event.
+ */
+public class ConnectionStateTest {
+
+    private static final String SUBSCRIPTION_FRAME =
+            "[{\"T\":\"subscription\",\"trades\":[\"AAPL\"],\"quotes\":[],\"bars\":[]}]";
+
+    /**
+     * Tests the transitions of a connection and a reconnection, and that the subscriptions are restored.
+     */
+    @Test
+    public void testReconnection() {
+        TestMarketDataWebsocket marketDataWebsocket = new TestMarketDataWebsocket();
+        List<ConnectionState> connectionStates = new ArrayList<>();
+        marketDataWebsocket.addConnectionStateListener((previousState, state) -> connectionStates.add(state));
+        assertEquals(ConnectionState.DISCONNECTED, marketDataWebsocket.getConnectionState());
+
+        marketDataWebsocket.open();
+        assertEquals(ConnectionState.AUTHENTICATING, marketDataWebsocket.getConnectionState());
+        assertEquals(1, marketDataWebsocket.recordingWebSocket.sentFrames.size());
+        marketDataWebsocket.receive(TestMarketDataWebsocket.AUTHENTICATED_FRAME);
+        assertEquals(ConnectionState.LIVE, marketDataWebsocket.getConnectionState());
+        marketDataWebsocket.receive(SUBSCRIPTION_FRAME);
+
+        marketDataWebsocket.onFailure(marketDataWebsocket.recordingWebSocket, new IOException("Reset"), null);
+        assertEquals(ConnectionState.CONNECTING, marketDataWebsocket.getConnectionState());
+        assertFalse(marketDataWebsocket.isConnected());
+
+        marketDataWebsocket.open();
+        assertEquals(ConnectionState.AUTHENTICATING, marketDataWebsocket.getConnectionState());
+        marketDataWebsocket.receive(TestMarketDataWebsocket.AUTHENTICATED_FRAME);
+        assertEquals(ConnectionState.RESUBSCRIBING, marketDataWebsocket.getConnectionState());
+        List<String> sentFrames = marketDataWebsocket.recordingWebSocket.sentFrames;
+        assertEquals(3, sentFrames.size());
+        assertTrue(sentFrames.get(2).contains("\"subscribe\"") && sentFrames.get(2).contains("AAPL"));
+
+        marketDataWebsocket.receive(SUBSCRIPTION_FRAME);
+        assertEquals(ConnectionState.LIVE, marketDataWebsocket.getConnectionState());
+
+        assertEquals(Arrays.asList(ConnectionState.AUTHENTICATING, ConnectionState.LIVE, ConnectionState.CONNECTING,
+                ConnectionState.AUTHENTICATING, ConnectionState.RESUBSCRIBING, ConnectionState.LIVE), connectionStates);
+        ConnectionPhaseMetrics connectionPhaseMetrics = marketDataWebsocket.getConnectionPhaseMetrics();
+        assertEquals(1, connectionPhaseMetrics.snapshotPhase(ConnectionState.RESUBSCRIBING).getCount());
+        assertEquals(2, connectionPhaseMetrics.snapshotPhase(ConnectionState.AUTHENTICATING).getCount());
+        assertEquals(1, connectionPhaseMetrics.snapshotRecovery().getCount());
+    }
+
+    /**
+     * Tests that reconnection attempts are scheduled on the reconnect scheduler and stop after the maximum number of
+     * attempts of the {@link ReconnectPolicy}.
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    @Test
+    public void testReconnectPolicy() throws InterruptedException {
+        ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TestMarketDataWebsocket marketDataWebsocket = new TestMarketDataWebsocket();
+            marketDataWebsocket.setReconnectPolicy(ReconnectPolicy.fixed(10, 1));
+            marketDataWebsocket.setReconnectScheduler(reconnectScheduler);
+
+            marketDataWebsocket.open();
+            marketDataWebsocket.onFailure(marketDataWebsocket.recordingWebSocket, new IOException("Reset"), null);
+            assertEquals(ConnectionState.CONNECTING, marketDataWebsocket.getConnectionState());
+            assertTrue(marketDataWebsocket.connectLatch.await(5, TimeUnit.SECONDS));
+
+            // The attempt failed, so the only attempt is used up
+            marketDataWebsocket.onFailure(marketDataWebsocket.recordingWebSocket, new IOException("Refused"), null);
+            assertEquals(ConnectionState.DISCONNECTED, marketDataWebsocket.getConnectionState());
+            assertEquals(1, marketDataWebsocket.getConnectionPhaseMetrics().getFailedRecoveryCount());
+        } finally {
+            reconnectScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a connection that isn't authenticated in time is cancelled so that it's reconnected, and that a
+     * rejected authentication disconnects instead of staying {@link ConnectionState#AUTHENTICATING}.
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    @Test
+    public void testAuthenticationTimeoutAndFailure() throws InterruptedException {
+        ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TestMarketDataWebsocket marketDataWebsocket = new TestMarketDataWebsocket();
+            marketDataWebsocket.setReconnectScheduler(reconnectScheduler);
+            marketDataWebsocket.setAuthenticationTimeoutMillis(10);
+
+            marketDataWebsocket.open();
+            assertTrue(marketDataWebsocket.recordingWebSocket.cancelLatch.await(5, TimeUnit.SECONDS));
+            marketDataWebsocket.onFailure(marketDataWebsocket.recordingWebSocket, new IOException("Canceled"), null);
+            assertEquals(ConnectionState.CONNECTING, marketDataWebsocket.getConnectionState());
+
+            TestMarketDataWebsocket rejectedWebsocket = new TestMarketDataWebsocket();
+            rejectedWebsocket.open();
+            rejectedWebsocket.receive("[{\"T\":\"error\",\"code\":402,\"msg\":\"auth failed\"}]");
+            assertEquals(ConnectionState.DISCONNECTED, rejectedWebsocket.getConnectionState());
+            assertTrue(rejectedWebsocket.recordingWebSocket.closed);
+            assertFalse(rejectedWebsocket.isAuthenticated());
+        } finally {
+            reconnectScheduler.shutdownNow();
+        }
+    }
+}
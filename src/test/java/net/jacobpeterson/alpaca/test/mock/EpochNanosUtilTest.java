@@ -0,0 +1,68 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.trade.Trade;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link EpochNanosUtilTest} tests {@link EpochNanosUtil} and the epoch nanoseconds timestamps of market data
+ * models.
+ */
+public class EpochNanosUtilTest {
+
+    /**
+     * Tests {@link EpochNanosUtil#parseRFC3339(CharSequence)} against {@link ZonedDateTime#parse(CharSequence,
+     * DateTimeFormatter)}.
+     */
+    @Test
+    public void testParseRFC3339() {
+        String[] timestamps = {
+                "2021-02-22T15:51:45.335689322Z",
+                "2021-02-22T15:51:44.208Z",
+                "2021-02-22T19:15:00Z",
+                "1969-12-31T23:59:59.999999999Z",
+                "2020-02-29T00:00:00.123456789Z",
+                "2021-06-01T09:30:00.5-04:00",
+                "2262-04-11T23:47:16.854775807Z"};
+        for (String timestamp : timestamps) {
+            ZonedDateTime expected = ZonedDateTime.parse(timestamp, DateTimeFormatter.ISO_DATE_TIME);
+            long expectedEpochNanos = expected.toEpochSecond() * 1_000_000_000L + expected.getNano();
+            assertEquals(expectedEpochNanos, EpochNanosUtil.parseRFC3339(timestamp), timestamp);
+            assertEquals(expected.toInstant(), EpochNanosUtil.toZonedDateTime(expectedEpochNanos).toInstant());
+        }
+
+        assertThrows(DateTimeParseException.class, () -> EpochNanosUtil.parseRFC3339("2021-02-30T00:00:00Z"));
+        assertThrows(DateTimeParseException.class, () -> EpochNanosUtil.parseRFC3339("2021-02-22T15:51:45."));
+        assertThrows(DateTimeParseException.class, () -> EpochNanosUtil.parseRFC3339("2021-02-22 15:51:45Z"));
+        assertThrows(ArithmeticException.class, () -> EpochNanosUtil.parseRFC3339("0001-01-01T00:00:00Z"));
+    }
+
+    /**
+     * Tests that realtime and historical market data models decode <code>"t"</code> into epoch nanoseconds and
+     * create the {@link ZonedDateTime} lazily.
+     */
+    @Test
+    public void testMarketDataModelTimestamps() {
+        TradeMessage tradeMessage = GSON.fromJson("{\"T\":\"t\",\"S\":\"AAPL\",\"t\":\"1970-01-01T00:00:01.5Z\"}",
+                TradeMessage.class);
+        assertEquals(1_500_000_000L, tradeMessage.getTimestampEpochNanos());
+        assertEquals(500_000_000, tradeMessage.getTimestamp().getNano());
+        assertSame(tradeMessage.getTimestamp(), tradeMessage.getTimestamp());
+
+        Trade trade = GSON.fromJson("{\"t\":null,\"p\":1.5}", Trade.class);
+        assertEquals(EpochNanosUtil.NO_EPOCH_NANOS, trade.getTimestampEpochNanos());
+        assertNull(trade.getT());
+
+        trade.setTimestampEpochNanos(-1);
+        assertEquals("1969-12-31T23:59:59.999999999Z", trade.getT().toString());
+        assertTrue(GSON.toJson(trade).contains("\"t\":\"1969-12-31T23:59:59.999999999Z\""));
+    }
+}
@@ -0,0 +1,164 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.BarView;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.FlyweightMarketDataDecoder;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.QuoteView;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.TradeView;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link FlyweightMarketDataDecoderTest} tests {@link FlyweightMarketDataDecoder}.
+ */
+public class FlyweightMarketDataDecoderTest {
+
+    private static final String FRAME = "[" +
+            "{\"T\":\"t\",\"i\":96921,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55,\"s\":1," +
+            "\"t\":\"2021-02-22T15:51:44.208Z\",\"c\":[\"@\",\"I\"],\"z\":\"C\"}," +
+            "{\"T\":\"success\",\"msg\":\"authenticated\"}," +
+            "{\"T\":\"q\",\"S\":\"AMD\",\"bx\":\"U\",\"bp\":87.66,\"bs\":1,\"ax\":\"Q\",\"ap\":87.68,\"as\":4," +
+            "\"t\":\"2021-02-22T15:51:45.335689322Z\",\"c\":[\"R\"],\"z\":\"C\"}, " +
+            "{\"S\":\"SPY\",\"o\":388.985,\"h\":389.13,\"l\":388.975,\"c\":389.12,\"v\":49378,\"T\":\"b\"," +
+            "\"t\":\"2021-02-22T19:15:00-05:00\",\"unknown\":{\"nested\":[1,\"]\"]}}" +
+            "]";
+
+    /**
+     * Tests {@link FlyweightMarketDataDecoder#decode(String, MarketDataFlyweightListener, java.util.Set,
+     * FlyweightMarketDataDecoder.FallbackHandler)} with trades, quotes, bars, and a control message.
+     */
+    @Test
+    public void testDecode_views() {
+        SymbolTable symbolTable = new SymbolTable();
+        FlyweightMarketDataDecoder decoder = new FlyweightMarketDataDecoder(symbolTable);
+
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        List<QuoteMessage> quoteMessages = new ArrayList<>();
+        List<BarMessage> barMessages = new ArrayList<>();
+        List<String> fallbackObjects = new ArrayList<>();
+
+        decoder.decode(FRAME, new MarketDataFlyweightListener() {
+            @Override
+            public void onTrade(TradeView tradeView) {
+                assertEquals(symbolTable.find("AAPL"), tradeView.getSymbolID());
+                assertEquals(96921L, tradeView.getTradeID());
+                assertEquals('D', tradeView.getExchange());
+                assertEquals(126.55, tradeView.getPrice());
+                assertEquals(2, tradeView.getConditions().size());
+                assertTrue(tradeView.getConditions().contains("I"));
+                tradeMessages.add(tradeView.toMessage());
+            }
+
+            @Override
+            public void onQuote(QuoteView quoteView) {
+                assertEquals(87.66, quoteView.getBidPrice());
+                assertEquals(4, quoteView.getAskSize());
+                quoteMessages.add(quoteView.toMessage());
+            }
+
+            @Override
+            public void onBar(BarView barView) {
+                barMessages.add(barView.toMessage());
+            }
+        }, Collections.emptySet(), (message, objectStart, objectEnd) ->
+                fallbackObjects.add(message.substring(objectStart, objectEnd)));
+
+        assertEquals(Collections.singletonList("{\"T\":\"success\",\"msg\":\"authenticated\"}"), fallbackObjects);
+
+        TradeMessage tradeMessage = tradeMessages.get(0);
+        assertEquals(MarketDataMessageType.TRADE, tradeMessage.getMessageType());
+        assertEquals("AAPL", tradeMessage.getSymbol());
+        assertEquals(96921L, (long) tradeMessage.getTradeID());
+        assertEquals("D", tradeMessage.getExchange());
+        assertEquals(1, (int) tradeMessage.getSize());
+        assertEquals(Arrays.asList("@", "I"), tradeMessage.getConditions());
+        assertEquals("C", tradeMessage.getTape());
+        assertEquals(ZonedDateTime.parse("2021-02-22T15:51:44.208Z").toInstant(),
+                tradeMessage.getTimestamp().toInstant());
+
+        QuoteMessage quoteMessage = quoteMessages.get(0);
+        assertEquals("AMD", quoteMessage.getSymbol());
+        assertEquals("U", quoteMessage.getBidExchangeCode());
+        assertEquals(1, (int) quoteMessage.getBidSize());
+        assertEquals("Q", quoteMessage.getAskExchangeCode());
+        assertEquals(87.68, (double) quoteMessage.getAskPrice());
+        assertEquals(ZonedDateTime.parse("2021-02-22T15:51:45.335689322Z").toInstant(),
+                quoteMessage.getTimestamp().toInstant());
+
+        BarMessage barMessage = barMessages.get(0);
+        assertEquals("SPY", barMessage.getSymbol());
+        assertEquals(388.985, (double) barMessage.getOpen());
+        assertEquals(389.13, (double) barMessage.getHigh());
+        assertEquals(388.975, (double) barMessage.getLow());
+        assertEquals(389.12, (double) barMessage.getClose());
+        assertEquals(49378L, (long) barMessage.getVolume());
+        assertEquals(ZonedDateTime.parse("2021-02-22T19:15:00-05:00").toInstant(),
+                barMessage.getTimestamp().toInstant());
+    }
+
+    /**
+     * Tests that {@link FlyweightMarketDataDecoder} reuses its views, passes fallback message types on, and keeps trade
+     * IDs beyond the <code>int</code> range.
+     */
+    @Test
+    public void testDecode_reusedViewsAndFallbackTypes() {
+        FlyweightMarketDataDecoder decoder = new FlyweightMarketDataDecoder(new SymbolTable());
+
+        List<TradeView> tradeViews = new ArrayList<>();
+        List<String> fallbackObjects = new ArrayList<>();
+        String frame = "[{\"T\":\"t\",\"S\":\"A\",\"p\":1.5},{\"T\":\"t\",\"S\":\"B\",\"p\":null,\"c\":null}]";
+
+        decoder.decode(frame, new MarketDataFlyweightListener() {
+            @Override
+            public void onTrade(TradeView tradeView) {
+                tradeViews.add(tradeView);
+            }
+        }, EnumSet.of(MarketDataMessageType.TRADE), (message, objectStart, objectEnd) ->
+                fallbackObjects.add(message.substring(objectStart, objectEnd)));
+
+        assertEquals(2, tradeViews.size());
+        assertSame(tradeViews.get(0), tradeViews.get(1));
+        assertEquals("B", tradeViews.get(1).getSymbol());
+        assertTrue(Double.isNaN(tradeViews.get(1).getPrice()));
+        assertEquals(0, tradeViews.get(1).getConditions().size());
+        assertEquals(Arrays.asList("{\"T\":\"t\",\"S\":\"A\",\"p\":1.5}",
+                "{\"T\":\"t\",\"S\":\"B\",\"p\":null,\"c\":null}"), fallbackObjects);
+
+        // Null conditions are kept and can be searched past
+        tradeViews.clear();
+        decoder.decode("[{\"T\":\"t\",\"S\":\"C\",\"c\":[null,\"I\"]}]", new MarketDataFlyweightListener() {
+            @Override
+            public void onTrade(TradeView tradeView) {
+                assertNull(tradeView.getConditions().get(0));
+                assertTrue(tradeView.getConditions().contains("I"));
+                assertTrue(tradeView.getConditions().contains(null));
+                assertFalse(tradeView.getConditions().contains("@"));
+                tradeViews.add(tradeView);
+            }
+        }, EnumSet.of(MarketDataMessageType.TRADE), (message, objectStart, objectEnd) -> {});
+        assertEquals(1, tradeViews.size());
+
+        // Trade IDs that don't fit in an 'int' are copied into messages unchanged
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        decoder.decode("[{\"T\":\"t\",\"S\":\"D\",\"i\":52983525029461}]", new MarketDataFlyweightListener() {
+            @Override
+            public void onTrade(TradeView tradeView) {
+                tradeMessages.add(tradeView.toMessage());
+            }
+        }, Collections.emptySet(), (message, objectStart, objectEnd) -> {});
+        assertEquals(52983525029461L, (long) tradeMessages.get(0).getTradeID());
+    }
+}
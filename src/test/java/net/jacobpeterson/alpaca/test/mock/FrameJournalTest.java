@@ -0,0 +1,102 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournalReader;
+import net.jacobpeterson.alpaca.websocket.journal.FrameType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link FrameJournalTest} tests {@link FrameJournal} and {@link FrameJournalReader}.
+ */
+public class FrameJournalTest {
+
+    private static final long START_EPOCH_NANOS = 1_613_000_000_000_000_000L;
+    private static final long FRAME_INTERVAL_NANOS = 100_000_000L;
+    private static final int FRAME_COUNT = 500;
+
+    /**
+     * Creates the text of a frame.
+     *
+     * @param index the frame index
+     *
+     * @return the frame {@link String}
+     */
+    private static String frame(int index) {
+        StringBuilder frame = new StringBuilder("[{\"T\":\"t\",\"S\":\"ÄÖ€😀\",\"i\":" + index + "}");
+        for (int padding = 0; padding < index % 50; padding++) {
+            frame.append(' ');
+        }
+        return frame.append(']').toString();
+    }
+
+    /**
+     * Tests that frames are written across rolled segments and read back in order, and that {@link
+     * FrameJournalReader#seek(long)} finds the first frame at or after a time.
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    @Test
+    public void testWriteAndSeek() throws IOException {
+        Path directory = Files.createTempDirectory("frame-journal");
+        try {
+            AtomicLong epochNanos = new AtomicLong(START_EPOCH_NANOS);
+            // Small segments and a 1 second index interval make the journal roll and index several times
+            try (FrameJournal frameJournal = new FrameJournal(directory, "market-data", 270_000, 1_000_000_000L,
+                    1024, () -> epochNanos.getAndAdd(FRAME_INTERVAL_NANOS))) {
+                for (int index = 0; index < FRAME_COUNT; index++) {
+                    assertTrue(frameJournal.append(frame(index)));
+                }
+            }
+
+            try (FrameJournalReader frameJournalReader = new FrameJournalReader(directory, "market-data")) {
+                assertTrue(frameJournalReader.getSegmentPaths().size() > 2);
+                for (int index = 0; index < FRAME_COUNT; index++) {
+                    assertTrue(frameJournalReader.next());
+                    assertEquals(FrameType.TEXT, frameJournalReader.getFrameType());
+                    assertEquals(START_EPOCH_NANOS + index * FRAME_INTERVAL_NANOS,
+                            frameJournalReader.getReceiveEpochNanos());
+                    assertEquals(frame(index), frameJournalReader.getPayloadUTF8());
+                }
+                assertFalse(frameJournalReader.next());
+
+                for (int index : new int[]{0, 1, 37, 250, 251, 499}) {
+                    frameJournalReader.seek(START_EPOCH_NANOS + index * FRAME_INTERVAL_NANOS - 1);
+                    assertTrue(frameJournalReader.next());
+                    assertEquals(frame(index), frameJournalReader.getPayloadUTF8());
+                }
+
+                frameJournalReader.seek(START_EPOCH_NANOS - 1_000_000_000L);
+                assertTrue(frameJournalReader.next());
+                assertEquals(frame(0), frameJournalReader.getPayloadUTF8());
+
+                frameJournalReader.seek(START_EPOCH_NANOS + FRAME_COUNT * FRAME_INTERVAL_NANOS);
+                assertFalse(frameJournalReader.next());
+            }
+
+            // Other journals in the same directory are ignored
+            try (FrameJournalReader frameJournalReader = new FrameJournalReader(directory, "market")) {
+                assertFalse(frameJournalReader.next());
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                    try {
+                        Files.delete(path);
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.websocket.connection.ConnectionState;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournalReader;
+import net.jacobpeterson.alpaca.websocket.journal.FrameReplayer;
+import net.jacobpeterson.alpaca.websocket.journal.ReplayClock;
+import net.jacobpeterson.alpaca.websocket.journal.ReplaySpeed;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link FrameReplayerTest} tests {@link FrameReplayer}.
+ */
+public class FrameReplayerTest {
+
+    private static final long START_EPOCH_NANOS = 1_614_000_000_000_000_000L;
+    private static final long FRAME_INTERVAL_NANOS = 10_000_000L;
+    private static final int TRADE_FRAME_COUNT = 20;
+
+    /**
+     * Records a session with an authentication and subscription frame followed by {@link #TRADE_FRAME_COUNT} trade
+     * frames.
+     *
+     * @param directory the directory
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private static void recordSession(Path directory) throws IOException {
+        AtomicLong epochNanos = new AtomicLong(START_EPOCH_NANOS);
+        try (FrameJournal frameJournal = new FrameJournal(directory, "replay", FrameJournal.DEFAULT_SEGMENT_SIZE,
+                FrameJournal.DEFAULT_INDEX_INTERVAL_NANOS, 64, () -> epochNanos.getAndAdd(FRAME_INTERVAL_NANOS))) {
+            frameJournal.append("[{\"T\":\"success\",\"msg\":\"authenticated\"}," +
+                    "{\"T\":\"subscription\",\"trades\":[\"REPLAY\"],\"quotes\":[],\"bars\":[]}]");
+            for (int index = 0; index < TRADE_FRAME_COUNT; index++) {
+                frameJournal.append("[{\"T\":\"t\",\"i\":" + index + ",\"S\":\"REPLAY\",\"p\":" + (100 + index) +
+                        ",\"s\":1,\"t\":\"2021-02-22T15:51:44Z\"}]");
+            }
+        }
+    }
+
+    /**
+     * Deletes a directory and its files.
+     *
+     * @param directory the directory
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+    }
+
+    /**
+     * Tests that replayed frames reach the listeners of a {@link MarketDataWebsocket} with the {@link ReplayClock} set
+     * to their receive time.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    @Test
+    public void testReplayAsFastAsPossible() throws Exception {
+        Path directory = Files.createTempDirectory("frame-replayer");
+        try {
+            recordSession(directory);
+
+            MarketDataWebsocket marketDataWebsocket = new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX,
+                    "key", "secret");
+            ReplayClock replayClock = new ReplayClock(0);
+            List<Double> prices = new ArrayList<>();
+            List<Long> replayEpochNanos = new ArrayList<>();
+            marketDataWebsocket.addTradeListener(tradeMessage -> {
+                prices.add(tradeMessage.getPrice());
+                replayEpochNanos.add(replayClock.epochNanos());
+            });
+            List<ConnectionState> connectionStates = new ArrayList<>();
+            marketDataWebsocket.addConnectionStateListener((previousState, state) -> connectionStates.add(state));
+
+            try (FrameJournalReader frameJournalReader = new FrameJournalReader(directory, "replay")) {
+                FrameReplayer frameReplayer = new FrameReplayer(frameJournalReader, marketDataWebsocket,
+                        ReplaySpeed.AS_FAST_AS_POSSIBLE, replayClock);
+                // Stop before the last 5 trade frames
+                long toEpochNanos = START_EPOCH_NANOS + (TRADE_FRAME_COUNT - 4) * FRAME_INTERVAL_NANOS;
+                assertEquals(TRADE_FRAME_COUNT - 4, frameReplayer.replay(Long.MIN_VALUE, toEpochNanos));
+                assertEquals(TRADE_FRAME_COUNT - 5, prices.size());
+                assertEquals(100.0, (double) prices.get(0));
+                assertEquals(START_EPOCH_NANOS + FRAME_INTERVAL_NANOS, (long) replayEpochNanos.get(0));
+                assertEquals(toEpochNanos - FRAME_INTERVAL_NANOS, replayClock.epochNanos());
+
+                assertEquals(5, frameReplayer.replay());
+                assertEquals(TRADE_FRAME_COUNT, prices.size());
+                assertEquals(100.0 + TRADE_FRAME_COUNT - 1, (double) prices.get(TRADE_FRAME_COUNT - 1));
+                assertEquals(TRADE_FRAME_COUNT + 1, frameReplayer.getReplayedFrameCount());
+
+                // The replayed authentication didn't change the state of the unconnected websocket
+                assertFalse(marketDataWebsocket.isAuthenticated());
+                assertEquals(ConnectionState.DISCONNECTED, marketDataWebsocket.getConnectionState());
+                assertTrue(connectionStates.isEmpty());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Tests that a paced replay keeps the recorded gaps between frames, divided by the speed multiplier.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    @Test
+    public void testReplayMultiple() throws Exception {
+        Path directory = Files.createTempDirectory("frame-replayer");
+        try {
+            recordSession(directory);
+
+            MarketDataWebsocket marketDataWebsocket = new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX,
+                    "key", "secret");
+            try (FrameJournalReader frameJournalReader = new FrameJournalReader(directory, "replay")) {
+                FrameReplayer frameReplayer = new FrameReplayer(frameJournalReader, marketDataWebsocket,
+                        ReplaySpeed.multiple(4), new ReplayClock(0));
+                long startNanoTime = System.nanoTime();
+                assertEquals(TRADE_FRAME_COUNT + 1, frameReplayer.replay());
+                long elapsedNanos = System.nanoTime() - startNanoTime;
+                assertTrue(elapsedNanos >= TRADE_FRAME_COUNT * FRAME_INTERVAL_NANOS / 4,
+                        "Replayed too fast: " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms");
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.trade.Trade;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.historical.trade.TradesResponse;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.rest.AlpacaClient;
+import net.jacobpeterson.alpaca.rest.AlpacaClientException;
+import net.jacobpeterson.alpaca.rest.endpoint.MarketDataEndpoint;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.backfill.GapBackfiller;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link GapBackfillerTest} tests that a {@link GapBackfiller} dispatches exactly the trades that were missed while a
+ * {@link MarketDataWebsocket} was reconnecting.
+ */
+public class GapBackfillerTest {
+
+    private static final String SUBSCRIPTION_FRAME =
+            "[{\"T\":\"subscription\",\"trades\":[\"GAPT\"],\"quotes\":[],\"bars\":[]}]";
+    private static final String RESUME_TIMESTAMP = "2021-02-22T15:00:10Z";
+
+    /**
+     * {@link PagedMarketDataEndpoint} returns each of its pages of trades in turn.
+     */
+    private static class PagedMarketDataEndpoint extends MarketDataEndpoint {
+
+        private final List<List<String>> pages;
+        private int requestCount;
+
+        private PagedMarketDataEndpoint(List<List<String>> pages) {
+            super(new AlpacaClient(new OkHttpClient(), "key", "secret", "data", "v2"));
+            this.pages = pages;
+        }
+
+        @Override
+        public TradesResponse getTrades(String symbol, ZonedDateTime start, ZonedDateTime end, Integer limit,
+                String pageToken) throws AlpacaClientException {
+            if (pages == null) {
+                throw new AlpacaClientException("Unavailable");
+            }
+
+            assertEquals(pageToken == null ? 0 : Integer.parseInt(pageToken), requestCount);
+            ArrayList<Trade> trades = new ArrayList<>();
+            for (String timestamp : pages.get(requestCount)) {
+                Trade trade = new Trade();
+                trade.setTimestampEpochNanos(EpochNanosUtil.parseRFC3339(timestamp));
+                trade.setP(2.5);
+                trade.setS(10);
+                // The third trade of a page has an ID that doesn't fit in an int
+                trade.setI(Integer.MAX_VALUE - 1L + trades.size());
+                trades.add(trade);
+            }
+            requestCount++;
+            return new TradesResponse(trades, symbol,
+                    requestCount < pages.size() ? String.valueOf(requestCount) : null);
+        }
+    }
+
+    /**
+     * Connects <code>marketDataWebsocket</code>, receives a trade, and loses and restores the connection.
+     *
+     * @param marketDataWebsocket the {@link TestMarketDataWebsocket}
+     */
+    private static void reconnect(TestMarketDataWebsocket marketDataWebsocket) {
+        marketDataWebsocket.openAuthenticated();
+        marketDataWebsocket.receive(SUBSCRIPTION_FRAME);
+        sendTrade(marketDataWebsocket, "2021-02-22T15:00:00.5Z");
+
+        marketDataWebsocket.onFailure(marketDataWebsocket.recordingWebSocket, new IOException("Reset"), null);
+        marketDataWebsocket.openAuthenticated();
+        marketDataWebsocket.receive(SUBSCRIPTION_FRAME);
+    }
+
+    /**
+     * Sends a trade of the gap test symbol.
+     *
+     * @param marketDataWebsocket the {@link TestMarketDataWebsocket}
+     * @param timestamp           the RFC 3339 timestamp of the trade
+     */
+    private static void sendTrade(TestMarketDataWebsocket marketDataWebsocket, String timestamp) {
+        marketDataWebsocket.receive("[{\"T\":\"t\",\"i\":1,\"S\":\"GAPT\",\"p\":1.5,\"s\":1,\"t\":\"" +
+                timestamp + "\"}]");
+    }
+
+    /**
+     * Tests that the trades between the last trade before the connection was lost and the first trade after it was
+     * restored are dispatched as replayed, across pages, and that the trades at either boundary aren't repeated.
+     */
+    @Test
+    public void testBackfill() {
+        TestMarketDataWebsocket marketDataWebsocket = new TestMarketDataWebsocket();
+        PagedMarketDataEndpoint marketDataEndpoint = new PagedMarketDataEndpoint(Arrays.asList(
+                Arrays.asList("2021-02-22T15:00:00.5Z", "2021-02-22T15:00:03Z", "2021-02-22T15:00:05Z"),
+                Arrays.asList("2021-02-22T15:00:08Z", "2021-02-22T15:00:09Z")));
+        List<Runnable> backfills = new ArrayList<>();
+        GapBackfiller gapBackfiller = new GapBackfiller(marketDataWebsocket, marketDataEndpoint, backfills::add,
+                () -> EpochNanosUtil.parseRFC3339(RESUME_TIMESTAMP));
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        marketDataWebsocket.addTradeListener(tradeMessages::add);
+
+        reconnect(marketDataWebsocket);
+        assertEquals(1, backfills.size());
+        assertEquals(1, gapBackfiller.getActiveBackfillCount());
+        assertEquals(EpochNanosUtil.parseRFC3339("2021-02-22T15:00:00.5Z"),
+                gapBackfiller.getLastTradeEpochNanos("GAPT"));
+
+        // The first live trade arrives before the backfill runs and ends the gap
+        sendTrade(marketDataWebsocket, "2021-02-22T15:00:08Z");
+        backfills.get(0).run();
+
+        assertEquals(4, tradeMessages.size());
+        assertFalse(tradeMessages.get(1).isReplayed());
+        TradeMessage firstReplayed = tradeMessages.get(2);
+        assertTrue(firstReplayed.isReplayed());
+        assertEquals("GAPT", firstReplayed.getSymbol());
+        assertEquals(2.5, (double) firstReplayed.getPrice());
+        assertEquals(EpochNanosUtil.parseRFC3339("2021-02-22T15:00:03Z"), firstReplayed.getTimestampEpochNanos());
+        assertEquals(Integer.MAX_VALUE, (long) firstReplayed.getTradeID());
+        assertEquals(EpochNanosUtil.parseRFC3339("2021-02-22T15:00:05Z"),
+                tradeMessages.get(3).getTimestampEpochNanos());
+        assertEquals(Integer.MAX_VALUE + 1L, (long) tradeMessages.get(3).getTradeID());
+        assertEquals(2, marketDataEndpoint.requestCount);
+
+        assertEquals(2, gapBackfiller.getBackfilledMessageCount());
+        assertEquals(0, gapBackfiller.getActiveBackfillCount());
+        assertEquals(0, gapBackfiller.getFailedBackfillCount());
+        // Replayed trades don't advance the last live trade
+        assertEquals(EpochNanosUtil.parseRFC3339("2021-02-22T15:00:08Z"),
+                gapBackfiller.getLastTradeEpochNanos("GAPT"));
+    }
+
+    /**
+     * Tests that a failed backfill is counted and doesn't stay active.
+     */
+    @Test
+    public void testFailedBackfill() {
+        TestMarketDataWebsocket marketDataWebsocket = new TestMarketDataWebsocket();
+        GapBackfiller gapBackfiller = new GapBackfiller(marketDataWebsocket, new PagedMarketDataEndpoint(null),
+                Runnable::run, () -> EpochNanosUtil.parseRFC3339(RESUME_TIMESTAMP));
+
+        reconnect(marketDataWebsocket);
+
+        assertEquals(1, gapBackfiller.getFailedBackfillCount());
+        assertEquals(0, gapBackfiller.getActiveBackfillCount());
+        assertEquals(0, gapBackfiller.getBackfilledMessageCount());
+    }
+}
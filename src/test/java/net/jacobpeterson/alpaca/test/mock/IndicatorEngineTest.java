@@ -0,0 +1,207 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.ExponentialMovingAverage;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.Indicator;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.IndicatorEngine;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.IndicatorInput;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.RollingMaximum;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.RollingMinimum;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.RollingVWAP;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.RollingVolatility;
+import net.jacobpeterson.alpaca.websocket.marketdata.indicator.RollingZScore;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link IndicatorEngineTest} tests {@link IndicatorEngine} and its {@link Indicator}s.
+ */
+public class IndicatorEngineTest {
+
+    private static final int WINDOW_SIZE = 20;
+
+    /**
+     * Tests the rolling {@link Indicator}s against recomputing them over the whole window.
+     */
+    @Test
+    public void testRollingIndicators() {
+        Random random = new Random(42);
+        int sampleCount = 1000;
+        double[] prices = new double[sampleCount];
+        double[] volumes = new double[sampleCount];
+
+        Indicator vwap = new RollingVWAP(WINDOW_SIZE);
+        Indicator volatility = new RollingVolatility(WINDOW_SIZE);
+        Indicator zScore = new RollingZScore(WINDOW_SIZE);
+        Indicator minimum = new RollingMinimum(WINDOW_SIZE);
+        Indicator maximum = new RollingMaximum(WINDOW_SIZE);
+
+        double price = 100;
+        for (int index = 0; index < sampleCount; index++) {
+            // Runs of equal prices exercise ties in the monotonic deques
+            price = index % 7 == 0 ? price : price * Math.exp(random.nextGaussian() * 0.01);
+            prices[index] = price;
+            volumes[index] = 1 + random.nextInt(500);
+            for (Indicator indicator : new Indicator[]{vwap, volatility, zScore, minimum, maximum}) {
+                indicator.update(prices[index], volumes[index]);
+            }
+
+            if (index < WINDOW_SIZE - 1) {
+                assertTrue(Double.isNaN(vwap.getValue()));
+                assertTrue(Double.isNaN(minimum.getValue()));
+                assertTrue(Double.isNaN(zScore.getValue()));
+                continue;
+            }
+
+            int start = index - WINDOW_SIZE + 1;
+            double notional = 0;
+            double volume = 0;
+            double expectedMinimum = Double.MAX_VALUE;
+            double expectedMaximum = -Double.MAX_VALUE;
+            double sum = 0;
+            for (int windowIndex = start; windowIndex <= index; windowIndex++) {
+                notional += prices[windowIndex] * volumes[windowIndex];
+                volume += volumes[windowIndex];
+                expectedMinimum = Math.min(expectedMinimum, prices[windowIndex]);
+                expectedMaximum = Math.max(expectedMaximum, prices[windowIndex]);
+                sum += prices[windowIndex];
+            }
+            double mean = sum / WINDOW_SIZE;
+            double squaredDeviations = 0;
+            for (int windowIndex = start; windowIndex <= index; windowIndex++) {
+                squaredDeviations += (prices[windowIndex] - mean) * (prices[windowIndex] - mean);
+            }
+
+            assertEquals(notional / volume, vwap.getValue(), 1e-9);
+            assertEquals(expectedMinimum, minimum.getValue());
+            assertEquals(expectedMaximum, maximum.getValue());
+            assertEquals((price - mean) / Math.sqrt(squaredDeviations / (WINDOW_SIZE - 1)), zScore.getValue(), 1e-6);
+
+            if (index < WINDOW_SIZE) {
+                assertTrue(Double.isNaN(volatility.getValue()));
+            } else {
+                double returnSum = 0;
+                double[] logReturns = new double[WINDOW_SIZE];
+                for (int returnIndex = 0; returnIndex < WINDOW_SIZE; returnIndex++) {
+                    int priceIndex = index - WINDOW_SIZE + 1 + returnIndex;
+                    logReturns[returnIndex] = Math.log(prices[priceIndex] / prices[priceIndex - 1]);
+                    returnSum += logReturns[returnIndex];
+                }
+                double returnMean = returnSum / WINDOW_SIZE;
+                double returnDeviations = 0;
+                for (double logReturn : logReturns) {
+                    returnDeviations += (logReturn - returnMean) * (logReturn - returnMean);
+                }
+                assertEquals(Math.sqrt(returnDeviations / (WINDOW_SIZE - 1)), volatility.getValue(), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Tests {@link ExponentialMovingAverage}.
+     */
+    @Test
+    public void testExponentialMovingAverage() {
+        Indicator ema = new ExponentialMovingAverage(3);
+        assertTrue(Double.isNaN(ema.getValue()));
+        ema.update(10, 1);
+        assertEquals(10, ema.getValue());
+        ema.update(12, 1);
+        assertEquals(11, ema.getValue());
+        ema.update(7, 1);
+        assertEquals(9, ema.getValue());
+        assertThrows(IllegalArgumentException.class, () -> new ExponentialMovingAverage(0));
+    }
+
+    /**
+     * Tests that {@link IndicatorEngine} routes trades and bars to the indicators of their symbol and input.
+     */
+    @Test
+    public void testIndicatorEngine() {
+        IndicatorEngine indicatorEngine = new IndicatorEngine();
+        int tradeEMAIndex = indicatorEngine.addIndicator("ema", IndicatorInput.TRADES,
+                () -> new ExponentialMovingAverage(1));
+        indicatorEngine.addIndicator("barMax", IndicatorInput.BARS, () -> new RollingMaximum(2));
+        assertThrows(IllegalArgumentException.class, () -> indicatorEngine.addIndicator("ema", IndicatorInput.BARS,
+                () -> new ExponentialMovingAverage(1)));
+
+        TradeMessage tradeMessage = new TradeMessage();
+        tradeMessage.setSymbol("INDICATOR_A");
+        tradeMessage.setPrice(5.0);
+        tradeMessage.setSize(10);
+        indicatorEngine.onTrade(tradeMessage);
+
+        BarMessage barMessage = new BarMessage();
+        barMessage.setSymbol("INDICATOR_A");
+        barMessage.setClose(7.0);
+        barMessage.setVolume(100L);
+        indicatorEngine.onBar(barMessage);
+        assertTrue(Double.isNaN(indicatorEngine.getValue("INDICATOR_A", "barMax")));
+        barMessage.setClose(6.0);
+        indicatorEngine.onBar(barMessage);
+
+        int symbolID = SymbolTable.GLOBAL.find("INDICATOR_A");
+        assertEquals(5.0, indicatorEngine.getValue(symbolID, tradeEMAIndex));
+        assertEquals(7.0, indicatorEngine.getValue("INDICATOR_A", "barMax"));
+        assertTrue(Double.isNaN(indicatorEngine.getValue("INDICATOR_A", "missing")));
+        assertTrue(Double.isNaN(indicatorEngine.getValue("INDICATOR_UNKNOWN", "ema")));
+
+        // Indicators added later are created for symbols that already have indicators
+        indicatorEngine.addIndicator("vwap", IndicatorInput.TRADES, () -> new RollingVWAP(1));
+        assertTrue(Double.isNaN(indicatorEngine.getValue("INDICATOR_A", "vwap")));
+        tradeMessage.setPrice(6.0);
+        indicatorEngine.onTrade(tradeMessage);
+        assertEquals(6.0, indicatorEngine.getValue("INDICATOR_A", "vwap"));
+        assertEquals(6.0, indicatorEngine.getValue("INDICATOR_A", "ema"));
+        assertEquals(7.0, indicatorEngine.getValue("INDICATOR_A", "barMax"));
+
+        // Samples without a symbol are ignored
+        indicatorEngine.update(IndicatorInput.TRADES, SymbolTable.NO_ID, 1.0, 1.0);
+        assertTrue(Double.isNaN(indicatorEngine.getValue(SymbolTable.NO_ID, tradeEMAIndex)));
+    }
+
+    /**
+     * Tests that concurrent updates of the same symbol from several threads aren't lost.
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    @Test
+    public void testIndicatorEngine_concurrentUpdates() throws InterruptedException {
+        IndicatorEngine indicatorEngine = new IndicatorEngine();
+        int countIndex = indicatorEngine.addIndicator("count", IndicatorInput.TRADES, () -> new Indicator() {
+            private double count;
+
+            @Override
+            public void update(double price, double volume) {
+                count++;
+            }
+
+            @Override
+            public double getValue() {
+                return count;
+            }
+        });
+        int symbolID = SymbolTable.GLOBAL.intern("INDICATOR_CONCURRENT");
+
+        int updateCount = 100_000;
+        Thread[] threads = new Thread[4];
+        for (int threadIndex = 0; threadIndex < threads.length; threadIndex++) {
+            threads[threadIndex] = new Thread(() -> {
+                for (int index = 0; index < updateCount; index++) {
+                    indicatorEngine.update(IndicatorInput.TRADES, symbolID, 1.0, 1.0);
+                }
+            });
+            threads[threadIndex].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(threads.length * updateCount, indicatorEngine.getValue(symbolID, countIndex));
+    }
+}
@@ -0,0 +1,83 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogram;
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogramSnapshot;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.ClockSkewEstimator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link LatencyHistogramTest} tests {@link LatencyHistogram} and {@link ClockSkewEstimator}.
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Tests that percentiles are within the accuracy of {@link LatencyHistogram}.
+     */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            latencyHistogram.record(value * 1000);
+        }
+        latencyHistogram.record(-5);
+
+        LatencyHistogramSnapshot snapshot = latencyHistogram.snapshot();
+        assertEquals(100_001, snapshot.getCount());
+        assertEquals(1, latencyHistogram.getNegativeCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(100_000_000, snapshot.getMax());
+        assertEquals(50_000_000, snapshot.getP50(), 50_000_000 * 0.035);
+        assertEquals(99_000_000, snapshot.getP99(), 99_000_000 * 0.035);
+        assertEquals(99_900_000, snapshot.getP999(), 99_900_000 * 0.035);
+        assertEquals(100_000_000, snapshot.getValueAtPercentile(100));
+
+        latencyHistogram.reset();
+        assertEquals(0, latencyHistogram.snapshot().getCount());
+        assertEquals(0, latencyHistogram.snapshot().getP99());
+    }
+
+    /**
+     * Tests that small values are counted exactly.
+     */
+    @Test
+    public void testLinearValues() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (long value = 0; value < LatencyHistogram.LINEAR_LIMIT; value++) {
+            latencyHistogram.record(value);
+        }
+        latencyHistogram.record(Long.MAX_VALUE);
+
+        LatencyHistogramSnapshot snapshot = latencyHistogram.snapshot();
+        assertEquals(31, snapshot.getValueAtPercentile(32.0 / 65 * 100));
+        assertEquals(Long.MAX_VALUE, snapshot.getMax());
+    }
+
+    /**
+     * Tests that {@link ClockSkewEstimator} follows the lowest observed latency and corrects a local clock that is
+     * behind.
+     */
+    @Test
+    public void testClockSkewEstimator() {
+        ClockSkewEstimator clockSkewEstimator = new ClockSkewEstimator(1000, 500);
+        assertEquals(0, clockSkewEstimator.getCorrectionNanos());
+
+        clockSkewEstimator.update(300, 0);
+        clockSkewEstimator.update(200, 100);
+        assertEquals(200, clockSkewEstimator.getEstimateNanos());
+        assertEquals(0, clockSkewEstimator.getCorrectionNanos());
+
+        clockSkewEstimator.update(-100, 1000);
+        assertEquals(-100, clockSkewEstimator.getEstimateNanos());
+        assertEquals(-100, clockSkewEstimator.getCorrectionNanos());
+
+        clockSkewEstimator.update(-10_000, 1500);
+        assertEquals(-500, clockSkewEstimator.getCorrectionNanos());
+
+        // The low latencies expire after two windows
+        clockSkewEstimator.update(50, 2500);
+        clockSkewEstimator.update(60, 3500);
+        assertEquals(50, clockSkewEstimator.getEstimateNanos());
+    }
+}
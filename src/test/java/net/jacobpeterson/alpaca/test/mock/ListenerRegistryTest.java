@@ -0,0 +1,74 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.util.concurrent.ListenerRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ListenerRegistryTest} tests {@link ListenerRegistry}.
+ */
+public class ListenerRegistryTest {
+
+    /**
+     * Tests adding and removing listeners and that snapshots are immutable.
+     */
+    @Test
+    public void testAddRemove() {
+        ListenerRegistry<Runnable> listenerRegistry = new ListenerRegistry<>(Runnable[]::new);
+        Runnable first = () -> {};
+        Runnable second = () -> {};
+
+        listenerRegistry.add(first);
+        Runnable[] snapshot = listenerRegistry.snapshot();
+        listenerRegistry.add(second);
+        listenerRegistry.add(first);
+
+        assertEquals(1, snapshot.length);
+        assertArrayEquals(new Runnable[]{first, second, first}, listenerRegistry.snapshot());
+
+        assertTrue(listenerRegistry.remove(first));
+        assertArrayEquals(new Runnable[]{second, first}, listenerRegistry.snapshot());
+        assertFalse(listenerRegistry.remove(() -> {}));
+
+        listenerRegistry.clear();
+        assertTrue(listenerRegistry.isEmpty());
+        assertFalse(listenerRegistry.contains(second));
+    }
+
+    /**
+     * Tests concurrent adds and removes from multiple threads.
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    @Test
+    public void testConcurrentAddRemove() throws InterruptedException {
+        ListenerRegistry<Runnable> listenerRegistry = new ListenerRegistry<>(Runnable[]::new);
+        Runnable kept = () -> {};
+        listenerRegistry.add(kept);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int threadIndex = 0; threadIndex < 4; threadIndex++) {
+            Thread thread = new Thread(() -> {
+                for (int index = 0; index < 10_000; index++) {
+                    Runnable listener = () -> {};
+                    listenerRegistry.add(listener);
+                    for (Runnable snapshotListener : listenerRegistry.snapshot()) {
+                        snapshotListener.run();
+                    }
+                    assertTrue(listenerRegistry.remove(listener));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertArrayEquals(new Runnable[]{kept}, listenerRegistry.snapshot());
+    }
+}
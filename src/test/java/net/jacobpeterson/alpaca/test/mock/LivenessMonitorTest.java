@@ -0,0 +1,156 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.clock.Clock;
+import net.jacobpeterson.alpaca.rest.AlpacaClient;
+import net.jacobpeterson.alpaca.rest.endpoint.ClockEndpoint;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.liveness.LivenessListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.liveness.LivenessMonitor;
+import net.jacobpeterson.alpaca.websocket.marketdata.liveness.LivenessPolicy;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link LivenessMonitorTest} tests that a {@link LivenessMonitor} reports silent symbols and connections only after
+ * learning their message rates and only while the market is open.
+ */
+public class LivenessMonitorTest {
+
+    private static final String SUBSCRIPTION_FRAME =
+            "[{\"T\":\"subscription\",\"trades\":[\"LIVA\",\"LIVB\"],\"quotes\":[],\"bars\":[]}]";
+    private static final LivenessPolicy LIVENESS_POLICY = new LivenessPolicy(10, 1000, 1000, 60_000, 5);
+
+    /**
+     * {@link FixedClockEndpoint} always returns the same {@link Clock}.
+     */
+    private static class FixedClockEndpoint extends ClockEndpoint {
+
+        private final boolean open;
+
+        private FixedClockEndpoint(boolean open) {
+            super(new AlpacaClient(new OkHttpClient(), "key", "secret", "data", "v2"));
+            this.open = open;
+        }
+
+        @Override
+        public Clock get() {
+            ZonedDateTime nextTransition = ZonedDateTime.now().plusYears(1);
+            return new Clock(ZonedDateTime.now(), open, nextTransition, nextTransition);
+        }
+    }
+
+    /**
+     * {@link Harness} drives a {@link LivenessMonitor} with a manual clock and records its events.
+     */
+    private static class Harness implements LivenessListener {
+
+        private final TestMarketDataWebsocket marketDataWebsocket = new TestMarketDataWebsocket();
+        private final List<String> events = new ArrayList<>();
+        private final LivenessMonitor livenessMonitor;
+        private long epochNanos = EpochNanosUtil.parseRFC3339("2021-02-22T15:00:00Z");
+
+        private Harness(boolean marketOpen, ScheduledExecutorService scheduledExecutorService) {
+            livenessMonitor = new LivenessMonitor(marketDataWebsocket, new FixedClockEndpoint(marketOpen),
+                    scheduledExecutorService, LivenessMonitor.DEFAULT_CHECK_INTERVAL_MILLIS, LIVENESS_POLICY,
+                    () -> epochNanos);
+            livenessMonitor.addLivenessListener(this);
+            marketDataWebsocket.openAuthenticated();
+            marketDataWebsocket.receive(SUBSCRIPTION_FRAME);
+        }
+
+        /**
+         * Receives a trade of each of <code>symbols</code>, lets a second pass, and checks, <code>seconds</code>
+         * times.
+         */
+        private void tick(int seconds, String... symbols) {
+            for (int second = 0; second < seconds; second++) {
+                for (String symbol : symbols) {
+                    marketDataWebsocket.receive("[{\"T\":\"t\",\"i\":1,\"S\":\"" + symbol + "\",\"p\":1.5,\"s\":1," +
+                            "\"t\":\"2021-02-22T15:00:00Z\"}]");
+                }
+                epochNanos += TimeUnit.SECONDS.toNanos(1);
+                livenessMonitor.check();
+            }
+        }
+
+        @Override
+        public void onSymbolStale(String symbol, long silentNanos, long expectedIntervalNanos) {
+            events.add("stale " + symbol);
+        }
+
+        @Override
+        public void onSymbolRecovered(String symbol, long silentNanos) {
+            events.add("recovered " + symbol + " " + TimeUnit.NANOSECONDS.toSeconds(silentNanos));
+        }
+
+        @Override
+        public void onConnectionStale(long silentNanos, boolean reconnectingForcibly) {
+            events.add("connection " + reconnectingForcibly);
+        }
+    }
+
+    /**
+     * Tests that a silent symbol is reported stale and recovered, and that a silent connection is reported stale and
+     * forced to reconnect.
+     */
+    @Test
+    public void testStaleness() {
+        ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Harness harness = new Harness(true, scheduledExecutorService);
+            harness.tick(20, "LIVA", "LIVB");
+            assertTrue(harness.events.isEmpty());
+            assertEquals(Boolean.TRUE, harness.livenessMonitor.isMarketOpen());
+
+            // 'LIVB' is expected every second, so 10 seconds of silence is anomalous
+            harness.tick(9, "LIVA");
+            assertTrue(harness.events.isEmpty());
+            harness.tick(2, "LIVA");
+            assertEquals(Collections.singletonList("stale LIVB"), harness.events);
+            assertEquals(Collections.singleton("LIVB"), harness.livenessMonitor.getStaleSymbols());
+
+            harness.tick(1, "LIVA", "LIVB");
+            assertEquals("recovered LIVB 12", harness.events.get(1));
+            assertTrue(harness.livenessMonitor.getStaleSymbols().isEmpty());
+
+            // The connection receives about 2 frames per second, so 10 intervals are about 5 seconds
+            harness.tick(3);
+            assertEquals(2, harness.events.size());
+            harness.tick(5);
+            assertEquals("connection true", harness.events.get(2));
+            assertTrue(harness.livenessMonitor.isConnectionStale());
+            assertTrue(harness.marketDataWebsocket.recordingWebSocket.isCancelled());
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that nothing is reported while the market is closed.
+     */
+    @Test
+    public void testMarketClosed() {
+        ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            Harness harness = new Harness(false, scheduledExecutorService);
+            harness.tick(20, "LIVA", "LIVB");
+            harness.tick(60);
+
+            assertEquals(Boolean.FALSE, harness.livenessMonitor.isMarketOpen());
+            assertTrue(harness.events.isEmpty());
+            assertFalse(harness.marketDataWebsocket.recordingWebSocket.isCancelled());
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+}
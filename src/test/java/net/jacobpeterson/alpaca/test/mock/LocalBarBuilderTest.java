@@ -0,0 +1,129 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.bar.BarAlignment;
+import net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBar;
+import net.jacobpeterson.alpaca.websocket.marketdata.bar.LocalBarBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link LocalBarBuilderTest} tests {@link LocalBarBuilder}.
+ */
+public class LocalBarBuilderTest {
+
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    /**
+     * Creates a {@link TradeMessage}.
+     *
+     * @param symbol              the symbol
+     * @param price               the price
+     * @param size                the size
+     * @param timestampEpochNanos the timestamp
+     * @param conditions          the conditions
+     *
+     * @return a {@link TradeMessage}
+     */
+    private static TradeMessage createTradeMessage(String symbol, double price, int size, long timestampEpochNanos,
+            String... conditions) {
+        TradeMessage tradeMessage = new TradeMessage();
+        tradeMessage.setSymbol(symbol);
+        tradeMessage.setPrice(price);
+        tradeMessage.setSize(size);
+        tradeMessage.setTimestampEpochNanos(timestampEpochNanos);
+        tradeMessage.setConditions(new ArrayList<>(Arrays.asList(conditions)));
+        return tradeMessage;
+    }
+
+    /**
+     * Creates a {@link LocalBar} description that can be compared after the {@link LocalBar} is reused.
+     *
+     * @param localBar the {@link LocalBar}
+     *
+     * @return a {@link String}
+     */
+    private static String describe(LocalBar localBar) {
+        return localBar.getSymbol() + " " + localBar.getIntervalNanos() / SECOND_NANOS + "s " +
+                localBar.getStartEpochNanos() / SECOND_NANOS + " " + localBar.getOpen() + " " + localBar.getHigh() +
+                " " + localBar.getLow() + " " + localBar.getClose() + " " + localBar.getVolume() + " " +
+                localBar.getVWAP() + " " + localBar.getTradeCount();
+    }
+
+    /**
+     * Tests building bars closed by exchange time, with excluded conditions, late trades, and a per-symbol interval.
+     */
+    @Test
+    public void testExchangeTimeBars() {
+        List<String> bars = new ArrayList<>();
+        LocalBarBuilder localBarBuilder = new LocalBarBuilder(localBar -> bars.add(describe(localBar)));
+        localBarBuilder.addInterval(SECOND_NANOS);
+        localBarBuilder.addInterval("BARS_A", 5 * SECOND_NANOS);
+        localBarBuilder.setExcludedConditions(Collections.singletonList("I"));
+
+        localBarBuilder.onTrade(createTradeMessage("BARS_A", 10, 100, 100_000_000));
+        localBarBuilder.onTrade(createTradeMessage("BARS_A", 12, 100, 500_000_000));
+        localBarBuilder.onTrade(createTradeMessage("BARS_A", 99, 1, 600_000_000, "@", "I"));
+        localBarBuilder.onTrade(createTradeMessage("BARS_B", 50, 10, 900_000_000));
+        localBarBuilder.onTrade(createTradeMessage("BARS_A", 9, 200, 700_000_000));
+        assertTrue(bars.isEmpty());
+
+        // A trade of another symbol in the next second closes both 1 second bars
+        localBarBuilder.onTrade(createTradeMessage("BARS_B", 51, 10, SECOND_NANOS + 1));
+        Collections.sort(bars);
+        assertEquals(Arrays.asList(
+                "BARS_A 1s 0 10.0 12.0 9.0 9.0 400 10.0 3",
+                "BARS_B 1s 0 50.0 50.0 50.0 50.0 10 50.0 1"), bars);
+
+        // A late trade is dropped from the closed 1 second bar, but not from the open 5 second bar
+        localBarBuilder.onTrade(createTradeMessage("BARS_A", 8, 1, 800_000_000));
+        assertEquals(1, localBarBuilder.getLateTradeCount());
+
+        bars.clear();
+        localBarBuilder.onTrade(createTradeMessage("BARS_A", 11, 100, 5 * SECOND_NANOS));
+        Collections.sort(bars);
+        assertEquals(Arrays.asList(
+                "BARS_A 5s 0 10.0 12.0 8.0 8.0 401 " + 4008.0 / 401 + " 4",
+                "BARS_B 1s 1 51.0 51.0 51.0 51.0 10 51.0 1"), bars);
+
+        bars.clear();
+        localBarBuilder.flush();
+        assertEquals(2, bars.size());
+        assertTrue(bars.contains("BARS_A 1s 5 11.0 11.0 11.0 11.0 100 11.0 1"));
+    }
+
+    /**
+     * Tests that {@link BarAlignment#WALL_CLOCK} bars are closed by {@link LocalBarBuilder#advanceTime()} after the
+     * close delay without further trades.
+     */
+    @Test
+    public void testWallClockBars() {
+        AtomicLong epochNanos = new AtomicLong();
+        List<LocalBar> bars = new ArrayList<>();
+        LocalBarBuilder localBarBuilder = new LocalBarBuilder(bars::add, BarAlignment.WALL_CLOCK, epochNanos::get,
+                SECOND_NANOS / 10);
+        localBarBuilder.addInterval(15 * SECOND_NANOS);
+
+        localBarBuilder.onTrade(SymbolTable.GLOBAL.intern("BARS_C"), 3, 5, 16 * SECOND_NANOS);
+        localBarBuilder.onTrade(SymbolTable.GLOBAL.intern("BARS_C"), 4, 5, 40 * SECOND_NANOS);
+        assertEquals(1, bars.size());
+
+        epochNanos.set(45 * SECOND_NANOS);
+        localBarBuilder.advanceTime();
+        assertEquals(1, bars.size());
+
+        epochNanos.set(45 * SECOND_NANOS + SECOND_NANOS / 10);
+        localBarBuilder.advanceTime();
+        assertEquals(2, bars.size());
+        assertEquals(30 * SECOND_NANOS, bars.get(1).getStartEpochNanos());
+        assertEquals(4, bars.get(1).getClose());
+    }
+}
@@ -0,0 +1,110 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataMessageDecoder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link MarketDataMessageDecoderTest} tests {@link MarketDataMessageDecoder}.
+ */
+public class MarketDataMessageDecoderTest {
+
+    /**
+     * Tests {@link MarketDataMessageDecoder#decode(String, MarketDataListener)} with trade, quote, and bar
+     * messages in a single frame.
+     */
+    @Test
+    public void testDecode_tradeQuoteBar() {
+        String frame = "[" +
+                "{\"T\":\"t\",\"i\":96921,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55,\"s\":1," +
+                "\"t\":\"2021-02-22T15:51:44.208Z\",\"c\":[\"@\",\"I\"],\"z\":\"C\"}," +
+                "{\"T\":\"q\",\"S\":\"AMD\",\"bx\":\"U\",\"bp\":87.66,\"bs\":1,\"ax\":\"Q\",\"ap\":87.68,\"as\":4," +
+                "\"t\":\"2021-02-22T15:51:45.335689322Z\",\"c\":[\"R\"],\"z\":\"C\"}," +
+                "{\"T\":\"b\",\"S\":\"SPY\",\"o\":388.985,\"h\":389.13,\"l\":388.975,\"c\":389.12,\"v\":49378," +
+                "\"t\":\"2021-02-22T19:15:00Z\"}" +
+                "]";
+
+        List<MarketDataMessageType> messageTypes = new ArrayList<>();
+        List<MarketDataMessage> messages = new ArrayList<>();
+        new MarketDataMessageDecoder().decode(frame, (messageType, message) -> {
+            messageTypes.add(messageType);
+            messages.add(message);
+        });
+
+        assertEquals(Arrays.asList(MarketDataMessageType.TRADE, MarketDataMessageType.QUOTE,
+                MarketDataMessageType.BAR), messageTypes);
+
+        TradeMessage tradeMessage = (TradeMessage) messages.get(0);
+        assertEquals(MarketDataMessageType.TRADE, tradeMessage.getMessageType());
+        assertEquals("AAPL", tradeMessage.getSymbol());
+        assertEquals(96921L, (long) tradeMessage.getTradeID());
+        assertEquals("D", tradeMessage.getExchange());
+        assertEquals(126.55, (double) tradeMessage.getPrice());
+        assertEquals(1, (int) tradeMessage.getSize());
+        assertEquals(Arrays.asList("@", "I"), tradeMessage.getConditions());
+        assertEquals("C", tradeMessage.getTape());
+        assertEquals(208_000_000, tradeMessage.getTimestamp().getNano());
+
+        QuoteMessage quoteMessage = (QuoteMessage) messages.get(1);
+        assertEquals("AMD", quoteMessage.getSymbol());
+        assertEquals("U", quoteMessage.getBidExchangeCode());
+        assertEquals(87.66, (double) quoteMessage.getBidPrice());
+        assertEquals(1, (int) quoteMessage.getBidSize());
+        assertEquals("Q", quoteMessage.getAskExchangeCode());
+        assertEquals(87.68, (double) quoteMessage.getAskPrice());
+        assertEquals(4, (int) quoteMessage.getAskSize());
+        assertEquals(335_689_322, quoteMessage.getTimestamp().getNano());
+
+        BarMessage barMessage = (BarMessage) messages.get(2);
+        assertEquals("SPY", barMessage.getSymbol());
+        assertEquals(388.985, (double) barMessage.getOpen());
+        assertEquals(389.13, (double) barMessage.getHigh());
+        assertEquals(388.975, (double) barMessage.getLow());
+        assertEquals(389.12, (double) barMessage.getClose());
+        assertEquals(49378L, (long) barMessage.getVolume());
+    }
+
+    /**
+     * Tests {@link MarketDataMessageDecoder#decode(String, MarketDataListener)} with control messages and a
+     * message whose <code>"T"</code> element is not first.
+     */
+    @Test
+    public void testDecode_controlAndOutOfOrderType() {
+        String frame = "[" +
+                "{\"T\":\"error\",\"code\":402,\"msg\":\"auth failed\"}," +
+                "{\"T\":\"subscription\",\"trades\":[\"AAPL\"],\"quotes\":[],\"bars\":[\"*\"]}," +
+                "{\"S\":\"TSLA\",\"p\":700.5,\"T\":\"t\",\"unknown\":{\"nested\":[1,2]}}" +
+                "]";
+
+        List<MarketDataMessage> messages = new ArrayList<>();
+        new MarketDataMessageDecoder().decode(frame, (messageType, message) -> messages.add(message));
+
+        assertEquals(3, messages.size());
+
+        ErrorMessage errorMessage = (ErrorMessage) messages.get(0);
+        assertEquals(402, (int) errorMessage.getCode());
+        assertEquals("auth failed", errorMessage.getMessage());
+
+        SubscriptionsMessage subscriptionsMessage = (SubscriptionsMessage) messages.get(1);
+        assertEquals(Arrays.asList("AAPL"), subscriptionsMessage.getTrades());
+        assertTrue(subscriptionsMessage.getQuotes().isEmpty());
+        assertEquals(Arrays.asList("*"), subscriptionsMessage.getBars());
+
+        TradeMessage tradeMessage = (TradeMessage) messages.get(2);
+        assertEquals("TSLA", tradeMessage.getSymbol());
+        assertEquals(700.5, (double) tradeMessage.getPrice());
+    }
+}
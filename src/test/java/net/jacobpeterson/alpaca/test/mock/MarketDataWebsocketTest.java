@@ -0,0 +1,279 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.TimestampedSymbolMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.util.concurrent.WaitStrategy;
+import net.jacobpeterson.alpaca.util.metrics.LatencyHistogramSnapshot;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.ClockSkewEstimator;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.LatencyStage;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.MarketDataLatencyMetrics;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataControlListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.TradeView;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link MarketDataWebsocketTest} tests {@link MarketDataWebsocket} message dispatching without connecting.
+ */
+public class MarketDataWebsocketTest {
+
+    private static final String SUBSCRIPTION_FRAME =
+            "[{\"T\":\"subscription\",\"trades\":[\"AAPL\"],\"quotes\":[\"AMD\"],\"bars\":[]}]";
+    private static final String MARKET_DATA_FRAME = "[" +
+            "{\"T\":\"t\",\"i\":1,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55,\"s\":1,\"t\":\"2021-02-22T15:51:44Z\"}," +
+            "{\"T\":\"q\",\"S\":\"AMD\",\"bp\":87.66,\"bs\":1,\"ap\":87.68,\"as\":4,\"t\":\"2021-02-22T15:51:45Z\"}" +
+            "]";
+
+    /**
+     * Creates a {@link MarketDataWebsocket} that is never connected.
+     *
+     * @return a {@link MarketDataWebsocket}
+     */
+    private static MarketDataWebsocket createMarketDataWebsocket() {
+        return new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX, "key", "secret");
+    }
+
+    /**
+     * Tests that typed listeners only receive their own message type.
+     */
+    @Test
+    public void testTypedListeners() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        List<QuoteMessage> quoteMessages = new ArrayList<>();
+        List<SubscriptionsMessage> subscriptionsMessages = new ArrayList<>();
+        marketDataWebsocket.addTradeListener(tradeMessages::add);
+        marketDataWebsocket.addQuoteListener(quoteMessages::add);
+        marketDataWebsocket.addControlListener(new MarketDataControlListener() {
+            @Override
+            public void onSubscriptions(SubscriptionsMessage subscriptionsMessage) {
+                subscriptionsMessages.add(subscriptionsMessage);
+            }
+        });
+
+        marketDataWebsocket.onMessage(null, SUBSCRIPTION_FRAME);
+        marketDataWebsocket.onMessage(null, MARKET_DATA_FRAME);
+
+        assertEquals(1, subscriptionsMessages.size());
+        assertEquals(1, tradeMessages.size());
+        assertEquals("AAPL", tradeMessages.get(0).getSymbol());
+        assertEquals(1, quoteMessages.size());
+        assertEquals(87.68, (double) quoteMessages.get(0).getAskPrice());
+    }
+
+    /**
+     * Tests that flyweight listeners and typed listeners both receive trades when added together.
+     */
+    @Test
+    public void testFlyweightAndTypedListeners() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+
+        List<String> flyweightSymbols = new ArrayList<>();
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        marketDataWebsocket.addFlyweightListener(new MarketDataFlyweightListener() {
+            @Override
+            public void onTrade(TradeView tradeView) {
+                flyweightSymbols.add(tradeView.getSymbol());
+            }
+        });
+        marketDataWebsocket.addTradeListener(tradeMessages::add);
+
+        marketDataWebsocket.onMessage(null, SUBSCRIPTION_FRAME);
+        marketDataWebsocket.onMessage(null, MARKET_DATA_FRAME);
+
+        assertEquals(1, flyweightSymbols.size());
+        assertEquals(1, tradeMessages.size());
+        assertEquals(flyweightSymbols.get(0), tradeMessages.get(0).getSymbol());
+    }
+
+    /**
+     * Tests that symbol listeners only receive the messages of their symbols.
+     */
+    @Test
+    public void testSymbolListeners() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+
+        List<MarketDataMessage> aaplMessages = new ArrayList<>();
+        List<MarketDataMessage> amdMessages = new ArrayList<>();
+        marketDataWebsocket.addListener(Collections.singletonList("AAPL"),
+                (messageType, message) -> aaplMessages.add(message));
+        marketDataWebsocket.addListener(Collections.singletonList("AMD"),
+                (messageType, message) -> amdMessages.add(message));
+
+        marketDataWebsocket.onMessage(null, SUBSCRIPTION_FRAME);
+        marketDataWebsocket.onMessage(null, MARKET_DATA_FRAME);
+
+        assertEquals(1, aaplMessages.size());
+        assertTrue(aaplMessages.get(0) instanceof TradeMessage);
+        assertEquals(1, amdMessages.size());
+        assertTrue(amdMessages.get(0) instanceof QuoteMessage);
+    }
+
+    /**
+     * Tests that trades, quotes, and bars are skipped over without being decoded if no listener wants their type or
+     * symbol, and that the following messages of the frame are still decoded.
+     */
+    @Test
+    public void testSkipsUnwantedMessages() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+
+        List<MarketDataMessage> amdMessages = new ArrayList<>();
+        marketDataWebsocket.addListener(Collections.singletonList("AMD"),
+                (messageType, message) -> amdMessages.add(message));
+
+        marketDataWebsocket.onMessage(null, SUBSCRIPTION_FRAME);
+        marketDataWebsocket.onMessage(null, "[" +
+                "{\"T\":\"t\",\"i\":1,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55,\"c\":[\"@\"]}," +
+                "{\"T\":\"q\",\"S\":\"AMD\",\"bp\":87.66,\"ap\":87.68,\"t\":\"2021-02-22T15:51:45Z\"}," +
+                "{\"T\":\"b\",\"S\":\"AMD\",\"o\":87.6,\"c\":87.7}" +
+                "]");
+
+        // The trade's symbol has no listener and bars aren't subscribed
+        assertEquals(1, amdMessages.size());
+        assertEquals(87.68, (double) ((QuoteMessage) amdMessages.get(0)).getAskPrice());
+        assertEquals(2, marketDataWebsocket.getSkippedMessageCount());
+
+        // A trade listener wants every trade
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        marketDataWebsocket.addTradeListener(tradeMessages::add);
+        marketDataWebsocket.onMessage(null, MARKET_DATA_FRAME);
+
+        assertEquals(1, tradeMessages.size());
+        assertEquals(2, amdMessages.size());
+        assertEquals(2, marketDataWebsocket.getSkippedMessageCount());
+    }
+
+    /**
+     * Tests that listeners are called from a consumer thread, in order, when ring buffer dispatching is enabled.
+     */
+    @Test
+    public void testRingBufferDispatch() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+        marketDataWebsocket.enableRingBufferDispatch(8, 1, WaitStrategy.PARK);
+
+        List<String> symbols = new ArrayList<>();
+        List<Thread> listenerThreads = new ArrayList<>();
+        marketDataWebsocket.addListener((messageType, message) -> {
+            listenerThreads.add(Thread.currentThread());
+            symbols.add(((TimestampedSymbolMessage) message).getSymbol());
+        });
+
+        marketDataWebsocket.onMessage(null, SUBSCRIPTION_FRAME);
+        marketDataWebsocket.onMessage(null, MARKET_DATA_FRAME);
+        assertEquals(3, marketDataWebsocket.getDispatchRingBuffers().get(0).getPublishedCount());
+        marketDataWebsocket.disableRingBufferDispatch();
+
+        assertTrue(marketDataWebsocket.getDispatchRingBuffers().isEmpty());
+        assertEquals(Arrays.asList("AAPL", "AMD"), symbols);
+        assertFalse(listenerThreads.contains(Thread.currentThread()));
+
+        // Dispatching can't be changed while the reader thread may be publishing
+        MarketDataWebsocket connectedWebsocket = new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX, "key",
+                "secret") {
+            {
+                connected = true;
+            }
+        };
+        assertThrows(IllegalStateException.class, connectedWebsocket::disableRingBufferDispatch);
+    }
+
+    /**
+     * Tests that sharded dispatching keeps the messages of each symbol in order on a single thread.
+     */
+    @Test
+    public void testShardedDispatch() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+        marketDataWebsocket.enableShardedDispatch(4, 16, WaitStrategy.YIELD);
+
+        Map<String, List<Long>> tradeIDsOfSymbols = new ConcurrentHashMap<>();
+        Map<String, Set<Thread>> threadsOfSymbols = new ConcurrentHashMap<>();
+        AtomicInteger unsymbolledTradeCount = new AtomicInteger();
+        marketDataWebsocket.addTradeListener(tradeMessage -> {
+            if (tradeMessage.getSymbol() == null) {
+                unsymbolledTradeCount.incrementAndGet();
+                return;
+            }
+            tradeIDsOfSymbols.computeIfAbsent(tradeMessage.getSymbol(), symbol -> new ArrayList<>())
+                    .add(tradeMessage.getTradeID());
+            threadsOfSymbols.computeIfAbsent(tradeMessage.getSymbol(), symbol -> ConcurrentHashMap.newKeySet())
+                    .add(Thread.currentThread());
+        });
+
+        List<String> symbols = Arrays.asList("AAPL", "AMD", "SPY", "TSLA", "MSFT", "QQQ");
+        marketDataWebsocket.onMessage(null, "[{\"T\":\"subscription\",\"trades\":[\"*\"]}]");
+        for (int tradeID = 0; tradeID < 1000; tradeID++) {
+            String symbol = symbols.get(tradeID % symbols.size());
+            marketDataWebsocket.onMessage(null, "[{\"T\":\"t\",\"i\":" + tradeID + ",\"S\":\"" + symbol +
+                    "\",\"p\":1.0,\"s\":1,\"t\":\"2021-02-22T15:51:44Z\"}]");
+        }
+        // A trade without a symbol is dispatched to a valid shard
+        marketDataWebsocket.onMessage(null,
+                "[{\"T\":\"t\",\"i\":1000,\"p\":1.0,\"s\":1,\"t\":\"2021-02-22T15:51:44Z\"}]");
+        assertEquals(4, marketDataWebsocket.getDispatchRingBuffers().size());
+        marketDataWebsocket.disableRingBufferDispatch();
+        assertEquals(1, unsymbolledTradeCount.get());
+
+        assertEquals(symbols.size(), tradeIDsOfSymbols.size());
+        for (String symbol : symbols) {
+            List<Long> tradeIDs = tradeIDsOfSymbols.get(symbol);
+            assertTrue(tradeIDs.size() > 100);
+            for (int index = 1; index < tradeIDs.size(); index++) {
+                assertTrue(tradeIDs.get(index - 1) < tradeIDs.get(index));
+            }
+            assertEquals(1, threadsOfSymbols.get(symbol).size());
+        }
+    }
+
+    /**
+     * Tests that feed, decode, and dispatch latencies are recorded with the {@link MarketDataLatencyMetrics} clock.
+     */
+    @Test
+    public void testLatencyMetrics() {
+        MarketDataWebsocket marketDataWebsocket = createMarketDataWebsocket();
+
+        // Each clock read advances the clock by 1 microsecond
+        AtomicLong epochNanos = new AtomicLong(EpochNanosUtil.parseRFC3339("2021-02-22T15:51:44.005Z"));
+        MarketDataLatencyMetrics latencyMetrics = new MarketDataLatencyMetrics(() -> epochNanos.addAndGet(1000),
+                new ClockSkewEstimator());
+        marketDataWebsocket.setLatencyMetrics(latencyMetrics);
+        marketDataWebsocket.addTradeListener(tradeMessage -> {});
+        // Quotes are only decoded, and their latencies recorded, if they're listened to
+        marketDataWebsocket.addQuoteListener(quoteMessage -> {});
+
+        marketDataWebsocket.onMessage(null, SUBSCRIPTION_FRAME);
+        marketDataWebsocket.onMessage(null, MARKET_DATA_FRAME);
+
+        LatencyHistogramSnapshot feedSnapshot = latencyMetrics.snapshot(LatencyStage.FEED,
+                MarketDataMessageType.TRADE);
+        assertEquals(1, feedSnapshot.getCount());
+        assertEquals(5_004_000, feedSnapshot.getMax());
+        assertEquals(1000, latencyMetrics.snapshot(LatencyStage.DECODE, MarketDataMessageType.TRADE).getMax());
+        assertEquals(1000, latencyMetrics.snapshot(LatencyStage.DISPATCH, MarketDataMessageType.TRADE).getMax());
+        assertEquals(1, latencyMetrics.snapshot(LatencyStage.DECODE, MarketDataMessageType.SUBSCRIPTION).getCount());
+
+        // The quote is timestamped after it was received, so the local clock is behind and its latency is corrected
+        assertEquals(-994_996_000, latencyMetrics.getClockSkewEstimator().getEstimateNanos());
+        assertEquals(0, latencyMetrics.snapshot(LatencyStage.FEED, MarketDataMessageType.QUOTE).getMax());
+    }
+}
@@ -0,0 +1,338 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.MarketDataMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.bar.BarMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.ErrorMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.control.SubscriptionsMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.enums.MarketDataMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.util.time.EpochNanosUtil;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataListener;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataMessageFilter;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataMessageDecoder;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.MessagePackMarketDataDecoder;
+import net.jacobpeterson.alpaca.websocket.marketdata.flyweight.MarketDataFlyweightListener;
+import okhttp3.OkHttpClient;
+import okio.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link MessagePackMarketDataDecoderTest} tests {@link MessagePackMarketDataDecoder} and the MessagePack mode of
+ * {@link MarketDataWebsocket}.
+ */
+public class MessagePackMarketDataDecoderTest {
+
+    private static final String JSON_FRAME = "[" +
+            "{\"T\":\"t\",\"i\":96921,\"S\":\"AAPL\",\"x\":\"D\",\"p\":126.55,\"s\":1," +
+            "\"t\":\"2021-02-22T15:51:44.208Z\",\"c\":[\"@\",\"I\"],\"z\":\"C\"}," +
+            "{\"T\":\"q\",\"S\":\"AMD\",\"bx\":\"U\",\"bp\":87.66,\"bs\":1,\"ax\":\"Q\",\"ap\":87.68,\"as\":4," +
+            "\"t\":\"2021-02-22T15:51:45.335689322Z\",\"c\":[\"R\"],\"z\":\"C\"}," +
+            "{\"T\":\"b\",\"S\":\"SPY\",\"o\":388.985,\"h\":389.13,\"l\":388.975,\"c\":389.12,\"v\":49378," +
+            "\"t\":\"2021-02-22T19:15:00Z\"}" +
+            "]";
+
+    /**
+     * {@link MessagePackWriter} writes the few MessagePack formats that these tests need.
+     */
+    private static class MessagePackWriter {
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        private MessagePackWriter array(int size) {
+            output.write(0x90 | size);
+            return this;
+        }
+
+        private MessagePackWriter map(int size) {
+            output.write(0x80 | size);
+            return this;
+        }
+
+        private MessagePackWriter string(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.write(0xa0 | bytes.length);
+            output.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        private MessagePackWriter integer(long value) {
+            if (value >= 0 && value < 128) {
+                output.write((int) value);
+            } else if (value >= 0 && value <= 0xffff) {
+                output.write(0xcd);
+                bytes(value, 2);
+            } else {
+                output.write(0xd3);
+                bytes(value, 8);
+            }
+            return this;
+        }
+
+        private MessagePackWriter float64(double value) {
+            output.write(0xcb);
+            return bytes(Double.doubleToLongBits(value), 8);
+        }
+
+        private MessagePackWriter float32(float value) {
+            output.write(0xca);
+            return bytes(Float.floatToIntBits(value), 4);
+        }
+
+        private MessagePackWriter nil() {
+            output.write(0xc0);
+            return this;
+        }
+
+        /**
+         * Writes a 64-bit timestamp extension, or a 96-bit one if <code>wide</code>.
+         */
+        private MessagePackWriter timestamp(String rfc3339, boolean wide) {
+            long epochNanos = EpochNanosUtil.parseRFC3339(rfc3339);
+            long seconds = Math.floorDiv(epochNanos, 1_000_000_000L);
+            long nanos = Math.floorMod(epochNanos, 1_000_000_000L);
+            if (wide) {
+                output.write(0xc7);
+                output.write(12);
+                output.write(0xff);
+                bytes(nanos, 4);
+                return bytes(seconds, 8);
+            }
+            output.write(0xd7);
+            output.write(0xff);
+            return bytes(nanos << 34 | seconds, 8);
+        }
+
+        private MessagePackWriter bytes(long value, int count) {
+            for (int shift = (count - 1) * 8; shift >= 0; shift -= 8) {
+                output.write((int) (value >>> shift));
+            }
+            return this;
+        }
+
+        private byte[] toByteArray() {
+            return output.toByteArray();
+        }
+    }
+
+    /**
+     * Writes the MessagePack equivalent of {@link #JSON_FRAME}.
+     *
+     * @return the frame bytes
+     */
+    private static byte[] createMessagePackFrame() {
+        return new MessagePackWriter()
+                .array(3)
+                .map(9)
+                .string("T").string("t")
+                .string("i").integer(96921)
+                .string("S").string("AAPL")
+                .string("x").string("D")
+                .string("p").float64(126.55)
+                .string("s").integer(1)
+                .string("t").timestamp("2021-02-22T15:51:44.208Z", false)
+                .string("c").array(2).string("@").string("I")
+                .string("z").string("C")
+                .map(11)
+                .string("T").string("q")
+                .string("S").string("AMD")
+                .string("bx").string("U")
+                .string("bp").float64(87.66)
+                .string("bs").integer(1)
+                .string("ax").string("Q")
+                .string("ap").float64(87.68)
+                .string("as").integer(4)
+                .string("t").timestamp("2021-02-22T15:51:45.335689322Z", true)
+                .string("c").array(1).string("R")
+                .string("z").string("C")
+                .map(8)
+                .string("T").string("b")
+                .string("S").string("SPY")
+                .string("o").float64(388.985)
+                .string("h").float64(389.13)
+                .string("l").float64(388.975)
+                .string("c").float64(389.12)
+                .string("v").integer(49378)
+                .string("t").string("2021-02-22T19:15:00Z")
+                .toByteArray();
+    }
+
+    private static List<MarketDataMessage> decodeJSON(String frame) {
+        List<MarketDataMessage> messages = new ArrayList<>();
+        new MarketDataMessageDecoder().decode(frame, (messageType, message) -> messages.add(message));
+        return messages;
+    }
+
+    /**
+     * Tests that {@link MessagePackMarketDataDecoder#decode(byte[], MarketDataListener)} decodes trades, quotes, and
+     * bars into the same {@link MarketDataMessage}s as {@link MarketDataMessageDecoder} decodes their JSON into.
+     */
+    @Test
+    public void testDecode_matchesJSON() {
+        List<MarketDataMessageType> messageTypes = new ArrayList<>();
+        List<MarketDataMessage> messages = new ArrayList<>();
+        new MessagePackMarketDataDecoder().decode(createMessagePackFrame(), (messageType, message) -> {
+            messageTypes.add(messageType);
+            messages.add(message);
+        });
+        List<MarketDataMessage> jsonMessages = decodeJSON(JSON_FRAME);
+
+        assertEquals(Arrays.asList(MarketDataMessageType.TRADE, MarketDataMessageType.QUOTE,
+                MarketDataMessageType.BAR), messageTypes);
+
+        TradeMessage tradeMessage = (TradeMessage) messages.get(0);
+        TradeMessage jsonTradeMessage = (TradeMessage) jsonMessages.get(0);
+        assertEquals(jsonTradeMessage.getSymbol(), tradeMessage.getSymbol());
+        assertEquals(jsonTradeMessage.getSymbolID(), tradeMessage.getSymbolID());
+        assertEquals(jsonTradeMessage.getTradeID(), tradeMessage.getTradeID());
+        assertEquals(jsonTradeMessage.getExchange(), tradeMessage.getExchange());
+        assertEquals(jsonTradeMessage.getPrice(), tradeMessage.getPrice());
+        assertEquals(jsonTradeMessage.getSize(), tradeMessage.getSize());
+        assertEquals(jsonTradeMessage.getTimestampEpochNanos(), tradeMessage.getTimestampEpochNanos());
+        assertEquals(jsonTradeMessage.getConditions(), tradeMessage.getConditions());
+        assertEquals(jsonTradeMessage.getTape(), tradeMessage.getTape());
+
+        QuoteMessage quoteMessage = (QuoteMessage) messages.get(1);
+        QuoteMessage jsonQuoteMessage = (QuoteMessage) jsonMessages.get(1);
+        assertEquals(jsonQuoteMessage.getSymbol(), quoteMessage.getSymbol());
+        assertEquals(jsonQuoteMessage.getBidExchangeCode(), quoteMessage.getBidExchangeCode());
+        assertEquals(jsonQuoteMessage.getBidPrice(), quoteMessage.getBidPrice());
+        assertEquals(jsonQuoteMessage.getBidSize(), quoteMessage.getBidSize());
+        assertEquals(jsonQuoteMessage.getAskExchangeCode(), quoteMessage.getAskExchangeCode());
+        assertEquals(jsonQuoteMessage.getAskPrice(), quoteMessage.getAskPrice());
+        assertEquals(jsonQuoteMessage.getAskSize(), quoteMessage.getAskSize());
+        assertEquals(jsonQuoteMessage.getTimestampEpochNanos(), quoteMessage.getTimestampEpochNanos());
+        assertEquals(jsonQuoteMessage.getConditions(), quoteMessage.getConditions());
+
+        BarMessage barMessage = (BarMessage) messages.get(2);
+        BarMessage jsonBarMessage = (BarMessage) jsonMessages.get(2);
+        assertEquals(jsonBarMessage.getSymbol(), barMessage.getSymbol());
+        assertEquals(jsonBarMessage.getOpen(), barMessage.getOpen());
+        assertEquals(jsonBarMessage.getHigh(), barMessage.getHigh());
+        assertEquals(jsonBarMessage.getLow(), barMessage.getLow());
+        assertEquals(jsonBarMessage.getClose(), barMessage.getClose());
+        assertEquals(jsonBarMessage.getVolume(), barMessage.getVolume());
+        assertEquals(jsonBarMessage.getTimestampEpochNanos(), barMessage.getTimestampEpochNanos());
+    }
+
+    /**
+     * Tests that messages rejected by a {@link MarketDataMessageFilter} by type or symbol are skipped over.
+     */
+    @Test
+    public void testDecode_filter() {
+        MarketDataMessageFilter messageFilter = new MarketDataMessageFilter() {
+            @Override
+            public boolean acceptsType(MarketDataMessageType marketDataMessageType) {
+                return marketDataMessageType != MarketDataMessageType.TRADE;
+            }
+
+            @Override
+            public boolean acceptsSymbol(MarketDataMessageType marketDataMessageType, int symbolID) {
+                return !SymbolTable.GLOBAL.symbol(symbolID).equals("SPY");
+            }
+        };
+
+        List<MarketDataMessage> messages = new ArrayList<>();
+        new MessagePackMarketDataDecoder().decode(ByteBuffer.wrap(createMessagePackFrame()), messageFilter,
+                (messageType, message) -> messages.add(message));
+
+        assertEquals(1, messages.size());
+        assertEquals("AMD", ((QuoteMessage) messages.get(0)).getSymbol());
+    }
+
+    /**
+     * Tests control messages, a message whose <code>"T"</code> key is not first, skipped unknown values, a trade
+     * ID that doesn't fit in an <code>int</code>, and a truncated frame.
+     */
+    @Test
+    public void testDecode_controlAndOutOfOrderType() {
+        byte[] frame = new MessagePackWriter()
+                .array(3)
+                .map(2)
+                .string("msg").string("auth failed")
+                .string("T").string("error")
+                .map(4)
+                .string("T").string("subscription")
+                .string("trades").array(1).string("AAPL")
+                .string("quotes").array(0)
+                .string("bars").array(1).string("*")
+                .map(6)
+                .string("S").string("TSLA")
+                .string("unknown").map(1).string("nested").array(2).integer(1).nil()
+                .string("i").integer(Integer.MAX_VALUE + 1L)
+                .string("p").float32(700.5f)
+                .string("c").nil()
+                .string("T").string("t")
+                .toByteArray();
+
+        List<MarketDataMessage> messages = new ArrayList<>();
+        MessagePackMarketDataDecoder messagePackMarketDataDecoder = new MessagePackMarketDataDecoder();
+        messagePackMarketDataDecoder.decode(frame, (messageType, message) -> messages.add(message));
+
+        assertEquals(3, messages.size());
+
+        ErrorMessage errorMessage = (ErrorMessage) messages.get(0);
+        assertEquals(MarketDataMessageType.ERROR, errorMessage.getMessageType());
+        assertEquals("auth failed", errorMessage.getMessage());
+
+        SubscriptionsMessage subscriptionsMessage = (SubscriptionsMessage) messages.get(1);
+        assertEquals(Arrays.asList("AAPL"), subscriptionsMessage.getTrades());
+        assertTrue(subscriptionsMessage.getQuotes().isEmpty());
+        assertEquals(Arrays.asList("*"), subscriptionsMessage.getBars());
+
+        TradeMessage tradeMessage = (TradeMessage) messages.get(2);
+        assertEquals("TSLA", tradeMessage.getSymbol());
+        assertEquals(Integer.MAX_VALUE + 1L, (long) tradeMessage.getTradeID());
+        assertEquals(700.5, (double) tradeMessage.getPrice());
+        assertNull(tradeMessage.getConditions());
+
+        assertThrows(IllegalArgumentException.class, () -> messagePackMarketDataDecoder.decode(
+                Arrays.copyOf(frame, frame.length - 3), (messageType, message) -> {}));
+    }
+
+    /**
+     * Tests that a {@link MarketDataWebsocket} in MessagePack mode dispatches binary frames and refuses flyweight
+     * listeners.
+     */
+    @Test
+    public void testWebsocketBinaryFrames() {
+        MarketDataWebsocket marketDataWebsocket = new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX,
+                "key", "secret");
+        marketDataWebsocket.setMessagePackEnabled(true);
+        assertTrue(marketDataWebsocket.isMessagePackEnabled());
+        assertThrows(IllegalStateException.class, () -> marketDataWebsocket.addFlyweightListener(
+                new MarketDataFlyweightListener() {}));
+
+        List<TradeMessage> tradeMessages = new ArrayList<>();
+        List<BarMessage> barMessages = new ArrayList<>();
+        marketDataWebsocket.addTradeListener(tradeMessages::add);
+        marketDataWebsocket.addBarListener(barMessages::add);
+
+        marketDataWebsocket.onMessage(null, ByteString.of(new MessagePackWriter()
+                .array(1)
+                .map(3)
+                .string("T").string("subscription")
+                .string("trades").array(1).string("AAPL")
+                .string("bars").array(1).string("SPY")
+                .toByteArray()));
+        marketDataWebsocket.onMessage(null, ByteString.of(createMessagePackFrame()));
+
+        assertEquals(1, tradeMessages.size());
+        assertEquals("AAPL", tradeMessages.get(0).getSymbol());
+        assertEquals(1, barMessages.size());
+        assertEquals(49378L, (long) barMessages.get(0).getVolume());
+        assertEquals(2, marketDataWebsocket.getReceivedFrameCount());
+    }
+}
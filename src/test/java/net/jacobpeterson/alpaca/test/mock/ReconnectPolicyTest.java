@@ -0,0 +1,80 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.websocket.AlpacaWebsocket;
+import net.jacobpeterson.alpaca.websocket.connection.ReconnectPolicy;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ReconnectPolicyTest} tests {@link ReconnectPolicy}.
+ */
+public class ReconnectPolicyTest {
+
+    /**
+     * Tests that the delay ceiling grows exponentially up to its cap and that delays are jittered below it.
+     */
+    @Test
+    public void testExponentialBackoffWithJitter() {
+        ReconnectPolicy reconnectPolicy = new ReconnectPolicy(100, 1_000, 2, 6);
+        long[] expectedCeilings = {100, 200, 400, 800, 1_000, 1_000};
+        for (int attempt = 1; attempt <= expectedCeilings.length; attempt++) {
+            assertEquals(expectedCeilings[attempt - 1], reconnectPolicy.getDelayCeilingMillis(attempt));
+        }
+        assertEquals(1_000, reconnectPolicy.getDelayCeilingMillis(Integer.MAX_VALUE));
+
+        long minDelayMillis = Long.MAX_VALUE;
+        long maxDelayMillis = Long.MIN_VALUE;
+        for (int index = 0; index < 10_000; index++) {
+            long delayMillis = reconnectPolicy.getDelayMillis(4);
+            minDelayMillis = Math.min(minDelayMillis, delayMillis);
+            maxDelayMillis = Math.max(maxDelayMillis, delayMillis);
+        }
+        assertTrue(minDelayMillis >= 0 && minDelayMillis < 80, "Minimum delay: " + minDelayMillis);
+        assertTrue(maxDelayMillis <= 800 && maxDelayMillis > 720, "Maximum delay: " + maxDelayMillis);
+
+        assertTrue(reconnectPolicy.shouldAttempt(5));
+        assertFalse(reconnectPolicy.shouldAttempt(6));
+    }
+
+    /**
+     * Tests that a fixed {@link ReconnectPolicy} always waits its full delay.
+     */
+    @Test
+    public void testFixed() {
+        ReconnectPolicy reconnectPolicy = ReconnectPolicy.fixed(250, 3);
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            assertEquals(250, reconnectPolicy.getDelayMillis(attempt));
+        }
+        assertFalse(reconnectPolicy.shouldAttempt(3));
+        assertThrows(IllegalArgumentException.class, () -> new ReconnectPolicy(100, 50, 2, 1));
+    }
+
+    /**
+     * Tests that the deprecated reconnection constants still configure the {@link ReconnectPolicy} of new websockets.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedReconnectConstants() {
+        assertSame(ReconnectPolicy.DEFAULT, new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX, "key",
+                "secret").getReconnectPolicy());
+
+        int maxReconnectAttempts = AlpacaWebsocket.MAX_RECONNECT_ATTEMPTS;
+        int reconnectSleepInterval = AlpacaWebsocket.RECONNECT_SLEEP_INTERVAL;
+        try {
+            AlpacaWebsocket.MAX_RECONNECT_ATTEMPTS = 3;
+            AlpacaWebsocket.RECONNECT_SLEEP_INTERVAL = 250;
+            ReconnectPolicy reconnectPolicy = new MarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX, "key",
+                    "secret").getReconnectPolicy();
+            assertEquals(3, reconnectPolicy.getMaxAttempts());
+            assertEquals(250, reconnectPolicy.getDelayMillis(1));
+            assertEquals(250, reconnectPolicy.getDelayMillis(3));
+        } finally {
+            AlpacaWebsocket.MAX_RECONNECT_ATTEMPTS = maxReconnectAttempts;
+            AlpacaWebsocket.RECONNECT_SLEEP_INTERVAL = reconnectSleepInterval;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okio.ByteString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * {@link RecordingWebSocket} is a {@link WebSocket} that records sent text frames, closes, and cancellations instead of
+ * sending anything.
+ */
+class RecordingWebSocket implements WebSocket {
+
+    final List<String> sentFrames = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch cancelLatch = new CountDownLatch(1);
+    volatile boolean closed;
+
+    @Override
+    public Request request() {
+        return null;
+    }
+
+    @Override
+    public long queueSize() {
+        return 0;
+    }
+
+    @Override
+    public boolean send(String text) {
+        sentFrames.add(text);
+        return true;
+    }
+
+    @Override
+    public boolean send(ByteString bytes) {
+        return true;
+    }
+
+    @Override
+    public boolean close(int code, String reason) {
+        closed = true;
+        return true;
+    }
+
+    @Override
+    public void cancel() {
+        cancelLatch.countDown();
+    }
+
+    /**
+     * Returns true if {@link #cancel()} was called.
+     *
+     * @return a boolean
+     */
+    boolean isCancelled() {
+        return cancelLatch.getCount() == 0;
+    }
+}
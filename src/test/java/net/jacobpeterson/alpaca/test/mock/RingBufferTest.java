@@ -0,0 +1,81 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.util.concurrent.RingBuffer;
+import net.jacobpeterson.alpaca.util.concurrent.RingBufferDispatcher;
+import net.jacobpeterson.alpaca.util.concurrent.WaitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link RingBufferTest} tests {@link RingBuffer} and {@link RingBufferDispatcher}.
+ */
+public class RingBufferTest {
+
+    /**
+     * {@link LongEntry} is a mutable {@link RingBuffer} entry.
+     */
+    private static class LongEntry {
+
+        private long value;
+    }
+
+    /**
+     * Tests claiming, publishing, and polling on a single thread along with the queue depth metrics.
+     */
+    @Test
+    public void testClaimPublishPoll() {
+        RingBuffer<LongEntry> ringBuffer = new RingBuffer<>(4, LongEntry::new, WaitStrategy.BUSY_SPIN);
+        List<Long> values = new ArrayList<>();
+
+        assertFalse(ringBuffer.poll(entry -> values.add(entry.value)));
+        for (long value = 0; value < 4; value++) {
+            ringBuffer.claim().value = value;
+            ringBuffer.publish();
+        }
+        assertNull(ringBuffer.tryClaim());
+        assertEquals(4, ringBuffer.getDepth());
+        assertTrue(ringBuffer.getLagNanos() > 0);
+
+        assertTrue(ringBuffer.poll(entry -> values.add(entry.value)));
+        assertNotNull(ringBuffer.tryClaim());
+        ringBuffer.claim().value = 4;
+        ringBuffer.publish();
+        while (ringBuffer.poll(entry -> values.add(entry.value))) {}
+
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L), values);
+        assertEquals(0, ringBuffer.getDepth());
+        assertEquals(0, ringBuffer.getLagNanos());
+        assertEquals(4, ringBuffer.getMaxDepth());
+        assertEquals(5, ringBuffer.getPublishedCount());
+    }
+
+    /**
+     * Tests that every published entry is handled exactly once by multiple consumer threads.
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    @Test
+    public void testDispatcher() throws InterruptedException {
+        RingBuffer<LongEntry> ringBuffer = new RingBuffer<>(64, LongEntry::new, WaitStrategy.YIELD);
+        AtomicLong sum = new AtomicLong();
+        RingBufferDispatcher<LongEntry> ringBufferDispatcher = new RingBufferDispatcher<>(ringBuffer,
+                entry -> sum.addAndGet(entry.value), 3, "Test Dispatch");
+        ringBufferDispatcher.start();
+
+        int count = 100_000;
+        for (long value = 1; value <= count; value++) {
+            ringBuffer.claim().value = value;
+            ringBuffer.publish();
+        }
+        ringBufferDispatcher.stop();
+
+        assertEquals((long) count * (count + 1) / 2, sum.get());
+        assertEquals(0, ringBuffer.getDepth());
+    }
+}
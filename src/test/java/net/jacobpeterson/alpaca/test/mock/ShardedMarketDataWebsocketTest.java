@@ -0,0 +1,174 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.trade.TradeMessage;
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.websocket.journal.FrameJournal;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.ShardedMarketDataWebsocket;
+import net.jacobpeterson.alpaca.websocket.marketdata.latency.MarketDataLatencyMetrics;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link ShardedMarketDataWebsocketTest} tests {@link ShardedMarketDataWebsocket} without connecting.
+ */
+public class ShardedMarketDataWebsocketTest {
+
+    private static final int CONNECTION_COUNT = 4;
+
+    /**
+     * Creates a {@link ShardedMarketDataWebsocket} that is never connected.
+     *
+     * @param connectionCount the number of connections
+     *
+     * @return a {@link ShardedMarketDataWebsocket}
+     */
+    private static ShardedMarketDataWebsocket createShardedMarketDataWebsocket(int connectionCount) {
+        return new ShardedMarketDataWebsocket(new OkHttpClient(), DataAPIType.IEX, "key", "secret", connectionCount);
+    }
+
+    /**
+     * Sends a trade frame to the shard of <code>symbol</code>.
+     *
+     * @param shardedWebsocket the {@link ShardedMarketDataWebsocket}
+     * @param symbol           the symbol
+     */
+    private static void sendTrade(ShardedMarketDataWebsocket shardedWebsocket, String symbol) {
+        MarketDataWebsocket shard = shardedWebsocket.getShards().get(shardedWebsocket.shardOf(symbol));
+        shard.onMessage(null, "[{\"T\":\"t\",\"i\":1,\"S\":\"" + symbol + "\",\"p\":1.5,\"s\":1," +
+                "\"t\":\"2021-02-22T15:51:44Z\"}]");
+    }
+
+    /**
+     * Tests that symbols are spread over every shard and that adding a shard only moves symbols to the new shard.
+     */
+    @Test
+    public void testShardOf() {
+        ShardedMarketDataWebsocket shardedWebsocket = createShardedMarketDataWebsocket(CONNECTION_COUNT);
+        ShardedMarketDataWebsocket grownShardedWebsocket = createShardedMarketDataWebsocket(CONNECTION_COUNT + 1);
+
+        int[] symbolCounts = new int[CONNECTION_COUNT];
+        int movedSymbolCount = 0;
+        for (int index = 0; index < 10_000; index++) {
+            String symbol = "SYM" + index;
+            int shard = shardedWebsocket.shardOf(symbol);
+            assertEquals(shard, shardedWebsocket.shardOf(symbol));
+            symbolCounts[shard]++;
+
+            int grownShard = grownShardedWebsocket.shardOf(symbol);
+            if (grownShard != shard) {
+                assertEquals(CONNECTION_COUNT, grownShard);
+                movedSymbolCount++;
+            }
+        }
+
+        for (int symbolCount : symbolCounts) {
+            assertTrue(symbolCount > 2_000, "Unbalanced shards: " + Arrays.toString(symbolCounts));
+        }
+        assertTrue(movedSymbolCount > 1_000 && movedSymbolCount < 3_000, "Moved symbols: " + movedSymbolCount);
+        assertEquals(0, shardedWebsocket.shardOf("*"));
+    }
+
+    /**
+     * Tests that listeners receive the messages of every shard and that subscriptions are merged.
+     */
+    @Test
+    public void testMergedListenersAndSubscriptions() {
+        ShardedMarketDataWebsocket shardedWebsocket = createShardedMarketDataWebsocket(CONNECTION_COUNT);
+        List<String> tradeSymbols = new ArrayList<>();
+        shardedWebsocket.addTradeListener(tradeMessage -> tradeSymbols.add(tradeMessage.getSymbol()));
+
+        List<String> symbols = Arrays.asList("AAPL", "AMD", "MSFT", "TSLA", "SPY", "QQQ", "IWM", "NVDA");
+        // A subscription message lists every symbol of its connection
+        for (int index = 0; index < CONNECTION_COUNT; index++) {
+            List<String> shardSymbols = new ArrayList<>();
+            for (String symbol : symbols) {
+                if (shardedWebsocket.shardOf(symbol) == index) {
+                    shardSymbols.add("\"" + symbol + "\"");
+                }
+            }
+            shardedWebsocket.getShards().get(index).onMessage(null,
+                    "[{\"T\":\"subscription\",\"trades\":" + shardSymbols + ",\"quotes\":[],\"bars\":[]}]");
+        }
+        for (String symbol : symbols) {
+            sendTrade(shardedWebsocket, symbol);
+        }
+
+        assertEquals(symbols, tradeSymbols);
+        assertEquals(new HashSet<>(symbols), new HashSet<>(shardedWebsocket.subscribedTrades()));
+        assertTrue(shardedWebsocket.subscribedQuotes().isEmpty());
+
+        // A symbol-filtered listener only receives the messages of its symbols
+        List<TradeMessage> filteredTradeMessages = new ArrayList<>();
+        Set<String> filteredSymbols = new HashSet<>(Arrays.asList("AMD", "NVDA"));
+        shardedWebsocket.addListener(filteredSymbols, (messageType, message) -> {
+            if (message instanceof TradeMessage) {
+                filteredTradeMessages.add((TradeMessage) message);
+            }
+        });
+        for (String symbol : symbols) {
+            sendTrade(shardedWebsocket, symbol);
+        }
+        assertEquals(2, filteredTradeMessages.size());
+        for (TradeMessage tradeMessage : filteredTradeMessages) {
+            assertTrue(filteredSymbols.contains(tradeMessage.getSymbol()));
+        }
+    }
+
+    /**
+     * Tests that {@link ShardedMarketDataWebsocket#setLatencyMetrics(MarketDataLatencyMetrics)} and {@link
+     * ShardedMarketDataWebsocket#setFrameJournal(FrameJournal)} apply to every shard.
+     *
+     * @throws IOException thrown for {@link IOException}s
+     */
+    @Test
+    public void testLatencyMetricsAndFrameJournal() throws IOException {
+        ShardedMarketDataWebsocket shardedWebsocket = createShardedMarketDataWebsocket(CONNECTION_COUNT);
+
+        MarketDataLatencyMetrics latencyMetrics = new MarketDataLatencyMetrics();
+        shardedWebsocket.setLatencyMetrics(latencyMetrics);
+        assertSame(latencyMetrics, shardedWebsocket.getLatencyMetrics());
+        for (MarketDataWebsocket shard : shardedWebsocket.getShards()) {
+            assertSame(latencyMetrics, shard.getLatencyMetrics());
+        }
+
+        Path directory = Files.createTempDirectory("sharded-frame-journal");
+        try (FrameJournal frameJournal = new FrameJournal(directory, "market-data")) {
+            shardedWebsocket.setFrameJournal(frameJournal);
+            assertSame(frameJournal, shardedWebsocket.getFrameJournal());
+
+            // Every other shard records to its own sibling journal in the same directory
+            List<MarketDataWebsocket> shards = shardedWebsocket.getShards();
+            assertSame(frameJournal, shards.get(0).getFrameJournal());
+            Set<String> names = new HashSet<>();
+            for (int shard = 1; shard < CONNECTION_COUNT; shard++) {
+                FrameJournal siblingFrameJournal = shards.get(shard).getFrameJournal();
+                assertEquals("market-data-" + (shard + 1), siblingFrameJournal.getName());
+                assertEquals(directory, siblingFrameJournal.getDirectory());
+                names.add(siblingFrameJournal.getName());
+            }
+            assertEquals(CONNECTION_COUNT - 1, names.size());
+
+            // Removing the journal closes the sibling journals, which then drop appended frames
+            FrameJournal siblingFrameJournal = shards.get(1).getFrameJournal();
+            shardedWebsocket.setFrameJournal(null);
+            assertNull(shardedWebsocket.getFrameJournal());
+            for (MarketDataWebsocket shard : shards) {
+                assertNull(shard.getFrameJournal());
+            }
+            assertFalse(siblingFrameJournal.append("[]"));
+            assertTrue(frameJournal.append("[]"));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.order.Order;
+import net.jacobpeterson.alpaca.model.endpoint.order.enums.OrderSide;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.StreamingMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.authorization.AuthorizationMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.enums.StreamingMessageType;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.listening.ListeningMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.TradeUpdate;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.TradeUpdateMessage;
+import net.jacobpeterson.alpaca.model.endpoint.streaming.trade.enums.TradeUpdateEvent;
+import net.jacobpeterson.alpaca.util.io.UTF8ByteBufferReader;
+import net.jacobpeterson.alpaca.websocket.streaming.StreamingMessageDecoder;
+import net.jacobpeterson.alpaca.websocket.streaming.StreamingWebsocket;
+import okhttp3.OkHttpClient;
+import okio.ByteString;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link StreamingMessageDecoderTest} tests {@link StreamingMessageDecoder}, {@link UTF8ByteBufferReader}, and the
+ * decoding of {@link StreamingWebsocket} binary frames.
+ */
+public class StreamingMessageDecoderTest {
+
+    private static final String TRADE_UPDATE_FRAME = "{\"stream\":\"trade_updates\",\"data\":{\"event\":\"fill\"," +
+            "\"price\":\"179.08\",\"timestamp\":\"2021-02-22T15:51:44.208123456-05:00\",\"position_qty\":\"100\"," +
+            "\"order\":{\"id\":\"7b7653c4-7468-494a-aeb3-d5f255789473\",\"client_order_id\":\"hedge-€-1\"," +
+            "\"created_at\":\"2021-02-22T15:51:44.100Z\",\"filled_at\":\"2021-02-22T20:51:44.208123456Z\"," +
+            "\"symbol\":\"AAPL\",\"qty\":\"100\",\"filled_qty\":\"100\",\"filled_avg_price\":\"179.08\"," +
+            "\"side\":\"buy\",\"extended_hours\":false,\"legs\":null,\"unknown\":{\"nested\":[1,2]}}}}";
+
+    /**
+     * Tests that a trade update frame decodes into the same {@link TradeUpdateMessage} as the {@link
+     * com.google.gson.JsonElement} tree path.
+     */
+    @Test
+    public void testDecode_tradeUpdate() {
+        StreamingMessage streamingMessage = new StreamingMessageDecoder().decode(ByteString.encodeUtf8(
+                TRADE_UPDATE_FRAME));
+        TradeUpdateMessage treeMessage = GSON.fromJson(TRADE_UPDATE_FRAME, TradeUpdateMessage.class);
+
+        assertEquals(StreamingMessageType.TRADE_UPDATES, streamingMessage.getStream());
+        TradeUpdate tradeUpdate = ((TradeUpdateMessage) streamingMessage).getData();
+        TradeUpdate treeTradeUpdate = treeMessage.getData();
+        assertEquals(TradeUpdateEvent.FILL, tradeUpdate.getEvent());
+        assertEquals(treeTradeUpdate.getPrice(), tradeUpdate.getPrice());
+        assertEquals(treeTradeUpdate.getTimestamp(), tradeUpdate.getTimestamp());
+        assertEquals(treeTradeUpdate.getPositionQty(), tradeUpdate.getPositionQty());
+
+        Order order = tradeUpdate.getOrder();
+        Order treeOrder = treeTradeUpdate.getOrder();
+        assertEquals(treeOrder.getId(), order.getId());
+        assertEquals("hedge-€-1", order.getClientOrderId());
+        assertEquals(treeOrder.getCreatedAt(), order.getCreatedAt());
+        assertEquals(treeOrder.getFilledAt(), order.getFilledAt());
+        assertEquals("AAPL", order.getSymbol());
+        assertEquals(treeOrder.getFilledAvgPrice(), order.getFilledAvgPrice());
+        assertEquals(OrderSide.BUY, order.getSide());
+        assertEquals(Boolean.FALSE, order.getExtendedHours());
+        assertNull(order.getLegs());
+    }
+
+    /**
+     * Tests control frames, a frame whose <code>"data"</code> element comes first, and malformed frames.
+     */
+    @Test
+    public void testDecode_controlAndOutOfOrderData() {
+        StreamingMessageDecoder streamingMessageDecoder = new StreamingMessageDecoder();
+
+        AuthorizationMessage authorizationMessage = (AuthorizationMessage) streamingMessageDecoder.decode(
+                ByteString.encodeUtf8("{\"stream\":\"authorization\"," +
+                        "\"data\":{\"status\":\"authorized\",\"action\":\"authenticate\"}}"));
+        assertEquals(StreamingMessageType.AUTHORIZATION, authorizationMessage.getStream());
+        assertEquals("authorized", authorizationMessage.getData().getStatus());
+
+        ListeningMessage listeningMessage = (ListeningMessage) streamingMessageDecoder.decode(
+                ByteString.encodeUtf8("{\"data\":{\"streams\":[\"trade_updates\"]},\"stream\":\"listening\"}"));
+        assertEquals(StreamingMessageType.LISTENING, listeningMessage.getStream());
+        assertEquals(Collections.singletonList(StreamingMessageType.TRADE_UPDATES),
+                listeningMessage.getData().getStreams());
+
+        assertThrows(IllegalStateException.class, () -> streamingMessageDecoder.decode(
+                ByteString.encodeUtf8("{\"data\":{}}")));
+        assertThrows(NullPointerException.class, () -> streamingMessageDecoder.decode(
+                ByteString.encodeUtf8("{\"stream\":\"unknown\",\"data\":{}}")));
+    }
+
+    /**
+     * Tests that {@link UTF8ByteBufferReader} decodes like {@link String} does, including surrogate pairs split
+     * across reads and malformed sequences, without changing the position of the {@link ByteBuffer}.
+     */
+    @Test
+    public void testUTF8ByteBufferReader() {
+        byte[] bytes = "a€😀é".getBytes(StandardCharsets.UTF_8);
+        byte[] malformedBytes = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, malformedBytes, 0, bytes.length);
+        malformedBytes[bytes.length] = (byte) 0xff;
+        malformedBytes[bytes.length + 1] = (byte) 0xe2; // Truncated 3-byte sequence
+        malformedBytes[bytes.length + 2] = (byte) 0x82;
+
+        ByteBuffer byteBuffer = ByteBuffer.wrap(malformedBytes);
+        UTF8ByteBufferReader utf8ByteBufferReader = new UTF8ByteBufferReader(byteBuffer);
+        StringBuilder decoded = new StringBuilder();
+        char[] chars = new char[3];
+        int readCount;
+        while ((readCount = utf8ByteBufferReader.read(chars, 0, chars.length)) != -1) {
+            decoded.append(chars, 0, readCount);
+        }
+
+        assertEquals(new String(malformedBytes, StandardCharsets.UTF_8), decoded.toString());
+        assertEquals(0, byteBuffer.position());
+    }
+
+    /**
+     * Tests that {@link StreamingWebsocket} dispatches decoded binary frames to listeners of listened streams.
+     */
+    @Test
+    public void testWebsocketBinaryFrames() {
+        StreamingWebsocket streamingWebsocket = new StreamingWebsocket(new OkHttpClient(), "paper-api", "key",
+                "secret", null);
+        List<StreamingMessage> streamingMessages = new ArrayList<>();
+        streamingWebsocket.addListener((messageType, message) -> streamingMessages.add(message));
+
+        streamingWebsocket.onMessage(null, ByteString.encodeUtf8(TRADE_UPDATE_FRAME));
+        assertTrue(streamingMessages.isEmpty());
+
+        streamingWebsocket.onMessage(null, ByteString.encodeUtf8(
+                "{\"stream\":\"listening\",\"data\":{\"streams\":[\"trade_updates\"]}}"));
+        streamingWebsocket.onMessage(null, ByteString.encodeUtf8(TRADE_UPDATE_FRAME));
+
+        assertEquals(1, streamingMessages.size());
+        assertEquals("AAPL", ((TradeUpdateMessage) streamingMessages.get(0)).getData().getOrder().getSymbol());
+    }
+}
@@ -0,0 +1,188 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import com.google.gson.JsonObject;
+import net.jacobpeterson.alpaca.websocket.marketdata.subscription.SubscriptionException;
+import net.jacobpeterson.alpaca.websocket.marketdata.subscription.SubscriptionManager;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static net.jacobpeterson.alpaca.util.gson.GsonUtil.GSON;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link SubscriptionManagerTest} tests {@link SubscriptionManager} without connecting.
+ */
+public class SubscriptionManagerTest {
+
+    /**
+     * Waits until <code>marketDataWebsocket</code> has sent at least <code>count</code> subscription updates.
+     *
+     * @param marketDataWebsocket the {@link TestMarketDataWebsocket}
+     * @param count               the number of updates to wait for
+     *
+     * @return a {@link List} of the sent updates, each formatted as
+     * <code>"&lt;action&gt; &lt;trades&gt; &lt;quotes&gt; &lt;bars&gt;"</code>
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    private static List<String> awaitUpdates(TestMarketDataWebsocket marketDataWebsocket, int count)
+            throws InterruptedException {
+        long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        List<String> updates = sentUpdates(marketDataWebsocket);
+        while (updates.size() < count && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(5);
+            updates = sentUpdates(marketDataWebsocket);
+        }
+        return updates;
+    }
+
+    private static List<String> sentUpdates(TestMarketDataWebsocket marketDataWebsocket) {
+        List<String> updates = new ArrayList<>();
+        for (String sentFrame : new ArrayList<>(marketDataWebsocket.recordingWebSocket.sentFrames)) {
+            JsonObject updateObject = GSON.fromJson(sentFrame, JsonObject.class);
+            String action = updateObject.get("action").getAsString();
+            if (action.equals("subscribe") || action.equals("unsubscribe")) {
+                updates.add(action + " " + symbols(updateObject, "trades") + " " + symbols(updateObject, "quotes") +
+                        " " + symbols(updateObject, "bars"));
+            }
+        }
+        return updates;
+    }
+
+    private static List<String> symbols(JsonObject updateObject, String key) {
+        List<String> symbols = new ArrayList<>();
+        if (updateObject.has(key)) {
+            updateObject.getAsJsonArray(key).forEach(symbol -> symbols.add(symbol.getAsString()));
+        }
+        return symbols;
+    }
+
+    /**
+     * Tests that coalesced changes are sent in chunks and that their future completes on the subscription message.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    @Test
+    public void testCoalescedChunkedUpdates() throws Exception {
+        ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TestMarketDataWebsocket websocket = new TestMarketDataWebsocket();
+            websocket.openAuthenticated();
+            SubscriptionManager subscriptionManager = new SubscriptionManager(websocket, scheduledExecutorService,
+                    20, 3);
+
+            CompletableFuture<Void> subscribeFuture = subscriptionManager.subscribe(
+                    Arrays.asList("AAPL", "AMD", "MSFT", "TSLA"), null, null);
+            assertSame(subscribeFuture, subscriptionManager.subscribe(null, Collections.singletonList("SPY"), null));
+
+            List<String> updates = awaitUpdates(websocket, 2);
+            assertEquals(2, updates.size());
+            Set<String> sentSymbols = new HashSet<>();
+            for (String update : updates) {
+                assertTrue(update.startsWith("subscribe "));
+                for (String symbol : new String[]{"AAPL", "AMD", "MSFT", "TSLA", "SPY"}) {
+                    if (update.contains(symbol)) {
+                        sentSymbols.add(symbol);
+                    }
+                }
+            }
+            assertEquals(5, sentSymbols.size());
+            assertFalse(subscribeFuture.isDone());
+            assertEquals(1, subscriptionManager.getPendingUpdateCount());
+
+            // A partial acknowledgement doesn't confirm the update
+            websocket.receive("[{\"T\":\"subscription\",\"trades\":[\"AAPL\",\"AMD\",\"MSFT\"]," +
+                    "\"quotes\":[],\"bars\":[]}]");
+            assertFalse(subscribeFuture.isDone());
+            websocket.receive("[{\"T\":\"subscription\",\"trades\":[\"AAPL\",\"AMD\",\"MSFT\",\"TSLA\"]," +
+                    "\"quotes\":[\"SPY\"],\"bars\":[]}]");
+            subscribeFuture.get(1, TimeUnit.SECONDS);
+            assertEquals(0, subscriptionManager.getPendingUpdateCount());
+
+            // Only the difference to the current subscriptions is sent
+            CompletableFuture<Void> setFuture = subscriptionManager.setSubscriptions(
+                    Arrays.asList("AAPL", "AMD"), null, null);
+            updates = awaitUpdates(websocket, 3);
+            assertEquals(3, updates.size());
+            assertTrue(updates.get(2).startsWith("unsubscribe ["));
+            assertTrue(updates.get(2).contains("MSFT") && updates.get(2).contains("TSLA"));
+            assertFalse(updates.get(2).contains("AAPL"));
+
+            websocket.receive("[{\"T\":\"error\",\"code\":405,\"msg\":\"symbol limit exceeded\"}]");
+            ExecutionException executionException = assertThrows(ExecutionException.class,
+                    () -> setFuture.get(1, TimeUnit.SECONDS));
+            assertTrue(executionException.getCause() instanceof SubscriptionException);
+
+            // Nothing is sent if the desired subscriptions already match
+            websocket.receive("[{\"T\":\"subscription\",\"trades\":[\"AAPL\",\"AMD\"]," +
+                    "\"quotes\":[\"SPY\"],\"bars\":[]}]");
+            subscriptionManager.subscribe(Collections.singletonList("AAPL"), null, null).get(1, TimeUnit.SECONDS);
+            assertEquals(3, awaitUpdates(websocket, 0).size());
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that a change that reverts an unacknowledged update is sent and that neither future completes before the
+     * subscription message that confirms it.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    @Test
+    public void testRevertBeforeAcknowledgement() throws Exception {
+        ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TestMarketDataWebsocket websocket = new TestMarketDataWebsocket();
+            websocket.openAuthenticated();
+            SubscriptionManager subscriptionManager = new SubscriptionManager(websocket, scheduledExecutorService,
+                    0, 10);
+
+            CompletableFuture<Void> subscribeFuture = subscriptionManager.subscribe(
+                    Collections.singletonList("AAPL"), null, null);
+            assertEquals(1, awaitUpdates(websocket, 1).size());
+            CompletableFuture<Void> unsubscribeFuture = subscriptionManager.unsubscribe(
+                    Collections.singletonList("AAPL"), null, null);
+
+            List<String> updates = awaitUpdates(websocket, 2);
+            assertEquals(2, updates.size());
+            assertEquals("unsubscribe [AAPL] [] []", updates.get(1));
+            assertFalse(subscribeFuture.isDone());
+            assertFalse(unsubscribeFuture.isDone());
+            assertEquals(2, subscriptionManager.getPendingUpdateCount());
+
+            // A no-op change while updates are pending waits for them
+            CompletableFuture<Void> noOpFuture = subscriptionManager.unsubscribe(
+                    Collections.singletonList("AAPL"), null, null);
+            long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (subscriptionManager.getPendingUpdateCount() < 3 && System.nanoTime() < deadlineNanos) {
+                Thread.sleep(5);
+            }
+            assertEquals(3, subscriptionManager.getPendingUpdateCount());
+            assertFalse(subscribeFuture.isDone());
+            assertFalse(noOpFuture.isDone());
+
+            websocket.receive("[{\"T\":\"subscription\",\"trades\":[\"AAPL\"],\"quotes\":[],\"bars\":[]}]");
+            subscribeFuture.get(1, TimeUnit.SECONDS);
+            assertFalse(unsubscribeFuture.isDone());
+            websocket.receive("[{\"T\":\"subscription\",\"trades\":[],\"quotes\":[],\"bars\":[]}]");
+            unsubscribeFuture.get(1, TimeUnit.SECONDS);
+            noOpFuture.get(1, TimeUnit.SECONDS);
+            assertEquals(0, subscriptionManager.getPendingUpdateCount());
+            assertEquals(2, awaitUpdates(websocket, 0).size());
+        } finally {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolPages;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link SymbolTableTest} tests {@link SymbolTable} and {@link SymbolPages}.
+ */
+public class SymbolTableTest {
+
+    /**
+     * Tests that {@link SymbolTable} assigns dense IDs that survive growing the table.
+     */
+    @Test
+    public void testIntern() {
+        SymbolTable symbolTable = new SymbolTable(2);
+        symbolTable.internAll(Arrays.asList("AAPL", "TSLA", null, "AAPL"));
+        assertEquals(2, symbolTable.size());
+
+        for (int index = 0; index < 100; index++) {
+            assertEquals(index + 2, symbolTable.intern("SYM" + index));
+        }
+
+        assertEquals(0, symbolTable.intern("AAPL"));
+        assertEquals(1, symbolTable.intern("xTSLAx", 1, 5));
+        assertEquals(SymbolTable.NO_ID, symbolTable.find("AMD"));
+        assertEquals("SYM99", symbolTable.symbol(101));
+        assertSame(symbolTable.symbol(0), symbolTable.symbol(symbolTable.intern(new String("AAPL"))));
+        assertThrows(IndexOutOfBoundsException.class, () -> symbolTable.symbol(102));
+    }
+
+    /**
+     * Tests that {@link SymbolPages} creates pages on demand and keeps them when it grows.
+     */
+    @Test
+    public void testSymbolPages() {
+        SymbolPages<AtomicLongArray> symbolPages =
+                new SymbolPages<>(() -> new AtomicLongArray(SymbolPages.PAGE_SIZE), AtomicLongArray[]::new);
+        assertNull(symbolPages.find(0));
+        assertNull(symbolPages.find(SymbolTable.NO_ID));
+
+        AtomicLongArray firstPage = symbolPages.page(SymbolPages.PAGE_SIZE - 1);
+        firstPage.set(SymbolPages.slotOf(SymbolPages.PAGE_SIZE - 1), 42);
+        assertSame(firstPage, symbolPages.find(0));
+        assertNull(symbolPages.find(SymbolPages.PAGE_SIZE));
+
+        // Growing past several pages creates the pages in between and doesn't copy the existing ones
+        int symbolID = SymbolPages.PAGE_SIZE * 3 + 5;
+        AtomicLongArray lastPage = symbolPages.page(symbolID);
+        assertEquals(5, SymbolPages.slotOf(symbolID));
+        assertNotNull(symbolPages.find(SymbolPages.PAGE_SIZE * 2));
+        assertSame(lastPage, symbolPages.find(symbolID));
+        assertSame(firstPage, symbolPages.page(0));
+        assertEquals(42, symbolPages.find(SymbolPages.PAGE_SIZE - 1).get(SymbolPages.PAGE_SIZE - 1));
+        assertThrows(IllegalArgumentException.class, () -> symbolPages.page(SymbolTable.NO_ID));
+    }
+
+    /**
+     * Tests that market data messages resolve their symbol ID in {@link SymbolTable#GLOBAL}.
+     */
+    @Test
+    public void testMessageSymbolID() {
+        QuoteMessage quoteMessage = new QuoteMessage();
+        assertEquals(SymbolTable.NO_ID, quoteMessage.getSymbolID());
+
+        quoteMessage.setSymbol("SYMBOL_TABLE_TEST");
+        int symbolID = quoteMessage.getSymbolID();
+        assertEquals(symbolID, SymbolTable.GLOBAL.find("SYMBOL_TABLE_TEST"));
+
+        quoteMessage.setSymbolID(SymbolTable.GLOBAL.intern("SYMBOL_TABLE_TEST_2"));
+        assertEquals("SYMBOL_TABLE_TEST_2", quoteMessage.getSymbol());
+        assertNotEquals(symbolID, quoteMessage.getSymbolID());
+    }
+}
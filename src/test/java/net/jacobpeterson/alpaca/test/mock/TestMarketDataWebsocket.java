@@ -0,0 +1,57 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.properties.DataAPIType;
+import net.jacobpeterson.alpaca.websocket.marketdata.MarketDataWebsocket;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * {@link TestMarketDataWebsocket} is a {@link MarketDataWebsocket} that never opens a websocket. Tests simulate the
+ * websocket events on it with a {@link RecordingWebSocket}.
+ */
+class TestMarketDataWebsocket extends MarketDataWebsocket {
+
+    static final String AUTHENTICATED_FRAME = "[{\"T\":\"success\",\"msg\":\"authenticated\"}]";
+
+    final RecordingWebSocket recordingWebSocket = new RecordingWebSocket();
+    final CountDownLatch connectLatch = new CountDownLatch(1);
+
+    /**
+     * Instantiates a new {@link TestMarketDataWebsocket}.
+     */
+    TestMarketDataWebsocket() {
+        super(new OkHttpClient(), DataAPIType.IEX, "key", "secret");
+    }
+
+    @Override
+    public void connect() {
+        // Opening is simulated by the test
+        connectLatch.countDown();
+    }
+
+    /**
+     * Simulates the websocket opening, which sends the authentication message.
+     */
+    void open() {
+        // 'onOpen()' must publish the websocket that the authentication message is sent with
+        onOpen(recordingWebSocket, null);
+    }
+
+    /**
+     * Simulates the websocket opening and the authentication succeeding.
+     */
+    void openAuthenticated() {
+        open();
+        receive(AUTHENTICATED_FRAME);
+    }
+
+    /**
+     * Simulates receiving a text frame.
+     *
+     * @param frame the frame
+     */
+    void receive(String frame) {
+        onMessage(recordingWebSocket, frame);
+    }
+}
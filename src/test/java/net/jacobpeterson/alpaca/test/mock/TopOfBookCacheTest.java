@@ -0,0 +1,97 @@
+package net.jacobpeterson.alpaca.test.mock;
+
+import net.jacobpeterson.alpaca.model.endpoint.marketdata.realtime.quote.QuoteMessage;
+import net.jacobpeterson.alpaca.util.symbol.SymbolTable;
+import net.jacobpeterson.alpaca.websocket.marketdata.book.TopOfBook;
+import net.jacobpeterson.alpaca.websocket.marketdata.book.TopOfBookCache;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link TopOfBookCacheTest} tests {@link TopOfBookCache}.
+ */
+public class TopOfBookCacheTest {
+
+    /**
+     * Tests updating from {@link QuoteMessage}s and reading back, and that older quotes are ignored.
+     *
+     * @throws Exception thrown for {@link Exception}s
+     */
+    @Test
+    public void testUpdateAndRead() throws Exception {
+        TopOfBookCache topOfBookCache = new TopOfBookCache();
+
+        QuoteMessage quoteMessage = new QuoteMessage();
+        quoteMessage.setSymbol("AMD");
+        quoteMessage.setBidExchangeCode("U");
+        quoteMessage.setBidPrice(87.66);
+        quoteMessage.setBidSize(1);
+        quoteMessage.setAskExchangeCode("Q");
+        quoteMessage.setAskPrice(87.68);
+        quoteMessage.setAskSize(4);
+        quoteMessage.setTimestampEpochNanos(2000);
+        topOfBookCache.onQuote(quoteMessage);
+
+        QuoteMessage olderQuoteMessage = new QuoteMessage(quoteMessage);
+        olderQuoteMessage.setBidPrice(1.0);
+        olderQuoteMessage.setTimestampEpochNanos(1000);
+        topOfBookCache.onQuote(olderQuoteMessage);
+
+        TopOfBook topOfBook = topOfBookCache.get("AMD");
+        assertEquals("AMD", topOfBook.getSymbol());
+        assertEquals(87.66, topOfBook.getBidPrice());
+        assertEquals(1, topOfBook.getBidSize());
+        assertEquals('U', topOfBook.getBidExchange());
+        assertEquals(87.68, topOfBook.getAskPrice());
+        assertEquals(4, topOfBook.getAskSize());
+        assertEquals('Q', topOfBook.getAskExchange());
+        assertEquals(2000, topOfBook.getTimestampEpochNanos());
+        assertEquals(87.67, topOfBook.getMidPrice(), 1e-9);
+
+        assertNull(topOfBookCache.get("NOT_QUOTED_SYMBOL"));
+        assertFalse(topOfBookCache.read(SymbolTable.GLOBAL.intern("NOT_QUOTED_SYMBOL"), new TopOfBook()));
+
+        // Quotes without a symbol are ignored
+        topOfBookCache.onQuote(new QuoteMessage());
+        assertFalse(topOfBookCache.read(SymbolTable.NO_ID, new TopOfBook()));
+    }
+
+    /**
+     * Tests that a reader never sees a partially written slot while a writer updates it.
+     *
+     * @throws InterruptedException thrown for {@link InterruptedException}s
+     */
+    @Test
+    public void testConsistentReads() throws InterruptedException {
+        TopOfBookCache topOfBookCache = new TopOfBookCache();
+        int symbolID = SymbolTable.GLOBAL.intern("SEQLOCK_TEST");
+        topOfBookCache.update(symbolID, 0, 0, 'A', 0, 0, 'A', 0);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicLong inconsistentReads = new AtomicLong();
+        Thread readerThread = new Thread(() -> {
+            TopOfBook topOfBook = new TopOfBook();
+            while (writing.get()) {
+                topOfBookCache.read(symbolID, topOfBook);
+                if (topOfBook.getBidPrice() != topOfBook.getAskPrice() ||
+                        topOfBook.getBidSize() != topOfBook.getAskSize() ||
+                        (long) topOfBook.getBidPrice() != topOfBook.getTimestampEpochNanos()) {
+                    inconsistentReads.incrementAndGet();
+                }
+            }
+        });
+        readerThread.start();
+
+        for (int value = 1; value <= 1_000_000; value++) {
+            topOfBookCache.update(symbolID, value, value, 'B', value, value, 'B', value);
+        }
+        writing.set(false);
+        readerThread.join();
+
+        assertEquals(0, inconsistentReads.get());
+    }
+}